@@ -0,0 +1,210 @@
+package se.yolean.quarkus.parquet.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.parquet.bytes.ByteBufferInputStream;
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.column.values.rle.RunLengthBitPackingHybridDecoder;
+import org.apache.parquet.column.values.rle.RunLengthBitPackingHybridEncoder;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.batch.ColumnBatch;
+import se.yolean.quarkus.parquet.runtime.batch.ColumnBatchReader;
+import se.yolean.quarkus.parquet.runtime.decode.HybridDecoder;
+import se.yolean.quarkus.parquet.runtime.decode.VectorDecoding;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
+/**
+ * Values per second of a dictionary-encoded int column, decoded from its ids and looked up in its
+ * dictionary, for dictionaries of 4, 10 and 17 bit ids. {@code parquet} decodes an id per call as
+ * {@code ColumnReader} does; {@code batches} decodes 4096 at a time through {@link HybridDecoder}, with the
+ * vector packers when {@code vector} is true and they are supported. Otherwise a warning at setup tells
+ * why, and both settings measure the scalar packers.
+ * <p>
+ * {@code columnReader} and {@code columnBatches} read the same values, one row in ten null, from a file:
+ * the former through Parquet's {@link ColumnReader}, as {@link ColumnBatchReader} used to, and the latter
+ * through {@link ColumnBatchReader}, which decodes ids and definition levels with {@link HybridDecoder}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class DecodeBenchmark {
+
+    static final int VALUES = 1_000_000;
+    static final int BATCH = 4096;
+    static final MessageType SCHEMA = MessageTypeParser.parseMessageType("message Row { optional int32 code; }");
+
+    @Param({ "16", "1024", "100000" })
+    public int cardinality;
+
+    @Param({ "false", "true" })
+    public boolean vector;
+
+    private Path file;
+    private int bitWidth;
+    private int[] dictionary;
+    private ByteBuffer ids;
+    private final int[] batch = new int[BATCH];
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        VectorDecoding.install(vector);
+        bitWidth = 32 - Integer.numberOfLeadingZeros(cardinality - 1);
+        Random random = new Random(42);
+        dictionary = random.ints(cardinality).toArray();
+        try (RunLengthBitPackingHybridEncoder encoder = new RunLengthBitPackingHybridEncoder(bitWidth, 64 * 1024,
+                4 * 1024 * 1024, new HeapByteBufferAllocator())) {
+            for (int i = 0; i < VALUES; i++) {
+                // a run of a repeated value now and then, as sorted or clustered data has
+                encoder.writeInt(i % 1000 < 50 ? (i / 1000) % cardinality : random.nextInt(cardinality));
+            }
+            ids = ByteBuffer.wrap(encoder.toBytes().toByteArray());
+        }
+        file = Files.createTempFile("quarkus-parquet-benchmark", ".parquet");
+        Files.delete(file);
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withDictionaryPageSize(1024 * 1024)
+                .build()) {
+            for (int i = 0; i < VALUES; i++) {
+                Group group = groups.newGroup();
+                if (i % 10 != 0) {
+                    group.append("code", dictionary[random.nextInt(cardinality)]);
+                }
+                writer.write(group);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        VectorDecoding.install(false);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long parquet() throws IOException {
+        RunLengthBitPackingHybridDecoder decoder = new RunLengthBitPackingHybridDecoder(bitWidth,
+                ByteBufferInputStream.wrap(ids.duplicate()));
+        long sum = 0;
+        for (int i = 0; i < VALUES; i++) {
+            sum += dictionary[decoder.readInt()];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long batches() {
+        HybridDecoder decoder = new HybridDecoder(bitWidth, ids.duplicate());
+        long sum = 0;
+        for (int read = 0; read < VALUES; read += BATCH) {
+            int count = Math.min(BATCH, VALUES - read);
+            decoder.read(batch, 0, count);
+            for (int i = 0; i < count; i++) {
+                sum += dictionary[batch[i]];
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long columnReader() throws IOException {
+        long sum = 0;
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            ColumnDescriptor column = SCHEMA.getColumns().get(0);
+            String createdBy = reader.getFooter().getFileMetaData().getCreatedBy();
+            for (PageReadStore rowGroup = reader.readNextRowGroup(); rowGroup != null; rowGroup = reader.readNextRowGroup()) {
+                ColumnReader values = new ColumnReadStoreImpl(rowGroup, new Ignored(), SCHEMA, createdBy)
+                        .getColumnReader(column);
+                for (long row = 0; row < rowGroup.getRowCount(); row++) {
+                    if (values.getCurrentDefinitionLevel() == column.getMaxDefinitionLevel()) {
+                        sum += values.getInteger();
+                    }
+                    values.consume();
+                }
+                rowGroup.close();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long columnBatches() throws IOException {
+        long sum = 0;
+        try (ColumnBatchReader reader = ColumnBatchReader.open(new NioInputFile(file), List.of("code"), BATCH)) {
+            for (ColumnBatch batch = reader.next(); batch != null; batch = reader.next()) {
+                int[] values = batch.ints(0).values();
+                for (int row = 0; row < batch.size(); row++) {
+                    sum += values[row];
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The converters {@link ColumnReadStoreImpl} needs, which are never called as values are read from the
+     * {@link ColumnReader}.
+     */
+    private static final class Ignored extends GroupConverter {
+
+        private final PrimitiveConverter code = new PrimitiveConverter() {
+        };
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return code;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package se.yolean.quarkus.parquet.benchmarks;
+
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.GroupWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+
+/**
+ * Writes groups of a fixed schema, which {@code GroupWriteSupport} would read from the configuration.
+ */
+final class GroupSupport extends WriteSupport<Group> {
+
+    private final MessageType schema;
+    private GroupWriter writer;
+
+    GroupSupport(MessageType schema) {
+        this.schema = schema;
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+        return init((ParquetConfiguration) null);
+    }
+
+    @Override
+    public WriteContext init(ParquetConfiguration configuration) {
+        return new WriteContext(schema, Map.of());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+        writer = new GroupWriter(recordConsumer, schema);
+    }
+
+    @Override
+    public void write(Group record) {
+        writer.write(record);
+    }
+}
@@ -0,0 +1,18 @@
+package se.yolean.quarkus.parquet.benchmarks;
+
+import io.quarkus.runtime.QuarkusApplication;
+import io.quarkus.runtime.annotations.QuarkusMain;
+
+/**
+ * Runs {@link WorkloadHarness} as the Quarkus application that {@code mvn package -Dnative} builds into
+ * {@code target/*-runner}.
+ */
+@QuarkusMain
+public class NativeHarness implements QuarkusApplication {
+
+    @Override
+    public int run(String... args) throws Exception {
+        WorkloadHarness.run(args, System.out);
+        return 0;
+    }
+}
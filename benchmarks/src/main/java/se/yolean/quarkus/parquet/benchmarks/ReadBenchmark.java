@@ -0,0 +1,88 @@
+package se.yolean.quarkus.parquet.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rows read per second, as groups and as column batches, of all columns or of one, through each
+ * {@link Workloads.Backend}. The {@code bytes} counter is the rate of whole files read, so projections
+ * are compared against the same size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadBenchmark {
+
+    static final int ROWS = 1_000_000;
+
+    @Param({ "UNCOMPRESSED", "SNAPPY", "ZSTD" })
+    public CompressionCodecName codec;
+
+    @Param({ "STREAM", "VECTORED", "MAPPED" })
+    public Workloads.Backend backend;
+
+    @Param({ "ALL", "VALUE" })
+    public Workloads.Projection projection;
+
+    private Path file;
+    private long size;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("quarkus-parquet-benchmark", ".parquet");
+        size = Workloads.write(file, Workloads.rows(ROWS), codec, Workloads.Encoding.DEFAULT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double groups(Read read) throws IOException {
+        read.bytes += size;
+        return Workloads.readRows(file, backend, projection);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double batches(Read read) throws IOException {
+        read.bytes += size;
+        return Workloads.readBatches(file, backend, projection, 4096);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Read {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
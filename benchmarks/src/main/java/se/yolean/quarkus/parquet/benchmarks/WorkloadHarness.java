@@ -0,0 +1,137 @@
+package se.yolean.quarkus.parquet.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+/**
+ * Measures the workloads of {@link WriteBenchmark} and {@link ReadBenchmark} without JMH, which cannot
+ * run in a native image. {@link NativeHarness} runs it as a native binary; {@code java -cp
+ * target/benchmarks.jar} this class runs it on the JVM, for numbers from the same loop.
+ * <p>
+ * Each workload is run {@code --warmup} times, then {@code --iterations} times, and the median rate is
+ * printed as a tab separated line of workload, parameters, rows/s and MB/s of file.
+ */
+public final class WorkloadHarness {
+
+    private static final List<CompressionCodecName> WRITE_CODECS = List.of(CompressionCodecName.UNCOMPRESSED,
+            CompressionCodecName.SNAPPY, CompressionCodecName.ZSTD, CompressionCodecName.LZ4_RAW, CompressionCodecName.GZIP);
+    private static final List<CompressionCodecName> READ_CODECS = List.of(CompressionCodecName.UNCOMPRESSED,
+            CompressionCodecName.SNAPPY, CompressionCodecName.ZSTD);
+
+    private final int rows;
+    private final int warmup;
+    private final int iterations;
+    private final PrintStream out;
+    private double checksum;
+
+    WorkloadHarness(int rows, int warmup, int iterations, PrintStream out) {
+        this.rows = rows;
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        run(args, System.out);
+    }
+
+    /**
+     * @param args {@code --rows}, {@code --warmup} and {@code --iterations}, each followed by a count
+     */
+    static void run(String[] args, PrintStream out) throws IOException {
+        int rows = 200_000;
+        int warmup = 3;
+        int iterations = 5;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing count after " + args[i]);
+            }
+            int count = Integer.parseInt(args[i + 1]);
+            switch (args[i]) {
+                case "--rows" -> rows = count;
+                case "--warmup" -> warmup = count;
+                case "--iterations" -> iterations = count;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (rows < 1 || warmup < 0 || iterations < 1) {
+            throw new IllegalArgumentException("Rows and iterations must be positive: " + String.join(" ", args));
+        }
+        new WorkloadHarness(rows, warmup, iterations, out).runAll();
+    }
+
+    void runAll() throws IOException {
+        List<Group> data = Workloads.rows(rows);
+        Path directory = Files.createTempDirectory("quarkus-parquet-harness");
+        Path file = directory.resolve("readings.parquet");
+        try {
+            out.println("workload\tparameters\trows/s\tMB/s");
+            for (CompressionCodecName codec : WRITE_CODECS) {
+                for (Workloads.Encoding encoding : Workloads.Encoding.values()) {
+                    measure("write", codec + " " + encoding, () -> Workloads.write(file, data, codec, encoding));
+                }
+            }
+            for (CompressionCodecName codec : READ_CODECS) {
+                long size = Workloads.write(file, data, codec, Workloads.Encoding.DEFAULT);
+                for (Workloads.Backend backend : Workloads.Backend.values()) {
+                    for (Workloads.Projection projection : Workloads.Projection.values()) {
+                        String parameters = codec + " " + backend + " " + projection;
+                        measure("groups", parameters, () -> {
+                            checksum += Workloads.readRows(file, backend, projection);
+                            return size;
+                        });
+                        measure("batches", parameters, () -> {
+                            checksum += Workloads.readBatches(file, backend, projection, 4096);
+                            return size;
+                        });
+                    }
+                }
+            }
+            out.println("# checksum " + checksum);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private void measure(String workload, String parameters, Workload run) throws IOException {
+        for (int i = 0; i < warmup; i++) {
+            run.run();
+        }
+        double[] rowRates = new double[iterations];
+        double[] byteRates = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            long bytes = run.run();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            rowRates[i] = rows / seconds;
+            byteRates[i] = bytes / seconds / (1024 * 1024);
+        }
+        out.println(String.format(Locale.ROOT, "%s\t%s\t%.0f\t%.1f", workload, parameters, median(rowRates),
+                median(byteRates)));
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+
+        /**
+         * @return the file bytes written or read
+         */
+        long run() throws IOException;
+    }
+}
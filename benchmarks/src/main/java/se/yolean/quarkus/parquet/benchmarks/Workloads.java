@@ -0,0 +1,200 @@
+package se.yolean.quarkus.parquet.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.batch.BinaryVector;
+import se.yolean.quarkus.parquet.runtime.batch.ColumnBatch;
+import se.yolean.quarkus.parquet.runtime.batch.ColumnBatchReader;
+import se.yolean.quarkus.parquet.runtime.batch.ColumnVector;
+import se.yolean.quarkus.parquet.runtime.batch.DoubleVector;
+import se.yolean.quarkus.parquet.runtime.batch.LongVector;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+import se.yolean.quarkus.parquet.runtime.io.MappedInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+import se.yolean.quarkus.parquet.runtime.query.QueryReader;
+import se.yolean.quarkus.parquet.runtime.write.AdaptiveEncodingWriter;
+
+/**
+ * The workloads measured by the JMH benchmarks and by {@link WorkloadHarness}, so JVM and native
+ * numbers are of the same code. Rows are sensor readings, generated from a fixed seed.
+ * <p>
+ * Reads return a checksum of the values read, which keeps them from being optimized away.
+ */
+public final class Workloads {
+
+    public static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Reading {
+              required int64 time (TIMESTAMP(MILLIS,true));
+              required binary sensor (STRING);
+              required binary path (STRING);
+              required double value;
+            }
+            """);
+
+    public enum Encoding {
+        /** Dictionary encoding with Parquet's fallbacks. */
+        DEFAULT,
+        PLAIN,
+        /** Chosen per column by {@link AdaptiveEncodingWriter}. */
+        ADAPTIVE
+    }
+
+    public enum Backend {
+        /** {@link NioInputFile}, one buffered read per column chunk. */
+        STREAM,
+        /** {@link NioInputFile}, with the column chunks of a row group read as coalesced vectored reads. */
+        VECTORED,
+        /** {@link MappedInputFile}. */
+        MAPPED
+    }
+
+    public enum Projection {
+        ALL(List.of("time", "sensor", "path", "value")),
+        VALUE(List.of("value"));
+
+        final List<String> columns;
+
+        Projection(List<String> columns) {
+            this.columns = columns;
+        }
+    }
+
+    private Workloads() {
+    }
+
+    public static List<Group> rows(int count) {
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        Random random = new Random(42);
+        List<Group> rows = new ArrayList<>(count);
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            time += random.nextInt(10);
+            rows.add(groups.newGroup()
+                    .append("time", time)
+                    .append("sensor", "sensor-" + random.nextInt(64))
+                    .append("path", String.format("/site-%02d/line-%03d/reading", i % 16, i / 1_000 % 1_000))
+                    .append("value", 20 + random.nextGaussian()));
+        }
+        return rows;
+    }
+
+    /**
+     * @return the size of the file written
+     */
+    public static long write(Path file, List<Group> rows, CompressionCodecName codec, Encoding encoding) throws IOException {
+        Files.deleteIfExists(file);
+        OutputFile output = new NioOutputFile(file);
+        if (encoding == Encoding.ADAPTIVE) {
+            try (AdaptiveEncodingWriter<Group> writer = AdaptiveEncodingWriter
+                    .builder(output, out -> writer(out, codec), new GroupSupport(SCHEMA)).build()) {
+                for (Group row : rows) {
+                    writer.write(row);
+                }
+            }
+        } else {
+            ExampleParquetWriter.Builder builder = writer(output, codec);
+            if (encoding == Encoding.PLAIN) {
+                builder.withDictionaryEncoding(false);
+            }
+            try (ParquetWriter<Group> writer = builder.build()) {
+                for (Group row : rows) {
+                    writer.write(row);
+                }
+            }
+        }
+        return Files.size(file);
+    }
+
+    /**
+     * Reads the projected columns row by row, as {@link Group}s.
+     */
+    public static double readRows(Path file, Backend backend, Projection projection) throws IOException {
+        InputFile input = input(file, backend);
+        double checksum = 0;
+        try (QueryReader<Group> reader = ParquetQuery.all().columns(projection.columns)
+                .withOptions(options(backend))
+                .open(input)) {
+            for (Group row = reader.read(); row != null; row = reader.read()) {
+                checksum += row.getDouble("value", 0);
+                if (projection == Projection.ALL) {
+                    checksum += row.getLong("time", 0) + row.getBinary("sensor", 0).length() + row.getBinary("path", 0).length();
+                }
+            }
+        } finally {
+            close(input);
+        }
+        return checksum;
+    }
+
+    /**
+     * Reads the projected columns a batch of vectors at a time.
+     */
+    public static double readBatches(Path file, Backend backend, Projection projection, int batchSize) throws IOException {
+        InputFile input = input(file, backend);
+        double checksum = 0;
+        try (ColumnBatchReader reader = new ColumnBatchReader(MetadataCache.shared().open(input, options(backend)),
+                projection.columns, batchSize)) {
+            for (ColumnBatch batch = reader.next(); batch != null; batch = reader.next()) {
+                for (int column = 0; column < batch.columnCount(); column++) {
+                    checksum += checksum(batch.column(column), batch.size());
+                }
+            }
+        } finally {
+            close(input);
+        }
+        return checksum;
+    }
+
+    private static double checksum(ColumnVector vector, int size) {
+        double checksum = 0;
+        for (int row = 0; row < size; row++) {
+            if (vector instanceof DoubleVector doubles) {
+                checksum += doubles.get(row);
+            } else if (vector instanceof LongVector longs) {
+                checksum += longs.get(row);
+            } else if (vector instanceof BinaryVector binaries) {
+                checksum += binaries.get(row).length();
+            }
+        }
+        return checksum;
+    }
+
+    private static ExampleParquetWriter.Builder writer(OutputFile file, CompressionCodecName codec) {
+        return ParquetDefaults.configure(ExampleParquetWriter.builder(file))
+                .withType(SCHEMA)
+                .withCompressionCodec(codec);
+    }
+
+    private static InputFile input(Path file, Backend backend) throws IOException {
+        return backend == Backend.MAPPED ? MappedInputFile.open(file) : new NioInputFile(file);
+    }
+
+    private static ParquetReadOptions options(Backend backend) {
+        return ParquetDefaults.readOptions().useVectoredIo(backend != Backend.STREAM).build();
+    }
+
+    private static void close(InputFile input) {
+        if (input instanceof MappedInputFile mapped) {
+            mapped.close();
+        }
+    }
+}
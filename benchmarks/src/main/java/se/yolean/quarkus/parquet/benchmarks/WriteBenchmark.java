@@ -0,0 +1,80 @@
+package se.yolean.quarkus.parquet.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rows written per second for each codec and encoding. The {@code bytes} counter is the rate of file
+ * bytes written.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteBenchmark {
+
+    static final int ROWS = 100_000;
+
+    @Param({ "UNCOMPRESSED", "SNAPPY", "ZSTD", "LZ4_RAW", "GZIP" })
+    public CompressionCodecName codec;
+
+    @Param({ "DEFAULT", "PLAIN", "ADAPTIVE" })
+    public Workloads.Encoding encoding;
+
+    private List<Group> rows;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        rows = Workloads.rows(ROWS);
+        file = Files.createTempFile("quarkus-parquet-benchmark", ".parquet");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long write(Written written) throws IOException {
+        long size = Workloads.write(file, rows, codec, encoding);
+        written.bytes += size;
+        return size;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Written {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
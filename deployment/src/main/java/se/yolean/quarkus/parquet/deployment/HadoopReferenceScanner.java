@@ -0,0 +1,138 @@
+package se.yolean.quarkus.parquet.deployment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Finds application code that loads Hadoop classes, either directly or through Parquet APIs that
+ * fall back to Hadoop's {@code Configuration} and codecs.
+ */
+final class HadoopReferenceScanner {
+
+    private static final String HADOOP_PACKAGE = "org/apache/hadoop/";
+
+    private static final Set<String> HADOOP_BOUND_CLASSES = Set.of(
+            "org/apache/parquet/HadoopReadOptions",
+            "org/apache/parquet/conf/HadoopParquetConfiguration",
+            "org/apache/parquet/hadoop/CodecFactory",
+            "org/apache/parquet/hadoop/ParquetReader",
+            "org/apache/parquet/hadoop/ParquetReader$Builder",
+            "org/apache/parquet/hadoop/util/HadoopInputFile",
+            "org/apache/parquet/hadoop/util/HadoopOutputFile",
+            "org/apache/parquet/hadoop/util/HadoopCodecs");
+
+    private HadoopReferenceScanner() {
+    }
+
+    /**
+     * @return one {@code class#method -> referenced member} line per offending call site
+     */
+    static List<String> scan(Iterable<String> classNames, ClassLoader classLoader) {
+        Set<String> references = new TreeSet<>();
+        for (String className : classNames) {
+            try (InputStream in = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+                if (in != null) {
+                    new ClassReader(in).accept(new ReferenceCollector(className, references), ClassReader.SKIP_DEBUG);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read " + className, e);
+            }
+        }
+        return new ArrayList<>(references);
+    }
+
+    static boolean isHadoopBound(String owner, String name, String descriptor) {
+        if (owner.startsWith(HADOOP_PACKAGE) || HADOOP_BOUND_CLASSES.contains(owner) || descriptor.contains("L" + HADOOP_PACKAGE)) {
+            return true;
+        }
+        if (owner.equals("org/apache/parquet/ParquetReadOptions")) {
+            // both builder() variants read defaults through ParquetInputFormat
+            return name.equals("builder");
+        }
+        if (owner.equals("org/apache/parquet/ParquetReadOptions$Builder")) {
+            return name.equals("<init>");
+        }
+        if (owner.equals("org/apache/parquet/hadoop/ParquetFileReader")) {
+            // open(InputFile) builds its read options with ParquetReadOptions.builder()
+            return name.equals("open") && descriptor.startsWith("(Lorg/apache/parquet/io/InputFile;)");
+        }
+        return false;
+    }
+
+    private static final class ReferenceCollector extends ClassVisitor {
+
+        private final String className;
+        private final Set<String> references;
+
+        ReferenceCollector(String className, Set<String> references) {
+            super(Opcodes.ASM9);
+            this.className = className;
+            this.references = references;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String methodName, String methodDescriptor, String signature,
+                String[] exceptions) {
+            String location = className + "#" + methodName;
+            if (methodDescriptor.contains("L" + HADOOP_PACKAGE)) {
+                references.add(location + " declares Hadoop types in " + methodDescriptor);
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+
+                @Override
+                public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+                    check(owner, name, descriptor);
+                }
+
+                @Override
+                public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+                    check(owner, name, descriptor);
+                }
+
+                @Override
+                public void visitTypeInsn(int opcode, String type) {
+                    check(type, "", "");
+                }
+
+                @Override
+                public void visitLdcInsn(Object value) {
+                    checkConstant(value);
+                }
+
+                @Override
+                public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethod,
+                        Object... bootstrapArguments) {
+                    for (Object argument : bootstrapArguments) {
+                        checkConstant(argument);
+                    }
+                }
+
+                private void checkConstant(Object value) {
+                    if (value instanceof Type && ((Type) value).getSort() == Type.OBJECT) {
+                        check(((Type) value).getInternalName(), "", "");
+                    } else if (value instanceof Handle) {
+                        Handle handle = (Handle) value;
+                        check(handle.getOwner(), handle.getName(), handle.getDesc());
+                    }
+                }
+
+                private void check(String owner, String name, String descriptor) {
+                    if (isHadoopBound(owner, name, descriptor)) {
+                        references.add(location + " -> " + owner.replace('/', '.') + (name.isEmpty() ? "" : "#" + name));
+                    }
+                }
+            };
+        }
+    }
+}
@@ -1,7 +1,49 @@
 package se.yolean.quarkus.parquet.deployment;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationTarget;
+import org.jboss.jandex.IndexView;
+
+import io.quarkus.arc.deployment.AdditionalBeanBuildItem;
+import io.quarkus.arc.deployment.ValidationPhaseBuildItem;
+import io.quarkus.arc.deployment.ValidationPhaseBuildItem.ValidationErrorBuildItem;
+import io.quarkus.bootstrap.classloading.QuarkusClassLoader;
+import io.quarkus.deployment.Capabilities;
+import io.quarkus.deployment.Capability;
+import io.quarkus.deployment.GeneratedClassGizmoAdaptor;
+import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
+import io.quarkus.deployment.annotations.ExecutionTime;
+import io.quarkus.deployment.annotations.Record;
+import io.quarkus.deployment.builditem.ApplicationIndexBuildItem;
+import io.quarkus.deployment.builditem.CombinedIndexBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
+import io.quarkus.deployment.builditem.GeneratedClassBuildItem;
+import io.quarkus.deployment.builditem.nativeimage.ReflectiveFieldBuildItem;
+import io.quarkus.deployment.builditem.nativeimage.ReflectiveMethodBuildItem;
+import io.quarkus.deployment.builditem.nativeimage.RuntimeInitializedClassBuildItem;
+import io.quarkus.deployment.metrics.MetricsCapabilityBuildItem;
+import io.quarkus.deployment.pkg.steps.NativeOrNativeSourcesBuild;
+import io.quarkus.deployment.recording.RecorderContext;
+import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.configuration.ConfigurationException;
+import io.quarkus.runtime.metrics.MetricsFactory;
+import se.yolean.quarkus.parquet.runtime.ParquetBuildTimeConfig;
+import se.yolean.quarkus.parquet.runtime.cache.CacheProducer;
+import se.yolean.quarkus.parquet.runtime.cache.CacheRecorder;
+import se.yolean.quarkus.parquet.runtime.codec.ParquetCodecFactory;
+import se.yolean.quarkus.parquet.runtime.compact.CompactionScheduler;
+import se.yolean.quarkus.parquet.runtime.decode.VectorDecodingRecorder;
+import se.yolean.quarkus.parquet.runtime.metrics.MicrometerMetrics;
+import se.yolean.quarkus.parquet.runtime.metrics.OpenTelemetryTracing;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecordRecorder;
+import se.yolean.quarkus.parquet.runtime.write.WriterMemoryProducer;
+import se.yolean.quarkus.parquet.runtime.write.WriterMemoryRecorder;
 
 class QuarkusParquetProcessor {
 
@@ -11,4 +53,153 @@ class QuarkusParquetProcessor {
     FeatureBuildItem feature() {
         return new FeatureBuildItem(FEATURE);
     }
+
+    @BuildStep
+    void registerUnmapper(BuildProducer<ReflectiveFieldBuildItem> reflectiveFields,
+            BuildProducer<ReflectiveMethodBuildItem> reflectiveMethods) {
+        // MappedInputFile, when asked to unmap eagerly, calls Unsafe#invokeCleaner, looked up reflectively, and
+        // aircompressor reads Unsafe#theUnsafe; neither needs the rest of Unsafe registered
+        reflectiveFields.produce(new ReflectiveFieldBuildItem(getClass().getName(), "sun.misc.Unsafe", "theUnsafe"));
+        reflectiveMethods.produce(new ReflectiveMethodBuildItem(getClass().getName(), "sun.misc.Unsafe", "invokeCleaner",
+                ByteBuffer.class));
+    }
+
+    @BuildStep
+    void registerCodecs(BuildProducer<ReflectiveFieldBuildItem> reflectiveFields,
+            BuildProducer<RuntimeInitializedClassBuildItem> runtimeInitialized) {
+        // aircompressor decompresses direct buffers at the offset of Buffer#address, looked up when its
+        // UnsafeUtil classes initialize; the codec pools are sized to the processors of the running machine
+        // and hold zlib streams
+        reflectiveFields.produce(new ReflectiveFieldBuildItem(getClass().getName(), "java.nio.Buffer", "address"));
+        for (String codec : List.of("lz4", "snappy", "zstd")) {
+            runtimeInitialized.produce(new RuntimeInitializedClassBuildItem("io.airlift.compress." + codec + ".UnsafeUtil"));
+        }
+        runtimeInitialized.produce(new RuntimeInitializedClassBuildItem(ParquetCodecFactory.class.getName()));
+    }
+
+    @BuildStep
+    ReflectiveMethodBuildItem registerVirtualThreadExecutor() {
+        // ParquetExecutors looks up Executors#newVirtualThreadPerTaskExecutor, as the runtime targets Java 17
+        return new ReflectiveMethodBuildItem(getClass().getName(), "java.util.concurrent.Executors",
+                "newVirtualThreadPerTaskExecutor",
+                new Class<?>[0]);
+    }
+
+    @BuildStep
+    AdditionalBeanBuildItem cacheBeans() {
+        return AdditionalBeanBuildItem.unremovableOf(CacheProducer.class);
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void installCaches(CacheRecorder recorder) {
+        recorder.install();
+    }
+
+    @BuildStep
+    void registerWriterAccess(BuildProducer<ReflectiveFieldBuildItem> reflectiveFields) {
+        // ParquetWriterAccess resizes the row groups of writers, sets the encodings of builders and reads the
+        // flushed row groups through their private fields
+        String reason = getClass().getName();
+        reflectiveFields.produce(new ReflectiveFieldBuildItem(reason, "org.apache.parquet.hadoop.ParquetWriter", "writer"));
+        reflectiveFields.produce(new ReflectiveFieldBuildItem(reason, "org.apache.parquet.hadoop.ParquetWriter$Builder",
+                "encodingPropsBuilder"));
+        reflectiveFields.produce(new ReflectiveFieldBuildItem(reason, "org.apache.parquet.hadoop.ParquetFileWriter", "blocks"));
+        for (String field : List.of("lastRowGroupEndPos", "nextRowGroupSize", "recordCountForNextMemCheck", "recordCount",
+                "rowGroupRecordCountThreshold", "parquetFileWriter")) {
+            reflectiveFields.produce(new ReflectiveFieldBuildItem(reason, "org.apache.parquet.hadoop.InternalParquetRecordWriter",
+                    field));
+        }
+    }
+
+    @BuildStep
+    AdditionalBeanBuildItem writerMemoryBeans() {
+        return AdditionalBeanBuildItem.unremovableOf(WriterMemoryProducer.class);
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void installWriterMemory(WriterMemoryRecorder recorder) {
+        recorder.install();
+    }
+
+    @BuildStep
+    void compactionBeans(Capabilities capabilities, BuildProducer<AdditionalBeanBuildItem> beans) {
+        if (capabilities.isPresent(Capability.SCHEDULER)) {
+            beans.produce(AdditionalBeanBuildItem.unremovableOf(CompactionScheduler.class));
+        }
+    }
+
+    @BuildStep
+    void observabilityBeans(ParquetBuildTimeConfig config, Capabilities capabilities,
+            Optional<MetricsCapabilityBuildItem> metrics, BuildProducer<AdditionalBeanBuildItem> beans) {
+        if (config.metrics().enabled()
+                && metrics.map(capability -> capability.metricsSupported(MetricsFactory.MICROMETER)).orElse(false)) {
+            beans.produce(AdditionalBeanBuildItem.unremovableOf(MicrometerMetrics.class));
+        }
+        if (config.tracing().enabled() && capabilities.isPresent(Capability.OPENTELEMETRY_TRACER)) {
+            beans.produce(AdditionalBeanBuildItem.unremovableOf(OpenTelemetryTracing.class));
+        }
+    }
+
+    @BuildStep(onlyIfNot = NativeOrNativeSourcesBuild.class)
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void installVectorDecoding(ParquetBuildTimeConfig config, VectorDecodingRecorder recorder) {
+        // native images do not support the Vector API, so they keep the scalar packers without a warning
+        if (config.vectorDecoding().enabled()) {
+            recorder.install();
+        }
+    }
+
+    @BuildStep
+    void verifyHadoopFree(ParquetBuildTimeConfig config, ApplicationIndexBuildItem applicationIndex,
+            ValidationPhaseBuildItem validationPhase, BuildProducer<ValidationErrorBuildItem> errors) {
+        if (!config.hadoopFree()) {
+            return;
+        }
+        if (QuarkusClassLoader.isClassPresentAtRuntime("org.apache.hadoop.conf.Configuration")) {
+            errors.produce(new ValidationErrorBuildItem(new ConfigurationException(
+                    "quarkus.parquet.hadoop-free is enabled but Hadoop is on the classpath;"
+                            + " exclude org.apache.hadoop:* from se.yolean:quarkus-parquet")));
+        }
+        List<String> references = HadoopReferenceScanner.scan(
+                applicationIndex.getIndex().getKnownClasses().stream().map(c -> c.name().toString()).toList(),
+                Thread.currentThread().getContextClassLoader());
+        if (!references.isEmpty()) {
+            errors.produce(new ValidationErrorBuildItem(new IllegalStateException(
+                    "quarkus.parquet.hadoop-free is enabled but application code reaches Hadoop classes;"
+                            + " use se.yolean.quarkus.parquet.runtime.ParquetDefaults instead:\n\t"
+                            + String.join("\n\t", references))));
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.STATIC_INIT)
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    void generateRecordBindings(CombinedIndexBuildItem combinedIndex, ParquetRecordRecorder recorder,
+            RecorderContext recorderContext, BuildProducer<GeneratedClassBuildItem> generatedClasses) {
+        IndexView index = combinedIndex.getIndex();
+        List<RecordModel> models = new ArrayList<>();
+        List<String> problems = new ArrayList<>();
+        for (AnnotationInstance annotation : index.getAnnotations(RecordModel.PARQUET_RECORD)) {
+            if (annotation.target().kind() == AnnotationTarget.Kind.CLASS) {
+                models.add(RecordModel.of(annotation.target().asClass(), index, problems));
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Unsupported @ParquetRecord members:\n\t" + String.join("\n\t", problems));
+        }
+        GeneratedClassGizmoAdaptor output = new GeneratedClassGizmoAdaptor(generatedClasses, true);
+        for (RecordModel model : models) {
+            Class type = recorderContext.classProxy(model.type.name().toString());
+            String schema = model.schema().toString();
+            RuntimeValue writer = recorderContext.newInstance(RecordWriterGenerator.generate(output, model));
+            if (model.unreadable == null) {
+                recorder.register(type, schema, writer,
+                        recorderContext.newInstance(RecordConverterGenerator.generate(output, model)));
+            } else {
+                recorder.registerWriteOnly(type, schema, writer, model.unreadable);
+            }
+        }
+    }
 }
@@ -0,0 +1,224 @@
+package se.yolean.quarkus.parquet.deployment;
+
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.jboss.jandex.Type;
+
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.ClassCreator;
+import io.quarkus.gizmo.ClassOutput;
+import io.quarkus.gizmo.DescriptorUtils;
+import io.quarkus.gizmo.FieldDescriptor;
+import io.quarkus.gizmo.MethodCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+import se.yolean.quarkus.parquet.deployment.RecordModel.Column;
+import se.yolean.quarkus.parquet.deployment.RecordModel.Kind;
+import se.yolean.quarkus.parquet.runtime.record.BinaryConverter;
+import se.yolean.quarkus.parquet.runtime.record.RecordConverter;
+import se.yolean.quarkus.parquet.runtime.record.RecordValues;
+
+/**
+ * Generates, for a readable {@link RecordModel}:
+ * <ul>
+ * <li>a {@link RecordConverter} with one field per column, passed to the canonical constructor of a
+ * record or assigned to a new instance of a class in {@code build()}</li>
+ * <li>one converter per column, assigning decoded values straight to that field</li>
+ * <li>a {@link Supplier} of new root converters, as each reader needs its own</li>
+ * </ul>
+ */
+final class RecordConverterGenerator {
+
+    static final String SUFFIX = "_ParquetRecordConverter";
+
+    private RecordConverterGenerator() {
+    }
+
+    /**
+     * @return the name of the generated {@link Supplier}
+     */
+    static String generate(ClassOutput output, RecordModel model) {
+        String typeName = model.type.name().toString();
+        String root = typeName + SUFFIX;
+        for (Column column : model.columns) {
+            generateColumn(output, root, column);
+        }
+        try (ClassCreator creator = ClassCreator.builder()
+                .classOutput(output)
+                .className(root)
+                .superClass(RecordConverter.class)
+                .setFinal(true)
+                .build()) {
+            for (Column column : model.columns) {
+                // package-private, assigned by the column converters
+                creator.getFieldCreator(field(root, column)).setModifiers(0);
+            }
+
+            MethodCreator converter = creator.getMethodCreator("converter", Converter.class, int.class);
+            for (Column column : model.columns) {
+                BytecodeCreator matches = converter.ifIntegerEqual(converter.getMethodParam(0), converter.load(column.index))
+                        .trueBranch();
+                matches.returnValue(matches.newInstance(MethodDescriptor.ofConstructor(columnClass(root, column), root),
+                        matches.getThis()));
+            }
+            converter.throwException(IllegalArgumentException.class, "No column with that index");
+
+            MethodCreator reset = creator.getMethodCreator("reset", void.class);
+            for (Column column : model.columns) {
+                if (!column.required()) {
+                    reset.writeInstanceField(field(root, column), reset.getThis(), reset.loadNull());
+                }
+            }
+            reset.returnVoid();
+
+            MethodCreator build = creator.getMethodCreator("build", Object.class);
+            ResultHandle[] values = model.columns.stream()
+                    .map(column -> build.readInstanceField(field(root, column), build.getThis()))
+                    .toArray(ResultHandle[]::new);
+            if (model.type.isRecord()) {
+                String[] parameterTypes = model.columns.stream()
+                        .map(column -> DescriptorUtils.typeToString(column.javaType))
+                        .toArray(String[]::new);
+                build.returnValue(build.newInstance(MethodDescriptor.ofConstructor(typeName, (Object[]) parameterTypes),
+                        values));
+            } else {
+                ResultHandle instance = build.newInstance(MethodDescriptor.ofConstructor(typeName));
+                for (Column column : model.columns) {
+                    ResultHandle value = values[column.index];
+                    if (column.field != null) {
+                        build.writeInstanceField(FieldDescriptor.of(column.field), instance, value);
+                    } else {
+                        build.invokeVirtualMethod(MethodDescriptor.of(column.setter), instance, value);
+                    }
+                }
+                build.returnValue(instance);
+            }
+        }
+
+        String factory = typeName + SUFFIX + "Factory";
+        try (ClassCreator creator = ClassCreator.builder()
+                .classOutput(output)
+                .className(factory)
+                .interfaces(Supplier.class)
+                .setFinal(true)
+                .build()) {
+            MethodCreator get = creator.getMethodCreator("get", Object.class);
+            get.returnValue(get.newInstance(MethodDescriptor.ofConstructor(root)));
+        }
+        return factory;
+    }
+
+    private static void generateColumn(ClassOutput output, String root, Column column) {
+        boolean binary = column.kind.primitive == PrimitiveTypeName.BINARY;
+        String className = columnClass(root, column);
+        FieldDescriptor rootField = FieldDescriptor.of(className, "root", root);
+        try (ClassCreator creator = ClassCreator.builder()
+                .classOutput(output)
+                .className(className)
+                .superClass(binary ? BinaryConverter.class : PrimitiveConverter.class)
+                .setFinal(true)
+                .build()) {
+            creator.getFieldCreator(rootField).setModifiers(Modifier.PRIVATE | Modifier.FINAL);
+
+            MethodCreator constructor = creator.getMethodCreator("<init>", void.class, root);
+            if (binary) {
+                // strings and enums are immutable, so one decoded value can serve every row using that dictionary id
+                constructor.invokeSpecialMethod(MethodDescriptor.ofConstructor(BinaryConverter.class, boolean.class),
+                        constructor.getThis(), constructor.load(column.kind != Kind.BYTES));
+            } else {
+                constructor.invokeSpecialMethod(MethodDescriptor.ofConstructor(PrimitiveConverter.class), constructor.getThis());
+            }
+            constructor.writeInstanceField(rootField, constructor.getThis(), constructor.getMethodParam(0));
+            constructor.returnVoid();
+
+            if (binary) {
+                MethodCreator convert = creator.getMethodCreator("convert", Object.class, Binary.class);
+                convert.returnValue(convertBinary(convert, column, convert.getMethodParam(0)));
+                MethodCreator set = creator.getMethodCreator("set", void.class, Object.class);
+                set.writeInstanceField(field(root, column), set.readInstanceField(rootField, set.getThis()),
+                        set.checkCast(set.getMethodParam(0), column.javaType.name().toString()));
+                set.returnVoid();
+            } else {
+                Class<?> parquetType = parquetType(column.kind);
+                MethodCreator add = creator.getMethodCreator(adder(column.kind), void.class, parquetType);
+                add.writeInstanceField(field(root, column), add.readInstanceField(rootField, add.getThis()),
+                        convertPrimitive(add, column, add.getMethodParam(0)));
+                add.returnVoid();
+            }
+        }
+    }
+
+    private static ResultHandle convertBinary(BytecodeCreator method, Column column, ResultHandle value) {
+        return switch (column.kind) {
+            case STRING -> string(method, value);
+            case BYTES -> method.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(RecordValues.class, "bytes", byte[].class, Binary.class), value);
+            case ENUM -> {
+                String enumType = column.javaType.name().toString();
+                yield method.invokeStaticMethod(MethodDescriptor.ofMethod(enumType, "valueOf", enumType, String.class),
+                        string(method, value));
+            }
+            default -> throw new IllegalStateException(column.kind + " is not a binary column");
+        };
+    }
+
+    private static ResultHandle string(BytecodeCreator method, ResultHandle value) {
+        return method.invokeStaticMethod(MethodDescriptor.ofMethod(RecordValues.class, "string", String.class, Binary.class),
+                value);
+    }
+
+    private static ResultHandle convertPrimitive(BytecodeCreator method, Column column, ResultHandle value) {
+        return switch (column.kind) {
+            case LOCAL_DATE -> method.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(RecordValues.class, "localDate", LocalDate.class, int.class), value);
+            case INSTANT -> method.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(RecordValues.class, "instant", Instant.class, long.class), value);
+            default -> {
+                Class<?> primitive = column.primitiveClass();
+                ResultHandle narrowed = primitive == parquetType(column.kind) ? value : method.convertPrimitive(value, primitive);
+                if (column.required()) {
+                    yield narrowed;
+                }
+                String box = column.javaType.name().toString();
+                yield method.invokeStaticMethod(MethodDescriptor.ofMethod(box, "valueOf", box, primitive), narrowed);
+            }
+        };
+    }
+
+    private static Class<?> parquetType(Kind kind) {
+        return switch (kind.primitive) {
+            case BOOLEAN -> boolean.class;
+            case INT32 -> int.class;
+            case INT64 -> long.class;
+            case FLOAT -> float.class;
+            case DOUBLE -> double.class;
+            default -> throw new IllegalStateException(kind + " is not a primitive column");
+        };
+    }
+
+    private static String adder(Kind kind) {
+        return switch (kind.primitive) {
+            case BOOLEAN -> "addBoolean";
+            case INT32 -> "addInt";
+            case INT64 -> "addLong";
+            case FLOAT -> "addFloat";
+            case DOUBLE -> "addDouble";
+            default -> throw new IllegalStateException(kind + " is not a primitive column");
+        };
+    }
+
+    private static FieldDescriptor field(String root, Column column) {
+        return FieldDescriptor.of(root, "c" + column.index, DescriptorUtils.typeToString(column.javaType));
+    }
+
+    private static String columnClass(String root, Column column) {
+        return root + "$Column" + column.index;
+    }
+}
@@ -0,0 +1,260 @@
+package se.yolean.quarkus.parquet.deployment;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type.Repetition;
+import org.apache.parquet.schema.Types;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationValue;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.FieldInfo;
+import org.jboss.jandex.IndexView;
+import org.jboss.jandex.MethodInfo;
+import org.jboss.jandex.RecordComponentInfo;
+import org.jboss.jandex.Type;
+
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecord;
+
+/**
+ * The columns of a {@link ParquetRecord} type, as read from the Jandex index.
+ */
+final class RecordModel {
+
+    static final DotName PARQUET_RECORD = DotName.createSimple(ParquetRecord.class.getName());
+
+    private static final DotName STRING = DotName.createSimple(String.class.getName());
+    private static final DotName LOCAL_DATE = DotName.createSimple(java.time.LocalDate.class.getName());
+    private static final DotName INSTANT = DotName.createSimple(java.time.Instant.class.getName());
+    private static final DotName ENUM = DotName.createSimple(Enum.class.getName());
+
+    final ClassInfo type;
+    final String messageName;
+    final List<Column> columns;
+    /** Why rows cannot be materialized into the type, null when they can. */
+    final String unreadable;
+
+    private RecordModel(ClassInfo type, String messageName, List<Column> columns, String unreadable) {
+        this.type = type;
+        this.messageName = messageName;
+        this.columns = columns;
+        this.unreadable = unreadable;
+    }
+
+    /**
+     * @param problems collects one line per unsupported member; the model is only usable when none were added
+     */
+    static RecordModel of(ClassInfo type, IndexView index, List<String> problems) {
+        AnnotationInstance annotation = type.declaredAnnotation(PARQUET_RECORD);
+        AnnotationValue name = annotation.value("name");
+        String messageName = name == null || name.asString().isEmpty() ? type.simpleName() : name.asString();
+        List<Column> columns = new ArrayList<>();
+        String unreadable = null;
+        if (type.isRecord()) {
+            for (RecordComponentInfo component : type.recordComponentsInDeclarationOrder()) {
+                column(type, index, component.name(), component.type(), component.accessor(), null, null, columns,
+                        problems);
+            }
+        } else {
+            MethodInfo constructor = type.method("<init>");
+            if (constructor == null || Modifier.isPrivate(constructor.flags()) || Modifier.isAbstract(type.flags())) {
+                unreadable = "it has no non-private no-arg constructor";
+            }
+            for (FieldInfo field : type.fieldsInDeclarationOrder()) {
+                if (Modifier.isStatic(field.flags()) || Modifier.isTransient(field.flags())) {
+                    continue;
+                }
+                if (Modifier.isPrivate(field.flags())) {
+                    MethodInfo getter = getter(type, field);
+                    if (getter == null) {
+                        problems.add(type.name() + "#" + field.name() + " is private and has no getter");
+                        continue;
+                    }
+                    MethodInfo setter = setter(type, field);
+                    if (setter == null && unreadable == null) {
+                        unreadable = field.name() + " is private and has no setter";
+                    }
+                    column(type, index, field.name(), field.type(), getter, setter, null, columns, problems);
+                } else {
+                    // the generated converter assigns fields directly, which final fields do not allow
+                    if (Modifier.isFinal(field.flags()) && unreadable == null) {
+                        unreadable = field.name() + " is final";
+                    }
+                    column(type, index, field.name(), field.type(), null, null, field, columns, problems);
+                }
+            }
+        }
+        if (columns.isEmpty() && problems.isEmpty()) {
+            problems.add(type.name() + " declares no columns");
+        }
+        return new RecordModel(type, messageName, columns, unreadable);
+    }
+
+    MessageType schema() {
+        return new MessageType(messageName, columns.stream().<org.apache.parquet.schema.Type> map(Column::schema).toList());
+    }
+
+    private static void column(ClassInfo owner, IndexView index, String name, Type javaType, MethodInfo accessor,
+            MethodInfo setter, FieldInfo field, List<Column> columns, List<String> problems) {
+        Kind kind = Kind.of(javaType, index);
+        if (kind == null) {
+            problems.add(owner.name() + "#" + name + " has unsupported type " + javaType);
+            return;
+        }
+        columns.add(new Column(name, columns.size(), javaType, kind, accessor, setter, field));
+    }
+
+    private static MethodInfo getter(ClassInfo type, FieldInfo field) {
+        String suffix = Character.toUpperCase(field.name().charAt(0)) + field.name().substring(1);
+        for (String candidate : List.of("get" + suffix, "is" + suffix)) {
+            MethodInfo method = type.method(candidate);
+            if (method != null && !Modifier.isStatic(method.flags()) && !Modifier.isPrivate(method.flags())
+                    && method.returnType().equals(field.type())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static MethodInfo setter(ClassInfo type, FieldInfo field) {
+        MethodInfo method = type.method("set" + Character.toUpperCase(field.name().charAt(0)) + field.name().substring(1),
+                field.type());
+        return method != null && !Modifier.isStatic(method.flags()) && !Modifier.isPrivate(method.flags()) ? method : null;
+    }
+
+    /**
+     * How a Java type maps onto a Parquet primitive, and which {@code RecordConsumer#addX} writes it.
+     */
+    enum Kind {
+        BOOLEAN(PrimitiveTypeName.BOOLEAN, null),
+        BYTE(PrimitiveTypeName.INT32, LogicalTypeAnnotation.intType(8, true)),
+        SHORT(PrimitiveTypeName.INT32, LogicalTypeAnnotation.intType(16, true)),
+        INT(PrimitiveTypeName.INT32, null),
+        LONG(PrimitiveTypeName.INT64, null),
+        FLOAT(PrimitiveTypeName.FLOAT, null),
+        DOUBLE(PrimitiveTypeName.DOUBLE, null),
+        STRING(PrimitiveTypeName.BINARY, LogicalTypeAnnotation.stringType()),
+        BYTES(PrimitiveTypeName.BINARY, null),
+        ENUM(PrimitiveTypeName.BINARY, LogicalTypeAnnotation.enumType()),
+        LOCAL_DATE(PrimitiveTypeName.INT32, LogicalTypeAnnotation.dateType()),
+        INSTANT(PrimitiveTypeName.INT64, LogicalTypeAnnotation.timestampType(true, TimeUnit.MICROS));
+
+        final PrimitiveTypeName primitive;
+        final LogicalTypeAnnotation logicalType;
+
+        Kind(PrimitiveTypeName primitive, LogicalTypeAnnotation logicalType) {
+            this.primitive = primitive;
+            this.logicalType = logicalType;
+        }
+
+        static Kind of(Type type, IndexView index) {
+            switch (type.kind()) {
+                case PRIMITIVE:
+                    return switch (type.asPrimitiveType().primitive()) {
+                        case BOOLEAN -> BOOLEAN;
+                        case BYTE -> BYTE;
+                        case SHORT -> SHORT;
+                        case INT -> INT;
+                        case LONG -> LONG;
+                        case FLOAT -> FLOAT;
+                        case DOUBLE -> DOUBLE;
+                        case CHAR -> null;
+                    };
+                case ARRAY:
+                    return type.asArrayType().constituent().kind() == Type.Kind.PRIMITIVE
+                            && type.asArrayType().deepDimensions() == 1
+                            && type.asArrayType().constituent().asPrimitiveType().primitive() == org.jboss.jandex.PrimitiveType.Primitive.BYTE
+                                    ? BYTES
+                                    : null;
+                case CLASS:
+                    DotName name = type.name();
+                    org.jboss.jandex.PrimitiveType unboxed = org.jboss.jandex.PrimitiveType.unbox(type.asClassType());
+                    if (unboxed != null) {
+                        return of(unboxed, index);
+                    }
+                    if (name.equals(RecordModel.STRING)) {
+                        return STRING;
+                    }
+                    if (name.equals(RecordModel.LOCAL_DATE)) {
+                        return LOCAL_DATE;
+                    }
+                    if (name.equals(RecordModel.INSTANT)) {
+                        return INSTANT;
+                    }
+                    ClassInfo info = index.getClassByName(name);
+                    if (info != null) {
+                        return RecordModel.ENUM.equals(info.superName()) ? ENUM : null;
+                    }
+                    return isEnum(name) ? ENUM : null;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private static boolean isEnum(DotName name) {
+        try {
+            return Class.forName(name.toString(), false, Thread.currentThread().getContextClassLoader()).isEnum();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    static final class Column {
+
+        final String name;
+        final int index;
+        final Type javaType;
+        final Kind kind;
+        /** The record accessor or getter, null when {@link #field} is read directly. */
+        final MethodInfo accessor;
+        /** The setter of a private field, null for records and when {@link #field} is assigned directly. */
+        final MethodInfo setter;
+        final FieldInfo field;
+
+        Column(String name, int index, Type javaType, Kind kind, MethodInfo accessor, MethodInfo setter, FieldInfo field) {
+            this.name = name;
+            this.index = index;
+            this.javaType = javaType;
+            this.kind = kind;
+            this.accessor = accessor;
+            this.setter = setter;
+            this.field = field;
+        }
+
+        boolean required() {
+            return javaType.kind() == Type.Kind.PRIMITIVE;
+        }
+
+        /**
+         * The primitive Java type of a primitive or boxed column.
+         */
+        Class<?> primitiveClass() {
+            org.jboss.jandex.PrimitiveType primitive = required() ? javaType.asPrimitiveType()
+                    : org.jboss.jandex.PrimitiveType.unbox(javaType.asClassType());
+            return switch (primitive.primitive()) {
+                case BOOLEAN -> boolean.class;
+                case BYTE -> byte.class;
+                case SHORT -> short.class;
+                case INT -> int.class;
+                case LONG -> long.class;
+                case FLOAT -> float.class;
+                case DOUBLE -> double.class;
+                case CHAR -> char.class;
+            };
+        }
+
+        PrimitiveType schema() {
+            return Types.primitive(kind.primitive, required() ? Repetition.REQUIRED : Repetition.OPTIONAL)
+                    .as(kind.logicalType)
+                    .named(name);
+        }
+    }
+}
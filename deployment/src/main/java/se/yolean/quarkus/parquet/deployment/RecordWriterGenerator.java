@@ -0,0 +1,105 @@
+package se.yolean.quarkus.parquet.deployment;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.ClassCreator;
+import io.quarkus.gizmo.ClassOutput;
+import io.quarkus.gizmo.FieldDescriptor;
+import io.quarkus.gizmo.MethodCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+import se.yolean.quarkus.parquet.deployment.RecordModel.Column;
+import se.yolean.quarkus.parquet.runtime.record.RecordValues;
+import se.yolean.quarkus.parquet.runtime.record.RecordWriter;
+
+/**
+ * Generates a {@link RecordWriter} that reads each column straight off the record and hands it to the
+ * {@link RecordConsumer}, in the package of the record so that package-private members are reachable.
+ */
+final class RecordWriterGenerator {
+
+    static final String SUFFIX = "_ParquetRecordWriter";
+
+    private static final MethodDescriptor START_MESSAGE = MethodDescriptor.ofMethod(RecordConsumer.class, "startMessage", void.class);
+    private static final MethodDescriptor END_MESSAGE = MethodDescriptor.ofMethod(RecordConsumer.class, "endMessage", void.class);
+    private static final MethodDescriptor START_FIELD = MethodDescriptor.ofMethod(RecordConsumer.class, "startField", void.class,
+            String.class, int.class);
+    private static final MethodDescriptor END_FIELD = MethodDescriptor.ofMethod(RecordConsumer.class, "endField", void.class,
+            String.class, int.class);
+
+    private RecordWriterGenerator() {
+    }
+
+    static String generate(ClassOutput output, RecordModel model) {
+        String className = model.type.name().toString() + SUFFIX;
+        try (ClassCreator creator = ClassCreator.builder()
+                .classOutput(output)
+                .className(className)
+                .interfaces(RecordWriter.class)
+                .setFinal(true)
+                .build()) {
+            MethodCreator write = creator.getMethodCreator("write", void.class, RecordConsumer.class, Object.class);
+            ResultHandle consumer = write.getMethodParam(0);
+            ResultHandle record = write.checkCast(write.getMethodParam(1), model.type.name().toString());
+            write.invokeVirtualMethod(START_MESSAGE, consumer);
+            for (Column column : model.columns) {
+                ResultHandle value = read(write, record, column);
+                BytecodeCreator present = column.required() ? write : write.ifNotNull(value).trueBranch();
+                ResultHandle name = present.load(column.name);
+                ResultHandle index = present.load(column.index);
+                present.invokeVirtualMethod(START_FIELD, consumer, name, index);
+                add(present, consumer, column, value);
+                present.invokeVirtualMethod(END_FIELD, consumer, name, index);
+            }
+            write.invokeVirtualMethod(END_MESSAGE, consumer);
+            write.returnVoid();
+        }
+        return className;
+    }
+
+    private static ResultHandle read(BytecodeCreator method, ResultHandle record, Column column) {
+        if (column.field != null) {
+            return method.readInstanceField(FieldDescriptor.of(column.field), record);
+        }
+        return method.invokeVirtualMethod(MethodDescriptor.of(column.accessor), record);
+    }
+
+    private static void add(BytecodeCreator method, ResultHandle consumer, Column column, ResultHandle value) {
+        ResultHandle converted = switch (column.kind) {
+            case BOOLEAN, INT, LONG, FLOAT, DOUBLE -> unbox(method, column, value);
+            case BYTE, SHORT -> method.convertPrimitive(unbox(method, column, value), int.class);
+            case STRING -> method.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(RecordValues.class, "binary", Binary.class, String.class), value);
+            case BYTES -> method.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(RecordValues.class, "binary", Binary.class, byte[].class), value);
+            case ENUM -> method.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(RecordValues.class, "binary", Binary.class, Enum.class), value);
+            case LOCAL_DATE -> method.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(RecordValues.class, "days", int.class, LocalDate.class), value);
+            case INSTANT -> method.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(RecordValues.class, "micros", long.class, Instant.class), value);
+        };
+        method.invokeVirtualMethod(adder(column.kind), consumer, converted);
+    }
+
+    private static ResultHandle unbox(BytecodeCreator method, Column column, ResultHandle value) {
+        return column.required() ? value : method.smartCast(value, column.primitiveClass());
+    }
+
+    private static MethodDescriptor adder(RecordModel.Kind kind) {
+        return switch (kind.primitive) {
+            case BOOLEAN -> MethodDescriptor.ofMethod(RecordConsumer.class, "addBoolean", void.class, boolean.class);
+            case INT32 -> MethodDescriptor.ofMethod(RecordConsumer.class, "addInteger", void.class, int.class);
+            case INT64 -> MethodDescriptor.ofMethod(RecordConsumer.class, "addLong", void.class, long.class);
+            case FLOAT -> MethodDescriptor.ofMethod(RecordConsumer.class, "addFloat", void.class, float.class);
+            case DOUBLE -> MethodDescriptor.ofMethod(RecordConsumer.class, "addDouble", void.class, double.class);
+            case BINARY -> MethodDescriptor.ofMethod(RecordConsumer.class, "addBinary", void.class, Binary.class);
+            default -> throw new IllegalStateException("No writer for " + kind);
+        };
+    }
+}
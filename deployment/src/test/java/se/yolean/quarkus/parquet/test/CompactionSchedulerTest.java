@@ -0,0 +1,76 @@
+package se.yolean.quarkus.parquet.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecord;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+
+public class CompactionSchedulerTest {
+
+    // the test class is loaded again by the application, so this must not be a new temp directory
+    static final Path DIRECTORY = Path.of("target", "compaction-scheduler-test").toAbsolutePath();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)
+                    .addClasses(Reading.class))
+            .overrideConfigKey("quarkus.parquet.compaction.every", "1s")
+            .overrideConfigKey("quarkus.parquet.compaction.directories", DIRECTORY.toString());
+
+    @Test
+    public void compactsConfiguredDirectories() throws Exception {
+        Files.createDirectories(DIRECTORY);
+        for (Path file : files()) {
+            Files.delete(file);
+        }
+        for (int i = 0; i < 3; i++) {
+            Path file = DIRECTORY.resolve(".readings-" + i + ".parquet");
+            try (ParquetWriter<Reading> writer = ParquetRecords.writer(Reading.class, new NioOutputFile(file)).build()) {
+                writer.write(new Reading("sensor-" + i, i));
+            }
+            // the scheduler must not see files being written
+            Files.move(file, DIRECTORY.resolve("readings-" + i + ".parquet"));
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (files().size() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        List<Path> files = files();
+        assertEquals(1, files.size(), files.toString());
+        assertTrue(files.get(0).getFileName().toString().startsWith("part-"), files.toString());
+        try (Stream<Reading> readings = ParquetRecords.read(Reading.class, new NioInputFile(files.get(0))).stream()) {
+            assertEquals(List.of(new Reading("sensor-0", 0), new Reading("sensor-1", 1), new Reading("sensor-2", 2)),
+                    readings.sorted(Comparator.comparing(Reading::sensor)).collect(Collectors.toList()));
+        }
+    }
+
+    private static List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(DIRECTORY)) {
+            return files.filter(file -> !file.getFileName().toString().startsWith(".")).collect(Collectors.toList());
+        }
+    }
+
+    @ParquetRecord
+    public record Reading(String sensor, double value) {
+    }
+}
@@ -0,0 +1,61 @@
+package se.yolean.quarkus.parquet.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.InputFile;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+
+public class HadoopFreeValidationTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class).addClass(HadoopBoundReader.class))
+            .overrideConfigKey("quarkus.parquet.hadoop-free", "true")
+            .assertException(t -> {
+                String messages = String.join("\n", messages(t));
+                assertTrue(messages.contains("Hadoop is on the classpath"), messages);
+                assertTrue(messages.contains(HadoopBoundReader.class.getName() + "#open -> org.apache.parquet.hadoop.ParquetFileReader#open"),
+                        messages);
+                assertTrue(messages.contains(HadoopBoundReader.class.getName() + "#options -> org.apache.parquet.ParquetReadOptions#builder"),
+                        messages);
+            });
+
+    @Test
+    public void buildFailsWhenHadoopIsReached() {
+        Assertions.fail("The build should have failed");
+    }
+
+    private static List<String> messages(Throwable t) {
+        List<String> messages = new ArrayList<>();
+        for (Throwable current = t; current != null; current = current.getCause()) {
+            messages.add(String.valueOf(current.getMessage()));
+            for (Throwable suppressed : current.getSuppressed()) {
+                messages.addAll(messages(suppressed));
+            }
+        }
+        return messages;
+    }
+
+    public static class HadoopBoundReader {
+
+        public ParquetFileReader open(InputFile file) throws IOException {
+            return ParquetFileReader.open(file);
+        }
+
+        public ParquetReadOptions options() {
+            return ParquetReadOptions.builder().build();
+        }
+    }
+}
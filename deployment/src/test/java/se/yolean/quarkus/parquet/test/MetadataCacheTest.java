@@ -0,0 +1,78 @@
+package se.yolean.quarkus.parquet.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jakarta.inject.Inject;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+import se.yolean.quarkus.parquet.runtime.cache.PageCache;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecord;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+import se.yolean.quarkus.parquet.runtime.record.RecordFileReader;
+
+public class MetadataCacheTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)
+                    .addClasses(Reading.class))
+            .overrideConfigKey("quarkus.parquet.metadata-cache.max-size", "1M")
+            .overrideConfigKey("quarkus.parquet.page-cache.enabled", "true");
+
+    @Inject
+    MetadataCache cache;
+
+    @Inject
+    PageCache pages;
+
+    @Test
+    public void readersOpenedThroughTheExtensionShareTheCache() throws IOException {
+        assertSame(MetadataCache.shared(), cache);
+        assertSame(cache.pageCache(), pages);
+        assertTrue(cache.isEnabled());
+        assertTrue(pages.isEnabled());
+
+        Path file = Files.createTempDirectory("quarkus-parquet-cache").resolve("readings.parquet");
+        try (ParquetWriter<Reading> writer = ParquetRecords.writer(Reading.class, new NioOutputFile(file))
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .build()) {
+            writer.write(new Reading("a", 1.5));
+        }
+
+        MetadataCache.Stats before = cache.stats();
+        PageCache.Stats pagesBefore = pages.stats();
+        for (int i = 0; i < 3; i++) {
+            try (RecordFileReader<Reading> reader = ParquetRecords.reader(Reading.class, new NioInputFile(file))) {
+                assertEquals("a", reader.read().sensor());
+            }
+        }
+        MetadataCache.Stats after = cache.stats();
+        // the footer, and the offset indexes of both columns that locate pages in the page cache
+        assertEquals(3, after.misses() - before.misses());
+        assertEquals(6, after.hits() - before.hits());
+        // the one data page of each column
+        PageCache.Stats pagesAfter = pages.stats();
+        assertEquals(2, pagesAfter.misses() - pagesBefore.misses(), pagesAfter.toString());
+        assertEquals(4, pagesAfter.hits() - pagesBefore.hits(), pagesAfter.toString());
+    }
+
+    @ParquetRecord
+    public record Reading(String sensor, double value) {
+    }
+}
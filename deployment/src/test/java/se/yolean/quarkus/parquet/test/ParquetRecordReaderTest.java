@@ -0,0 +1,253 @@
+package se.yolean.quarkus.parquet.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+import se.yolean.quarkus.parquet.runtime.query.QueryReader;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecord;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+import se.yolean.quarkus.parquet.runtime.record.RecordFileReader;
+
+public class ParquetRecordReaderTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)
+                    .addClasses(Event.class, Level.class, Sample.class, Snapshot.class, Reading.class));
+
+    @Test
+    public void readsRecordsBackAsWritten() throws IOException {
+        Path file = tempFile("events.parquet");
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            events.add(new Event(i, "source-" + (i % 3), i % 2 == 0 ? Level.INFO : null, i % 5 == 0 ? null : i * 0.5,
+                    (byte) i, LocalDate.ofEpochDay(19_000 + i), Instant.ofEpochSecond(1_700_000_000L + i, 1_000),
+                    new byte[] { (byte) i, 1 }, i % 7 == 0));
+        }
+        try (ParquetWriter<Event> writer = ParquetRecords.writer(Event.class, new NioOutputFile(file)).build()) {
+            for (Event event : events) {
+                writer.write(event);
+            }
+        }
+
+        List<Event> read = readAll(Event.class, file);
+        assertEquals(events.size(), read.size());
+        for (int i = 0; i < events.size(); i++) {
+            Event expected = events.get(i);
+            Event actual = read.get(i);
+            assertEquals(expected.id(), actual.id());
+            assertEquals(expected.source(), actual.source());
+            assertEquals(expected.level(), actual.level());
+            assertEquals(expected.score(), actual.score());
+            assertEquals(expected.priority(), actual.priority());
+            assertEquals(expected.day(), actual.day());
+            assertEquals(expected.at(), actual.at());
+            assertArrayEquals(expected.payload(), actual.payload());
+            assertEquals(expected.urgent(), actual.urgent());
+        }
+        // dictionary entries are converted once, so equal strings are the same instance
+        assertSame(read.get(0).source(), read.get(3).source());
+    }
+
+    @Test
+    public void readsOnlyDeclaredColumns() throws IOException {
+        Path file = tempFile("wide.parquet");
+        MessageType wide = MessageTypeParser.parseMessageType("""
+                message Wide {
+                  required binary name (STRING);
+                  required int64 ignored;
+                  required int32 count;
+                  required double weight;
+                }
+                """);
+        SimpleGroupFactory groups = new SimpleGroupFactory(wide);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(wide)
+                .build()) {
+            writer.write(groups.newGroup().append("name", "a").append("ignored", 1L).append("count", 3).append("weight", 1.5));
+        }
+
+        List<Sample> samples = readAll(Sample.class, file);
+        assertEquals(1, samples.size());
+        assertEquals("a", samples.get(0).name);
+        assertEquals(3, samples.get(0).getCount());
+        assertNull(samples.get(0).missing);
+
+        assertThrows(IllegalArgumentException.class, () -> readAll(Event.class, file));
+    }
+
+    @Test
+    public void rejectsNullableColumnsForPrimitiveFields() throws IOException {
+        Path file = tempFile("nullable.parquet");
+        MessageType nullable = MessageTypeParser.parseMessageType("""
+                message Nullable {
+                  required binary name (STRING);
+                  optional int32 count;
+                }
+                """);
+        SimpleGroupFactory groups = new SimpleGroupFactory(nullable);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(nullable)
+                .build()) {
+            writer.write(groups.newGroup().append("name", "a").append("count", 3));
+            writer.write(groups.newGroup().append("name", "b"));
+        }
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> readAll(Sample.class, file));
+        assertTrue(e.getMessage().contains("count"), e.getMessage());
+    }
+
+    @Test
+    public void rejectsColumnsOfAnotherLogicalType() throws IOException {
+        Path file = tempFile("untyped.parquet");
+        MessageType untyped = MessageTypeParser.parseMessageType("""
+                message Untyped {
+                  required binary name;
+                  required int32 count;
+                }
+                """);
+        SimpleGroupFactory groups = new SimpleGroupFactory(untyped);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(untyped)
+                .build()) {
+            writer.write(groups.newGroup().append("name", "a").append("count", 3));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> readAll(Sample.class, file));
+    }
+
+    @Test
+    public void filtersOnColumnsTheTypeDoesNotDeclare() throws IOException {
+        Path file = tempFile("filtered.parquet");
+        MessageType wide = MessageTypeParser.parseMessageType("""
+                message Wide {
+                  required binary name (STRING);
+                  required int64 ignored;
+                  required int32 count;
+                }
+                """);
+        SimpleGroupFactory groups = new SimpleGroupFactory(wide);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(wide)
+                .build()) {
+            for (int i = 0; i < 100; i++) {
+                writer.write(groups.newGroup().append("name", "n" + i).append("ignored", (long) i).append("count", i));
+            }
+        }
+
+        ParquetQuery query = ParquetQuery.all().where(FilterApi.eq(FilterApi.longColumn("ignored"), 42L));
+        try (QueryReader<Sample> reader = ParquetRecords.query(Sample.class, new NioInputFile(file), query)) {
+            Sample sample = reader.read();
+            assertEquals("n42", sample.name);
+            assertEquals(42, sample.getCount());
+            assertNull(reader.read());
+            assertEquals(1, reader.stats().rowsMatched());
+        }
+    }
+
+    @Test
+    public void rejectsTypesThatCannotBeInstantiated() {
+        assertThrows(IllegalArgumentException.class, () -> ParquetRecords.readSupport(Snapshot.class));
+    }
+
+    @Test
+    public void writesButDoesNotReadTypesWithFinalFields() throws IOException {
+        Path file = tempFile("readings.parquet");
+        try (ParquetWriter<Reading> writer = ParquetRecords.writer(Reading.class, new NioOutputFile(file)).build()) {
+            writer.write(new Reading());
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ParquetRecords.readSupport(Reading.class));
+        assertTrue(e.getMessage().contains("unit is final"), e.getMessage());
+    }
+
+    private static <T> List<T> readAll(Class<T> type, Path file) throws IOException {
+        List<T> rows = new ArrayList<>();
+        try (RecordFileReader<T> reader = ParquetRecords.reader(type, new NioInputFile(file))) {
+            for (T row = reader.read(); row != null; row = reader.read()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static Path tempFile(String name) throws IOException {
+        return Files.createTempDirectory("quarkus-parquet-record").resolve(name);
+    }
+
+    public enum Level {
+        INFO,
+        WARN
+    }
+
+    @ParquetRecord
+    public record Event(long id, String source, Level level, Double score, byte priority, LocalDate day, Instant at,
+            byte[] payload, boolean urgent) {
+    }
+
+    @ParquetRecord
+    public static class Sample {
+
+        String name;
+        private int count;
+        Long missing;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    @ParquetRecord
+    public static class Reading {
+
+        final String unit = "celsius";
+        double value;
+    }
+
+    @ParquetRecord
+    public static class Snapshot {
+
+        private final String id;
+
+        public Snapshot(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+}
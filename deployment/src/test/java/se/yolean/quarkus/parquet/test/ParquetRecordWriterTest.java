@@ -0,0 +1,234 @@
+package se.yolean.quarkus.parquet.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecord;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+import se.yolean.quarkus.parquet.runtime.write.AsyncParquetWriter;
+import se.yolean.quarkus.parquet.runtime.write.ParquetSink;
+import se.yolean.quarkus.parquet.runtime.write.SortingParquetWriter;
+
+public class ParquetRecordWriterTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)
+                    .addClasses(Measurement.class, Unit.class, Reading.class));
+
+    @Test
+    public void derivesSchema() {
+        assertEquals(MessageTypeParser.parseMessageType("""
+                message Measurement {
+                  required int64 id;
+                  optional binary sensor (STRING);
+                  required double value;
+                  optional int32 count;
+                  optional binary unit (ENUM);
+                  optional int32 day (DATE);
+                  optional int64 at (TIMESTAMP(MICROS,true));
+                  optional binary payload;
+                  required int32 flags (INTEGER(16,true));
+                  required boolean valid;
+                }
+                """), ParquetRecords.schema(Measurement.class));
+        assertEquals("reading", ParquetRecords.schema(Reading.class).getName());
+        assertThrows(IllegalArgumentException.class, () -> ParquetRecords.schema(String.class));
+    }
+
+    @Test
+    public void writesRecords() throws IOException {
+        Path file = Files.createTempDirectory("quarkus-parquet-record").resolve("measurements.parquet");
+        Instant at = Instant.parse("2024-05-01T12:00:00.123456Z");
+        try (ParquetWriter<Measurement> writer = ParquetRecords.writer(Measurement.class, new NioOutputFile(file)).build()) {
+            writer.write(new Measurement(1, "a", 1.5, 7, Unit.CELSIUS, LocalDate.of(2024, 5, 1), at,
+                    "x".getBytes(StandardCharsets.UTF_8), (short) -3, true));
+            writer.write(new Measurement(2, null, 2.5, null, null, null, null, null, (short) 0, false));
+        }
+
+        List<Group> rows = read(file);
+        assertEquals(2, rows.size());
+        Group first = rows.get(0);
+        assertEquals(1, first.getLong("id", 0));
+        assertEquals("a", first.getString("sensor", 0));
+        assertEquals(1.5, first.getDouble("value", 0));
+        assertEquals(7, first.getInteger("count", 0));
+        assertEquals("CELSIUS", first.getString("unit", 0));
+        assertEquals(LocalDate.of(2024, 5, 1).toEpochDay(), first.getInteger("day", 0));
+        assertEquals(at.getEpochSecond() * 1_000_000 + 123_456, first.getLong("at", 0));
+        assertEquals("x", first.getString("payload", 0));
+        assertEquals(-3, first.getInteger("flags", 0));
+        assertEquals(true, first.getBoolean("valid", 0));
+        Group second = rows.get(1);
+        assertEquals(0, second.getFieldRepetitionCount("sensor"));
+        assertEquals(0, second.getFieldRepetitionCount("count"));
+        assertEquals(0, second.getFieldRepetitionCount("at"));
+        assertFalse(second.getBoolean("valid", 0));
+    }
+
+    @Test
+    public void writesClassesThroughFieldsAndGetters() throws IOException {
+        Path file = Files.createTempDirectory("quarkus-parquet-record").resolve("readings.parquet");
+        try (ParquetWriter<Reading> writer = ParquetRecords.writer(Reading.class, new NioOutputFile(file)).build()) {
+            Reading reading = new Reading();
+            reading.station = "s1";
+            reading.setTemperature(21.5f);
+            writer.write(reading);
+        }
+
+        Group row = read(file).get(0);
+        assertEquals("s1", row.getString("station", 0));
+        assertEquals(21.5f, row.getFloat("temperature", 0));
+        assertEquals(2, ParquetRecords.schema(Reading.class).getFieldCount());
+    }
+
+    @Test
+    public void writesRecordsInTheBackground() throws IOException {
+        Path file = Files.createTempDirectory("quarkus-parquet-record").resolve("measurements.parquet");
+        try (AsyncParquetWriter<Measurement> writer = ParquetRecords.writeAsync(Measurement.class, new NioOutputFile(file))
+                .withQueueCapacity(16)
+                .build()) {
+            for (long id = 0; id < 1_000; id++) {
+                writer.write(new Measurement(id, "a", id / 2.0, null, null, null, null, null, (short) 0, true));
+            }
+        }
+
+        List<Group> rows = read(file);
+        assertEquals(1_000, rows.size());
+        assertEquals(999, rows.get(999).getLong("id", 0));
+        assertEquals(499.5, rows.get(999).getDouble("value", 0));
+    }
+
+    @Test
+    public void writesRecordsToPartitionedFiles() throws IOException {
+        Path directory = Files.createTempDirectory("quarkus-parquet-record");
+        try (ParquetSink<Measurement> sink = ParquetRecords.sink(Measurement.class, directory)
+                .withPartition("sensor", Measurement::sensor)
+                .withMaxRows(100)
+                .build()) {
+            for (long id = 0; id < 500; id++) {
+                sink.write(new Measurement(id, id % 2 == 0 ? "even" : "odd", id, null, null, null, null, null, (short) 0, true));
+            }
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        assertEquals(6, files.size(), files.toString());
+        long rows = 0;
+        for (Path file : files) {
+            String sensor = file.getParent().getFileName().toString();
+            for (Group row : read(file)) {
+                assertEquals(sensor, "sensor=" + row.getString("sensor", 0));
+                rows++;
+            }
+        }
+        assertEquals(500, rows);
+    }
+
+    @Test
+    public void writesRecordsSortedThroughSpilledRuns() throws IOException {
+        Path directory = Files.createTempDirectory("quarkus-parquet-record");
+        Path file = directory.resolve("measurements.parquet");
+        SortingParquetWriter<Measurement> writer = ParquetRecords.writeSorted(Measurement.class, new NioOutputFile(file))
+                .withSortColumns("sensor", "id")
+                .withMaxBufferSize(64 * 1024)
+                .withSpillDirectory(directory)
+                .build();
+        try (writer) {
+            for (long id = 0; id < 2_000; id++) {
+                long key = id * 7_919 % 2_000;
+                writer.write(new Measurement(key, key % 2 == 0 ? "even" : "odd", key, null, null, null, null,
+                        new byte[] { (byte) key }, (short) 0, true));
+            }
+        }
+
+        assertFalse(writer.spills() == 0, "the buffer should have been spilled");
+        List<Group> rows = read(file);
+        assertEquals(2_000, rows.size());
+        assertEquals("even", rows.get(0).getString("sensor", 0));
+        assertEquals(0, rows.get(0).getLong("id", 0));
+        assertEquals("even", rows.get(999).getString("sensor", 0));
+        assertEquals(1_998, rows.get(999).getLong("id", 0));
+        assertEquals("odd", rows.get(1_000).getString("sensor", 0));
+        assertEquals(1, rows.get(1_000).getLong("id", 0));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()), "runs are deleted");
+        }
+    }
+
+    private static List<Group> read(Path file) throws IOException {
+        List<Group> rows = new ArrayList<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            PageReadStore pages;
+            while ((pages = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> records = new ColumnIOFactory().getColumnIO(schema)
+                        .getRecordReader(pages, new GroupRecordConverter(schema));
+                for (long i = 0; i < pages.getRowCount(); i++) {
+                    rows.add(records.read());
+                }
+            }
+        }
+        return rows;
+    }
+
+    public enum Unit {
+        CELSIUS,
+        KELVIN
+    }
+
+    @ParquetRecord
+    public record Measurement(long id, String sensor, double value, Integer count, Unit unit, LocalDate day,
+            Instant at, byte[] payload, short flags, boolean valid) {
+    }
+
+    @ParquetRecord(name = "reading")
+    public static class Reading {
+
+        static final String IGNORED = "static";
+
+        String station;
+        private float temperature;
+        transient long cached;
+
+        public float getTemperature() {
+            return temperature;
+        }
+
+        public void setTemperature(float temperature) {
+            this.temperature = temperature;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package se.yolean.quarkus.parquet.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jakarta.inject.Inject;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriterAccess;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecord;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+import se.yolean.quarkus.parquet.runtime.write.WriterMemoryManager;
+
+public class WriterMemoryTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)
+                    .addClasses(Reading.class))
+            .overrideConfigKey("quarkus.parquet.writer-memory.max-size", "8M");
+
+    @Inject
+    WriterMemoryManager manager;
+
+    @Test
+    public void recordWritersShareTheBudget() throws IOException {
+        assertSame(WriterMemoryManager.shared(), manager);
+        assertTrue(manager.isEnabled());
+        assertEquals(8 * 1024 * 1024, manager.stats().maxSize());
+
+        Path file = Files.createTempDirectory("quarkus-parquet-memory").resolve("readings.parquet");
+        try (ParquetWriter<Reading> writer = ParquetRecords.writer(Reading.class, new NioOutputFile(file)).build()) {
+            assertEquals(1, manager.stats().writers());
+            assertEquals(ParquetWriter.DEFAULT_BLOCK_SIZE, manager.stats().requested());
+            writer.write(new Reading("a", 1.5));
+            assertEquals(8 * 1024 * 1024, ParquetWriterAccess.rowGroupSize(writer), "scaled down to the budget");
+        }
+        assertEquals(new WriterMemoryManager.Stats(0, 0, 8 * 1024 * 1024, 0, 0), manager.stats());
+    }
+
+    @ParquetRecord
+    public record Reading(String sensor, double value) {
+    }
+}
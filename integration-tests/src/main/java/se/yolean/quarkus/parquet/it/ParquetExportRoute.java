@@ -0,0 +1,43 @@
+package se.yolean.quarkus.parquet.it;
+
+import java.io.IOException;
+
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Singleton;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import se.yolean.quarkus.parquet.runtime.io.ResponseOutputFile;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+
+/**
+ * Streams a Parquet file of {@code rows} people into the response, without a temporary file.
+ */
+@Singleton
+public class ParquetExportRoute {
+
+    void register(@Observes Router router) {
+        router.get("/parquet/probe/export").blockingHandler(this::export, false);
+    }
+
+    private void export(RoutingContext context) {
+        String rows = context.queryParams().get("rows");
+        int count = rows != null ? Integer.parseInt(rows) : 1000;
+        HttpServerResponse response = context.response();
+        try (ParquetWriter<Person> writer = ParquetRecords.writer(Person.class, new ResponseOutputFile(response)).build()) {
+            for (int i = 0; i < count; i++) {
+                writer.write(new Person("person-" + i, i % 100));
+            }
+        } catch (IOException | RuntimeException e) {
+            if (response.headWritten()) {
+                // a file without its footer must not look complete
+                response.reset();
+            } else {
+                context.fail(e);
+            }
+        }
+    }
+}
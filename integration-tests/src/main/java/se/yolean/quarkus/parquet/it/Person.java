@@ -0,0 +1,7 @@
+package se.yolean.quarkus.parquet.it;
+
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecord;
+
+@ParquetRecord
+public record Person(String name, int age) {
+}
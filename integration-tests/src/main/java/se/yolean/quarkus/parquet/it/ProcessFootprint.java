@@ -0,0 +1,50 @@
+package se.yolean.quarkus.parquet.it;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Singleton;
+
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * The time from process start to application start, and the resident set size, as serverless cold
+ * starts pay for both.
+ */
+@Singleton
+public class ProcessFootprint {
+
+    private volatile long startupMillis = -1;
+
+    void onStart(@Observes StartupEvent event) {
+        ProcessHandle.current().info().startInstant()
+                .ifPresent(start -> startupMillis = Duration.between(start, Instant.now()).toMillis());
+    }
+
+    /**
+     * @return the milliseconds from process start to application start, or -1 if the start is unknown
+     */
+    public long startupMillis() {
+        return startupMillis;
+    }
+
+    /**
+     * @return the resident set size in kB, or -1 where {@code /proc} is not available
+     */
+    public long residentKilobytes() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.substring(6).replace("kB", "").trim());
+            }
+        }
+        return -1;
+    }
+}
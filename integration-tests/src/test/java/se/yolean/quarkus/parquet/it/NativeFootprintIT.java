@@ -0,0 +1,43 @@
+package se.yolean.quarkus.parquet.it;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+/**
+ * Reports the startup time of the native image and its resident set size after a probe. No budget is
+ * enforced until figures have been measured on the CI machines.
+ */
+@QuarkusIntegrationTest
+@EnabledIf("isNativeImage")
+class NativeFootprintIT {
+
+    private static final Pattern FOOTPRINT = Pattern.compile("startup=(-?\\d+)ms;rss=(-?\\d+)kB");
+
+    static boolean isNativeImage() {
+        String path = System.getProperty("native.image.path");
+        return path != null && Files.isExecutable(Path.of(path));
+    }
+
+    @Test
+    void reportsStartupAndMemory() {
+        String body = given()
+                .when().get("/parquet/probe/footprint")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+        Matcher footprint = FOOTPRINT.matcher(body);
+        assertTrue(footprint.matches(), body);
+        System.out.println("Native footprint: started in " + footprint.group(1) + " ms, RSS after probe "
+                + Long.parseLong(footprint.group(2)) / 1024 + " MB");
+    }
+}
@@ -0,0 +1,61 @@
+package se.yolean.quarkus.parquet.it;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+/**
+ * Records the size of the packaged application, its startup time and its resident set size after a
+ * probe, so the default and the Hadoop-free builds can be compared. Each run appends a line to
+ * {@code target/footprint.txt}, which {@code mvn clean} removes; run
+ * {@code mvn clean verify -DskipITs=false} with and without {@code -Dhadoop-free}, and with
+ * {@code -Dnative} for native images.
+ */
+@QuarkusIntegrationTest
+class PackageFootprintIT {
+
+    private static final Path TARGET = Path.of("target");
+
+    @Test
+    void recordsFootprint() throws IOException {
+        String probe = given()
+                .when().get("/parquet/probe/footprint")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+        String mode = Boolean.getBoolean("quarkus.parquet.hadoop-free") ? "hadoop-free" : "default";
+        String line = mode + " " + packageSize() + " " + probe;
+        System.out.println("Footprint: " + line);
+        Files.write(TARGET.resolve("footprint.txt"), List.of(line), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String packageSize() throws IOException {
+        String image = System.getProperty("native.image.path");
+        if (image != null && Files.isExecutable(Path.of(image))) {
+            return "native=" + Files.size(Path.of(image)) / 1024 + "kB";
+        }
+        Path lib = TARGET.resolve("quarkus-app/lib");
+        assertTrue(Files.isDirectory(lib), lib + " is missing");
+        long bytes = 0;
+        int jars = 0;
+        try (Stream<Path> files = Files.walk(lib)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                bytes += Files.size(file);
+                if (file.toString().endsWith(".jar")) {
+                    jars++;
+                }
+            }
+        }
+        return "lib=" + bytes / 1024 + "kB;jars=" + jars;
+    }
+}
@@ -2,10 +2,22 @@ package se.yolean.quarkus.parquet.it;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import io.quarkus.test.junit.QuarkusTest;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.ResponseOutputFile;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+import se.yolean.quarkus.parquet.runtime.record.RecordFileReader;
 
 @QuarkusTest
 class ParquetProbeResourceTest {
@@ -18,4 +30,83 @@ class ParquetProbeResourceTest {
                 .statusCode(200)
                 .body(is("Alice:34,Bob:28"));
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "UNCOMPRESSED", "SNAPPY", "ZSTD", "LZ4_RAW", "GZIP" })
+    void parquetRoundTripShouldDecompressEveryCodec(String codec) {
+        given()
+                .when().get("/parquet/probe?codec=" + codec)
+                .then()
+                .statusCode(200)
+                .body(is("Alice:34,Bob:28"));
+    }
+
+    @Test
+    void footprintShouldBeReported() {
+        given()
+                .when().get("/parquet/probe/footprint")
+                .then()
+                .statusCode(200)
+                .body(matchesPattern("startup=-?\\d+ms;rss=-?\\d+kB"));
+    }
+
+    @Test
+    void bloomFilterLookupShouldSkipOtherRowGroups() {
+        // person-12345 is row 7255, as 7255 * 7919 % 20000 == 12345
+        String body = given()
+                .when().get("/parquet/probe/lookup?name=person-12345")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+        String[] parts = body.split(";skipped ");
+        assertEquals("person-12345:55", parts[0]);
+        String[] skipped = parts[1].split("/");
+        assertTrue(Integer.parseInt(skipped[1]) > 1, body);
+        assertEquals(Integer.parseInt(skipped[1]) - 1, Integer.parseInt(skipped[0]), body);
+
+        given()
+                .when().get("/parquet/probe/lookup?name=person-20001")
+                .then()
+                .statusCode(200)
+                .body(matchesPattern(";skipped (\\d+)/\\1"));
+    }
+
+    @Test
+    void parquetStreamShouldReturnEveryRow() {
+        String body = given()
+                .when().get("/parquet/probe/stream?rows=5000")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+        String[] lines = body.split("\n");
+        assertEquals(5000, lines.length);
+        assertEquals("person-4999:99", lines[4999]);
+    }
+
+    @Test
+    void parquetExportShouldStreamACompleteFile() throws Exception {
+        byte[] body = given()
+                .when().get("/parquet/probe/export?rows=50000")
+                .then()
+                .statusCode(200)
+                .contentType(ResponseOutputFile.CONTENT_TYPE)
+                .header("Transfer-Encoding", "chunked")
+                .extract().asByteArray();
+        Path file = Files.createTempFile("quarkus-parquet-export", ".parquet");
+        try {
+            Files.write(file, body);
+            // through the extension's reader, as ParquetFileReader.open does not compile without Hadoop
+            int rows = 0;
+            Person last = null;
+            try (RecordFileReader<Person> reader = ParquetRecords.reader(Person.class, new NioInputFile(file))) {
+                for (Person person = reader.read(); person != null; person = reader.read(), rows++) {
+                    last = person;
+                }
+            }
+            assertEquals(50_000, rows);
+            assertEquals(new Person("person-49999", 99), last);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
 }
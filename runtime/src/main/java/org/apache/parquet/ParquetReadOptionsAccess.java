@@ -0,0 +1,60 @@
+package org.apache.parquet;
+
+import java.util.Map;
+
+import org.apache.parquet.bytes.ByteBufferAllocator;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetMetricsCallback;
+
+/**
+ * Exposes the package-private {@link ParquetReadOptions} constructor. Both public builder constructors
+ * read defaults through {@code ParquetInputFormat}, which extends a Hadoop MapReduce class, so
+ * options for Hadoop-free applications can only be created here.
+ */
+public final class ParquetReadOptionsAccess {
+
+    private ParquetReadOptionsAccess() {
+    }
+
+    public static ParquetReadOptions create(
+            boolean useSignedStringMinMax,
+            boolean useStatsFilter,
+            boolean useDictionaryFilter,
+            boolean useRecordFilter,
+            boolean useColumnIndexFilter,
+            boolean usePageChecksumVerification,
+            boolean useBloomFilter,
+            boolean useOffHeapDecryptBuffer,
+            boolean useHadoopVectoredIo,
+            FilterCompat.Filter recordFilter,
+            ParquetMetadataConverter.MetadataFilter metadataFilter,
+            CompressionCodecFactory codecFactory,
+            ByteBufferAllocator allocator,
+            int maxAllocationSize,
+            Map<String, String> properties,
+            ParquetMetricsCallback metricsCallback,
+            ParquetConfiguration conf) {
+        return new ParquetReadOptions(
+                useSignedStringMinMax,
+                useStatsFilter,
+                useDictionaryFilter,
+                useRecordFilter,
+                useColumnIndexFilter,
+                usePageChecksumVerification,
+                useBloomFilter,
+                useOffHeapDecryptBuffer,
+                useHadoopVectoredIo,
+                recordFilter,
+                metadataFilter,
+                codecFactory,
+                allocator,
+                maxAllocationSize,
+                properties,
+                null,
+                metricsCallback,
+                conf);
+    }
+}
@@ -0,0 +1,175 @@
+package org.apache.parquet.hadoop;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.values.factory.ValuesWriterFactory;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.jboss.logging.Logger;
+
+/**
+ * Reaches the row group buffered by a {@link ParquetWriter}, which Parquet only resizes through its
+ * {@code MemoryManager} for Hadoop output formats. The writer is looked up reflectively; when that is not
+ * possible, {@link #isAvailable()} is false and writers cannot be managed.
+ * <p>
+ * Also sets the {@link ValuesWriterFactory} of a {@link ParquetWriter.Builder}, which only the
+ * {@link ParquetProperties.Builder} it wraps exposes, and reads the row groups a writer has flushed, which
+ * Parquet only exposes once the file is closed.
+ * <p>
+ * Every method taking a writer must be called on the thread writing to it.
+ */
+public final class ParquetWriterAccess {
+
+    private static final Logger LOG = Logger.getLogger(ParquetWriterAccess.class);
+
+    private static final VarHandle WRITER;
+    private static final VarHandle LAST_ROW_GROUP_END_POS;
+    private static final VarHandle NEXT_ROW_GROUP_SIZE;
+    private static final VarHandle RECORD_COUNT_FOR_NEXT_MEM_CHECK;
+    private static final VarHandle ENCODING_PROPERTIES;
+    private static final VarHandle RECORD_COUNT;
+    private static final VarHandle ROW_GROUP_RECORD_COUNT_THRESHOLD;
+    private static final VarHandle FILE_WRITER;
+    private static final VarHandle BLOCKS;
+
+    static {
+        VarHandle writer = null;
+        VarHandle lastRowGroupEndPos = null;
+        VarHandle nextRowGroupSize = null;
+        VarHandle recordCountForNextMemCheck = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(InternalParquetRecordWriter.class, MethodHandles.lookup());
+            writer = MethodHandles.privateLookupIn(ParquetWriter.class, MethodHandles.lookup())
+                    .findVarHandle(ParquetWriter.class, "writer", InternalParquetRecordWriter.class);
+            lastRowGroupEndPos = lookup.findVarHandle(InternalParquetRecordWriter.class, "lastRowGroupEndPos", long.class);
+            nextRowGroupSize = lookup.findVarHandle(InternalParquetRecordWriter.class, "nextRowGroupSize", long.class);
+            recordCountForNextMemCheck = lookup.findVarHandle(InternalParquetRecordWriter.class, "recordCountForNextMemCheck",
+                    long.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debugf(e, "The row groups of ParquetWriter are not accessible, writers cannot be managed");
+            writer = null;
+        }
+        WRITER = writer;
+        LAST_ROW_GROUP_END_POS = lastRowGroupEndPos;
+        NEXT_ROW_GROUP_SIZE = nextRowGroupSize;
+        RECORD_COUNT_FOR_NEXT_MEM_CHECK = recordCountForNextMemCheck;
+
+        VarHandle encodingProperties = null;
+        try {
+            encodingProperties = MethodHandles.privateLookupIn(ParquetWriter.Builder.class, MethodHandles.lookup())
+                    .findVarHandle(ParquetWriter.Builder.class, "encodingPropsBuilder", ParquetProperties.Builder.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debugf(e, "The encoding properties of ParquetWriter.Builder are not accessible");
+        }
+        ENCODING_PROPERTIES = encodingProperties;
+
+        VarHandle recordCount = null;
+        VarHandle rowGroupRecordCountThreshold = null;
+        VarHandle fileWriter = null;
+        VarHandle blocks = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(InternalParquetRecordWriter.class, MethodHandles.lookup());
+            recordCount = lookup.findVarHandle(InternalParquetRecordWriter.class, "recordCount", long.class);
+            rowGroupRecordCountThreshold = lookup.findVarHandle(InternalParquetRecordWriter.class,
+                    "rowGroupRecordCountThreshold", int.class);
+            fileWriter = lookup.findVarHandle(InternalParquetRecordWriter.class, "parquetFileWriter", ParquetFileWriter.class);
+            blocks = MethodHandles.privateLookupIn(ParquetFileWriter.class, MethodHandles.lookup())
+                    .findVarHandle(ParquetFileWriter.class, "blocks", List.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debugf(e, "The flushed row groups of ParquetWriter are not accessible, writers cannot be metered");
+            blocks = null;
+        }
+        RECORD_COUNT = recordCount;
+        ROW_GROUP_RECORD_COUNT_THRESHOLD = rowGroupRecordCountThreshold;
+        FILE_WRITER = fileWriter;
+        BLOCKS = blocks;
+    }
+
+    private ParquetWriterAccess() {
+    }
+
+    public static boolean isAvailable() {
+        return WRITER != null;
+    }
+
+    /**
+     * @return the estimated size of the open row group
+     */
+    public static long bufferedSize(ParquetWriter<?> writer) {
+        InternalParquetRecordWriter<?> internal = internal(writer);
+        return internal.getDataSize() - (long) LAST_ROW_GROUP_END_POS.get(internal);
+    }
+
+    public static long rowGroupSize(ParquetWriter<?> writer) {
+        return internal(writer).getRowGroupSizeThreshold();
+    }
+
+    /**
+     * Sets the size row groups are flushed at, including the open one, which is flushed with the next
+     * record if it is already larger.
+     */
+    public static void setRowGroupSize(ParquetWriter<?> writer, long rowGroupSize) {
+        InternalParquetRecordWriter<?> internal = internal(writer);
+        internal.setRowGroupSizeThreshold(rowGroupSize);
+        NEXT_ROW_GROUP_SIZE.set(internal, Math.min((long) NEXT_ROW_GROUP_SIZE.get(internal), rowGroupSize));
+        RECORD_COUNT_FOR_NEXT_MEM_CHECK.set(internal, 0L);
+    }
+
+    /**
+     * Flushes the open row group with the next record. Later row groups keep their size.
+     */
+    public static void flushRowGroup(ParquetWriter<?> writer) {
+        InternalParquetRecordWriter<?> internal = internal(writer);
+        NEXT_ROW_GROUP_SIZE.set(internal, 0L);
+        RECORD_COUNT_FOR_NEXT_MEM_CHECK.set(internal, 0L);
+    }
+
+    public static boolean canSetValuesWriterFactory() {
+        return ENCODING_PROPERTIES != null;
+    }
+
+    /**
+     * Has the writers {@code builder} builds choose the encoding of each column through {@code factory}.
+     */
+    public static void setValuesWriterFactory(ParquetWriter.Builder<?, ?> builder, ValuesWriterFactory factory) {
+        if (ENCODING_PROPERTIES == null) {
+            throw new UnsupportedOperationException("The encoding properties of ParquetWriter.Builder are not accessible");
+        }
+        ((ParquetProperties.Builder) ENCODING_PROPERTIES.get(builder)).withValuesWriterFactory(factory);
+    }
+
+    public static boolean canReadRowGroups() {
+        return WRITER != null && BLOCKS != null;
+    }
+
+    /**
+     * @return whether the size of the open row group is checked, and so whether it may be flushed, once the
+     *         next record is counted; within {@code WriteSupport#write} that is the record being written
+     */
+    public static boolean checksRowGroupSize(ParquetWriter<?> writer) {
+        InternalParquetRecordWriter<?> internal = internal(writer);
+        long count = (long) RECORD_COUNT.get(internal) + 1;
+        return count >= (long) RECORD_COUNT_FOR_NEXT_MEM_CHECK.get(internal)
+                || count >= (int) ROW_GROUP_RECORD_COUNT_THRESHOLD.get(internal);
+    }
+
+    /**
+     * @return the row groups flushed to the file so far, in the order they were written
+     */
+    @SuppressWarnings("unchecked")
+    public static List<BlockMetaData> rowGroups(ParquetWriter<?> writer) {
+        if (BLOCKS == null) {
+            throw new UnsupportedOperationException("The flushed row groups of ParquetWriter are not accessible");
+        }
+        return (List<BlockMetaData>) BLOCKS.get((ParquetFileWriter) FILE_WRITER.get(internal(writer)));
+    }
+
+    private static InternalParquetRecordWriter<?> internal(ParquetWriter<?> writer) {
+        if (WRITER == null) {
+            throw new UnsupportedOperationException("The row groups of ParquetWriter are not accessible");
+        }
+        return (InternalParquetRecordWriter<?>) WRITER.get(writer);
+    }
+}
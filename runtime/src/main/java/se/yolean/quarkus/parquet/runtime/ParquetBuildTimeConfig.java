@@ -0,0 +1,71 @@
+package se.yolean.quarkus.parquet.runtime;
+
+import io.quarkus.runtime.annotations.ConfigPhase;
+import io.quarkus.runtime.annotations.ConfigRoot;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+@ConfigMapping(prefix = "quarkus.parquet")
+@ConfigRoot(phase = ConfigPhase.BUILD_TIME)
+public interface ParquetBuildTimeConfig {
+
+    /**
+     * Whether the application runs without Hadoop.
+     * <p>
+     * When enabled, the build fails if Hadoop is on the classpath, or if application classes call
+     * Parquet or Hadoop APIs that load Hadoop classes, such as {@code ParquetReadOptions.builder()}.
+     * Exclude {@code org.apache.hadoop:*} from {@code se.yolean:quarkus-parquet} and use
+     * {@link ParquetDefaults} to create writers and read options.
+     */
+    @WithDefault("false")
+    boolean hadoopFree();
+
+    /**
+     * Metrics of the readers and writers created through the extension, which need the
+     * {@code quarkus-micrometer} extension.
+     */
+    MetricsConfig metrics();
+
+    /**
+     * Spans for the files opened and the row groups read by readers created through the extension, which
+     * need the {@code quarkus-opentelemetry} extension.
+     */
+    TracingConfig tracing();
+
+    /**
+     * Bit-packed dictionary ids and levels decoded through
+     * {@link se.yolean.quarkus.parquet.runtime.decode.VectorDecoding} with the Vector API.
+     */
+    VectorDecodingConfig vectorDecoding();
+
+    interface MetricsConfig {
+
+        /**
+         * Whether metrics are published when the {@code quarkus-micrometer} extension is present.
+         */
+        @WithDefault("true")
+        boolean enabled();
+    }
+
+    interface TracingConfig {
+
+        /**
+         * Whether spans are started when the {@code quarkus-opentelemetry} extension is present. Scans of
+         * many row groups start as many spans.
+         */
+        @WithDefault("false")
+        boolean enabled();
+    }
+
+    interface VectorDecodingConfig {
+
+        /**
+         * Whether bit-packed values are unpacked with the 512-bit packers of
+         * {@code org.apache.parquet:parquet-encoding-vector}. They also need that artifact on the classpath,
+         * the {@code jdk.incubator.vector} module and a CPU with 512-bit vectors; otherwise a warning tells
+         * which is missing and scalar packers are used. Ignored by native builds.
+         */
+        @WithDefault("false")
+        boolean enabled();
+    }
+}
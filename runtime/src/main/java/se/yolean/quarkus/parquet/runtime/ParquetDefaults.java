@@ -0,0 +1,48 @@
+package se.yolean.quarkus.parquet.runtime;
+
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import se.yolean.quarkus.parquet.runtime.codec.ParquetCodecFactory;
+
+/**
+ * Entry points for using Parquet without Hadoop.
+ * <p>
+ * Parquet falls back to Hadoop's {@code Configuration} and codec classes whenever a writer or reader
+ * is built without an explicit {@link ParquetConfiguration} and codec factory.
+ * {@link #configure(ParquetWriter.Builder)} and {@link #readOptions()} supply both, so the same code
+ * runs with and without Hadoop on the classpath.
+ */
+public final class ParquetDefaults {
+
+    private static final boolean HADOOP_PRESENT = isClassPresent("org.apache.hadoop.conf.Configuration");
+
+    private ParquetDefaults() {
+    }
+
+    public static boolean isHadoopPresent() {
+        return HADOOP_PRESENT;
+    }
+
+    public static ParquetConfiguration configuration() {
+        return new PlainParquetConfiguration();
+    }
+
+    public static <T, B extends ParquetWriter.Builder<T, B>> B configure(B builder) {
+        return builder.withConf(configuration()).withCodecFactory(new ParquetCodecFactory());
+    }
+
+    public static ReadOptionsBuilder readOptions() {
+        return new ReadOptionsBuilder();
+    }
+
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, ParquetDefaults.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package se.yolean.quarkus.parquet.runtime;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.logging.Logger;
+
+/**
+ * The executor parallel reads and writes run on unless given one.
+ * <p>
+ * Tasks block on file reads as much as they compute, so on Java 21 and later each runs on its own
+ * virtual thread. On older runtimes they share a cached pool of daemon threads.
+ */
+public final class ParquetExecutors {
+
+    private static final Logger LOG = Logger.getLogger(ParquetExecutors.class);
+
+    private ParquetExecutors() {
+    }
+
+    public static ExecutorService defaultExecutor() {
+        return Shared.EXECUTOR;
+    }
+
+    public static boolean isVirtual() {
+        return Shared.VIRTUAL;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            LOG.debugf(e, "Virtual threads are not available, falling back to a cached thread pool");
+            return null;
+        }
+    }
+
+    private static final class Shared {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        static final ExecutorService EXECUTOR;
+        static final boolean VIRTUAL;
+
+        static {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            VIRTUAL = virtual != null;
+            EXECUTOR = virtual != null ? virtual : Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "parquet-worker-" + THREADS.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package se.yolean.quarkus.parquet.runtime;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigPhase;
+import io.quarkus.runtime.annotations.ConfigRoot;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+@ConfigMapping(prefix = "quarkus.parquet")
+@ConfigRoot(phase = ConfigPhase.RUN_TIME)
+public interface ParquetRuntimeConfig {
+
+    /**
+     * The cache of parsed footers, column indexes and offset indexes.
+     */
+    MetadataCacheConfig metadataCache();
+
+    /**
+     * The off-heap cache of decompressed dictionary and data pages.
+     */
+    PageCacheConfig pageCache();
+
+    /**
+     * The budget for the row groups buffered by writers created through the extension.
+     */
+    WriterMemoryConfig writerMemory();
+
+    /**
+     * Scheduled compaction of directories of small files, which needs the {@code quarkus-scheduler}
+     * extension.
+     */
+    CompactionConfig compaction();
+
+    interface MetadataCacheConfig {
+
+        /**
+         * Whether readers opened through the extension reuse the metadata of files they have read before.
+         * A file is recognized by its path, size and modification time.
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * The maximum size of the cached metadata, as measured by its serialized size in the files. The
+         * least recently used entries are evicted beyond it.
+         */
+        @WithDefault("64M")
+        MemorySize maxSize();
+    }
+
+    interface PageCacheConfig {
+
+        /**
+         * Whether readers opened through the extension reuse the decompressed pages of files they have read
+         * before. Pages are held in direct buffers, outside the Java heap.
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * The maximum decompressed size of the cached pages. The least recently used pages are evicted
+         * beyond it; {@code -XX:MaxDirectMemorySize} must leave room for it.
+         */
+        @WithDefault("256M")
+        MemorySize maxSize();
+    }
+
+    interface WriterMemoryConfig {
+
+        /**
+         * Whether writers created through the extension share a budget for their buffered row groups.
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * The budget for buffered row groups, half the maximum heap size by default. Beyond it, row group
+         * sizes are scaled down and the writers with the largest row groups flush them early.
+         */
+        Optional<MemorySize> maxSize();
+
+        /**
+         * The size row groups are never scaled below.
+         */
+        @WithDefault("1M")
+        MemorySize minRowGroupSize();
+    }
+
+    interface CompactionConfig {
+
+        /**
+         * How often the directories are compacted, e.g. {@code 1h}. Compaction is only scheduled when set.
+         */
+        Optional<Duration> every();
+
+        /**
+         * The directories to compact, each with its partition directories.
+         */
+        Optional<List<String>> directories();
+
+        /**
+         * The size files are merged up to, and smaller than which they are compacted.
+         */
+        @WithDefault("128M")
+        MemorySize targetFileSize();
+
+        /**
+         * The uncompressed size below which row groups are decoded and coalesced rather than copied, or 0 to
+         * only copy.
+         */
+        @WithDefault("8M")
+        MemorySize minRowGroupSize();
+    }
+}
@@ -0,0 +1,181 @@
+package se.yolean.quarkus.parquet.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.ParquetReadOptionsAccess;
+import org.apache.parquet.bytes.ByteBufferAllocator;
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetMetricsCallback;
+
+import se.yolean.quarkus.parquet.runtime.codec.ParquetCodecFactory;
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetMetrics;
+
+/**
+ * Builds {@link ParquetReadOptions} without touching Hadoop, with the same defaults as
+ * {@code ParquetReadOptions.builder()}. Use it instead of the Parquet builder in Hadoop-free
+ * applications.
+ * <p>
+ * Unless another is set, the metrics callback reports page decompression to the
+ * {@link ParquetMetrics#shared() shared} metrics.
+ */
+public final class ReadOptionsBuilder {
+
+    private boolean useSignedStringMinMax = false;
+    private boolean useStatsFilter = true;
+    private boolean useDictionaryFilter = true;
+    private boolean useRecordFilter = true;
+    private boolean useColumnIndexFilter = true;
+    private boolean usePageChecksumVerification = false;
+    private boolean useBloomFilter = true;
+    private boolean useOffHeapDecryptBuffer = false;
+    private boolean useVectoredIo = true;
+    private FilterCompat.Filter recordFilter = FilterCompat.NOOP;
+    private ParquetMetadataConverter.MetadataFilter metadataFilter = ParquetMetadataConverter.NO_FILTER;
+    private CompressionCodecFactory codecFactory;
+    private ByteBufferAllocator allocator = new HeapByteBufferAllocator();
+    private int maxAllocationSize = 8 * 1024 * 1024;
+    private final Map<String, String> properties = new HashMap<>();
+    private ParquetMetricsCallback metricsCallback;
+    private ParquetConfiguration conf;
+
+    ReadOptionsBuilder() {
+    }
+
+    public ReadOptionsBuilder useSignedStringMinMax(boolean useSignedStringMinMax) {
+        this.useSignedStringMinMax = useSignedStringMinMax;
+        return this;
+    }
+
+    public ReadOptionsBuilder useStatsFilter(boolean useStatsFilter) {
+        this.useStatsFilter = useStatsFilter;
+        return this;
+    }
+
+    public ReadOptionsBuilder useDictionaryFilter(boolean useDictionaryFilter) {
+        this.useDictionaryFilter = useDictionaryFilter;
+        return this;
+    }
+
+    public ReadOptionsBuilder useRecordFilter(boolean useRecordFilter) {
+        this.useRecordFilter = useRecordFilter;
+        return this;
+    }
+
+    public ReadOptionsBuilder useColumnIndexFilter(boolean useColumnIndexFilter) {
+        this.useColumnIndexFilter = useColumnIndexFilter;
+        return this;
+    }
+
+    public ReadOptionsBuilder usePageChecksumVerification(boolean usePageChecksumVerification) {
+        this.usePageChecksumVerification = usePageChecksumVerification;
+        return this;
+    }
+
+    public ReadOptionsBuilder useBloomFilter(boolean useBloomFilter) {
+        this.useBloomFilter = useBloomFilter;
+        return this;
+    }
+
+    public ReadOptionsBuilder useOffHeapDecryptBuffer(boolean useOffHeapDecryptBuffer) {
+        this.useOffHeapDecryptBuffer = useOffHeapDecryptBuffer;
+        return this;
+    }
+
+    public ReadOptionsBuilder useVectoredIo(boolean useVectoredIo) {
+        this.useVectoredIo = useVectoredIo;
+        return this;
+    }
+
+    public ReadOptionsBuilder withRecordFilter(FilterCompat.Filter recordFilter) {
+        this.recordFilter = recordFilter;
+        return this;
+    }
+
+    public ReadOptionsBuilder withMetadataFilter(ParquetMetadataConverter.MetadataFilter metadataFilter) {
+        this.metadataFilter = metadataFilter;
+        return this;
+    }
+
+    public ReadOptionsBuilder withCodecFactory(CompressionCodecFactory codecFactory) {
+        this.codecFactory = codecFactory;
+        return this;
+    }
+
+    public ReadOptionsBuilder withAllocator(ByteBufferAllocator allocator) {
+        this.allocator = allocator;
+        return this;
+    }
+
+    public ReadOptionsBuilder withMaxAllocationInBytes(int maxAllocationSize) {
+        this.maxAllocationSize = maxAllocationSize;
+        return this;
+    }
+
+    public ReadOptionsBuilder withMetricsCallback(ParquetMetricsCallback metricsCallback) {
+        this.metricsCallback = metricsCallback;
+        return this;
+    }
+
+    public ReadOptionsBuilder withConf(ParquetConfiguration conf) {
+        this.conf = conf;
+        return this;
+    }
+
+    public ReadOptionsBuilder set(String key, String value) {
+        properties.put(key, value);
+        return this;
+    }
+
+    /**
+     * Copies every setting of {@code options}, as {@code ParquetReadOptions.Builder#copy} does.
+     */
+    public ReadOptionsBuilder copy(ParquetReadOptions options) {
+        useSignedStringMinMax(options.useSignedStringMinMax());
+        useStatsFilter(options.useStatsFilter());
+        useDictionaryFilter(options.useDictionaryFilter());
+        useRecordFilter(options.useRecordFilter());
+        useColumnIndexFilter(options.useColumnIndexFilter());
+        usePageChecksumVerification(options.usePageChecksumVerification());
+        useBloomFilter(options.useBloomFilter());
+        useOffHeapDecryptBuffer(options.useOffHeapDecryptBuffer());
+        useVectoredIo(options.useHadoopVectoredIo());
+        withRecordFilter(options.getRecordFilter());
+        withMetadataFilter(options.getMetadataFilter());
+        withCodecFactory(options.getCodecFactory());
+        withAllocator(options.getAllocator());
+        withMaxAllocationInBytes(options.getMaxAllocationSize());
+        withMetricsCallback(options.getMetricsCallback());
+        withConf(options.getConfiguration());
+        for (String property : options.getPropertyNames()) {
+            set(property, options.getProperty(property));
+        }
+        return this;
+    }
+
+    public ParquetReadOptions build() {
+        return ParquetReadOptionsAccess.create(
+                useSignedStringMinMax,
+                useStatsFilter,
+                useDictionaryFilter,
+                useRecordFilter,
+                useColumnIndexFilter,
+                usePageChecksumVerification,
+                useBloomFilter,
+                useOffHeapDecryptBuffer,
+                useVectoredIo,
+                recordFilter,
+                metadataFilter,
+                codecFactory != null ? codecFactory : new ParquetCodecFactory(),
+                allocator,
+                maxAllocationSize,
+                properties,
+                metricsCallback != null ? metricsCallback : ParquetMetrics.shared().readCallback(),
+                conf != null ? conf : ParquetDefaults.configuration());
+    }
+}
@@ -0,0 +1,94 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.values.ValuesReader;
+import org.apache.parquet.io.api.Binary;
+
+/**
+ * Binary, fixed-length and INT96 values. Rows from dictionary-encoded pages are kept as dictionary ids,
+ * decoded from the page a batch at a time, and only looked up on {@link #get(int)}, so grouping and
+ * filtering can work on the ids. Rows from plain pages, such as those written after the dictionary
+ * outgrew its page, keep the value itself.
+ * <p>
+ * Values reference the page buffers of the current row group and are only valid until the next batch.
+ */
+public final class BinaryVector extends ColumnVector {
+
+    private final int[] ids;
+    private final Binary[] values;
+    private Dictionary dictionary;
+    private int plainCount;
+
+    BinaryVector(ColumnDescriptor descriptor, int capacity) {
+        super(descriptor, capacity);
+        this.ids = new int[capacity];
+        this.values = new Binary[capacity];
+    }
+
+    public Binary get(int row) {
+        int id = ids[row];
+        return id >= 0 ? dictionary.decodeToBinary(id) : values[row];
+    }
+
+    /**
+     * @return the dictionary id of the row, or -1 for a null or a value from a plain page
+     */
+    public int dictionaryId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * The backing id array, valid up to {@link #size()}.
+     */
+    public int[] dictionaryIds() {
+        return ids;
+    }
+
+    /**
+     * The dictionary of the current row group, or null if the column chunk has none.
+     */
+    public Dictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Whether every non-null row of this batch is a dictionary id.
+     */
+    public boolean isDictionaryEncoded() {
+        return dictionary != null && plainCount == 0;
+    }
+
+    @Override
+    boolean decodesPages() {
+        return true;
+    }
+
+    @Override
+    void fill(PageColumn column, int rows) {
+        start(rows);
+        dictionary = column.dictionary();
+        plainCount = 0;
+        for (int offset = 0; offset < rows;) {
+            int n = column.nextRows(rows - offset);
+            int defined = defined(column.levels(), offset, n);
+            if (column.isDictionaryEncoded()) {
+                int[] page = column.readIds(defined);
+                for (int i = 0, id = 0; i < n; i++) {
+                    boolean value = defined == n || !isNull(offset + i);
+                    ids[offset + i] = value ? page[id++] : -1;
+                    values[offset + i] = null;
+                }
+            } else {
+                ValuesReader in = column.values();
+                for (int i = 0; i < n; i++) {
+                    boolean value = defined == n || !isNull(offset + i);
+                    ids[offset + i] = -1;
+                    values[offset + i] = value ? in.readBytes() : null;
+                }
+                plainCount += defined;
+            }
+            offset += n;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+
+public final class BooleanVector extends ColumnVector {
+
+    private final boolean[] values;
+
+    BooleanVector(ColumnDescriptor descriptor, int capacity) {
+        super(descriptor, capacity);
+        this.values = new boolean[capacity];
+    }
+
+    public boolean get(int row) {
+        return values[row];
+    }
+
+    /**
+     * The backing array, valid up to {@link #size()}.
+     */
+    public boolean[] values() {
+        return values;
+    }
+
+    @Override
+    void fill(ColumnReader reader, int rows) {
+        start(rows);
+        boolean[] values = this.values;
+        for (int row = 0; row < rows; row++) {
+            values[row] = defined(reader, row) ? reader.getBoolean() : false;
+            reader.consume();
+        }
+    }
+}
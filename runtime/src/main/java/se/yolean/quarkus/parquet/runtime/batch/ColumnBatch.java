@@ -0,0 +1,70 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import java.util.Map;
+
+/**
+ * Up to {@link ColumnBatchReader#batchSize()} rows of the projected columns, all from the same row group.
+ * The batch and its vectors are reused by the next {@link ColumnBatchReader#next()}.
+ */
+public final class ColumnBatch {
+
+    private final ColumnVector[] vectors;
+    private final Map<String, Integer> indexes;
+    private int size;
+
+    ColumnBatch(ColumnVector[] vectors, Map<String, Integer> indexes) {
+        this.vectors = vectors;
+        this.indexes = indexes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int columnCount() {
+        return vectors.length;
+    }
+
+    public ColumnVector column(int index) {
+        return vectors[index];
+    }
+
+    /**
+     * @param path the dot-separated path of the column, as passed to the reader
+     */
+    public ColumnVector column(String path) {
+        Integer index = indexes.get(path);
+        if (index == null) {
+            throw new IllegalArgumentException("Column " + path + " is not part of the projection " + indexes.keySet());
+        }
+        return vectors[index];
+    }
+
+    public IntVector ints(int index) {
+        return (IntVector) vectors[index];
+    }
+
+    public LongVector longs(int index) {
+        return (LongVector) vectors[index];
+    }
+
+    public FloatVector floats(int index) {
+        return (FloatVector) vectors[index];
+    }
+
+    public DoubleVector doubles(int index) {
+        return (DoubleVector) vectors[index];
+    }
+
+    public BooleanVector booleans(int index) {
+        return (BooleanVector) vectors[index];
+    }
+
+    public BinaryVector binaries(int index) {
+        return (BinaryVector) vectors[index];
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,222 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+
+/**
+ * Reads columns into reusable {@link ColumnBatch}es of primitive arrays. Int, binary, fixed-length and
+ * INT96 columns are decoded from their pages a batch at a time, dictionary ids and definition levels by
+ * {@link se.yolean.quarkus.parquet.runtime.decode.HybridDecoder}; other columns are read from the
+ * {@link ColumnReader}s of each row group.
+ * <pre>
+ * try (ColumnBatchReader reader = ColumnBatchReader.open(file, List.of("amount"), 4096)) {
+ *     for (ColumnBatch batch = reader.next(); batch != null; batch = reader.next()) {
+ *         double[] amounts = batch.doubles(0).values();
+ *         for (int row = 0; row &lt; batch.size(); row++) {
+ *             sum += amounts[row];
+ *         }
+ *     }
+ * }
+ * </pre>
+ * Only columns that are not repeated are supported.
+ */
+public final class ColumnBatchReader implements Closeable {
+
+    private final ParquetFileReader reader;
+    private final int batchSize;
+    private final MessageType projection;
+    private final ColumnDescriptor[] descriptors;
+    private final ColumnVector[] vectors;
+    private final ColumnReader[] columnReaders;
+    private final PageColumn[] pageColumns;
+    private final GroupConverter converter;
+    private final ColumnBatch batch;
+    private PageReadStore rowGroup;
+    private long remaining;
+
+    public ColumnBatchReader(ParquetFileReader reader, List<String> columns, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("No columns to read");
+        }
+        this.reader = reader;
+        this.batchSize = batchSize;
+        MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+        MessageType projection = null;
+        Map<String, Integer> indexes = new LinkedHashMap<>();
+        this.descriptors = new ColumnDescriptor[columns.size()];
+        this.vectors = new ColumnVector[columns.size()];
+        for (int i = 0; i < descriptors.length; i++) {
+            String[] path = columns.get(i).split("\\.");
+            if (!schema.containsPath(path)) {
+                throw new IllegalArgumentException("No column " + columns.get(i) + " in " + schema.getName());
+            }
+            ColumnDescriptor descriptor = schema.getColumnDescription(path);
+            if (descriptor.getMaxRepetitionLevel() > 0) {
+                throw new IllegalArgumentException("Column " + columns.get(i) + " is repeated");
+            }
+            MessageType single = new MessageType(schema.getName(), prune(schema, path, 0));
+            projection = projection == null ? single : projection.union(single);
+            descriptors[i] = descriptor;
+            vectors[i] = vector(descriptor, batchSize);
+            if (indexes.put(columns.get(i), i) != null) {
+                throw new IllegalArgumentException("Column " + columns.get(i) + " is listed twice");
+            }
+        }
+        this.projection = projection;
+        this.columnReaders = new ColumnReader[descriptors.length];
+        this.pageColumns = new PageColumn[descriptors.length];
+        String createdBy = reader.getFooter().getFileMetaData().getCreatedBy();
+        for (int i = 0; i < descriptors.length; i++) {
+            if (vectors[i].decodesPages()) {
+                pageColumns[i] = new PageColumn(descriptors[i], createdBy, batchSize);
+            }
+        }
+        this.converter = converter(projection);
+        this.batch = new ColumnBatch(vectors, indexes);
+        reader.setRequestedSchema(projection);
+    }
+
+    /**
+     * Opens {@code file} with {@link ParquetDefaults#readOptions()}.
+     *
+     * @param columns dot-separated column paths
+     */
+    public static ColumnBatchReader open(InputFile file, List<String> columns, int batchSize) throws IOException {
+        ParquetFileReader reader = MetadataCache.shared().open(file, ParquetDefaults.readOptions().build());
+        try {
+            return new ColumnBatchReader(reader, columns, batchSize);
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public MessageType projection() {
+        return projection;
+    }
+
+    /**
+     * Fills the batch with the next rows. The pages of a row group are released once its last batch has
+     * been read past.
+     *
+     * @return the batch, or null at the end of the file
+     */
+    public ColumnBatch next() throws IOException {
+        while (remaining == 0) {
+            closeRowGroup();
+            rowGroup = reader.readNextRowGroup();
+            if (rowGroup == null) {
+                return null;
+            }
+            ColumnReadStoreImpl store = new ColumnReadStoreImpl(rowGroup, converter, projection,
+                    reader.getFooter().getFileMetaData().getCreatedBy());
+            for (int i = 0; i < descriptors.length; i++) {
+                if (pageColumns[i] != null) {
+                    pageColumns[i].rowGroup(rowGroup.getPageReader(descriptors[i]));
+                } else {
+                    columnReaders[i] = store.getColumnReader(descriptors[i]);
+                }
+            }
+            remaining = rowGroup.getRowCount();
+        }
+        int rows = (int) Math.min(batchSize, remaining);
+        for (int i = 0; i < vectors.length; i++) {
+            if (pageColumns[i] != null) {
+                vectors[i].fill(pageColumns[i], rows);
+            } else {
+                vectors[i].fill(columnReaders[i], rows);
+            }
+        }
+        remaining -= rows;
+        batch.setSize(rows);
+        return batch;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeRowGroup();
+        reader.close();
+    }
+
+    private void closeRowGroup() {
+        if (rowGroup != null) {
+            rowGroup.close();
+            rowGroup = null;
+        }
+    }
+
+    private static ColumnVector vector(ColumnDescriptor descriptor, int capacity) {
+        return switch (descriptor.getPrimitiveType().getPrimitiveTypeName()) {
+            case INT32 -> new IntVector(descriptor, capacity);
+            case INT64 -> new LongVector(descriptor, capacity);
+            case FLOAT -> new FloatVector(descriptor, capacity);
+            case DOUBLE -> new DoubleVector(descriptor, capacity);
+            case BOOLEAN -> new BooleanVector(descriptor, capacity);
+            case BINARY, FIXED_LEN_BYTE_ARRAY, INT96 -> new BinaryVector(descriptor, capacity);
+        };
+    }
+
+    /**
+     * The field of {@code group} along {@code path}, keeping only the branch that leads to the column.
+     */
+    private static Type prune(GroupType group, String[] path, int depth) {
+        Type field = group.getType(path[depth]);
+        if (depth == path.length - 1) {
+            return field;
+        }
+        return field.asGroupType().withNewFields(prune(field.asGroupType(), path, depth + 1));
+    }
+
+    /**
+     * A converter tree mirroring {@code group} for {@link ColumnReadStoreImpl}, which is never called as
+     * the vectors read the values themselves.
+     */
+    private static GroupConverter converter(GroupType group) {
+        Converter[] children = new Converter[group.getFieldCount()];
+        for (int i = 0; i < children.length; i++) {
+            Type field = group.getType(i);
+            children[i] = field.isPrimitive() ? new PrimitiveConverter() {
+            } : converter(field.asGroupType());
+        }
+        return new GroupConverter() {
+            @Override
+            public Converter getConverter(int fieldIndex) {
+                return children[fieldIndex];
+            }
+
+            @Override
+            public void start() {
+            }
+
+            @Override
+            public void end() {
+            }
+        };
+    }
+}
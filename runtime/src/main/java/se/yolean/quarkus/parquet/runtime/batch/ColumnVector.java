@@ -0,0 +1,116 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import java.util.Arrays;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+
+/**
+ * The values of one column for the rows of a {@link ColumnBatch}.
+ * <p>
+ * Vectors are allocated once per reader, with room for a full batch, and refilled by every
+ * {@link ColumnBatchReader#next()}. Values at null positions are zero.
+ */
+public abstract class ColumnVector {
+
+    private final ColumnDescriptor descriptor;
+    private final boolean nullable;
+    private final int maxDefinitionLevel;
+    private final long[] validity;
+    private int size;
+    private int nullCount;
+
+    ColumnVector(ColumnDescriptor descriptor, int capacity) {
+        this.descriptor = descriptor;
+        this.maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+        this.nullable = maxDefinitionLevel > 0;
+        this.validity = nullable ? new long[(capacity + 63) >>> 6] : null;
+    }
+
+    public ColumnDescriptor descriptor() {
+        return descriptor;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int nullCount() {
+        return nullCount;
+    }
+
+    public boolean isNull(int row) {
+        return nullable && (validity[row >>> 6] & (1L << row)) == 0;
+    }
+
+    /**
+     * One bit per row, set when the row has a value, or null for required columns.
+     */
+    public long[] validity() {
+        return validity;
+    }
+
+    /**
+     * Whether the vector reads its pages itself, through {@link #fill(PageColumn, int)}, rather than from a
+     * {@link ColumnReader}.
+     */
+    boolean decodesPages() {
+        return false;
+    }
+
+    /**
+     * Reads the next {@code rows} values, consuming them from {@code reader}.
+     */
+    void fill(ColumnReader reader, int rows) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " decodes its pages");
+    }
+
+    /**
+     * Reads the next {@code rows} values from the pages of {@code column}.
+     */
+    void fill(PageColumn column, int rows) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " reads from a ColumnReader");
+    }
+
+    final void start(int rows) {
+        size = rows;
+        nullCount = 0;
+        if (nullable) {
+            Arrays.fill(validity, 0, (rows + 63) >>> 6, -1L);
+        }
+    }
+
+    /**
+     * Whether the current value of {@code reader} is defined, clearing the validity bit of {@code row} if not.
+     */
+    final boolean defined(ColumnReader reader, int row) {
+        if (!nullable || reader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+            return true;
+        }
+        validity[row >>> 6] &= ~(1L << row);
+        nullCount++;
+        return false;
+    }
+
+    /**
+     * Clears the validity bits of the rows from {@code row} whose first {@code n} {@code levels} are below
+     * the maximum definition level.
+     *
+     * @return how many of the rows are defined
+     */
+    final int defined(int[] levels, int row, int n) {
+        if (!nullable) {
+            return n;
+        }
+        int nulls = 0;
+        for (int i = 0; i < n; i++) {
+            if (levels[i] != maxDefinitionLevel) {
+                int r = row + i;
+                validity[r >>> 6] &= ~(1L << r);
+                nulls++;
+            }
+        }
+        nullCount += nulls;
+        return n - nulls;
+    }
+}
@@ -0,0 +1,35 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+
+public final class DoubleVector extends ColumnVector {
+
+    private final double[] values;
+
+    DoubleVector(ColumnDescriptor descriptor, int capacity) {
+        super(descriptor, capacity);
+        this.values = new double[capacity];
+    }
+
+    public double get(int row) {
+        return values[row];
+    }
+
+    /**
+     * The backing array, valid up to {@link #size()}.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    @Override
+    void fill(ColumnReader reader, int rows) {
+        start(rows);
+        double[] values = this.values;
+        for (int row = 0; row < rows; row++) {
+            values[row] = defined(reader, row) ? reader.getDouble() : 0;
+            reader.consume();
+        }
+    }
+}
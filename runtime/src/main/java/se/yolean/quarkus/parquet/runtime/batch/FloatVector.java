@@ -0,0 +1,35 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+
+public final class FloatVector extends ColumnVector {
+
+    private final float[] values;
+
+    FloatVector(ColumnDescriptor descriptor, int capacity) {
+        super(descriptor, capacity);
+        this.values = new float[capacity];
+    }
+
+    public float get(int row) {
+        return values[row];
+    }
+
+    /**
+     * The backing array, valid up to {@link #size()}.
+     */
+    public float[] values() {
+        return values;
+    }
+
+    @Override
+    void fill(ColumnReader reader, int rows) {
+        start(rows);
+        float[] values = this.values;
+        for (int row = 0; row < rows; row++) {
+            values[row] = defined(reader, row) ? reader.getFloat() : 0;
+            reader.consume();
+        }
+    }
+}
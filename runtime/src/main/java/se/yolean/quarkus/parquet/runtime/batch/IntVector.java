@@ -0,0 +1,78 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.values.ValuesReader;
+
+/**
+ * 32-bit integer values. Dictionary-encoded pages are decoded a batch of ids at a time and looked up in
+ * the dictionary of the row group, decoded once into an array.
+ */
+public final class IntVector extends ColumnVector {
+
+    private final int[] values;
+    private Dictionary decoded;
+    private int[] dictionary;
+
+    IntVector(ColumnDescriptor descriptor, int capacity) {
+        super(descriptor, capacity);
+        this.values = new int[capacity];
+    }
+
+    public int get(int row) {
+        return values[row];
+    }
+
+    /**
+     * The backing array, valid up to {@link #size()}.
+     */
+    public int[] values() {
+        return values;
+    }
+
+    @Override
+    boolean decodesPages() {
+        return true;
+    }
+
+    @Override
+    void fill(PageColumn column, int rows) {
+        start(rows);
+        int[] values = this.values;
+        for (int offset = 0; offset < rows;) {
+            int n = column.nextRows(rows - offset);
+            int defined = defined(column.levels(), offset, n);
+            if (column.isDictionaryEncoded()) {
+                int[] dictionary = dictionary(column.dictionary());
+                int[] ids = column.readIds(defined);
+                if (defined == n) {
+                    for (int i = 0; i < n; i++) {
+                        values[offset + i] = dictionary[ids[i]];
+                    }
+                } else {
+                    for (int i = 0, id = 0; i < n; i++) {
+                        values[offset + i] = isNull(offset + i) ? 0 : dictionary[ids[id++]];
+                    }
+                }
+            } else {
+                ValuesReader in = column.values();
+                for (int i = 0; i < n; i++) {
+                    values[offset + i] = defined == n || !isNull(offset + i) ? in.readInteger() : 0;
+                }
+            }
+            offset += n;
+        }
+    }
+
+    private int[] dictionary(Dictionary dictionary) {
+        if (dictionary != decoded) {
+            int[] values = new int[dictionary.getMaxId() + 1];
+            for (int id = 0; id < values.length; id++) {
+                values[id] = dictionary.decodeToInt(id);
+            }
+            this.dictionary = values;
+            decoded = dictionary;
+        }
+        return this.dictionary;
+    }
+}
@@ -0,0 +1,35 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+
+public final class LongVector extends ColumnVector {
+
+    private final long[] values;
+
+    LongVector(ColumnDescriptor descriptor, int capacity) {
+        super(descriptor, capacity);
+        this.values = new long[capacity];
+    }
+
+    public long get(int row) {
+        return values[row];
+    }
+
+    /**
+     * The backing array, valid up to {@link #size()}.
+     */
+    public long[] values() {
+        return values;
+    }
+
+    @Override
+    void fill(ColumnReader reader, int rows) {
+        start(rows);
+        long[] values = this.values;
+        for (int row = 0; row < rows; row++) {
+            values[row] = defined(reader, row) ? reader.getLong() : 0;
+            reader.consume();
+        }
+    }
+}
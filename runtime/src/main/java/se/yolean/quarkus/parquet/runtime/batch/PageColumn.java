@@ -0,0 +1,188 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import java.io.IOException;
+
+import org.apache.parquet.CorruptDeltaByteArrays;
+import org.apache.parquet.bytes.ByteBufferInputStream;
+import org.apache.parquet.bytes.BytesUtils;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.ValuesType;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.DataPageV1;
+import org.apache.parquet.column.page.DataPageV2;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.column.values.RequiresPreviousReader;
+import org.apache.parquet.column.values.ValuesReader;
+import org.apache.parquet.io.ParquetDecodingException;
+
+import se.yolean.quarkus.parquet.runtime.decode.HybridDecoder;
+
+/**
+ * Reads the pages of a column that is not repeated, for vectors that decode them without a
+ * {@code ColumnReader}. Definition levels in the RLE/bit-packed hybrid encoding and the ids of
+ * dictionary-encoded pages are decoded a batch at a time by {@link HybridDecoder}; values of other pages
+ * are left to Parquet's {@link ValuesReader} of their encoding.
+ */
+final class PageColumn {
+
+    private final ColumnDescriptor descriptor;
+    private final String createdBy;
+    private final int maxDefinitionLevel;
+    private final int[] levels;
+    private final int[] ids;
+    private PageReader pages;
+    private Dictionary dictionary;
+    private int pageRemaining;
+    private HybridDecoder levelDecoder;
+    private ValuesReader levelReader;
+    private HybridDecoder idDecoder;
+    private ValuesReader values;
+
+    PageColumn(ColumnDescriptor descriptor, String createdBy, int capacity) {
+        this.descriptor = descriptor;
+        this.createdBy = createdBy;
+        this.maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+        this.levels = new int[capacity];
+        this.ids = new int[capacity];
+    }
+
+    /**
+     * Starts reading the column chunk of the next row group.
+     */
+    void rowGroup(PageReader pages) {
+        this.pages = pages;
+        pageRemaining = 0;
+        values = null;
+        DictionaryPage page = pages.readDictionaryPage();
+        try {
+            dictionary = page == null ? null : page.getEncoding().initDictionary(descriptor, page);
+        } catch (IOException e) {
+            throw new ParquetDecodingException("Could not read the dictionary of " + descriptor, e);
+        }
+    }
+
+    /**
+     * The dictionary of the current row group, or null if the column chunk has none.
+     */
+    Dictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Moves on to the next rows, up to {@code rows} of them and no further than the end of the current
+     * page, reading the next page first if that one is done.
+     *
+     * @return the rows moved on to, whose definition levels are in {@link #levels()} for optional columns
+     */
+    int nextRows(int rows) {
+        if (pageRemaining == 0) {
+            readPage();
+        }
+        int n = Math.min(rows, pageRemaining);
+        if (maxDefinitionLevel > 0) {
+            if (levelDecoder != null) {
+                levelDecoder.read(levels, 0, n);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    levels[i] = levelReader.readInteger();
+                }
+            }
+        }
+        pageRemaining -= n;
+        return n;
+    }
+
+    int[] levels() {
+        return levels;
+    }
+
+    /**
+     * Whether the values of the current page are dictionary ids, to be read with {@link #readIds}, rather
+     * than values read from {@link #values()}.
+     */
+    boolean isDictionaryEncoded() {
+        return idDecoder != null;
+    }
+
+    /**
+     * @return an array holding the next {@code count} ids of the current page from its start
+     */
+    int[] readIds(int count) {
+        idDecoder.read(ids, 0, count);
+        return ids;
+    }
+
+    ValuesReader values() {
+        return values;
+    }
+
+    private void readPage() {
+        DataPage page = pages.readPage();
+        if (page == null) {
+            throw new ParquetDecodingException("Ran out of pages of " + descriptor);
+        }
+        pageRemaining = page.getValueCount();
+        page.accept(new DataPage.Visitor<Void>() {
+            @Override
+            public Void visit(DataPageV1 v1) {
+                try {
+                    ByteBufferInputStream in = v1.getBytes().toInputStream();
+                    // columns that are not repeated have no repetition levels
+                    if (maxDefinitionLevel > 0) {
+                        if (v1.getDlEncoding() == Encoding.RLE) {
+                            int length = BytesUtils.readIntLittleEndian(in);
+                            levelDecoder = new HybridDecoder(BytesUtils.getWidthFromMaxInt(maxDefinitionLevel),
+                                    in.slice(length));
+                        } else {
+                            levelDecoder = null;
+                            levelReader = v1.getDlEncoding().getValuesReader(descriptor, ValuesType.DEFINITION_LEVEL);
+                            levelReader.initFromPage(v1.getValueCount(), in);
+                        }
+                    }
+                    readValues(v1.getValueEncoding(), in, v1.getValueCount());
+                } catch (IOException e) {
+                    throw new ParquetDecodingException("Could not read page " + v1 + " of " + descriptor, e);
+                }
+                return null;
+            }
+
+            @Override
+            public Void visit(DataPageV2 v2) {
+                try {
+                    if (maxDefinitionLevel > 0) {
+                        ByteBufferInputStream levels = v2.getDefinitionLevels().toInputStream();
+                        levelDecoder = new HybridDecoder(BytesUtils.getWidthFromMaxInt(maxDefinitionLevel),
+                                levels.slice(levels.available()));
+                    }
+                    readValues(v2.getDataEncoding(), v2.getData().toInputStream(), v2.getValueCount());
+                } catch (IOException e) {
+                    throw new ParquetDecodingException("Could not read page " + v2 + " of " + descriptor, e);
+                }
+                return null;
+            }
+        });
+    }
+
+    private void readValues(Encoding encoding, ByteBufferInputStream in, int valueCount) throws IOException {
+        if (encoding.usesDictionary()) {
+            if (dictionary == null) {
+                throw new ParquetDecodingException("Page of " + descriptor + " is " + encoding + " without a dictionary");
+            }
+            int bitWidth = BytesUtils.readIntLittleEndianOnOneByte(in);
+            idDecoder = new HybridDecoder(bitWidth, in.slice(in.available()));
+            return;
+        }
+        ValuesReader previous = values;
+        idDecoder = null;
+        values = encoding.getValuesReader(descriptor, ValuesType.VALUES);
+        // DELTA_BYTE_ARRAY pages of some writers continue the prefixes of the page before
+        if (previous != null && values instanceof RequiresPreviousReader sequential
+                && CorruptDeltaByteArrays.requiresSequentialReads(createdBy, encoding)) {
+            sequential.setPreviousReader(previous);
+        }
+        values.initFromPage(valueCount, in);
+    }
+}
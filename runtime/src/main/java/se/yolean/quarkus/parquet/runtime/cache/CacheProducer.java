@@ -0,0 +1,20 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class CacheProducer {
+
+    @Produces
+    @Singleton
+    MetadataCache metadataCache() {
+        return MetadataCache.shared();
+    }
+
+    @Produces
+    @Singleton
+    PageCache pageCache() {
+        return MetadataCache.shared().pageCache();
+    }
+}
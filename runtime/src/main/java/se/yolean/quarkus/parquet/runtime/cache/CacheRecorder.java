@@ -0,0 +1,22 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.annotations.Recorder;
+import se.yolean.quarkus.parquet.runtime.ParquetRuntimeConfig;
+
+@Recorder
+public class CacheRecorder {
+
+    private final RuntimeValue<ParquetRuntimeConfig> config;
+
+    public CacheRecorder(RuntimeValue<ParquetRuntimeConfig> config) {
+        this.config = config;
+    }
+
+    public void install() {
+        ParquetRuntimeConfig.MetadataCacheConfig metadata = config.getValue().metadataCache();
+        ParquetRuntimeConfig.PageCacheConfig pages = config.getValue().pageCache();
+        MetadataCache.install(new MetadataCache(metadata.enabled() ? metadata.maxSize().asLongValue() : 0,
+                new PageCache(pages.enabled() ? pages.maxSize().asLongValue() : 0)));
+    }
+}
@@ -0,0 +1,183 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.DictionaryPageReadStore;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+
+/**
+ * A row group whose page readers tell the {@link CachingCodecFactory} which page they are about to
+ * decompress. Data pages are located through the offset index of their column chunk; a row group read
+ * with row ranges holds only the pages that overlap them, as Parquet filters the offset index, and the
+ * ranges are those Parquet computes from the column indexes of the row group. The offset indexes and
+ * ranges are loaded along with the row group, as pages may be read on another thread than the file.
+ */
+final class CachedPageReadStore implements PageReadStore, DictionaryPageReadStore {
+
+    private final PageReadStore delegate;
+    private final CachingCodecFactory codecs;
+    private final FileIdentity identity;
+    private final BlockMetaData block;
+    private final Map<ColumnPath, OffsetIndex> offsetIndexes;
+    private final Map<ColumnDescriptor, PageReader> pageReaders = new HashMap<>();
+    private final RowRanges ranges;
+
+    private CachedPageReadStore(PageReadStore delegate, CachingCodecFactory codecs, FileIdentity identity,
+            BlockMetaData block, Map<ColumnPath, OffsetIndex> offsetIndexes, RowRanges ranges) {
+        this.delegate = delegate;
+        this.codecs = codecs;
+        this.identity = identity;
+        this.block = block;
+        this.offsetIndexes = offsetIndexes;
+        this.ranges = ranges;
+    }
+
+    /**
+     * @return the row group with cached pages, or {@code pages} itself when its row group is not known
+     */
+    static PageReadStore wrap(PageReadStore pages, CachingFileReader reader, Set<ColumnPath> columns,
+            CachingCodecFactory codecs, FileIdentity identity) throws IOException {
+        if (pages == null || pages instanceof CachedPageReadStore) {
+            return pages;
+        }
+        long rowIndexOffset = pages.getRowIndexOffset().orElse(-1L);
+        if (rowIndexOffset < 0) {
+            return pages;
+        }
+        List<BlockMetaData> blocks = reader.getRowGroups();
+        for (int i = 0; i < blocks.size(); i++) {
+            BlockMetaData block = blocks.get(i);
+            if (block.getRowIndexOffset() == rowIndexOffset && block.getRowCount() > 0) {
+                RowRanges ranges = null;
+                if (pages.getRowIndexes().isPresent()) {
+                    ranges = reader.rowRanges(i);
+                    if (ranges.rowCount() != pages.getRowCount()) {
+                        // not the ranges Parquet read, so its pages cannot be located
+                        return pages;
+                    }
+                }
+                Map<ColumnPath, OffsetIndex> offsetIndexes = new HashMap<>();
+                for (ColumnChunkMetaData column : block.getColumns()) {
+                    if (columns.contains(column.getPath())) {
+                        offsetIndexes.put(column.getPath(), reader.readOffsetIndex(column));
+                    }
+                }
+                return new CachedPageReadStore(pages, codecs, identity, block, offsetIndexes, ranges);
+            }
+        }
+        return pages;
+    }
+
+    @Override
+    public PageReader getPageReader(ColumnDescriptor descriptor) {
+        return pageReaders.computeIfAbsent(descriptor, this::cachedPageReader);
+    }
+
+    @Override
+    public DictionaryPage readDictionaryPage(ColumnDescriptor descriptor) {
+        return getPageReader(descriptor).readDictionaryPage();
+    }
+
+    @Override
+    public long getRowCount() {
+        return delegate.getRowCount();
+    }
+
+    @Override
+    public Optional<Long> getRowIndexOffset() {
+        return delegate.getRowIndexOffset();
+    }
+
+    @Override
+    public Optional<PrimitiveIterator.OfLong> getRowIndexes() {
+        return delegate.getRowIndexes();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private PageReader cachedPageReader(ColumnDescriptor descriptor) {
+        PageReader pages = delegate.getPageReader(descriptor);
+        ColumnPath path = ColumnPath.get(descriptor.getPath());
+        for (ColumnChunkMetaData column : block.getColumns()) {
+            if (column.getPath().equals(path)) {
+                return new CachedPageReader(pages, column, offsetIndexes.get(path));
+            }
+        }
+        return pages;
+    }
+
+    private final class CachedPageReader implements PageReader {
+
+        private final PageReader delegate;
+        private final ColumnChunkMetaData column;
+        private final OffsetIndex offsetIndex;
+        private int[] pages;
+        private int next;
+
+        CachedPageReader(PageReader delegate, ColumnChunkMetaData column, OffsetIndex offsetIndex) {
+            this.delegate = delegate;
+            this.column = column;
+            this.offsetIndex = offsetIndex;
+        }
+
+        @Override
+        public DictionaryPage readDictionaryPage() {
+            return codecs.read(column.hasDictionaryPage()
+                    ? new PageCache.PageKey(identity, column.getPath(), column.getStartingPos())
+                    : null, delegate::readDictionaryPage);
+        }
+
+        @Override
+        public long getTotalValueCount() {
+            return delegate.getTotalValueCount();
+        }
+
+        @Override
+        public DataPage readPage() {
+            int page = nextPage();
+            return codecs.read(page >= 0 ? new PageCache.PageKey(identity, column.getPath(), offsetIndex.getOffset(page))
+                    : null, delegate::readPage);
+        }
+
+        /**
+         * @return the index in the offset index of the page read next, or -1 if it is not known
+         */
+        private int nextPage() {
+            if (pages == null) {
+                pages = offsetIndex == null ? new int[0] : pages();
+            }
+            return next < pages.length ? pages[next++] : -1;
+        }
+
+        private int[] pages() {
+            int[] pages = new int[offsetIndex.getPageCount()];
+            int length = 0;
+            for (int page = 0; page < pages.length; page++) {
+                if (ranges == null || ranges.isOverlapping(offsetIndex.getFirstRowIndex(page),
+                        offsetIndex.getLastRowIndex(page, block.getRowCount()))) {
+                    pages[length++] = page;
+                }
+            }
+            return Arrays.copyOf(pages, length);
+        }
+    }
+}
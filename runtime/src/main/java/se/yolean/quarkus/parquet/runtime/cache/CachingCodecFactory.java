@@ -0,0 +1,102 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+/**
+ * Decompresses pages through a {@link PageCache}. Parquet decompresses a page inside
+ * {@code PageReader#readPage}, so {@link CachedPageReadStore} reads each page through {@link #read} with
+ * its key, and the one decompression on that thread during the read is looked up under it. Decompressions
+ * outside such a read, or past the first of one, bypass the cache.
+ */
+final class CachingCodecFactory implements CompressionCodecFactory {
+
+    private final CompressionCodecFactory delegate;
+    private final PageCache cache;
+    private final ThreadLocal<PageCache.PageKey> expected = new ThreadLocal<>();
+
+    CachingCodecFactory(CompressionCodecFactory delegate, PageCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * @param key the page {@code read} decompresses, or null to decompress it without the cache
+     * @return the page read
+     */
+    <P> P read(PageCache.PageKey key, Supplier<P> read) {
+        if (expected.get() != null) {
+            throw new IllegalStateException("Page " + key + " read while " + expected.get() + " is being read");
+        }
+        expected.set(key);
+        try {
+            return read.get();
+        } finally {
+            expected.remove();
+        }
+    }
+
+    @Override
+    public BytesInputCompressor getCompressor(CompressionCodecName codecName) {
+        return delegate.getCompressor(codecName);
+    }
+
+    @Override
+    public BytesInputDecompressor getDecompressor(CompressionCodecName codecName) {
+        BytesInputDecompressor decompressor = delegate.getDecompressor(codecName);
+        return codecName == CompressionCodecName.UNCOMPRESSED ? decompressor : new CachingDecompressor(decompressor);
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+
+    private PageCache.PageKey takeExpected() {
+        PageCache.PageKey key = expected.get();
+        if (key != null) {
+            expected.remove();
+        }
+        return key;
+    }
+
+    private final class CachingDecompressor implements BytesInputDecompressor {
+
+        private final BytesInputDecompressor decompressor;
+
+        CachingDecompressor(BytesInputDecompressor decompressor) {
+            this.decompressor = decompressor;
+        }
+
+        @Override
+        public BytesInput decompress(BytesInput bytes, int decompressedSize) throws IOException {
+            PageCache.PageKey key = takeExpected();
+            if (key == null) {
+                return decompressor.decompress(bytes, decompressedSize);
+            }
+            ByteBuffer page = cache.get(key);
+            if (page == null || page.remaining() != decompressedSize) {
+                page = cache.put(key, decompressor.decompress(bytes, decompressedSize).toByteBuffer());
+            }
+            return BytesInput.from(page);
+        }
+
+        @Override
+        public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int decompressedSize)
+                throws IOException {
+            // only used with off-heap decryption buffers, which are left uncached
+            takeExpected();
+            decompressor.decompress(input, compressedSize, output, decompressedSize);
+        }
+
+        @Override
+        public void release() {
+            decompressor.release();
+        }
+    }
+}
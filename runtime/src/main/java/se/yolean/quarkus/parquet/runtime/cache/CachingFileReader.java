@@ -0,0 +1,209 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexFilter;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.internal.hadoop.metadata.IndexReference;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.MessageType;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetTracing;
+
+/**
+ * Loads column and offset indexes through a {@link MetadataCache}; Parquet reads them through these
+ * methods when filtering pages. When a {@link PageCache} is enabled, the row groups it returns decompress
+ * their pages through it. Files that are not local, without an identity, are read without the caches.
+ * <p>
+ * Each row group read is traced, once, even when Parquet reads it through another of the read methods. The
+ * next row group is told by the first row of the pages read, so reading past the last one is not traced.
+ */
+final class CachingFileReader extends ParquetFileReader {
+
+    private final MetadataCache cache;
+    private final FileIdentity identity;
+    private final CachingCodecFactory codecs;
+    private final InputFile file;
+    private final ParquetTracing tracing;
+    private final FilterCompat.Filter filter;
+    private Set<ColumnPath> columns;
+    private boolean reading;
+    private int next;
+
+    /**
+     * @param identity the identity of a local file, or null to not cache
+     */
+    CachingFileReader(InputFile file, ParquetMetadata footer, ParquetReadOptions options, SeekableInputStream stream,
+            MetadataCache cache, FileIdentity identity, ParquetTracing tracing) throws IOException {
+        this(file, footer, options, stream, cache, identity, tracing, identity != null && cache.pageCache().isEnabled()
+                ? new CachingCodecFactory(options.getCodecFactory(), cache.pageCache())
+                : null);
+    }
+
+    private CachingFileReader(InputFile file, ParquetMetadata footer, ParquetReadOptions options,
+            SeekableInputStream stream, MetadataCache cache, FileIdentity identity, ParquetTracing tracing,
+            CachingCodecFactory codecs) throws IOException {
+        super(file, footer, codecs != null ? ParquetDefaults.readOptions().copy(options).withCodecFactory(codecs).build()
+                : options, stream);
+        this.cache = cache;
+        this.identity = identity;
+        this.codecs = codecs;
+        this.file = file;
+        this.tracing = tracing;
+        this.filter = options.getRecordFilter();
+        this.columns = paths(footer.getFileMetaData().getSchema());
+    }
+
+    @Override
+    public void setRequestedSchema(MessageType projection) {
+        super.setRequestedSchema(projection);
+        columns = paths(projection);
+    }
+
+    @Override
+    public PageReadStore readRowGroup(int blockIndex) throws IOException {
+        return read(blockIndex, () -> super.readRowGroup(blockIndex));
+    }
+
+    @Override
+    public PageReadStore readNextRowGroup() throws IOException {
+        return read(-1, super::readNextRowGroup);
+    }
+
+    @Override
+    public PageReadStore readFilteredRowGroup(int blockIndex) throws IOException {
+        return read(blockIndex, () -> super.readFilteredRowGroup(blockIndex));
+    }
+
+    @Override
+    public PageReadStore readNextFilteredRowGroup() throws IOException {
+        return read(-1, super::readNextFilteredRowGroup);
+    }
+
+    @Override
+    public boolean skipNextRowGroup() {
+        boolean skipped = super.skipNextRowGroup();
+        if (skipped) {
+            next++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public ColumnIndex readColumnIndex(ColumnChunkMetaData column) throws IOException {
+        IndexReference reference = column.getColumnIndexReference();
+        if (reference == null || identity == null || !cache.isEnabled()) {
+            return super.readColumnIndex(column);
+        }
+        MetadataCache.IndexKey key = new MetadataCache.IndexKey(identity, column.getPath(), reference.getOffset());
+        ColumnIndex index = cache.get(key);
+        if (index == null) {
+            index = super.readColumnIndex(column);
+            if (index != null) {
+                cache.put(key, index, reference.getLength());
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public OffsetIndex readOffsetIndex(ColumnChunkMetaData column) throws IOException {
+        IndexReference reference = column.getOffsetIndexReference();
+        if (reference == null || identity == null || !cache.isEnabled()) {
+            return super.readOffsetIndex(column);
+        }
+        MetadataCache.IndexKey key = new MetadataCache.IndexKey(identity, column.getPath(), reference.getOffset());
+        OffsetIndex index = cache.get(key);
+        if (index == null) {
+            index = super.readOffsetIndex(column);
+            if (index != null) {
+                cache.put(key, index, reference.getLength());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return the rows of a row group that {@link #readFilteredRowGroup} reads, computed the way Parquet does
+     */
+    RowRanges rowRanges(int blockIndex) {
+        return ColumnIndexFilter.calculateRowRanges(filter, getColumnIndexStore(blockIndex), columns,
+                getRowGroups().get(blockIndex).getRowCount());
+    }
+
+    /**
+     * @param blockIndex the index of the row group, or -1 for the next one
+     */
+    private PageReadStore read(int blockIndex, RowGroupRead read) throws IOException {
+        if (reading || blockIndex < 0 && next == getRowGroups().size()) {
+            return cachingPages(read.read());
+        }
+        ParquetTracing.Span span = tracing.start(ParquetTracing.READ_ROW_GROUP, file);
+        reading = true;
+        try {
+            if (blockIndex >= 0) {
+                span.set(ParquetTracing.ROW_GROUP, blockIndex);
+            }
+            PageReadStore pages = read.read();
+            if (pages != null) {
+                if (blockIndex < 0) {
+                    next = rowGroupOf(pages);
+                    span.set(ParquetTracing.ROW_GROUP, next++);
+                }
+                span.set(ParquetTracing.ROWS, pages.getRowCount());
+            }
+            return cachingPages(pages);
+        } catch (IOException | RuntimeException e) {
+            span.failed(e);
+            throw e;
+        } finally {
+            reading = false;
+            span.close();
+        }
+    }
+
+    /**
+     * @return the index of the row group starting at the first row of {@code pages}, searching from
+     *         {@link #next} as filters skip row groups without reading them
+     */
+    private int rowGroupOf(PageReadStore pages) {
+        List<BlockMetaData> rowGroups = getRowGroups();
+        long offset = pages.getRowIndexOffset().orElse(-1L);
+        for (int i = next; i < rowGroups.size(); i++) {
+            if (rowGroups.get(i).getRowIndexOffset() == offset) {
+                return i;
+            }
+        }
+        return next;
+    }
+
+    private PageReadStore cachingPages(PageReadStore pages) throws IOException {
+        return codecs != null ? CachedPageReadStore.wrap(pages, this, columns, codecs, identity) : pages;
+    }
+
+    private static Set<ColumnPath> paths(MessageType schema) {
+        return schema.getColumns().stream()
+                .map(column -> ColumnPath.get(column.getPath()))
+                .collect(Collectors.toSet());
+    }
+
+    private interface RowGroupRead {
+
+        PageReadStore read() throws IOException;
+    }
+}
@@ -0,0 +1,34 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import org.apache.parquet.io.InputFile;
+
+import se.yolean.quarkus.parquet.runtime.io.MappedInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+
+/**
+ * A version of a local file: rewriting it changes its size or modification time, and so its identity.
+ */
+public record FileIdentity(Path path, long size, FileTime lastModified) {
+
+    /**
+     * @return the identity of a local file, or null for other files, whose metadata is not cached
+     */
+    public static FileIdentity of(InputFile file) throws IOException {
+        Path path;
+        if (file instanceof NioInputFile nio) {
+            path = nio.getPath();
+        } else if (file instanceof MappedInputFile mapped) {
+            path = mapped.getPath();
+        } else {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new FileIdentity(path.toAbsolutePath().normalize(), attributes.size(), attributes.lastModifiedTime());
+    }
+}
@@ -0,0 +1,161 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetMetrics;
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetTracing;
+
+/**
+ * Parsed footers, column indexes and offset indexes of local files, so that reopening a file skips reading
+ * and decoding them.
+ * <p>
+ * Entries are keyed by {@link FileIdentity}, so a rewritten file is read afresh, and weighed by their
+ * serialized size in the file. The least recently used entries are evicted once the total weight exceeds
+ * the maximum. A cache with a maximum of zero is disabled.
+ * <p>
+ * Readers it opens also decompress pages through its {@link PageCache}. With both disabled, and neither
+ * metrics nor tracing enabled, files are opened as Parquet does. Readers opened through the extension use
+ * the {@link #shared() shared} cache, configured through {@code quarkus.parquet.metadata-cache.*} and
+ * injectable as a bean.
+ */
+public final class MetadataCache {
+
+    private static final int FOOTER_TAIL = 8;
+
+    private static volatile MetadataCache shared = new MetadataCache(0);
+
+    private final long maxWeight;
+    private final PageCache pageCache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final WeightedLru<Object, Object> entries;
+
+    public MetadataCache(long maxWeight) {
+        this(maxWeight, new PageCache(0));
+    }
+
+    public MetadataCache(long maxWeight, PageCache pageCache) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Max weight must not be negative: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.pageCache = pageCache;
+        this.entries = new WeightedLru<>(maxWeight, evictions);
+    }
+
+    public static MetadataCache shared() {
+        return shared;
+    }
+
+    static void install(MetadataCache cache) {
+        shared = cache;
+    }
+
+    public boolean isEnabled() {
+        return maxWeight > 0;
+    }
+
+    public PageCache pageCache() {
+        return pageCache;
+    }
+
+    /**
+     * Opens {@code file} with its cached footer, caching the footer and the column and offset indexes the
+     * reader loads. Footers are parsed differently depending on whether min and max statistics of strings
+     * are signed, so they are cached for each setting. Footers of files read with a metadata filter are not
+     * cached. Files that are not local, or are read with decryption properties, are opened without the
+     * caches.
+     * <p>
+     * The reader counts what it reads in the {@link ParquetMetrics#shared() shared} metrics and traces the
+     * opening and the row groups it reads through the {@link ParquetTracing#shared() shared} tracing.
+     */
+    public ParquetFileReader open(InputFile file, ParquetReadOptions options) throws IOException {
+        boolean cacheable = options.getDecryptionProperties() == null;
+        boolean cacheFooter = cacheable && isEnabled() && options.getMetadataFilter() == ParquetMetadataConverter.NO_FILTER;
+        FileIdentity identity = cacheable && (cacheFooter || pageCache.isEnabled()) ? FileIdentity.of(file) : null;
+        ParquetMetrics metrics = ParquetMetrics.shared();
+        ParquetTracing tracing = ParquetTracing.shared();
+        if (identity == null && !metrics.isEnabled() && !tracing.isEnabled()) {
+            return ParquetFileReader.open(file, options);
+        }
+        cacheFooter &= identity != null;
+        ParquetTracing.Span span = tracing.start(ParquetTracing.OPEN, file);
+        SeekableInputStream stream = null;
+        try {
+            stream = metrics.meter(file.newStream());
+            FooterKey key = cacheFooter ? new FooterKey(identity, options.useSignedStringMinMax()) : null;
+            ParquetMetadata footer = cacheFooter ? get(key) : null;
+            if (footer == null) {
+                footer = ParquetFileReader.readFooter(file, options, stream);
+                if (cacheFooter) {
+                    put(key, footer, footerLength(stream, identity.size()));
+                }
+            }
+            span.set(ParquetTracing.ROWS, footer.getBlocks().stream().mapToLong(BlockMetaData::getRowCount).sum());
+            return new CachingFileReader(file, footer, options, stream, this, identity, tracing);
+        } catch (IOException | RuntimeException e) {
+            span.failed(e);
+            if (stream != null) {
+                stream.close();
+            }
+            throw e;
+        } finally {
+            span.close();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), entries.weight());
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    <V> V get(Object key) {
+        Object value = entries.get(key);
+        if (value == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return (V) value;
+    }
+
+    void put(Object key, Object value, long entryWeight) {
+        entries.put(key, value, entryWeight);
+    }
+
+    private static long footerLength(SeekableInputStream stream, long fileLength) throws IOException {
+        ByteBuffer tail = ByteBuffer.allocate(FOOTER_TAIL).order(ByteOrder.LITTLE_ENDIAN);
+        stream.seek(fileLength - FOOTER_TAIL);
+        stream.readFully(tail);
+        return tail.getInt(0) + FOOTER_TAIL;
+    }
+
+    record FooterKey(FileIdentity file, boolean signedStringMinMax) {
+    }
+
+    record IndexKey(FileIdentity file, ColumnPath column, long offset) {
+    }
+
+    /**
+     * @param weight the serialized size of the cached entries
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long weight) {
+    }
+}
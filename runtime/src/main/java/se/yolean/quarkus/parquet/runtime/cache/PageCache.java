@@ -0,0 +1,107 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+
+/**
+ * Decompressed dictionary and data pages of local files, held in direct buffers outside the Java heap, so
+ * that reading a page again skips decompressing it.
+ * <p>
+ * Pages are keyed by the {@link FileIdentity} of their file, their column and their offset in the file.
+ * The cache is split into segments by key, each evicting its least recently used pages once it holds more
+ * than its share of the maximum size, so that concurrent readers rarely contend. Evicted buffers are freed
+ * by the garbage collector once no reader refers to them; {@code -XX:MaxDirectMemorySize} must leave room
+ * for the maximum size. A cache with a maximum of zero is disabled.
+ * <p>
+ * Readers opened through the {@link MetadataCache} use its page cache, configured through
+ * {@code quarkus.parquet.page-cache.*} and injectable as a bean. Only compressed pages are cached, and data
+ * pages only of column chunks with an offset index.
+ */
+public final class PageCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final long maxSize;
+    private final WeightedLru<PageKey, ByteBuffer>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public PageCache(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Max size must not be negative: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.segments = new WeightedLru[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new WeightedLru<>(maxSize / SEGMENTS, evictions);
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public Stats stats() {
+        int entries = 0;
+        long size = 0;
+        for (WeightedLru<PageKey, ByteBuffer> segment : segments) {
+            entries += segment.size();
+            size += segment.weight();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries, size);
+    }
+
+    public void clear() {
+        for (WeightedLru<PageKey, ByteBuffer> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return a read-only view of the cached page, or null
+     */
+    ByteBuffer get(PageKey key) {
+        ByteBuffer page = segment(key).get(key);
+        if (page == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return page.asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies {@code page} from its position to its limit into a direct buffer and caches that, unless the
+     * page is larger than its segment's share of the maximum size.
+     *
+     * @return a read-only view of the cached copy, or {@code page} itself if it is not cached
+     */
+    ByteBuffer put(PageKey key, ByteBuffer page) {
+        WeightedLru<PageKey, ByteBuffer> segment = segment(key);
+        if (!segment.fits(page.remaining())) {
+            return page;
+        }
+        ByteBuffer copy = ByteBuffer.allocateDirect(page.remaining());
+        copy.put(page.duplicate()).flip();
+        segment.put(key, copy, copy.capacity());
+        return copy.asReadOnlyBuffer();
+    }
+
+    private WeightedLru<PageKey, ByteBuffer> segment(PageKey key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    record PageKey(FileIdentity file, ColumnPath column, long offset) {
+    }
+
+    /**
+     * @param size the decompressed size of the cached pages
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long size) {
+    }
+}
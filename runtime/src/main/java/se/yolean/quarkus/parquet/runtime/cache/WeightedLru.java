@@ -0,0 +1,63 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A least recently used map bounded by the total weight of its values, counting evictions.
+ */
+final class WeightedLru<K, V> {
+
+    private final long maxWeight;
+    private final LongAdder evictions;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    WeightedLru(long maxWeight, LongAdder evictions) {
+        this.maxWeight = maxWeight;
+        this.evictions = evictions;
+    }
+
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Whether a value of {@code entryWeight} can be held at all; heavier ones are never put.
+     */
+    boolean fits(long entryWeight) {
+        return entryWeight <= maxWeight;
+    }
+
+    synchronized void put(K key, V value, long entryWeight) {
+        if (!fits(entryWeight)) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, entryWeight));
+        weight += entryWeight - (previous != null ? previous.weight : 0);
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (weight > maxWeight) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return weight;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    private record Entry<V>(V value, long weight) {
+    }
+}
@@ -0,0 +1,65 @@
+package se.yolean.quarkus.parquet.runtime.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputCompressor;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import io.airlift.compress.Compressor;
+
+/**
+ * Compresses pages with a pooled pure-Java aircompressor codec. The input and output arrays are reused
+ * across the pages of a writer.
+ */
+final class AirliftCompressor implements BytesInputCompressor {
+
+    private final CompressionCodecName codecName;
+    private final CodecPool<Compressor> compressors;
+    private PageBuffer input = new PageBuffer();
+    private byte[] output = new byte[0];
+
+    AirliftCompressor(CompressionCodecName codecName, CodecPool<Compressor> compressors) {
+        this.codecName = codecName;
+        this.compressors = compressors;
+    }
+
+    @Override
+    public BytesInput compress(BytesInput bytes) throws IOException {
+        input.reset();
+        bytes.writeAllTo(input);
+        Compressor compressor = compressors.borrow();
+        try {
+            int maxLength = compressor.maxCompressedLength(input.size());
+            if (output.length < maxLength) {
+                output = new byte[maxLength];
+            }
+            int length = compressor.compress(input.array(), 0, input.size(), output, 0, output.length);
+            return BytesInput.from(output, 0, length);
+        } finally {
+            compressors.release(compressor);
+        }
+    }
+
+    @Override
+    public CompressionCodecName getCodecName() {
+        return codecName;
+    }
+
+    @Override
+    public void release() {
+        input = null;
+        output = null;
+    }
+
+    /**
+     * Exposes the array written to, so pages are not copied once more.
+     */
+    static final class PageBuffer extends ByteArrayOutputStream {
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
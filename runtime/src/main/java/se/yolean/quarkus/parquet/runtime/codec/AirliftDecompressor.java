@@ -0,0 +1,73 @@
+package se.yolean.quarkus.parquet.runtime.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputDecompressor;
+
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.MalformedInputException;
+
+/**
+ * Decompresses pages with a pooled pure-Java aircompressor codec. It holds no state of its own, so one
+ * instance serves every column chunk. Every page gets its own output array, as dictionaries keep referring
+ * to the decompressed bytes after the next page has been read.
+ */
+final class AirliftDecompressor implements BytesInputDecompressor {
+
+    private final CodecPool<Decompressor> decompressors;
+
+    AirliftDecompressor(CodecPool<Decompressor> decompressors) {
+        this.decompressors = decompressors;
+    }
+
+    @Override
+    public BytesInput decompress(BytesInput bytes, int decompressedSize) throws IOException {
+        byte[] input = bytes.toByteArray();
+        byte[] output = new byte[decompressedSize];
+        Decompressor decompressor = decompressors.borrow();
+        try {
+            int length = decompressor.decompress(input, 0, input.length, output, 0, decompressedSize);
+            checkLength(length, decompressedSize);
+        } catch (MalformedInputException e) {
+            throw new IOException("Malformed compressed page", e);
+        } finally {
+            decompressors.release(decompressor);
+        }
+        return BytesInput.from(output);
+    }
+
+    @Override
+    public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int decompressedSize)
+            throws IOException {
+        ByteBuffer in = input.slice(input.position(), compressedSize);
+        ByteBuffer out = output.slice(output.position(), decompressedSize);
+        if (in.isReadOnly() && !in.isDirect()) {
+            byte[] copy = new byte[compressedSize];
+            in.get(copy);
+            in = ByteBuffer.wrap(copy);
+        }
+        Decompressor decompressor = decompressors.borrow();
+        try {
+            decompressor.decompress(in, out);
+        } catch (MalformedInputException e) {
+            throw new IOException("Malformed compressed page", e);
+        } finally {
+            decompressors.release(decompressor);
+        }
+        checkLength(out.position(), decompressedSize);
+        input.position(input.position() + compressedSize);
+        output.position(output.position() + decompressedSize);
+    }
+
+    @Override
+    public void release() {
+    }
+
+    private static void checkLength(int actual, int expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Decompressed " + actual + " bytes but the page header declares " + expected);
+        }
+    }
+}
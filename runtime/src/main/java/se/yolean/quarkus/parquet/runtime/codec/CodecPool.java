@@ -0,0 +1,66 @@
+package se.yolean.quarkus.parquet.runtime.codec;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Codec instances shared by every reader and writer, each borrowed for the compression of one page. Up to
+ * twice as many instances as there are processors are kept idle, the rest are discarded on release.
+ */
+final class CodecPool<T> {
+
+    private final Supplier<T> create;
+    private final Consumer<T> reset;
+    private final Consumer<T> discard;
+    private final int maxIdle = 2 * Runtime.getRuntime().availableProcessors();
+    private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+
+    CodecPool(Supplier<T> create) {
+        this(create, codec -> {
+        }, codec -> {
+        });
+    }
+
+    /**
+     * @param reset prepares a released instance for the next borrower
+     * @param discard frees the resources of an instance that is not kept
+     */
+    CodecPool(Supplier<T> create, Consumer<T> reset, Consumer<T> discard) {
+        this.create = create;
+        this.reset = reset;
+        this.discard = discard;
+    }
+
+    T borrow() {
+        T codec = idle.poll();
+        if (codec != null) {
+            idleCount.decrementAndGet();
+            return codec;
+        }
+        created.increment();
+        return create.get();
+    }
+
+    void release(T codec) {
+        reset.accept(codec);
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(codec);
+        } else {
+            idleCount.decrementAndGet();
+            discard.accept(codec);
+        }
+    }
+
+    /**
+     * @return the number of instances created so far
+     */
+    long created() {
+        return created.sum();
+    }
+}
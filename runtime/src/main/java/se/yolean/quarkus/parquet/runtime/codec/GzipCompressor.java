@@ -0,0 +1,62 @@
+package se.yolean.quarkus.parquet.runtime.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputCompressor;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+/**
+ * Writes the same gzip members as {@link java.util.zip.GZIPOutputStream}, with a pooled {@link Deflater}
+ * instead of one allocated, and freed, per page.
+ */
+final class GzipCompressor implements BytesInputCompressor {
+
+    // magic, deflate, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    private final CodecPool<Deflater> deflaters;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final CRC32 crc = new CRC32();
+
+    GzipCompressor(CodecPool<Deflater> deflaters) {
+        this.deflaters = deflaters;
+    }
+
+    @Override
+    public BytesInput compress(BytesInput bytes) throws IOException {
+        output.reset();
+        output.write(HEADER);
+        crc.reset();
+        Deflater deflater = deflaters.borrow();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(output, deflater)) {
+            bytes.writeAllTo(new CheckedOutputStream(deflate, crc));
+        } finally {
+            deflaters.release(deflater);
+        }
+        writeInt((int) crc.getValue());
+        writeInt((int) bytes.size());
+        return BytesInput.from(output);
+    }
+
+    @Override
+    public CompressionCodecName getCodecName() {
+        return CompressionCodecName.GZIP;
+    }
+
+    @Override
+    public void release() {
+    }
+
+    private void writeInt(int value) {
+        output.write(value);
+        output.write(value >>> 8);
+        output.write(value >>> 16);
+        output.write(value >>> 24);
+    }
+}
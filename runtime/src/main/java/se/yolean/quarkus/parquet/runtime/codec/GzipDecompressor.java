@@ -0,0 +1,130 @@
+package se.yolean.quarkus.parquet.runtime.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputDecompressor;
+
+/**
+ * Reads the gzip members of a page with a pooled {@link Inflater}, instead of the one
+ * {@link java.util.zip.GZIPInputStream} allocates, and frees, per page. Holds no state of its own.
+ */
+final class GzipDecompressor implements BytesInputDecompressor {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final CodecPool<Inflater> inflaters;
+
+    GzipDecompressor(CodecPool<Inflater> inflaters) {
+        this.inflaters = inflaters;
+    }
+
+    @Override
+    public BytesInput decompress(BytesInput bytes, int decompressedSize) throws IOException {
+        byte[] input = bytes.toByteArray();
+        byte[] output = new byte[decompressedSize];
+        Inflater inflater = inflaters.borrow();
+        try {
+            int offset = 0;
+            int length = 0;
+            // Hadoop's codec may write more than one member per page
+            while (offset < input.length && length < decompressedSize) {
+                offset = skipHeader(input, offset);
+                inflater.reset();
+                inflater.setInput(input, offset, input.length - offset);
+                int start = length;
+                while (!inflater.finished() && length < decompressedSize) {
+                    int inflated = inflater.inflate(output, length, decompressedSize - length);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated gzip page");
+                    }
+                    length += inflated;
+                }
+                if (!inflater.finished() && inflater.inflate(new byte[1]) > 0) {
+                    throw new IOException("Decompressed more bytes than the page header declares: " + decompressedSize);
+                }
+                offset = input.length - inflater.getRemaining();
+                checkTrailer(input, offset, output, start, length);
+                offset += 8;
+            }
+            if (length != decompressedSize) {
+                throw new IOException("Decompressed " + length + " bytes but the page header declares " + decompressedSize);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Malformed compressed page", e);
+        } finally {
+            inflaters.release(inflater);
+        }
+        return BytesInput.from(output);
+    }
+
+    @Override
+    public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int decompressedSize)
+            throws IOException {
+        ByteBuffer in = input.slice(input.position(), compressedSize);
+        BytesInput decompressed = decompress(BytesInput.from(in), decompressedSize);
+        output.put(decompressed.toByteArray());
+        input.position(input.position() + compressedSize);
+    }
+
+    @Override
+    public void release() {
+    }
+
+    private static int skipHeader(byte[] input, int offset) throws IOException {
+        if (input.length - offset < 10 || input[offset] != 0x1f || input[offset + 1] != (byte) 0x8b || input[offset + 2] != 8) {
+            throw new IOException("Not a gzip member at offset " + offset);
+        }
+        int flags = input[offset + 3];
+        int position = offset + 10;
+        if ((flags & FEXTRA) != 0) {
+            position += 2 + (readShort(input, position) & 0xffff);
+        }
+        if ((flags & FNAME) != 0) {
+            position = skipZeroTerminated(input, position);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            position = skipZeroTerminated(input, position);
+        }
+        if ((flags & FHCRC) != 0) {
+            position += 2;
+        }
+        if (position > input.length) {
+            throw new IOException("Truncated gzip header");
+        }
+        return position;
+    }
+
+    private static int skipZeroTerminated(byte[] input, int position) throws IOException {
+        while (position < input.length && input[position] != 0) {
+            position++;
+        }
+        return position + 1;
+    }
+
+    private static void checkTrailer(byte[] input, int offset, byte[] output, int start, int end) throws IOException {
+        if (input.length - offset < 8) {
+            throw new IOException("Truncated gzip trailer");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(output, start, end - start);
+        if (readInt(input, offset) != (int) crc.getValue() || readInt(input, offset + 4) != end - start) {
+            throw new IOException("Corrupt gzip page, its checksum or size does not match");
+        }
+    }
+
+    private static int readShort(byte[] input, int offset) {
+        return (input[offset] & 0xff) | (input[offset + 1] & 0xff) << 8;
+    }
+
+    private static int readInt(byte[] input, int offset) {
+        return readShort(input, offset) | readShort(input, offset + 2) << 16;
+    }
+}
@@ -0,0 +1,122 @@
+package se.yolean.quarkus.parquet.runtime.codec;
+
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.CodecFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.snappy.SnappyCompressor;
+import io.airlift.compress.snappy.SnappyDecompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+
+/**
+ * {@link CompressionCodecFactory} that needs neither Hadoop nor native libraries for the codecs
+ * applications actually use: {@code SNAPPY}, {@code ZSTD} and {@code LZ4_RAW} are implemented by
+ * aircompressor and {@code GZIP} by {@link java.util.zip}. Other codecs are delegated to Parquet's
+ * Hadoop-based {@link CodecFactory} when Hadoop is on the classpath.
+ * <p>
+ * The codec instances, with their hash tables, zstd contexts and zlib streams, are pooled across all
+ * factories and borrowed for one page at a time. Decompressors hold no other state and are shared by
+ * every column chunk, while each compressor keeps the page buffers of its writer.
+ */
+public final class ParquetCodecFactory implements CompressionCodecFactory {
+
+    static final CodecPool<Compressor> SNAPPY_COMPRESSORS = new CodecPool<>(SnappyCompressor::new);
+    static final CodecPool<Compressor> ZSTD_COMPRESSORS = new CodecPool<>(ZstdCompressor::new);
+    static final CodecPool<Compressor> LZ4_COMPRESSORS = new CodecPool<>(Lz4Compressor::new);
+    static final CodecPool<Deflater> DEFLATERS = new CodecPool<>(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true),
+            Deflater::reset, Deflater::end);
+    static final CodecPool<Decompressor> SNAPPY_DECOMPRESSORS = new CodecPool<>(SnappyDecompressor::new);
+    static final CodecPool<Decompressor> ZSTD_DECOMPRESSORS = new CodecPool<>(ZstdDecompressor::new);
+    static final CodecPool<Decompressor> LZ4_DECOMPRESSORS = new CodecPool<>(Lz4Decompressor::new);
+    static final CodecPool<Inflater> INFLATERS = new CodecPool<>(() -> new Inflater(true), Inflater::reset, Inflater::end);
+
+    private static final UncompressedCodec UNCOMPRESSED = new UncompressedCodec();
+    private static final BytesInputDecompressor SNAPPY = new AirliftDecompressor(SNAPPY_DECOMPRESSORS);
+    private static final BytesInputDecompressor ZSTD = new AirliftDecompressor(ZSTD_DECOMPRESSORS);
+    private static final BytesInputDecompressor LZ4_RAW = new AirliftDecompressor(LZ4_DECOMPRESSORS);
+    private static final BytesInputDecompressor GZIP = new GzipDecompressor(INFLATERS);
+
+    private CompressionCodecFactory hadoopCodecs;
+
+    @Override
+    public BytesInputCompressor getCompressor(CompressionCodecName codecName) {
+        switch (codecName) {
+            case UNCOMPRESSED:
+                return UNCOMPRESSED;
+            case SNAPPY:
+                return new AirliftCompressor(codecName, SNAPPY_COMPRESSORS);
+            case ZSTD:
+                return new AirliftCompressor(codecName, ZSTD_COMPRESSORS);
+            case LZ4_RAW:
+                return new AirliftCompressor(codecName, LZ4_COMPRESSORS);
+            case GZIP:
+                return new GzipCompressor(DEFLATERS);
+            default:
+                return hadoopCodecs(codecName).getCompressor(codecName);
+        }
+    }
+
+    @Override
+    public BytesInputDecompressor getDecompressor(CompressionCodecName codecName) {
+        switch (codecName) {
+            case UNCOMPRESSED:
+                return UNCOMPRESSED;
+            case SNAPPY:
+                return SNAPPY;
+            case ZSTD:
+                return ZSTD;
+            case LZ4_RAW:
+                return LZ4_RAW;
+            case GZIP:
+                return GZIP;
+            default:
+                return hadoopCodecs(codecName).getDecompressor(codecName);
+        }
+    }
+
+    /**
+     * Whether the decompressor for {@code codecName} may be used by several threads at once, which holds
+     * for the codecs implemented here but not for those delegated to Hadoop.
+     */
+    public static boolean isThreadSafe(CompressionCodecName codecName) {
+        switch (codecName) {
+            case UNCOMPRESSED:
+            case SNAPPY:
+            case ZSTD:
+            case LZ4_RAW:
+            case GZIP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public synchronized void release() {
+        if (hadoopCodecs != null) {
+            hadoopCodecs.release();
+            hadoopCodecs = null;
+        }
+    }
+
+    private synchronized CompressionCodecFactory hadoopCodecs(CompressionCodecName codecName) {
+        if (hadoopCodecs == null) {
+            if (!ParquetDefaults.isHadoopPresent()) {
+                throw new UnsupportedOperationException("Compression codec " + codecName + " requires Hadoop on the classpath");
+            }
+            hadoopCodecs = new CodecFactory(new PlainParquetConfiguration(), ParquetProperties.DEFAULT_PAGE_SIZE);
+        }
+        return hadoopCodecs;
+    }
+}
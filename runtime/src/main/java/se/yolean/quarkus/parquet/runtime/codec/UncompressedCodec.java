@@ -0,0 +1,37 @@
+package se.yolean.quarkus.parquet.runtime.codec;
+
+import java.nio.ByteBuffer;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputCompressor;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputDecompressor;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+final class UncompressedCodec implements BytesInputCompressor, BytesInputDecompressor {
+
+    @Override
+    public BytesInput compress(BytesInput bytes) {
+        return bytes;
+    }
+
+    @Override
+    public CompressionCodecName getCodecName() {
+        return CompressionCodecName.UNCOMPRESSED;
+    }
+
+    @Override
+    public BytesInput decompress(BytesInput bytes, int decompressedSize) {
+        return bytes;
+    }
+
+    @Override
+    public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int decompressedSize) {
+        output.put(output.position(), input, input.position(), compressedSize);
+        input.position(input.position() + compressedSize);
+        output.position(output.position() + decompressedSize);
+    }
+
+    @Override
+    public void release() {
+    }
+}
@@ -0,0 +1,44 @@
+package se.yolean.quarkus.parquet.runtime.compact;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import se.yolean.quarkus.parquet.runtime.ParquetRuntimeConfig;
+
+/**
+ * Compacts {@code quarkus.parquet.compaction.directories} every {@code quarkus.parquet.compaction.every}.
+ * Only a bean when the {@code quarkus-scheduler} extension is present.
+ */
+@Singleton
+public class CompactionScheduler {
+
+    private static final Logger LOG = Logger.getLogger(CompactionScheduler.class);
+
+    @Inject
+    ParquetRuntimeConfig config;
+
+    @Scheduled(identity = "quarkus-parquet-compaction", every = "${quarkus.parquet.compaction.every:off}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void compact() {
+        ParquetRuntimeConfig.CompactionConfig compaction = config.compaction();
+        ParquetCompactor compactor = ParquetCompactor.builder()
+                .withTargetFileSize(compaction.targetFileSize().asLongValue())
+                .withMinRowGroupSize(compaction.minRowGroupSize().asLongValue())
+                .build();
+        for (String directory : compaction.directories().orElse(List.of())) {
+            try {
+                CompactionStats stats = compactor.compact(Path.of(directory));
+                LOG.debugf("Compacted %s: %s", directory, stats);
+            } catch (IOException | RuntimeException e) {
+                LOG.warnf(e, "Failed to compact %s", directory);
+            }
+        }
+    }
+}
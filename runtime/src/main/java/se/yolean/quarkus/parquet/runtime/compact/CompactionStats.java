@@ -0,0 +1,23 @@
+package se.yolean.quarkus.parquet.runtime.compact;
+
+/**
+ * What a compaction did.
+ *
+ * @param filesCompacted the files merged into others
+ * @param filesWritten the files written
+ * @param rowGroupsCopied the row groups copied byte for byte
+ * @param rowGroupsCoalesced the row groups too small to copy, decoded and written again together
+ * @param rowGroupsWritten the row groups in the files written
+ * @param bytesWritten the size of the files written
+ */
+public record CompactionStats(int filesCompacted, int filesWritten, int rowGroupsCopied, int rowGroupsCoalesced,
+        int rowGroupsWritten, long bytesWritten) {
+
+    public static final CompactionStats NONE = new CompactionStats(0, 0, 0, 0, 0, 0);
+
+    public CompactionStats plus(CompactionStats other) {
+        return new CompactionStats(filesCompacted + other.filesCompacted, filesWritten + other.filesWritten,
+                rowGroupsCopied + other.rowGroupsCopied, rowGroupsCoalesced + other.rowGroupsCoalesced,
+                rowGroupsWritten + other.rowGroupsWritten, bytesWritten + other.bytesWritten);
+    }
+}
@@ -0,0 +1,429 @@
+package se.yolean.quarkus.parquet.runtime.compact;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.MessageType;
+import org.jboss.logging.Logger;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.write.ParquetSink;
+import se.yolean.quarkus.parquet.runtime.write.WriterMemoryManager;
+
+/**
+ * Merges small Parquet files with the same schema into larger ones, so that scans open fewer files and
+ * read fewer footers.
+ * <p>
+ * Row groups are copied byte for byte through {@link ParquetFileWriter#appendColumnChunk}, with their
+ * statistics, page indexes and bloom filters, so compaction costs little more than the I/O. Only
+ * consecutive row groups smaller than {@link Builder#withMinRowGroupSize(long) minRowGroupSize} are
+ * decoded, and written again as one row group of up to {@link Builder#withRowGroupSize(long) rowGroupSize},
+ * so that scans also seek less. They are encoded into a temporary file first, then copied like the others.
+ * <p>
+ * {@link #compact(Path)} compacts a directory of files like the ones a {@link ParquetSink} writes.
+ */
+public final class ParquetCompactor {
+
+    private static final Logger LOG = Logger.getLogger(ParquetCompactor.class);
+
+    public static final long DEFAULT_TARGET_FILE_SIZE = ParquetWriter.DEFAULT_BLOCK_SIZE;
+    public static final long DEFAULT_ROW_GROUP_SIZE = ParquetWriter.DEFAULT_BLOCK_SIZE;
+    public static final long DEFAULT_MIN_ROW_GROUP_SIZE = 8 * 1024 * 1024;
+
+    private final long targetFileSize;
+    private final long rowGroupSize;
+    private final long minRowGroupSize;
+    private final ParquetReadOptions options = ParquetDefaults.readOptions().build();
+
+    private ParquetCompactor(Builder builder) {
+        this.targetFileSize = builder.targetFileSize;
+        this.rowGroupSize = builder.rowGroupSize;
+        this.minRowGroupSize = builder.minRowGroupSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes the rows of {@code inputs}, in order, to {@code output}.
+     *
+     * @throws IllegalArgumentException if the inputs do not all have the same schema
+     */
+    public CompactionStats merge(List<? extends InputFile> inputs, OutputFile output) throws IOException {
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to merge into " + output.getPath());
+        }
+        List<Source> sources = new ArrayList<>();
+        for (InputFile input : inputs) {
+            sources.add(source(input, null));
+        }
+        MessageType schema = sources.get(0).schema();
+        for (Source source : sources) {
+            if (!source.schema().equals(schema)) {
+                throw new IllegalArgumentException("The schema of " + source.file + " differs from the one of "
+                        + sources.get(0).file);
+            }
+        }
+        return merge(sources, schema, output);
+    }
+
+    /**
+     * Replaces the visible {@code .parquet} files smaller than the target file size in {@code directory} and
+     * each of its partition directories with merged files, never merging files of different directories or
+     * schemas. Each merged file is written under a hidden temporary name and atomically renamed before the
+     * files it replaces are deleted; a process dying in between leaves their rows in both.
+     */
+    public CompactionStats compact(Path directory) throws IOException {
+        List<Path> directories = new ArrayList<>();
+        // hidden directories, such as writers' _temporary and .staging areas, are skipped with all they hold
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                if (!dir.equals(directory) && !isVisible(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                directories.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        directories.sort(null);
+        CompactionStats stats = CompactionStats.NONE;
+        for (Path dir : directories) {
+            stats = stats.plus(compactDirectory(dir));
+        }
+        return stats;
+    }
+
+    private CompactionStats compactDirectory(Path directory) throws IOException {
+        List<Path> candidates;
+        try (Stream<Path> list = Files.list(directory)) {
+            candidates = list.filter(file -> isVisible(file) && file.getFileName().toString().endsWith(".parquet"))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        Map<MessageType, List<Source>> bySchema = new LinkedHashMap<>();
+        for (Path file : candidates) {
+            if (Files.size(file) >= targetFileSize) {
+                continue;
+            }
+            try {
+                Source source = source(new NioInputFile(file), file);
+                bySchema.computeIfAbsent(source.schema(), schema -> new ArrayList<>()).add(source);
+            } catch (IOException | RuntimeException e) {
+                LOG.warnf(e, "Not compacting %s, which cannot be read", file);
+            }
+        }
+        CompactionStats stats = CompactionStats.NONE;
+        String id = UUID.randomUUID().toString();
+        for (Map.Entry<MessageType, List<Source>> group : bySchema.entrySet()) {
+            List<Source> bin = new ArrayList<>();
+            long size = 0;
+            for (Source source : group.getValue()) {
+                if (!bin.isEmpty() && size + source.file.getLength() > targetFileSize) {
+                    stats = stats.plus(replace(directory, bin, group.getKey(), id, stats.filesWritten()));
+                    bin.clear();
+                    size = 0;
+                }
+                bin.add(source);
+                size += source.file.getLength();
+            }
+            stats = stats.plus(replace(directory, bin, group.getKey(), id, stats.filesWritten()));
+        }
+        return stats;
+    }
+
+    private CompactionStats replace(Path directory, List<Source> bin, MessageType schema, String id, int sequence)
+            throws IOException {
+        if (bin.size() < 2) {
+            return CompactionStats.NONE;
+        }
+        String name = String.format("part-%05d-%s.parquet", sequence, id);
+        Path temp = directory.resolve(ParquetSink.TEMP_PREFIX + name + ParquetSink.TEMP_SUFFIX);
+        CompactionStats stats;
+        try {
+            stats = merge(bin, schema, new NioOutputFile(temp));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        for (Source source : bin) {
+            Files.delete(source.path);
+        }
+        return stats;
+    }
+
+    private CompactionStats merge(List<Source> sources, MessageType schema, OutputFile output) throws IOException {
+        Counts counts = new Counts();
+        // closing the writer after end() does nothing, and before it releases the output of a failed merge
+        try (ParquetFileWriter writer = new ParquetFileWriter(output, schema, ParquetFileWriter.Mode.CREATE, rowGroupSize,
+                0)) {
+            writer.start();
+            try (Run run = new Run(schema, writer, counts)) {
+                for (Source source : sources) {
+                    SeekableInputStream stream = source.file.newStream();
+                    try (ParquetFileReader reader = new ParquetFileReader(source.file, source.footer, options, stream)) {
+                        List<BlockMetaData> blocks = reader.getRowGroups();
+                        for (int i = 0; i < blocks.size(); i++) {
+                            BlockMetaData block = blocks.get(i);
+                            if (block.getRowCount() == 0) {
+                                continue;
+                            }
+                            if (block.getTotalByteSize() < minRowGroupSize) {
+                                if (run.size + block.getTotalByteSize() > rowGroupSize) {
+                                    run.flush();
+                                }
+                                run.add(reader, i, block);
+                            } else {
+                                run.flush();
+                                copy(reader, stream, block, schema, writer);
+                                counts.copied++;
+                                counts.written++;
+                            }
+                        }
+                    }
+                }
+                run.flush();
+            }
+            writer.end(keyValueMetadata(sources));
+            return new CompactionStats(sources.size(), 1, counts.copied, counts.coalesced, counts.written, writer.getPos());
+        }
+    }
+
+    private static void copy(ParquetFileReader reader, SeekableInputStream stream, BlockMetaData block, MessageType schema,
+            ParquetFileWriter writer) throws IOException {
+        writer.startBlock(block.getRowCount());
+        for (ColumnChunkMetaData chunk : block.getColumns()) {
+            ColumnDescriptor descriptor = schema.getColumnDescription(chunk.getPath().toArray());
+            writer.appendColumnChunk(descriptor, stream, chunk, reader.readBloomFilter(chunk), reader.readColumnIndex(chunk),
+                    reader.readOffsetIndex(chunk));
+        }
+        writer.endBlock();
+    }
+
+    /**
+     * @return the key-value metadata all sources agree on
+     */
+    private static Map<String, String> keyValueMetadata(List<Source> sources) {
+        Map<String, String> metadata = new HashMap<>(sources.get(0).footer.getFileMetaData().getKeyValueMetaData());
+        for (Source source : sources) {
+            metadata.entrySet().retainAll(source.footer.getFileMetaData().getKeyValueMetaData().entrySet());
+        }
+        return metadata;
+    }
+
+    private Source source(InputFile file, Path path) throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(file, options)) {
+            return new Source(file, path, reader.getFooter());
+        }
+    }
+
+    private static boolean isVisible(Path file) {
+        String name = file.getFileName().toString();
+        return !name.startsWith(".") && !name.startsWith("_");
+    }
+
+    /**
+     * A file to compact, with its path when it is replaced.
+     */
+    private record Source(InputFile file, Path path, ParquetMetadata footer) {
+
+        MessageType schema() {
+            return footer.getFileMetaData().getSchema();
+        }
+    }
+
+    private static final class Counts {
+        int copied;
+        int coalesced;
+        int written;
+    }
+
+    /**
+     * Consecutive small row groups, decoded into a temporary file until it is copied into the output.
+     */
+    private final class Run implements Closeable {
+
+        private final MessageType schema;
+        private final MessageColumnIO columnIO;
+        private final ParquetFileWriter output;
+        private final Counts counts;
+        private Path temp;
+        private ParquetWriter<Group> writer;
+        private WriterMemoryManager.Lease lease;
+        private long size;
+        private int rowGroups;
+
+        Run(MessageType schema, ParquetFileWriter output, Counts counts) {
+            this.schema = schema;
+            this.columnIO = new ColumnIOFactory().getColumnIO(schema);
+            this.output = output;
+            this.counts = counts;
+        }
+
+        void add(ParquetFileReader reader, int index, BlockMetaData block) throws IOException {
+            if (writer == null) {
+                open(block);
+            }
+            PageReadStore pages = reader.readRowGroup(index);
+            try {
+                RecordReader<Group> records = columnIO.getRecordReader(pages, new GroupRecordConverter(schema));
+                for (long i = 0; i < block.getRowCount(); i++) {
+                    writer.write(records.read());
+                    lease.afterWrite();
+                }
+            } finally {
+                pages.close();
+            }
+            size += block.getTotalByteSize();
+            rowGroups++;
+        }
+
+        /**
+         * Compresses like the first row group and keeps its bloom filters.
+         */
+        private void open(BlockMetaData first) throws IOException {
+            temp = Files.createTempFile("quarkus-parquet-compact", ".parquet");
+            ExampleParquetWriter.Builder builder = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(temp)))
+                    .withType(schema)
+                    .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                    .withCompressionCodec(first.getColumns().get(0).getCodec())
+                    .withRowGroupSize(Long.MAX_VALUE);
+            for (ColumnChunkMetaData chunk : first.getColumns()) {
+                if (chunk.getBloomFilterOffset() >= 0) {
+                    builder.withBloomFilterEnabled(chunk.getPath().toDotString(), true);
+                }
+            }
+            writer = builder.build();
+            lease = WriterMemoryManager.shared().register(writer);
+        }
+
+        void flush() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+                lease.close();
+                writer = null;
+                NioInputFile file = new NioInputFile(temp);
+                SeekableInputStream stream = file.newStream();
+                try (ParquetFileReader reader = new ParquetFileReader(file, options, stream)) {
+                    for (BlockMetaData block : reader.getRowGroups()) {
+                        copy(reader, stream, block, schema, output);
+                        counts.written++;
+                    }
+                }
+                counts.coalesced += rowGroups;
+                size = 0;
+                rowGroups = 0;
+            } finally {
+                close();
+            }
+        }
+
+        /**
+         * Deletes the temporary file, abandoning the rows not copied yet.
+         */
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException | RuntimeException e) {
+                    LOG.debugf(e, "Failed to close %s", temp);
+                }
+                lease.close();
+                writer = null;
+            }
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+                temp = null;
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private long targetFileSize = DEFAULT_TARGET_FILE_SIZE;
+        private long rowGroupSize = DEFAULT_ROW_GROUP_SIZE;
+        private long minRowGroupSize = DEFAULT_MIN_ROW_GROUP_SIZE;
+
+        private Builder() {
+        }
+
+        /**
+         * The size files are merged up to, and smaller than which they are compacted. 128 MiB by default.
+         */
+        public Builder withTargetFileSize(long targetFileSize) {
+            if (targetFileSize <= 0) {
+                throw new IllegalArgumentException("Target file size must be positive: " + targetFileSize);
+            }
+            this.targetFileSize = targetFileSize;
+            return this;
+        }
+
+        /**
+         * The uncompressed size small row groups are coalesced up to. 128 MiB by default.
+         */
+        public Builder withRowGroupSize(long rowGroupSize) {
+            if (rowGroupSize <= 0) {
+                throw new IllegalArgumentException("Row group size must be positive: " + rowGroupSize);
+            }
+            this.rowGroupSize = rowGroupSize;
+            return this;
+        }
+
+        /**
+         * The uncompressed size below which row groups are coalesced rather than copied, 8 MiB by default.
+         * With 0, every row group is copied and nothing is decoded.
+         */
+        public Builder withMinRowGroupSize(long minRowGroupSize) {
+            if (minRowGroupSize < 0) {
+                throw new IllegalArgumentException("Min row group size must not be negative: " + minRowGroupSize);
+            }
+            this.minRowGroupSize = minRowGroupSize;
+            return this;
+        }
+
+        public ParquetCompactor build() {
+            return new ParquetCompactor(this);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package se.yolean.quarkus.parquet.runtime.decode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.apache.parquet.io.ParquetDecodingException;
+
+/**
+ * Decodes Parquet's RLE/bit-packed hybrid encoding, in which dictionary pages' ids and definition levels
+ * are written, into {@code int[]}s a batch at a time. Unlike {@code RunLengthBitPackingHybridDecoder},
+ * which returns one value per call, it fills repeated runs at once and unpacks bit-packed runs through
+ * {@link VectorDecoding#unpack}.
+ * <pre>
+ * ByteBuffer data = page.getBytes().toByteBuffer();
+ * HybridDecoder ids = new HybridDecoder(data.get(), data);
+ * ids.read(batch, 0, page.getValueCount());
+ * </pre>
+ */
+public final class HybridDecoder {
+
+    /**
+     * The most values a bit-packed run holds, as its header counts up to 63 groups of 8 for Parquet's
+     * writers.
+     */
+    private static final int MAX_PACKED_RUN = 63 * 8;
+
+    private final int bitWidth;
+    private final ByteBuffer in;
+    private int[] packed = new int[MAX_PACKED_RUN];
+    private int packedPos;
+    private int packedCount;
+    private int repeated;
+    private int repeatedValue;
+
+    /**
+     * @param bitWidth the width of the values, between 0 and 32
+     * @param in the encoded runs from its position to its limit
+     */
+    public HybridDecoder(int bitWidth, ByteBuffer in) {
+        if (bitWidth < 0 || bitWidth > 32) {
+            throw new IllegalArgumentException("Bit width must be between 0 and 32: " + bitWidth);
+        }
+        this.bitWidth = bitWidth;
+        this.in = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads the next {@code count} values into {@code out} from {@code offset}.
+     *
+     * @throws ParquetDecodingException if the runs end before
+     */
+    public void read(int[] out, int offset, int count) {
+        int end = offset + count;
+        while (offset < end) {
+            if (repeated > 0) {
+                int n = Math.min(repeated, end - offset);
+                Arrays.fill(out, offset, offset + n, repeatedValue);
+                repeated -= n;
+                offset += n;
+            } else if (packedPos < packedCount) {
+                int n = Math.min(packedCount - packedPos, end - offset);
+                System.arraycopy(packed, packedPos, out, offset, n);
+                packedPos += n;
+                offset += n;
+            } else {
+                offset = nextRun(out, offset, end);
+            }
+        }
+    }
+
+    /**
+     * Starts the next run. Bit-packed runs that fit are unpacked straight into {@code out}, the last one of
+     * a batch, which may hold values past it, into a buffer.
+     *
+     * @return the offset in {@code out} after the values unpacked into it
+     */
+    private int nextRun(int[] out, int offset, int end) {
+        if (!in.hasRemaining()) {
+            throw new ParquetDecodingException("The runs ended " + (end - offset) + " values early");
+        }
+        int header = readUnsignedVarInt();
+        if ((header & 1) == 0) {
+            repeated = header >>> 1;
+            repeatedValue = readRepeatedValue();
+            return offset;
+        }
+        int values = (header >>> 1) * 8;
+        int bytes = (header >>> 1) * bitWidth;
+        ByteBuffer run = in;
+        int pos = in.position();
+        if (bytes > in.remaining()) {
+            // writers may end the last run with the bytes its values take up, short of a whole group
+            run = ByteBuffer.allocate(bytes).put(in.duplicate());
+            pos = 0;
+        }
+        in.position(Math.min(in.position() + bytes, in.limit()));
+        if (values <= end - offset) {
+            VectorDecoding.unpack(bitWidth, run, pos, out, offset, values);
+            return offset + values;
+        }
+        if (values > packed.length) {
+            packed = new int[values];
+        }
+        VectorDecoding.unpack(bitWidth, run, pos, packed, 0, values);
+        packedPos = 0;
+        packedCount = values;
+        return offset;
+    }
+
+    private int readRepeatedValue() {
+        int value = 0;
+        for (int i = 0; i < (bitWidth + 7) / 8; i++) {
+            value |= (in.get() & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+
+    private int readUnsignedVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ParquetDecodingException("Malformed run header");
+    }
+}
@@ -0,0 +1,139 @@
+package se.yolean.quarkus.parquet.runtime.decode;
+
+import java.nio.ByteBuffer;
+
+import org.apache.parquet.column.values.bitpacking.BytePacker;
+import org.apache.parquet.column.values.bitpacking.Packer;
+import org.jboss.logging.Logger;
+
+/**
+ * Unpacks bit-packed values, with the 512-bit Vector API packers of {@code parquet-encoding-vector} when
+ * they are {@link #install enabled} and supported, and with Parquet's scalar packers otherwise.
+ * <p>
+ * The vector packers need the {@code jdk.incubator.vector} module, resolved with
+ * {@code --add-modules jdk.incubator.vector}, {@code org.apache.parquet:parquet-encoding-vector} on the
+ * classpath and a CPU whose preferred vector size is 512 bits, as the Vector API is much slower than
+ * scalar code where it is emulated. Native images do not support the Vector API. When any of these is
+ * missing, enabling them logs why and values are unpacked as before.
+ */
+public final class VectorDecoding {
+
+    private static final Logger LOG = Logger.getLogger(VectorDecoding.class);
+
+    /**
+     * The vector packers may load a whole vector at the offset they unpack from.
+     */
+    private static final int VECTOR_BYTES = 512 / 8;
+
+    private static volatile boolean enabled;
+
+    private VectorDecoding() {
+    }
+
+    /**
+     * @param requested whether to unpack with the vector packers where they are supported
+     * @return whether they are used
+     */
+    public static boolean install(boolean requested) {
+        if (requested && Support.UNSUPPORTED != null) {
+            LOG.warnf("Vector decoding is enabled but not supported, as %s; unpacking with scalar packers",
+                    Support.UNSUPPORTED);
+        }
+        enabled = requested && Support.UNSUPPORTED == null;
+        return enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return why the vector packers cannot be used, or null if they can
+     */
+    public static String unsupportedReason() {
+        return Support.UNSUPPORTED;
+    }
+
+    /**
+     * Unpacks {@code count} values of {@code bitWidth} bits, packed little-endian in groups of 8 as in
+     * Parquet's bit-packed runs, from {@code in} at {@code inPos} into {@code out} at {@code outPos}.
+     *
+     * @param count a multiple of 8
+     */
+    public static void unpack(int bitWidth, ByteBuffer in, int inPos, int[] out, int outPos, int count) {
+        if (bitWidth < 0 || bitWidth > 32) {
+            throw new IllegalArgumentException("Bit width must be between 0 and 32: " + bitWidth);
+        }
+        if (count % 8 != 0) {
+            throw new IllegalArgumentException("Values are packed in groups of 8: " + count);
+        }
+        int i = 0;
+        int pos = inPos;
+        if (enabled && bitWidth > 0) {
+            BytePacker vector = Support.VECTOR[bitWidth];
+            int values = vector.getUnpackCount();
+            int bytes = values / 8 * bitWidth;
+            int readable = Math.max(bytes, VECTOR_BYTES);
+            for (; i + values <= count && pos + readable <= in.limit(); i += values, pos += bytes) {
+                vector.unpackValuesUsingVector(in, pos, out, outPos + i);
+            }
+        }
+        BytePacker scalar = Support.SCALAR[bitWidth];
+        for (; i + 32 <= count; i += 32, pos += 4 * bitWidth) {
+            scalar.unpack32Values(in, pos, out, outPos + i);
+        }
+        for (; i < count; i += 8, pos += bitWidth) {
+            scalar.unpack8Values(in, pos, out, outPos + i);
+        }
+    }
+
+    /**
+     * The packers, and whether the vector ones can be used, found once vector decoding is first requested
+     * or values are first unpacked.
+     */
+    private static final class Support {
+
+        static final BytePacker[] SCALAR = new BytePacker[33];
+        static final BytePacker[] VECTOR = new BytePacker[33];
+        static final String UNSUPPORTED;
+
+        static {
+            for (int bitWidth = 0; bitWidth <= 32; bitWidth++) {
+                SCALAR[bitWidth] = Packer.LITTLE_ENDIAN.newBytePacker(bitWidth);
+            }
+            String unsupported = probe();
+            if (unsupported == null) {
+                try {
+                    for (int bitWidth = 1; bitWidth <= 32; bitWidth++) {
+                        VECTOR[bitWidth] = Packer.LITTLE_ENDIAN.newBytePackerVector(bitWidth);
+                    }
+                } catch (RuntimeException | LinkageError e) {
+                    LOG.debugf(e, "Vector packers are not available");
+                    unsupported = "org.apache.parquet:parquet-encoding-vector is not on the classpath";
+                }
+            }
+            UNSUPPORTED = unsupported;
+        }
+
+        private static String probe() {
+            if (System.getProperty("org.graalvm.nativeimage.imagecode") != null) {
+                return "native images do not support the Vector API";
+            }
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+                return "the jdk.incubator.vector module is not resolved; add --add-modules jdk.incubator.vector"
+                        + " to the JVM options";
+            }
+            try {
+                Class<?> shapes = Class.forName("jdk.incubator.vector.VectorShape");
+                int bits = (int) shapes.getMethod("vectorBitSize").invoke(shapes.getMethod("preferredShape").invoke(null));
+                if (bits < 512) {
+                    return "the preferred vector size of this CPU is " + bits + " bits, and the packers use 512";
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LOG.debugf(e, "Cannot tell the preferred vector size");
+                return "the preferred vector size cannot be told";
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package se.yolean.quarkus.parquet.runtime.decode;
+
+import io.quarkus.runtime.annotations.Recorder;
+
+@Recorder
+public class VectorDecodingRecorder {
+
+    public void install() {
+        VectorDecoding.install(true);
+    }
+}
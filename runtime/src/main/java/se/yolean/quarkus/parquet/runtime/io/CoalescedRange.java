@@ -0,0 +1,85 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.parquet.io.ParquetFileRange;
+
+/**
+ * One read covering several requested {@link ParquetFileRange ranges}, which are completed with
+ * slices of the merged buffer.
+ */
+final class CoalescedRange {
+
+    private final long offset;
+    private final List<ParquetFileRange> ranges = new ArrayList<>();
+    private long end;
+
+    private CoalescedRange(ParquetFileRange first) {
+        this.offset = first.getOffset();
+        this.end = first.getOffset() + first.getLength();
+        this.ranges.add(first);
+    }
+
+    long offset() {
+        return offset;
+    }
+
+    int length() {
+        return (int) (end - offset);
+    }
+
+    List<ParquetFileRange> ranges() {
+        return ranges;
+    }
+
+    /**
+     * Completes every requested range with a slice of {@code data}, which holds this range's bytes
+     * from position zero.
+     */
+    void complete(ByteBuffer data) {
+        for (ParquetFileRange range : ranges) {
+            int start = (int) (range.getOffset() - offset);
+            range.getDataReadFuture().complete(data.slice(start, range.getLength()));
+        }
+    }
+
+    void fail(Throwable e) {
+        for (ParquetFileRange range : ranges) {
+            range.getDataReadFuture().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Sorts {@code ranges} by offset and merges neighbours separated by at most {@code maxGap} bytes,
+     * without letting a merged read grow beyond {@code maxSize} bytes.
+     *
+     * @throws IllegalArgumentException if ranges are invalid or overlap
+     */
+    static List<CoalescedRange> coalesce(List<ParquetFileRange> ranges, int maxGap, int maxSize) {
+        List<ParquetFileRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(ParquetFileRange::getOffset));
+        List<CoalescedRange> merged = new ArrayList<>();
+        CoalescedRange current = null;
+        for (ParquetFileRange range : sorted) {
+            if (range.getOffset() < 0 || range.getLength() < 0) {
+                throw new IllegalArgumentException("Invalid range " + range);
+            }
+            if (current != null && range.getOffset() < current.end) {
+                throw new IllegalArgumentException("Overlapping ranges " + current.ranges.get(current.ranges.size() - 1)
+                        + " and " + range);
+            }
+            long rangeEnd = range.getOffset() + range.getLength();
+            if (current != null && range.getOffset() - current.end <= maxGap && rangeEnd - current.offset <= maxSize) {
+                current.ranges.add(range);
+                current.end = rangeEnd;
+            } else {
+                current = new CoalescedRange(range);
+                merged.add(current);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,287 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * {@link InputFile} for a file served over HTTP, such as an object in S3-compatible storage behind a
+ * presigned URL, read with range requests.
+ * <p>
+ * Parquet opens a file by reading its 8-byte tail, then its footer, then column chunks, and each read would
+ * otherwise be a round trip. The first read fetches the last {@link Builder#withTailSize(int) tailSize}
+ * bytes instead, which also tells the length of the file, so that the footer, and usually the column and
+ * offset indexes before it, arrive with one request. The tail is kept and shared by every stream of the
+ * file. {@link SeekableInputStream#readVectored Vectored reads} merge nearby column chunks according to
+ * {@link Builder#withVectoredReadOptions(VectoredReadOptions) vectoredReadOptions} and issue the merged
+ * ranges as concurrent requests; other reads fetch at least
+ * {@link Builder#withReadAheadSize(int) readAheadSize} bytes at a time.
+ */
+public final class HttpInputFile implements InputFile {
+
+    public static final int DEFAULT_TAIL_SIZE = 256 * 1024;
+    public static final int DEFAULT_READ_AHEAD_SIZE = 1024 * 1024;
+
+    /**
+     * A request costs a round trip rather than a seek, so ranges are merged across gaps of up to 1 MiB.
+     */
+    public static final VectoredReadOptions DEFAULT_VECTORED_READ_OPTIONS = new VectoredReadOptions(1024 * 1024,
+            64 * 1024 * 1024, null);
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+    private static final Pattern UNSATISFIED_RANGE = Pattern.compile("bytes \\*/(\\d+)");
+
+    private final URI uri;
+    private final HttpClient client;
+    private final Map<String, String> headers;
+    private final int tailSize;
+    private final int readAheadSize;
+    private final VectoredReadOptions vectoredReadOptions;
+    private volatile Tail tail;
+
+    private HttpInputFile(Builder builder) {
+        this.uri = builder.uri;
+        this.client = builder.client != null ? builder.client : SharedClient.CLIENT;
+        this.headers = Map.copyOf(builder.headers);
+        this.tailSize = builder.tailSize;
+        this.readAheadSize = builder.readAheadSize;
+        this.vectoredReadOptions = builder.vectoredReadOptions;
+    }
+
+    public static Builder builder(URI uri) {
+        return new Builder(uri);
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        return tail().length();
+    }
+
+    @Override
+    public SeekableInputStream newStream() throws IOException {
+        return new HttpSeekableInputStream(this, tail());
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+
+    int readAheadSize() {
+        return readAheadSize;
+    }
+
+    VectoredReadOptions vectoredReadOptions() {
+        return vectoredReadOptions;
+    }
+
+    /**
+     * @return the bytes from {@code offset} to {@code offset + length}, which must be within the file
+     */
+    ByteBuffer fetch(long offset, int length) throws IOException {
+        try {
+            return ranged(client.send(request(offset, length), HttpResponse.BodyHandlers.ofByteArray()), offset, length);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted reading " + uri);
+        }
+    }
+
+    /**
+     * Like {@link #fetch(long, int)}, without waiting for the response.
+     */
+    CompletableFuture<ByteBuffer> fetchAsync(long offset, int length) {
+        return client.sendAsync(request(offset, length), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    try {
+                        return ranged(response, offset, length);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    /**
+     * Fetches the tail of the file on first use. A server that ignores the range sends the whole file, which
+     * then is the tail.
+     */
+    private Tail tail() throws IOException {
+        Tail fetched = tail;
+        if (fetched != null) {
+            return fetched;
+        }
+        synchronized (this) {
+            if (tail == null) {
+                HttpResponse<byte[]> response;
+                try {
+                    response = client.send(request("bytes=-" + tailSize), HttpResponse.BodyHandlers.ofByteArray());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted reading " + uri);
+                }
+                tail = switch (response.statusCode()) {
+                    case 200 -> new Tail(0, ByteBuffer.wrap(response.body()), response.body().length);
+                    case 206 -> {
+                        Matcher range = contentRange(response);
+                        if ("*".equals(range.group(3))) {
+                            throw new IOException("The length of " + uri + " is unknown: " + range.group());
+                        }
+                        yield new Tail(Long.parseLong(range.group(1)), ByteBuffer.wrap(response.body()),
+                                Long.parseLong(range.group(3)));
+                    }
+                    case 416 -> empty(response);
+                    default -> throw new IOException("GET " + uri + " returned " + response.statusCode());
+                };
+            }
+            return tail;
+        }
+    }
+
+    private ByteBuffer ranged(HttpResponse<byte[]> response, long offset, int length) throws IOException {
+        if (response.statusCode() != 206) {
+            throw new IOException("GET " + uri + " for " + length + " bytes at " + offset + " returned "
+                    + response.statusCode() + (response.statusCode() == 200 ? "; the server ignores ranges" : ""));
+        }
+        Matcher range = contentRange(response);
+        if (Long.parseLong(range.group(1)) != offset || response.body().length != length) {
+            throw new IOException("GET " + uri + " for " + length + " bytes at " + offset + " returned "
+                    + range.group() + " with " + response.body().length + " bytes");
+        }
+        return ByteBuffer.wrap(response.body());
+    }
+
+    private Matcher contentRange(HttpResponse<?> response) throws IOException {
+        String header = response.headers().firstValue("Content-Range").orElse("");
+        Matcher range = CONTENT_RANGE.matcher(header);
+        if (!range.matches()) {
+            throw new IOException("GET " + uri + " returned a partial response with Content-Range '" + header + "'");
+        }
+        return range;
+    }
+
+    /**
+     * Only an empty file cannot satisfy a suffix range.
+     */
+    private Tail empty(HttpResponse<?> response) throws IOException {
+        String header = response.headers().firstValue("Content-Range").orElse("");
+        Matcher range = UNSATISFIED_RANGE.matcher(header);
+        if (!range.matches() || Long.parseLong(range.group(1)) != 0) {
+            throw new IOException("GET " + uri + " returned 416 with Content-Range '" + header + "'");
+        }
+        return new Tail(0, ByteBuffer.allocate(0), 0);
+    }
+
+    private HttpRequest request(long offset, int length) {
+        return request("bytes=" + offset + "-" + (offset + length - 1));
+    }
+
+    private HttpRequest request(String range) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).GET().header("Range", range);
+        headers.forEach(request::header);
+        return request.build();
+    }
+
+    /**
+     * The last bytes of the file, from {@code offset}, and the length of the file.
+     */
+    record Tail(long offset, ByteBuffer bytes, long length) {
+
+        boolean contains(long position) {
+            return position >= offset && position < length;
+        }
+
+        /**
+         * @return the tail from {@code position}, which it must {@link #contains contain}
+         */
+        ByteBuffer from(long position) {
+            return bytes.slice((int) (position - offset), (int) (length - position));
+        }
+    }
+
+    public static final class Builder {
+
+        private final URI uri;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private HttpClient client;
+        private int tailSize = DEFAULT_TAIL_SIZE;
+        private int readAheadSize = DEFAULT_READ_AHEAD_SIZE;
+        private VectoredReadOptions vectoredReadOptions = DEFAULT_VECTORED_READ_OPTIONS;
+
+        private Builder(URI uri) {
+            this.uri = uri;
+        }
+
+        /**
+         * @param client sends the requests, instead of a shared client that follows redirects
+         */
+        public Builder withClient(HttpClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Adds a header to every request, such as {@code Authorization}.
+         */
+        public Builder withHeader(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        /**
+         * @param tailSize the bytes fetched from the end of the file by the first request
+         */
+        public Builder withTailSize(int tailSize) {
+            if (tailSize < 8) {
+                throw new IllegalArgumentException("The tail must hold at least the 8-byte footer trailer: " + tailSize);
+            }
+            this.tailSize = tailSize;
+            return this;
+        }
+
+        /**
+         * @param readAheadSize the least bytes fetched by a read outside the tail that is not vectored
+         */
+        public Builder withReadAheadSize(int readAheadSize) {
+            if (readAheadSize <= 0) {
+                throw new IllegalArgumentException("Read-ahead size must be positive: " + readAheadSize);
+            }
+            this.readAheadSize = readAheadSize;
+            return this;
+        }
+
+        /**
+         * @param vectoredReadOptions how vectored reads are merged; their executor is not used, as requests are
+         *        sent asynchronously by the client
+         */
+        public Builder withVectoredReadOptions(VectoredReadOptions vectoredReadOptions) {
+            this.vectoredReadOptions = vectoredReadOptions;
+            return this;
+        }
+
+        public HttpInputFile build() {
+            return new HttpInputFile(this);
+        }
+    }
+
+    private static final class SharedClient {
+
+        static final HttpClient CLIENT = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
+    }
+}
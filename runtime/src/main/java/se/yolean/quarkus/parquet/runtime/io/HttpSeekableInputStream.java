@@ -0,0 +1,171 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.parquet.bytes.ByteBufferAllocator;
+import org.apache.parquet.io.ParquetFileRange;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * Reads an {@link HttpInputFile}, serving reads within its tail from memory and fetching others with range
+ * requests of at least the read-ahead size, whose bytes are kept for the reads that follow.
+ * <p>
+ * Vectored reads complete their ranges with the response bodies rather than buffers of the allocator, as
+ * {@code ParquetFileReader} never releases vectored buffers back to it.
+ */
+final class HttpSeekableInputStream extends SeekableInputStream {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final HttpInputFile file;
+    private final HttpInputFile.Tail tail;
+    private ByteBuffer buffer = EMPTY;
+    private long bufferStart;
+    private long pos;
+
+    HttpSeekableInputStream(HttpInputFile file, HttpInputFile.Tail tail) {
+        this.file = file;
+        this.tail = tail;
+    }
+
+    @Override
+    public long getPos() {
+        return pos;
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+        if (newPos < 0) {
+            throw new IOException("Cannot seek to negative position " + newPos);
+        }
+        pos = newPos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos >= tail.length()) {
+            return -1;
+        }
+        int b = available(1).get() & 0xFF;
+        pos++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return read(ByteBuffer.wrap(b, off, len));
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (pos >= tail.length()) {
+            return -1;
+        }
+        int len = (int) Math.min(dst.remaining(), tail.length() - pos);
+        ByteBuffer src = available(len);
+        int n = Math.min(len, src.remaining());
+        dst.put(src.limit(src.position() + n));
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        readFully(ByteBuffer.wrap(bytes));
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+        readFully(ByteBuffer.wrap(bytes, start, len));
+    }
+
+    @Override
+    public void readFully(ByteBuffer dst) throws IOException {
+        while (dst.hasRemaining()) {
+            if (read(dst) < 0) {
+                throw new EOFException("Reached the end of stream with " + dst.remaining() + " bytes left to read");
+            }
+        }
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, tail.length() - pos));
+        pos += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        if (tail.contains(pos)) {
+            return (int) (tail.length() - pos);
+        }
+        long offset = pos - bufferStart;
+        return offset >= 0 && offset < buffer.limit() ? (int) (buffer.limit() - offset) : 0;
+    }
+
+    /**
+     * Merged ranges within the tail are completed at once, the others by concurrent requests.
+     */
+    @Override
+    public void readVectored(List<ParquetFileRange> ranges, ByteBufferAllocator allocator) {
+        for (ParquetFileRange range : ranges) {
+            range.setDataReadFuture(new CompletableFuture<>());
+        }
+        VectoredReadOptions options = file.vectoredReadOptions();
+        for (CoalescedRange range : CoalescedRange.coalesce(ranges, options.maxMergeGap(), options.maxMergedSize())) {
+            if (tail.contains(range.offset())) {
+                range.complete(tail.from(range.offset()));
+            } else {
+                file.fetchAsync(range.offset(), range.length()).whenComplete((data, e) -> {
+                    if (e != null) {
+                        range.fail(e);
+                    } else {
+                        range.complete(data);
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public boolean readVectoredAvailable(ByteBufferAllocator allocator) {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        buffer = EMPTY;
+    }
+
+    /**
+     * @param len the bytes wanted at {@link #pos}, within the file
+     * @return a buffer positioned at {@link #pos}, holding at least one of them. A request for more than
+     *         the read-ahead size is not kept.
+     */
+    private ByteBuffer available(int len) throws IOException {
+        if (tail.contains(pos)) {
+            return tail.from(pos);
+        }
+        long offset = pos - bufferStart;
+        if (offset < 0 || offset >= buffer.limit()) {
+            int readAhead = file.readAheadSize();
+            if (len >= readAhead) {
+                return file.fetch(pos, len);
+            }
+            // stopping at the tail, which is already here
+            long end = Math.min(pos + readAhead, tail.offset());
+            buffer = file.fetch(pos, (int) Math.max(len, end - pos));
+            bufferStart = pos;
+            offset = 0;
+        }
+        return buffer.slice((int) offset, buffer.limit() - (int) offset);
+    }
+}
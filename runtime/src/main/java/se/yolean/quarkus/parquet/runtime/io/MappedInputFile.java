@@ -0,0 +1,204 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * {@link InputFile} backed by read-only {@link FileChannel#map memory mappings} of a local file.
+ * <p>
+ * Files larger than the region size (1 GiB by default) are mapped as several consecutive regions.
+ * Streams hand out zero-copy slices of the mappings through
+ * {@link SeekableInputStream#readVectored vectored reads}, which {@code ParquetFileReader} uses for
+ * column chunks, so page data is read straight from the OS page cache.
+ * <p>
+ * Slices outlive the streams they were read from: {@code Binary} values of uncompressed pages point
+ * into them. By default {@link #close()} therefore only drops the file's references, and a mapping is
+ * released by the garbage collector once no slice of it is reachable. Files opened with
+ * {@code unmapOnClose} release their mappings at once, when the file and its last open stream are
+ * closed; touching a buffer or value read from such a file afterwards crashes the JVM, so that is only
+ * for callers that copy whatever they keep.
+ * <p>
+ * Once the file and its streams are closed, {@link #slice} and {@link #copy} throw an {@link IOException}.
+ * Reads of the file itself, rather than through a stream, must not race its {@code close()} when it
+ * unmaps on close.
+ */
+public final class MappedInputFile implements InputFile, Closeable {
+
+    public static final long DEFAULT_REGION_SIZE = 1L << 30;
+
+    private final Path path;
+    private final long length;
+    private final long regionSize;
+    private final boolean unmapOnClose;
+    // null once the file and its streams are closed; read without the lock by slice, copy and get
+    private volatile MappedByteBuffer[] regions;
+    private int openStreams;
+    private boolean closed;
+
+    private MappedInputFile(Path path, long length, long regionSize, MappedByteBuffer[] regions, boolean unmapOnClose) {
+        this.path = path;
+        this.length = length;
+        this.regionSize = regionSize;
+        this.regions = regions;
+        this.unmapOnClose = unmapOnClose;
+    }
+
+    public static MappedInputFile open(Path path) throws IOException {
+        return open(path, DEFAULT_REGION_SIZE);
+    }
+
+    public static MappedInputFile open(Path path, long regionSize) throws IOException {
+        return open(path, regionSize, false);
+    }
+
+    /**
+     * @param unmapOnClose whether to release the mappings as soon as the file and its streams are closed,
+     *        rather than when the garbage collector finds them unreachable. No buffer or value read from
+     *        the file may be used after that.
+     */
+    public static MappedInputFile open(Path path, long regionSize, boolean unmapOnClose) throws IOException {
+        if (regionSize <= 0 || regionSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Region size must be between 1 and " + Integer.MAX_VALUE + ": " + regionSize);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((length + regionSize - 1) / regionSize)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = i * regionSize;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, length - start));
+            }
+            return new MappedInputFile(path, length, regionSize, regions, unmapOnClose);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public synchronized SeekableInputStream newStream() throws IOException {
+        if (closed) {
+            throw new IOException("Mapped file is closed: " + path);
+        }
+        openStreams++;
+        return new MappedSeekableInputStream(this);
+    }
+
+    /**
+     * Returns a view of {@code length} bytes at {@code offset}, sharing memory with the
+     * mapping when the range lies within one region and copying into a heap buffer otherwise.
+     */
+    public ByteBuffer slice(long offset, int length) throws IOException {
+        MappedByteBuffer[] regions = regions();
+        checkRange(offset, length);
+        int region = (int) (offset / regionSize);
+        int start = (int) (offset % regionSize);
+        if (start + (long) length <= regions[region].capacity()) {
+            return regions[region].slice(start, length);
+        }
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        copy(offset, copy);
+        return copy.flip();
+    }
+
+    /**
+     * Copies {@code dst.remaining()} bytes starting at {@code offset} into {@code dst}.
+     */
+    public void copy(long offset, ByteBuffer dst) throws IOException {
+        MappedByteBuffer[] regions = regions();
+        checkRange(offset, dst.remaining());
+        while (dst.hasRemaining()) {
+            int region = (int) (offset / regionSize);
+            int start = (int) (offset % regionSize);
+            int n = Math.min(dst.remaining(), regions[region].capacity() - start);
+            dst.put(dst.position(), regions[region], start, n);
+            dst.position(dst.position() + n);
+            offset += n;
+        }
+    }
+
+    /**
+     * Copies {@code len} bytes starting at {@code offset} into {@code dst}.
+     */
+    public void copy(long offset, byte[] dst, int off, int len) throws IOException {
+        MappedByteBuffer[] regions = regions();
+        checkRange(offset, len);
+        while (len > 0) {
+            int region = (int) (offset / regionSize);
+            int start = (int) (offset % regionSize);
+            int n = Math.min(len, regions[region].capacity() - start);
+            regions[region].get(start, dst, off, n);
+            off += n;
+            len -= n;
+            offset += n;
+        }
+    }
+
+    byte get(long offset) {
+        return regions[(int) (offset / regionSize)].get((int) (offset % regionSize));
+    }
+
+    synchronized void release() {
+        openStreams--;
+        if (closed && openStreams == 0) {
+            unmap();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (openStreams == 0) {
+            unmap();
+        }
+    }
+
+    private void unmap() {
+        MappedByteBuffer[] unmapped = regions;
+        if (unmapped == null) {
+            return;
+        }
+        regions = null;
+        if (unmapOnClose) {
+            for (MappedByteBuffer region : unmapped) {
+                Unmapper.unmap(region);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException once the file and its streams are closed
+     */
+    private MappedByteBuffer[] regions() throws IOException {
+        MappedByteBuffer[] regions = this.regions;
+        if (regions == null) {
+            throw new IOException("Mapped file is closed: " + path);
+        }
+        return regions;
+    }
+
+    private void checkRange(long offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > this.length) {
+            throw new EOFException("Range " + offset + "+" + length + " is outside of " + path + " (" + this.length + " bytes)");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.parquet.bytes.ByteBufferAllocator;
+import org.apache.parquet.io.ParquetFileRange;
+import org.apache.parquet.io.SeekableInputStream;
+
+final class MappedSeekableInputStream extends SeekableInputStream {
+
+    private final MappedInputFile file;
+    private long pos;
+    private boolean closed;
+
+    MappedSeekableInputStream(MappedInputFile file) {
+        this.file = file;
+    }
+
+    @Override
+    public long getPos() {
+        return pos;
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+        if (newPos < 0) {
+            throw new IOException("Cannot seek to negative position " + newPos);
+        }
+        pos = newPos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (pos >= file.getLength()) {
+            return -1;
+        }
+        return file.get(pos++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+        long available = file.getLength() - pos;
+        if (available <= 0) {
+            return -1;
+        }
+        int n = (int) Math.min(len, available);
+        file.copy(pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        long available = file.getLength() - pos;
+        if (available <= 0) {
+            return -1;
+        }
+        int n = (int) Math.min(dst.remaining(), available);
+        int limit = dst.limit();
+        dst.limit(dst.position() + n);
+        file.copy(pos, dst);
+        dst.limit(limit);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+        ensureOpen();
+        if (pos + len > file.getLength()) {
+            throw new EOFException("Reached the end of stream with " + (pos + len - file.getLength()) + " bytes left to read");
+        }
+        file.copy(pos, bytes, start, len);
+        pos += len;
+    }
+
+    @Override
+    public void readFully(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (pos + dst.remaining() > file.getLength()) {
+            throw new EOFException("Reached the end of stream with " + (pos + dst.remaining() - file.getLength())
+                    + " bytes left to read");
+        }
+        int n = dst.remaining();
+        file.copy(pos, dst);
+        pos += n;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, file.getLength() - pos));
+        pos += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, file.getLength() - pos));
+    }
+
+    /**
+     * Completes every range with a slice of the mapping. Ranges spanning two regions are copied to the
+     * heap, as {@code ParquetFileReader} never releases vectored buffers back to the allocator.
+     */
+    @Override
+    public void readVectored(List<ParquetFileRange> ranges, ByteBufferAllocator allocator) throws IOException {
+        ensureOpen();
+        for (ParquetFileRange range : ranges) {
+            range.setDataReadFuture(CompletableFuture.completedFuture(file.slice(range.getOffset(), range.getLength())));
+        }
+    }
+
+    @Override
+    public boolean readVectoredAvailable(ByteBufferAllocator allocator) {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            file.release();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
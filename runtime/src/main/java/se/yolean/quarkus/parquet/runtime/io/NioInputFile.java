@@ -0,0 +1,61 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * {@link InputFile} for local files, read through a {@link FileChannel} with positional reads.
+ */
+public final class NioInputFile implements InputFile {
+
+    private final Path path;
+    private final int bufferSize;
+    private final VectoredReadOptions vectoredReadOptions;
+
+    public NioInputFile(Path path) {
+        this(path, NioSeekableInputStream.DEFAULT_BUFFER_SIZE);
+    }
+
+    public NioInputFile(Path path, int bufferSize) {
+        this(path, bufferSize, VectoredReadOptions.defaults());
+    }
+
+    public NioInputFile(Path path, VectoredReadOptions vectoredReadOptions) {
+        this(path, NioSeekableInputStream.DEFAULT_BUFFER_SIZE, vectoredReadOptions);
+    }
+
+    public NioInputFile(Path path, int bufferSize, VectoredReadOptions vectoredReadOptions) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.path = path;
+        this.bufferSize = bufferSize;
+        this.vectoredReadOptions = vectoredReadOptions;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        return Files.size(path);
+    }
+
+    @Override
+    public SeekableInputStream newStream() throws IOException {
+        return new NioSeekableInputStream(FileChannel.open(path, StandardOpenOption.READ), bufferSize,
+                vectoredReadOptions);
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
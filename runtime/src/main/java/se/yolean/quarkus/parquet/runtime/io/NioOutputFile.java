@@ -0,0 +1,65 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+/**
+ * {@link OutputFile} for local files, written through a {@link FileChannel}.
+ */
+public final class NioOutputFile implements OutputFile {
+
+    private final Path path;
+    private final int bufferSize;
+
+    public NioOutputFile(Path path) {
+        this(path, NioPositionOutputStream.DEFAULT_BUFFER_SIZE);
+    }
+
+    public NioOutputFile(Path path, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.path = path;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) throws IOException {
+        return new NioPositionOutputStream(open(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), bufferSize);
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+        return new NioPositionOutputStream(
+                open(StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), bufferSize);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+        return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+        return ParquetWriter.DEFAULT_BLOCK_SIZE;
+    }
+
+    @Override
+    public String getPath() {
+        return path.toString();
+    }
+
+    private FileChannel open(StandardOpenOption... options) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        return FileChannel.open(path, options);
+    }
+}
@@ -0,0 +1,239 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.parquet.bytes.ByteBufferAllocator;
+import org.apache.parquet.io.ParquetFileRange;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * Reads a {@link FileChannel} with positional reads, keeping the stream position in memory so that
+ * {@link #seek(long)} is free.
+ * <p>
+ * Small reads (footer, page headers, single bytes) are served from one reusable direct buffer.
+ * {@link #read(ByteBuffer)} and {@link #readFully(ByteBuffer)} with a direct destination, or one at
+ * least as large as the buffer, read straight from the channel into the destination.
+ * <p>
+ * {@link #readVectored(List, ByteBufferAllocator) Vectored reads} merge nearby ranges according to
+ * {@link VectoredReadOptions} and issue the merged reads concurrently.
+ */
+public final class NioSeekableInputStream extends SeekableInputStream {
+
+    static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final VectoredReadOptions vectoredReadOptions;
+    private long bufferStart;
+    private long pos;
+
+    public NioSeekableInputStream(FileChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public NioSeekableInputStream(FileChannel channel, int bufferSize) {
+        this(channel, bufferSize, VectoredReadOptions.defaults());
+    }
+
+    public NioSeekableInputStream(FileChannel channel, int bufferSize, VectoredReadOptions vectoredReadOptions) {
+        this.channel = channel;
+        this.vectoredReadOptions = vectoredReadOptions;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.limit(0);
+    }
+
+    @Override
+    public long getPos() {
+        return pos;
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+        if (newPos < 0) {
+            throw new IOException("Cannot seek to negative position " + newPos);
+        }
+        pos = newPos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (buffered() == 0 && fill() <= 0) {
+            return -1;
+        }
+        return buffer.get((int) (pos++ - bufferStart)) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (buffered() == 0 && len >= buffer.capacity()) {
+            // one wrapper per large read beats splitting it into buffer-sized syscalls
+            return read(ByteBuffer.wrap(b, off, len));
+        }
+        if (buffered() == 0 && fill() <= 0) {
+            return -1;
+        }
+        int n = Math.min(len, buffered());
+        buffer.get((int) (pos - bufferStart), b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long skipped = Math.min(n, Math.max(0, channel.size() - pos));
+        pos += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - pos));
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+        while (len > 0) {
+            int n = read(bytes, start, len);
+            if (n < 0) {
+                throw new EOFException("Reached the end of stream with " + len + " bytes left to read");
+            }
+            start += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        int fromBuffer = drainBuffered(dst);
+        if (fromBuffer > 0 || !dst.hasRemaining()) {
+            return fromBuffer;
+        }
+        if (readsDirectly(dst)) {
+            int n = channel.read(dst, pos);
+            if (n > 0) {
+                pos += n;
+            }
+            return n;
+        }
+        if (fill() <= 0) {
+            return -1;
+        }
+        return drainBuffered(dst);
+    }
+
+    @Override
+    public void readFully(ByteBuffer dst) throws IOException {
+        drainBuffered(dst);
+        while (dst.hasRemaining()) {
+            int n;
+            if (readsDirectly(dst)) {
+                n = channel.read(dst, pos);
+                if (n > 0) {
+                    pos += n;
+                }
+            } else {
+                n = fill() <= 0 ? -1 : drainBuffered(dst);
+            }
+            if (n < 0) {
+                throw new EOFException("Reached the end of stream with " + dst.remaining() + " bytes left to read");
+            }
+        }
+    }
+
+    @Override
+    public void readVectored(List<ParquetFileRange> ranges, ByteBufferAllocator allocator) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        for (ParquetFileRange range : ranges) {
+            range.setDataReadFuture(new CompletableFuture<>());
+        }
+        List<CoalescedRange> merged = CoalescedRange.coalesce(ranges, vectoredReadOptions.maxMergeGap(),
+                vectoredReadOptions.maxMergedSize());
+        for (CoalescedRange range : merged.subList(1, merged.size())) {
+            vectoredReadOptions.executor().execute(() -> readCoalesced(range, allocator));
+        }
+        readCoalesced(merged.get(0), allocator);
+    }
+
+    @Override
+    public boolean readVectoredAvailable(ByteBufferAllocator allocator) {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readCoalesced(CoalescedRange range, ByteBufferAllocator allocator) {
+        try {
+            ByteBuffer data = allocator.allocate(range.length());
+            long offset = range.offset();
+            while (data.hasRemaining()) {
+                int n = channel.read(data, offset + data.position());
+                if (n < 0) {
+                    throw new EOFException("Reached the end of stream with " + data.remaining() + " bytes left to read");
+                }
+            }
+            range.complete(data.flip());
+        } catch (IOException | RuntimeException e) {
+            range.fail(e);
+        }
+    }
+
+    private boolean readsDirectly(ByteBuffer dst) {
+        return dst.isDirect() || dst.remaining() >= buffer.capacity();
+    }
+
+    private int buffered() {
+        long offset = pos - bufferStart;
+        if (offset < 0 || offset >= buffer.limit()) {
+            return 0;
+        }
+        return (int) (buffer.limit() - offset);
+    }
+
+    private int drainBuffered(ByteBuffer dst) {
+        int n = Math.min(buffered(), dst.remaining());
+        if (n > 0) {
+            int offset = (int) (pos - bufferStart);
+            dst.put(dst.position(), buffer, offset, n);
+            dst.position(dst.position() + n);
+            pos += n;
+        }
+        return n;
+    }
+
+    private int fill() throws IOException {
+        buffer.clear();
+        bufferStart = pos;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, bufferStart + buffer.position());
+            if (n < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.limit() > 0 ? buffer.limit() : -1;
+    }
+}
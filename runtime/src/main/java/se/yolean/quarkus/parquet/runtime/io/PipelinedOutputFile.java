@@ -0,0 +1,227 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+/**
+ * {@link OutputFile} whose streams hand their bytes to a background task that writes them to another
+ * {@code OutputFile}, so that the writer encodes the next row group while the previous one is written.
+ * <p>
+ * Bytes are collected in a fixed number of chunks; a write blocks when all of them wait to be written.
+ * {@link PositionOutputStream#flush()} and {@link PositionOutputStream#close()} wait for the background
+ * writes to complete and throw their failures. A failure is otherwise thrown by the next write.
+ */
+public final class PipelinedOutputFile implements OutputFile {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    public static final int DEFAULT_CHUNKS = 8;
+
+    private final OutputFile file;
+    private final Executor executor;
+    private final int chunkSize;
+    private final int chunks;
+
+    public PipelinedOutputFile(OutputFile file, Executor executor) {
+        this(file, executor, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNKS);
+    }
+
+    public PipelinedOutputFile(OutputFile file, Executor executor, int chunkSize, int chunks) {
+        if (chunkSize <= 0 || chunks < 2) {
+            throw new IllegalArgumentException("Need a positive chunk size and at least 2 chunks: " + chunkSize + ", " + chunks);
+        }
+        this.file = file;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.chunks = chunks;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) throws IOException {
+        return new PipelinedOutputStream(file.create(blockSizeHint));
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+        return new PipelinedOutputStream(file.createOrOverwrite(blockSizeHint));
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+        return file.supportsBlockSize();
+    }
+
+    @Override
+    public long defaultBlockSize() {
+        return file.defaultBlockSize();
+    }
+
+    @Override
+    public String getPath() {
+        return file.getPath();
+    }
+
+    /**
+     * Bytes to write, or with null bytes a marker: a flush to complete, or the end of the stream.
+     */
+    private record Chunk(byte[] bytes, int length, CompletableFuture<Void> flushed) {
+    }
+
+    private static final Chunk END = new Chunk(null, 0, null);
+
+    private final class PipelinedOutputStream extends PositionOutputStream {
+
+        private final PositionOutputStream out;
+        private final long start;
+        private final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(chunks);
+        // bounded by the free buffers and the one marker a flush or close waits for
+        private final BlockingQueue<Chunk> full = new LinkedBlockingQueue<>();
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+        private volatile IOException failure;
+        private byte[] buffer;
+        private int length;
+        private long handedOff;
+        private boolean open = true;
+
+        PipelinedOutputStream(PositionOutputStream out) throws IOException {
+            this.out = out;
+            this.start = out.getPos();
+            for (int i = 0; i < chunks; i++) {
+                free.add(new byte[chunkSize]);
+            }
+            executor.execute(this::drain);
+        }
+
+        @Override
+        public long getPos() {
+            return start + handedOff + length;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (buffer == null || length == buffer.length) {
+                next();
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (buffer == null || length == buffer.length) {
+                    next();
+                }
+                int n = Math.min(len, buffer.length - length);
+                System.arraycopy(b, off, buffer, length, n);
+                length += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!open) {
+                return;
+            }
+            handOff();
+            CompletableFuture<Void> flushed = new CompletableFuture<>();
+            full.add(new Chunk(null, 0, flushed));
+            await(flushed);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!open) {
+                return;
+            }
+            open = false;
+            if (failure == null) {
+                handOff();
+            }
+            full.add(END);
+            await(closed);
+        }
+
+        private void next() throws IOException {
+            handOff();
+            try {
+                buffer = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting to write " + getPath());
+            }
+        }
+
+        private void handOff() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            if (buffer != null) {
+                full.add(new Chunk(buffer, length, null));
+                handedOff += length;
+                buffer = null;
+                length = 0;
+            }
+        }
+
+        private void await(CompletableFuture<Void> future) throws IOException {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting to write " + getPath());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Writes the queued chunks until the end of the stream. After a failure, chunks are only returned to
+         * the free buffers, so that the writing thread never waits for a buffer forever.
+         */
+        private void drain() {
+            try {
+                for (Chunk chunk = full.take(); chunk != END; chunk = full.take()) {
+                    if (chunk.bytes() != null) {
+                        if (failure == null) {
+                            try {
+                                out.write(chunk.bytes(), 0, chunk.length());
+                            } catch (IOException e) {
+                                failure = e;
+                            }
+                        }
+                        free.add(chunk.bytes());
+                    } else {
+                        if (failure == null) {
+                            try {
+                                out.flush();
+                            } catch (IOException e) {
+                                failure = e;
+                            }
+                        }
+                        chunk.flushed().complete(null);
+                    }
+                }
+                out.close();
+                closed.complete(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closed.completeExceptionally(new InterruptedIOException("Interrupted writing " + getPath()));
+            } catch (Throwable e) {
+                closed.completeExceptionally(e);
+            }
+        }
+    }
+}
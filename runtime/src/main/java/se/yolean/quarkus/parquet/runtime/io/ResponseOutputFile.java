@@ -0,0 +1,222 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * {@link OutputFile} that streams into a Vert.x HTTP response, so that an export is sent as its row groups
+ * are flushed, without a temporary file.
+ * <p>
+ * Unless a {@code Content-Length} is set, the response is chunked. Bytes are collected in pooled Netty
+ * buffers of {@code chunkSize} bytes, each handed to the response when full and released once written. A
+ * write blocks while the write queue of the response is full, so a slow client holds the writer back rather
+ * than letting chunks pile up; the stream must therefore be written from a worker thread. Closing the
+ * stream ends the response. Once the connection closes, or after {@link HttpServerResponse#reset()}, writes
+ * fail; a writer that fails should reset the response, so that the client does not take a file without a
+ * footer for a complete one. Only one file can be written to a response.
+ */
+public final class ResponseOutputFile implements OutputFile {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    public static final String CONTENT_TYPE = "application/vnd.apache.parquet";
+
+    private final HttpServerResponse response;
+    private final int chunkSize;
+    private boolean created;
+
+    public ResponseOutputFile(HttpServerResponse response) {
+        this(response, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ResponseOutputFile(HttpServerResponse response, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.response = response;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) throws IOException {
+        if (Context.isOnEventLoopThread()) {
+            throw new IllegalStateException("Writes to a response block, so a file cannot be written on the event loop");
+        }
+        if (created) {
+            throw new IOException("A file has already been written to this response");
+        }
+        created = true;
+        return new ResponseOutputStream();
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+        return create(blockSizeHint);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+        return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+        return ParquetWriter.DEFAULT_BLOCK_SIZE;
+    }
+
+    private final class ResponseOutputStream extends PositionOutputStream {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition writable = lock.newCondition();
+        private volatile IOException failure;
+        private ByteBuf buffer;
+        private long sent;
+        private boolean open = true;
+
+        ResponseOutputStream() {
+            if (!response.headers().contains(HttpHeaders.CONTENT_LENGTH)) {
+                response.setChunked(true);
+            }
+            if (!response.headers().contains(HttpHeaders.CONTENT_TYPE)) {
+                response.putHeader(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE);
+            }
+            response.drainHandler(drained -> signal(null));
+            response.exceptionHandler(e -> signal(new IOException("Failed to write the response", e)));
+            response.closeHandler(closed -> signal(new IOException("The connection closed before the response ended")));
+        }
+
+        /**
+         * @return the bytes written, as Parquet only appends
+         */
+        @Override
+        public long getPos() {
+            return sent + (buffer != null ? buffer.writerIndex() : 0);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (buffer == null || !buffer.isWritable()) {
+                next();
+            }
+            buffer.writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (buffer == null || !buffer.isWritable()) {
+                    next();
+                }
+                int n = Math.min(len, buffer.writableBytes());
+                buffer.writeBytes(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (open) {
+                send();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!open) {
+                return;
+            }
+            open = false;
+            try {
+                send();
+            } finally {
+                if (buffer != null) {
+                    buffer.release();
+                    buffer = null;
+                }
+            }
+            await(response.end());
+        }
+
+        private void next() throws IOException {
+            send();
+            buffer = PooledByteBufAllocator.DEFAULT.directBuffer(chunkSize, chunkSize);
+        }
+
+        /**
+         * Hands the buffer to the response once its write queue has room. Vert.x does not release buffers it
+         * is given, so it is released when written.
+         */
+        private void send() throws IOException {
+            awaitWritable();
+            if (buffer == null || !buffer.isReadable()) {
+                return;
+            }
+            ByteBuf chunk = buffer;
+            buffer = null;
+            sent += chunk.readableBytes();
+            try {
+                response.write(Buffer.buffer(chunk)).onComplete(written -> chunk.release());
+            } catch (RuntimeException e) {
+                chunk.release();
+                throw new IOException("Failed to write the response", e);
+            }
+        }
+
+        private void awaitWritable() throws IOException {
+            lock.lock();
+            try {
+                // the drain handler signals under the lock, so it cannot slip in between check and wait
+                while (failure == null && response.writeQueueFull()) {
+                    writable.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the response to drain");
+            } finally {
+                lock.unlock();
+            }
+            if (failure != null) {
+                // a new exception every time, as close() throws after the write that failed
+                throw new IOException(failure.getMessage(), failure.getCause());
+            }
+        }
+
+        private void signal(IOException e) {
+            lock.lock();
+            try {
+                if (e != null && failure == null) {
+                    failure = e;
+                }
+                writable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void await(Future<Void> future) throws IOException {
+            try {
+                future.toCompletionStage().toCompletableFuture().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the response to end");
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException("Failed to end the response", e.getCause());
+            }
+        }
+    }
+}
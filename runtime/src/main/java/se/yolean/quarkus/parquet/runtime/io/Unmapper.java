@@ -0,0 +1,48 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Releases mappings eagerly through {@code sun.misc.Unsafe#invokeCleaner}, leaving them to the
+ * garbage collector when that is not accessible.
+ */
+final class Unmapper {
+
+    private static final Logger LOG = Logger.getLogger(Unmapper.class);
+
+    private static final MethodHandle INVOKE_CLEANER = lookupInvokeCleaner();
+
+    private Unmapper() {
+    }
+
+    static void unmap(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || buffer == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact(buffer);
+        } catch (Throwable e) {
+            LOG.debugf(e, "Failed to unmap buffer, leaving it to the garbage collector");
+        }
+    }
+
+    private static MethodHandle lookupInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debugf(e, "sun.misc.Unsafe#invokeCleaner is not available, mappings are released by the garbage collector");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controls how {@link NioSeekableInputStream#readVectored vectored reads} are coalesced and issued.
+ * <p>
+ * Ranges separated by at most {@code maxMergeGap} bytes are read as one, as long as the merged read
+ * stays below {@code maxMergedSize}; the bytes in between are read and discarded. Merged reads are
+ * issued concurrently on {@code executor}.
+ */
+public final class VectoredReadOptions {
+
+    public static final int DEFAULT_MAX_MERGE_GAP = 64 * 1024;
+    public static final int DEFAULT_MAX_MERGED_SIZE = 16 * 1024 * 1024;
+
+    private static final VectoredReadOptions DEFAULTS = new VectoredReadOptions(DEFAULT_MAX_MERGE_GAP,
+            DEFAULT_MAX_MERGED_SIZE, null);
+
+    private final int maxMergeGap;
+    private final int maxMergedSize;
+    private final Executor executor;
+
+    /**
+     * @param executor runs the merged reads, or {@code null} for a shared pool of daemon threads
+     */
+    public VectoredReadOptions(int maxMergeGap, int maxMergedSize, Executor executor) {
+        if (maxMergeGap < 0) {
+            throw new IllegalArgumentException("Max merge gap must not be negative: " + maxMergeGap);
+        }
+        if (maxMergedSize <= 0) {
+            throw new IllegalArgumentException("Max merged size must be positive: " + maxMergedSize);
+        }
+        this.maxMergeGap = maxMergeGap;
+        this.maxMergedSize = maxMergedSize;
+        this.executor = executor;
+    }
+
+    public static VectoredReadOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public int maxMergeGap() {
+        return maxMergeGap;
+    }
+
+    public int maxMergedSize() {
+        return maxMergedSize;
+    }
+
+    public Executor executor() {
+        return executor != null ? executor : SharedPool.EXECUTOR;
+    }
+
+    private static final class SharedPool {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "parquet-vectored-read-" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package se.yolean.quarkus.parquet.runtime.metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.parquet.bytes.ByteBufferAllocator;
+import org.apache.parquet.io.ParquetFileRange;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * Counts the bytes read from a stream and the seeks that move it. Each range of a vectored read counts as
+ * a seek.
+ */
+final class MeteredInputStream extends SeekableInputStream {
+
+    private final SeekableInputStream stream;
+    private final ParquetMetrics metrics;
+
+    MeteredInputStream(SeekableInputStream stream, ParquetMetrics metrics) {
+        this.stream = stream;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public long getPos() throws IOException {
+        return stream.getPos();
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+        if (newPos != stream.getPos()) {
+            metrics.seeked();
+        }
+        stream.seek(newPos);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = stream.read();
+        if (read >= 0) {
+            metrics.bytesRead(1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return counted(stream.read(b, off, len));
+    }
+
+    @Override
+    public int read(ByteBuffer buf) throws IOException {
+        return counted(stream.read(buf));
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        stream.readFully(bytes);
+        metrics.bytesRead(bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+        stream.readFully(bytes, start, len);
+        metrics.bytesRead(len);
+    }
+
+    @Override
+    public void readFully(ByteBuffer buf) throws IOException {
+        int remaining = buf.remaining();
+        stream.readFully(buf);
+        metrics.bytesRead(remaining);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = stream.skip(n);
+        if (skipped > 0) {
+            metrics.seeked();
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return stream.available();
+    }
+
+    @Override
+    public void readVectored(List<ParquetFileRange> ranges, ByteBufferAllocator allocator) throws IOException {
+        stream.readVectored(ranges, allocator);
+        for (ParquetFileRange range : ranges) {
+            metrics.seeked();
+            metrics.bytesRead(range.getLength());
+        }
+    }
+
+    @Override
+    public boolean readVectoredAvailable(ByteBufferAllocator allocator) {
+        return stream.readVectoredAvailable(allocator);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    private int counted(int read) {
+        if (read > 0) {
+            metrics.bytesRead(read);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,204 @@
+package se.yolean.quarkus.parquet.runtime.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Singleton;
+
+import org.apache.parquet.hadoop.ParquetFileReaderMetrics;
+import org.apache.parquet.hadoop.ParquetMetricsCallback;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+import se.yolean.quarkus.parquet.runtime.write.WriterMemoryManager;
+
+/**
+ * Reports to Micrometer, and installs itself as the {@link ParquetMetrics#shared() shared} metrics once
+ * Quarkus binds it to the registry. Only a bean when the {@code quarkus-micrometer} extension is present.
+ * <p>
+ * Besides what readers and writers report, exposes the statistics of the shared caches and writer memory
+ * budget, read when the meters are.
+ */
+@Singleton
+public class MicrometerMetrics extends ParquetMetrics implements MeterBinder {
+
+    private final Map<ColumnPath, Counter[]> columnBytes = new ConcurrentHashMap<>();
+    private final ParquetMetricsCallback callback = new DecompressionCallback();
+    private volatile MeterRegistry registry;
+    private Counter rowsWritten;
+    private Counter bytesWritten;
+    private Counter rowGroupsWritten;
+    private Timer flushes;
+    private Counter bytesRead;
+    private Counter seeks;
+    private Timer pageDecompression;
+    private Counter rowGroupsSkipped;
+    private Counter pagesSkipped;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        rowsWritten = Counter.builder("parquet.writer.rows")
+                .description("Rows in the row groups flushed by writers")
+                .register(registry);
+        bytesWritten = Counter.builder("parquet.writer.bytes")
+                .description("Compressed size of the row groups flushed by writers")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        rowGroupsWritten = Counter.builder("parquet.writer.row.groups")
+                .description("Row groups flushed by writers")
+                .register(registry);
+        flushes = Timer.builder("parquet.writer.flush")
+                .description("Time to flush a row group, for the flushes that were timed")
+                .register(registry);
+        bytesRead = Counter.builder("parquet.reader.bytes")
+                .description("Bytes read from files, including footers and indexes")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        seeks = Counter.builder("parquet.reader.seeks")
+                .description("Seeks within files, each range of a vectored read counting as one")
+                .register(registry);
+        pageDecompression = Timer.builder("parquet.reader.page.decompression")
+                .description("Time to decompress a page, or to find it in the page cache")
+                .register(registry);
+        rowGroupsSkipped = Counter.builder("parquet.reader.row.groups.skipped")
+                .description("Row groups a query skipped by their statistics, dictionaries, bloom filters or column indexes")
+                .register(registry);
+        pagesSkipped = Counter.builder("parquet.reader.pages.skipped")
+                .description("Pages a query skipped by the column indexes of the row groups it read")
+                .register(registry);
+        columnBytes.clear();
+        bindCaches(registry);
+        bindWriterMemory(registry);
+        this.registry = registry;
+        ParquetMetrics.install(this);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return registry != null;
+    }
+
+    @Override
+    public ParquetMetricsCallback readCallback() {
+        return callback;
+    }
+
+    @Override
+    public void filtered(long rowGroups, long pages) {
+        rowGroupsSkipped.increment(rowGroups);
+        pagesSkipped.increment(pages);
+    }
+
+    @Override
+    protected void rowGroupWritten(BlockMetaData rowGroup, long flushNanos) {
+        rowsWritten.increment(rowGroup.getRowCount());
+        bytesWritten.increment(rowGroup.getCompressedSize());
+        rowGroupsWritten.increment();
+        if (flushNanos >= 0) {
+            flushes.record(flushNanos, TimeUnit.NANOSECONDS);
+        }
+        for (ColumnChunkMetaData column : rowGroup.getColumns()) {
+            Counter[] sizes = columnBytes.computeIfAbsent(column.getPath(), this::columnCounters);
+            sizes[0].increment(column.getTotalSize());
+            sizes[1].increment(column.getTotalUncompressedSize());
+        }
+    }
+
+    @Override
+    protected void bytesRead(long bytes) {
+        bytesRead.increment(bytes);
+    }
+
+    @Override
+    protected void seeked() {
+        seeks.increment();
+    }
+
+    private Counter[] columnCounters(ColumnPath path) {
+        String column = path.toDotString();
+        return new Counter[] {
+                Counter.builder("parquet.writer.column.bytes")
+                        .description("Size of the column chunks flushed by writers")
+                        .baseUnit(BaseUnits.BYTES)
+                        .tags("column", column, "size", "compressed")
+                        .register(registry),
+                Counter.builder("parquet.writer.column.bytes")
+                        .description("Size of the column chunks flushed by writers")
+                        .baseUnit(BaseUnits.BYTES)
+                        .tags("column", column, "size", "uncompressed")
+                        .register(registry)
+        };
+    }
+
+    private void bindCaches(MeterRegistry registry) {
+        FunctionCounter.builder("parquet.cache.hits", this, metrics -> MetadataCache.shared().stats().hits())
+                .tag("cache", "metadata").register(registry);
+        FunctionCounter.builder("parquet.cache.misses", this, metrics -> MetadataCache.shared().stats().misses())
+                .tag("cache", "metadata").register(registry);
+        FunctionCounter.builder("parquet.cache.evictions", this, metrics -> MetadataCache.shared().stats().evictions())
+                .tag("cache", "metadata").register(registry);
+        Gauge.builder("parquet.cache.size", this, metrics -> MetadataCache.shared().stats().weight())
+                .tag("cache", "metadata").baseUnit(BaseUnits.BYTES).register(registry);
+        FunctionCounter.builder("parquet.cache.hits", this, metrics -> MetadataCache.shared().pageCache().stats().hits())
+                .tag("cache", "page").register(registry);
+        FunctionCounter.builder("parquet.cache.misses", this, metrics -> MetadataCache.shared().pageCache().stats().misses())
+                .tag("cache", "page").register(registry);
+        FunctionCounter.builder("parquet.cache.evictions", this,
+                metrics -> MetadataCache.shared().pageCache().stats().evictions())
+                .tag("cache", "page").register(registry);
+        Gauge.builder("parquet.cache.size", this, metrics -> MetadataCache.shared().pageCache().stats().size())
+                .tag("cache", "page").baseUnit(BaseUnits.BYTES).register(registry);
+    }
+
+    private void bindWriterMemory(MeterRegistry registry) {
+        Gauge.builder("parquet.writer.memory.buffered", this, metrics -> WriterMemoryManager.shared().buffered())
+                .description("Estimated size of the row groups buffered by managed writers")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        FunctionCounter.builder("parquet.writer.memory.forced.flushes", this,
+                metrics -> WriterMemoryManager.shared().stats().forcedFlushes())
+                .description("Row groups flushed early to get within the writer memory budget")
+                .register(registry);
+    }
+
+    /**
+     * Receives what Parquet measures of each page it decompresses.
+     */
+    private final class DecompressionCallback implements ParquetMetricsCallback {
+
+        private final String decompressTime = ParquetFileReaderMetrics.DecompressTime.name();
+
+        @Override
+        public void setDuration(String name, long value) {
+            if (decompressTime.equals(name)) {
+                pageDecompression.record(value, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void setValueInt(String name, int value) {
+        }
+
+        @Override
+        public void setValueLong(String name, long value) {
+        }
+
+        @Override
+        public void setValueFloat(String name, float value) {
+        }
+
+        @Override
+        public void setValueDouble(String name, double value) {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package se.yolean.quarkus.parquet.runtime.metrics;
+
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.apache.parquet.io.InputFile;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Starts OpenTelemetry spans, and installs itself as the {@link ParquetTracing#shared() shared} tracing at
+ * startup. Only a bean when the {@code quarkus-opentelemetry} extension is present.
+ */
+@Singleton
+public class OpenTelemetryTracing extends ParquetTracing {
+
+    @Inject
+    OpenTelemetry openTelemetry;
+
+    private volatile Tracer tracer;
+
+    void install(@Observes StartupEvent event) {
+        tracer = openTelemetry.getTracer("quarkus-parquet");
+        ParquetTracing.install(this);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return tracer != null;
+    }
+
+    @Override
+    public Span start(String name, InputFile file) {
+        return new OpenTelemetrySpan(tracer.spanBuilder(name)
+                .setSpanKind(SpanKind.INTERNAL)
+                .setAttribute(FILE, file.toString())
+                .startSpan());
+    }
+
+    private record OpenTelemetrySpan(io.opentelemetry.api.trace.Span span) implements Span {
+
+        @Override
+        public void set(String attribute, long value) {
+            span.setAttribute(attribute, value);
+        }
+
+        @Override
+        public void failed(Throwable e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+        }
+
+        @Override
+        public void close() {
+            span.end();
+        }
+    }
+}
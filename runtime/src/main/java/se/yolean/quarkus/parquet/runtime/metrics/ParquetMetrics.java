@@ -0,0 +1,95 @@
+package se.yolean.quarkus.parquet.runtime.metrics;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.parquet.hadoop.ParquetMetricsCallback;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriterAccess;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * Where the readers and writers created through the extension report what they do. This base class
+ * records nothing.
+ * <p>
+ * Nothing is reported per record. Writers are metered per row group, as they flush it, streams per read
+ * call, and pages through Parquet's {@link ParquetMetricsCallback} as they are decompressed. The
+ * {@link #shared()} instance is installed at startup when the {@code quarkus-micrometer} extension is
+ * present and {@code quarkus.parquet.metrics.enabled} is true; without Quarkus nothing is reported unless
+ * another is {@link #install installed}.
+ */
+public class ParquetMetrics {
+
+    private static volatile ParquetMetrics shared = new ParquetMetrics();
+
+    private final Map<ParquetWriter<?>, WriterMeter> meters = new IdentityHashMap<>();
+
+    protected ParquetMetrics() {
+    }
+
+    public static ParquetMetrics shared() {
+        return shared;
+    }
+
+    public static void install(ParquetMetrics metrics) {
+        shared = metrics;
+    }
+
+    public boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Starts metering {@code writer}. Must be called on the thread that builds or writes to it.
+     *
+     * @return the meter to report writes and the end of writing to, the same for a writer already metered
+     */
+    public WriterMeter writer(ParquetWriter<?> writer) {
+        if (!isEnabled() || !ParquetWriterAccess.canReadRowGroups()) {
+            return WriterMeter.NONE;
+        }
+        synchronized (meters) {
+            return meters.computeIfAbsent(writer, metered -> new WriterMeter(this, metered));
+        }
+    }
+
+    /**
+     * @return {@code stream}, counting the bytes read and the seeks when enabled
+     */
+    public SeekableInputStream meter(SeekableInputStream stream) {
+        return isEnabled() ? new MeteredInputStream(stream, this) : stream;
+    }
+
+    /**
+     * @return the callback for read options to report page decompression to, or null
+     */
+    public ParquetMetricsCallback readCallback() {
+        return null;
+    }
+
+    /**
+     * @param rowGroups the row groups a filter skipped without reading them
+     * @param pages the pages column indexes skipped within the row groups read
+     */
+    public void filtered(long rowGroups, long pages) {
+    }
+
+    /**
+     * @param flushNanos how long flushing it took, or -1 if that was not measured
+     */
+    protected void rowGroupWritten(BlockMetaData rowGroup, long flushNanos) {
+    }
+
+    protected void bytesRead(long bytes) {
+    }
+
+    protected void seeked() {
+    }
+
+    void release(ParquetWriter<?> writer) {
+        synchronized (meters) {
+            meters.remove(writer);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package se.yolean.quarkus.parquet.runtime.metrics;
+
+import org.apache.parquet.io.InputFile;
+
+/**
+ * Spans for the files readers created through the extension open and the row groups they read, children
+ * of the current span of the calling thread. This base class starts none.
+ * <p>
+ * The {@link #shared()} instance is installed at startup when the {@code quarkus-opentelemetry} extension
+ * is present and {@code quarkus.parquet.tracing.enabled} is true.
+ */
+public class ParquetTracing {
+
+    public static final String OPEN = "parquet.open";
+    public static final String READ_ROW_GROUP = "parquet.read_row_group";
+    public static final String FILE = "parquet.file";
+    public static final String ROW_GROUP = "parquet.row_group";
+    public static final String ROWS = "parquet.rows";
+
+    private static volatile ParquetTracing shared = new ParquetTracing();
+
+    protected ParquetTracing() {
+    }
+
+    public static ParquetTracing shared() {
+        return shared;
+    }
+
+    public static void install(ParquetTracing tracing) {
+        shared = tracing;
+    }
+
+    public boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * @param name {@link #OPEN} or {@link #READ_ROW_GROUP}
+     */
+    public Span start(String name, InputFile file) {
+        return Span.NONE;
+    }
+
+    /**
+     * An operation on a file, ended by {@link #close()}.
+     */
+    public interface Span extends AutoCloseable {
+
+        Span NONE = new Span() {
+            @Override
+            public void set(String attribute, long value) {
+            }
+
+            @Override
+            public void failed(Throwable e) {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        void set(String attribute, long value);
+
+        void failed(Throwable e);
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,82 @@
+package se.yolean.quarkus.parquet.runtime.metrics;
+
+import java.util.List;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriterAccess;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+
+/**
+ * Reports the row groups of one writer to {@link ParquetMetrics} as they are flushed.
+ * <p>
+ * A writer only flushes a row group with a record after which it checks the size of the row group. The
+ * clock is read before such records only, and the flush is timed from there to the next
+ * {@link #afterWrite()}. The row group flushed by {@code close()} is timed when {@link #beforeClose()} is
+ * called. Its methods must be called on the thread writing to the writer.
+ */
+public final class WriterMeter {
+
+    static final WriterMeter NONE = new WriterMeter(null, null);
+
+    private final ParquetMetrics metrics;
+    private final ParquetWriter<?> writer;
+    private int reported;
+    private boolean checking;
+    private boolean closing;
+    private long started;
+
+    WriterMeter(ParquetMetrics metrics, ParquetWriter<?> writer) {
+        this.metrics = metrics;
+        this.writer = writer;
+    }
+
+    /**
+     * Reports a row group flushed by the record just written, and starts the clock if the next one may flush
+     * another.
+     */
+    public void afterWrite() {
+        if (metrics == null) {
+            return;
+        }
+        if (checking) {
+            report(started);
+        }
+        checking = ParquetWriterAccess.checksRowGroupSize(writer);
+        if (checking) {
+            started = System.nanoTime();
+        }
+    }
+
+    /**
+     * Starts the clock for the row group the writer flushes as it is closed.
+     */
+    public void beforeClose() {
+        closing = true;
+        started = System.nanoTime();
+    }
+
+    /**
+     * Reports the row groups flushed since the last record, once the writer is closed or while it closes.
+     */
+    public void close() {
+        if (metrics != null) {
+            report(closing ? started : 0);
+            metrics.release(writer);
+        }
+    }
+
+    /**
+     * @param started when the last of the unreported row groups started flushing, or 0 if not known
+     */
+    private void report(long started) {
+        List<BlockMetaData> rowGroups = ParquetWriterAccess.rowGroups(writer);
+        int flushed = rowGroups.size();
+        if (flushed == reported) {
+            return;
+        }
+        long nanos = started != 0 ? System.nanoTime() - started : -1;
+        for (; reported < flushed; reported++) {
+            metrics.rowGroupWritten(rowGroups.get(reported), reported == flushed - 1 ? nanos : -1);
+        }
+    }
+}
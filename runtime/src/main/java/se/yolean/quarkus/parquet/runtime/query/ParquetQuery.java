@@ -0,0 +1,120 @@
+package se.yolean.quarkus.parquet.runtime.query;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.io.InputFile;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+
+/**
+ * A projection and a predicate to read a file with.
+ * <p>
+ * The predicate is pushed down as far as Parquet allows: row groups are skipped by their statistics,
+ * dictionaries and bloom filters, pages by the column and offset indexes, and the remaining rows are
+ * filtered as they are assembled. Which of these apply is controlled by the read options, all of them by
+ * default. A {@link QueryReader} reports what was skipped.
+ *
+ * <pre>
+ * ParquetQuery query = ParquetQuery.select("id", "name").where(FilterApi.eq(FilterApi.longColumn("id"), 42L));
+ * try (QueryReader&lt;Group&gt; rows = query.open(file)) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class ParquetQuery {
+
+    private static final ParquetQuery ALL = new ParquetQuery(List.of(), null, null);
+
+    private final List<String> columns;
+    private final FilterPredicate predicate;
+    private final ParquetReadOptions options;
+
+    private ParquetQuery(List<String> columns, FilterPredicate predicate, ParquetReadOptions options) {
+        this.columns = columns;
+        this.predicate = predicate;
+        this.options = options;
+    }
+
+    /**
+     * Every column the read support asks for, and every row.
+     */
+    public static ParquetQuery all() {
+        return ALL;
+    }
+
+    /**
+     * @param columns dot-separated column paths
+     */
+    public static ParquetQuery select(String... columns) {
+        return ALL.columns(Arrays.asList(columns));
+    }
+
+    /**
+     * Reads only {@code columns}, instead of the columns the read support asks for, plus those the predicate
+     * refers to.
+     *
+     * @param columns dot-separated column paths
+     */
+    public ParquetQuery columns(List<String> columns) {
+        return new ParquetQuery(List.copyOf(columns), predicate, options);
+    }
+
+    public ParquetQuery where(FilterPredicate predicate) {
+        return new ParquetQuery(columns, predicate, options);
+    }
+
+    /**
+     * Defaults to {@link ParquetDefaults#readOptions()}. Their record filter is replaced by the predicate.
+     */
+    public ParquetQuery withOptions(ParquetReadOptions options) {
+        return new ParquetQuery(columns, predicate, options);
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    public FilterPredicate predicate() {
+        return predicate;
+    }
+
+    public FilterCompat.Filter filter() {
+        return predicate != null ? FilterCompat.get(predicate) : FilterCompat.NOOP;
+    }
+
+    /**
+     * Reads the matching rows as {@link Group}s.
+     */
+    public QueryReader<Group> open(InputFile file) throws IOException {
+        return open(file, new GroupReadSupport());
+    }
+
+    public <T> QueryReader<T> open(InputFile file, ReadSupport<T> readSupport) throws IOException {
+        ParquetReadOptions readOptions = ParquetDefaults.readOptions()
+                .copy(options != null ? options : ParquetDefaults.readOptions().build())
+                .withRecordFilter(filter())
+                .build();
+        ParquetFileReader reader = MetadataCache.shared().open(file, readOptions);
+        try {
+            return new QueryReader<>(reader, readOptions, readSupport, this);
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ParquetQuery[columns=" + columns + ", predicate=" + predicate + "]";
+    }
+}
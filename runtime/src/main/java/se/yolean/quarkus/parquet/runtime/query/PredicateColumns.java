@@ -0,0 +1,104 @@
+package se.yolean.quarkus.parquet.runtime.query;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.filter2.predicate.UserDefinedPredicate;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+
+/**
+ * Collects the columns a predicate refers to, which have to be read for rows to be filtered.
+ */
+final class PredicateColumns implements FilterPredicate.Visitor<Void> {
+
+    private final Set<ColumnPath> columns = new LinkedHashSet<>();
+
+    private PredicateColumns() {
+    }
+
+    static Set<ColumnPath> of(FilterPredicate predicate) {
+        PredicateColumns visitor = new PredicateColumns();
+        predicate.accept(visitor);
+        return visitor.columns;
+    }
+
+    private Void add(Operators.Column<?> column) {
+        columns.add(column.getColumnPath());
+        return null;
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.Eq<T> eq) {
+        return add(eq.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.NotEq<T> notEq) {
+        return add(notEq.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.Lt<T> lt) {
+        return add(lt.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.LtEq<T> ltEq) {
+        return add(ltEq.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.Gt<T> gt) {
+        return add(gt.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.GtEq<T> gtEq) {
+        return add(gtEq.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.In<T> in) {
+        return add(in.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.NotIn<T> notIn) {
+        return add(notIn.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Void visit(Operators.Contains<T> contains) {
+        return add(contains.getColumn());
+    }
+
+    @Override
+    public Void visit(Operators.And and) {
+        and.getLeft().accept(this);
+        return and.getRight().accept(this);
+    }
+
+    @Override
+    public Void visit(Operators.Or or) {
+        or.getLeft().accept(this);
+        return or.getRight().accept(this);
+    }
+
+    @Override
+    public Void visit(Operators.Not not) {
+        return not.getPredicate().accept(this);
+    }
+
+    @Override
+    public <T extends Comparable<T>, U extends UserDefinedPredicate<T>> Void visit(Operators.UserDefined<T, U> udp) {
+        return add(udp.getColumn());
+    }
+
+    @Override
+    public <T extends Comparable<T>, U extends UserDefinedPredicate<T>> Void visit(
+            Operators.LogicalNotUserDefined<T, U> udp) {
+        return add(udp.getUserDefined().getColumn());
+    }
+}
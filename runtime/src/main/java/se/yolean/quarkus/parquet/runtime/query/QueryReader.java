@@ -0,0 +1,249 @@
+package se.yolean.quarkus.parquet.runtime.query;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.api.InitContext;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.api.ReadSupport.ReadContext;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexFilter;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore.MissingOffsetIndexException;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetMetrics;
+
+/**
+ * Reads the rows of a file that match a {@link ParquetQuery}, one row group at a time, keeping count of
+ * what was skipped in {@link #stats()}. Once closed, the skipped row groups and pages are added to the
+ * {@link ParquetMetrics#shared() shared} metrics.
+ */
+public final class QueryReader<T> implements Closeable {
+
+    private final ParquetFileReader reader;
+    private final MessageColumnIO columnIO;
+    private final RecordMaterializer<T> materializer;
+    private final FilterCompat.Filter filter;
+    private final FilterCompat.Filter recordFilter;
+    private final boolean pageFiltering;
+    private final Set<ColumnPath> paths = new HashSet<>();
+    private final List<BlockMetaData> rowGroups;
+    private final QueryStats stats = new QueryStats();
+    private int nextRowGroup;
+    private PageReadStore rowGroup;
+    private RecordReader<T> rows;
+    private long remaining;
+    private boolean closed;
+
+    QueryReader(ParquetFileReader reader, ParquetReadOptions options, ReadSupport<T> readSupport, ParquetQuery query) {
+        this.reader = reader;
+        this.filter = query.filter();
+        this.recordFilter = options.useRecordFilter() ? filter : FilterCompat.NOOP;
+        this.pageFiltering = options.useColumnIndexFilter() && FilterCompat.isFilteringRequired(filter);
+
+        FileMetaData metaData = reader.getFooter().getFileMetaData();
+        MessageType fileSchema = metaData.getSchema();
+        ParquetConfiguration configuration = options.getConfiguration();
+        Map<String, Set<String>> keyValueMetaData = metaData.getKeyValueMetaData().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> Set.of(e.getValue())));
+        ReadContext context = readSupport.init(new InitContext(configuration, keyValueMetaData, fileSchema));
+        MessageType requested = query.columns().isEmpty() ? context.getRequestedSchema() : null;
+        for (String column : query.columns()) {
+            requested = union(requested, project(fileSchema, column.split("\\.")));
+        }
+        if (query.predicate() != null) {
+            for (ColumnPath column : PredicateColumns.of(query.predicate())) {
+                requested = union(requested, project(fileSchema, column.toArray()));
+            }
+        }
+        for (ColumnDescriptor column : requested.getColumns()) {
+            paths.add(ColumnPath.get(column.getPath()));
+        }
+        reader.setRequestedSchema(requested);
+        ReadContext readContext = new ReadContext(requested, context.getReadSupportMetadata());
+        this.columnIO = new ColumnIOFactory(metaData.getCreatedBy()).getColumnIO(requested, fileSchema, true);
+        this.materializer = readSupport.prepareForRead(configuration, metaData.getKeyValueMetaData(), fileSchema,
+                readContext);
+
+        List<BlockMetaData> blocks = reader.getFooter().getBlocks();
+        this.rowGroups = reader.getRowGroups();
+        stats.rowGroups = blocks.size();
+        stats.rowGroupsSkipped = blocks.size() - rowGroups.size();
+        stats.rows = blocks.stream().mapToLong(BlockMetaData::getRowCount).sum();
+        stats.rowsSkipped = stats.rows - rowGroups.stream().mapToLong(BlockMetaData::getRowCount).sum();
+    }
+
+    /**
+     * @return the next matching row, or null at the end of the file
+     */
+    public T read() throws IOException {
+        while (true) {
+            while (remaining == 0) {
+                if (!advance()) {
+                    return null;
+                }
+            }
+            remaining--;
+            T row = rows.read();
+            // filtered record readers skip non-matching rows by returning null
+            if (row != null && !rows.shouldSkipCurrentRecord()) {
+                stats.rowsMatched++;
+                return row;
+            }
+        }
+    }
+
+    public QueryStats stats() {
+        return stats;
+    }
+
+    /**
+     * The remaining matching rows as a sequential stream that closes this reader when closed.
+     */
+    public Stream<T> stream() {
+        Spliterator<T> matching = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                T row;
+                try {
+                    row = read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (row == null) {
+                    return false;
+                }
+                action.accept(row);
+                return true;
+            }
+        };
+        return StreamSupport.stream(matching, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            ParquetMetrics.shared().filtered(stats.rowGroupsSkipped, stats.pagesSkipped);
+        }
+        try {
+            releaseRowGroup();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private boolean advance() throws IOException {
+        releaseRowGroup();
+        while (nextRowGroup < rowGroups.size()) {
+            int index = nextRowGroup++;
+            BlockMetaData block = rowGroups.get(index);
+            if (pageFiltering) {
+                ColumnIndexStore indexes = reader.getColumnIndexStore(index);
+                RowRanges ranges = ColumnIndexFilter.calculateRowRanges(filter, indexes, paths, block.getRowCount());
+                countPages(block, indexes, ranges);
+                stats.rowsSkipped += block.getRowCount() - ranges.rowCount();
+                if (ranges.rowCount() == 0) {
+                    stats.rowGroupsSkipped++;
+                    continue;
+                }
+                // the reader computes the same row ranges, as its record filter is the query's
+                rowGroup = reader.readFilteredRowGroup(index);
+            } else {
+                rowGroup = reader.readRowGroup(index);
+            }
+            rows = columnIO.getRecordReader(rowGroup, materializer, recordFilter);
+            remaining = rowGroup.getRowCount();
+            return true;
+        }
+        return false;
+    }
+
+    private void countPages(BlockMetaData block, ColumnIndexStore indexes, RowRanges ranges) {
+        for (ColumnChunkMetaData column : block.getColumns()) {
+            if (!paths.contains(column.getPath())) {
+                continue;
+            }
+            OffsetIndex offsetIndex;
+            try {
+                offsetIndex = indexes.getOffsetIndex(column.getPath());
+            } catch (MissingOffsetIndexException e) {
+                continue;
+            }
+            for (int page = 0; page < offsetIndex.getPageCount(); page++) {
+                stats.pages++;
+                if (!ranges.isOverlapping(offsetIndex.getFirstRowIndex(page),
+                        offsetIndex.getLastRowIndex(page, block.getRowCount()))) {
+                    stats.pagesSkipped++;
+                }
+            }
+        }
+    }
+
+    private void releaseRowGroup() {
+        if (rowGroup != null) {
+            rowGroup.close();
+            rowGroup = null;
+            rows = null;
+            remaining = 0;
+        }
+    }
+
+    private static MessageType union(MessageType schema, MessageType column) {
+        return schema == null ? column : schema.union(column);
+    }
+
+    private static MessageType project(MessageType schema, String[] path) {
+        if (!schema.containsPath(path)) {
+            throw new IllegalArgumentException("No column " + String.join(".", path) + " in " + schema.getName());
+        }
+        return new MessageType(schema.getName(), prune(schema, path, 0));
+    }
+
+    /**
+     * The field of {@code group} along {@code path}, keeping only the branch that leads to the column.
+     */
+    private static Type prune(GroupType group, String[] path, int depth) {
+        Type field = group.getType(path[depth]);
+        if (depth == path.length - 1) {
+            return field;
+        }
+        return field.asGroupType().withNewFields(prune(field.asGroupType(), path, depth + 1));
+    }
+}
@@ -0,0 +1,66 @@
+package se.yolean.quarkus.parquet.runtime.query;
+
+/**
+ * How much of a file a {@link QueryReader} skipped.
+ * <p>
+ * Row groups are skipped by their statistics, dictionaries and bloom filters, or when the column indexes
+ * leave no rows in them. Pages are counted from the offset indexes of the projected columns, so only while
+ * column index filtering applies.
+ */
+public final class QueryStats {
+
+    long rowGroups;
+    long rowGroupsSkipped;
+    long pages;
+    long pagesSkipped;
+    long rows;
+    long rowsSkipped;
+    long rowsMatched;
+
+    QueryStats() {
+    }
+
+    public long rowGroups() {
+        return rowGroups;
+    }
+
+    public long rowGroupsSkipped() {
+        return rowGroupsSkipped;
+    }
+
+    public long pages() {
+        return pages;
+    }
+
+    public long pagesSkipped() {
+        return pagesSkipped;
+    }
+
+    /**
+     * The rows in the file.
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * The rows in skipped row groups and pages, which were never decoded.
+     */
+    public long rowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * The rows returned so far.
+     */
+    public long rowsMatched() {
+        return rowsMatched;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStats[rowGroups=" + rowGroups + ", rowGroupsSkipped=" + rowGroupsSkipped + ", pages=" + pages
+                + ", pagesSkipped=" + pagesSkipped + ", rows=" + rows + ", rowsSkipped=" + rowsSkipped + ", rowsMatched="
+                + rowsMatched + "]";
+    }
+}
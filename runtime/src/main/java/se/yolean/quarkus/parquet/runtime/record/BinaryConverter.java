@@ -0,0 +1,47 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.PrimitiveConverter;
+
+/**
+ * Base of the generated converters for binary columns. Immutable values, such as strings and enums,
+ * are converted once per dictionary entry rather than once per row.
+ */
+public abstract class BinaryConverter extends PrimitiveConverter {
+
+    private final boolean immutable;
+    private Object[] dictionary;
+
+    protected BinaryConverter(boolean immutable) {
+        this.immutable = immutable;
+    }
+
+    protected abstract Object convert(Binary value);
+
+    protected abstract void set(Object value);
+
+    @Override
+    public boolean hasDictionarySupport() {
+        return immutable;
+    }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+        Object[] decoded = new Object[dictionary.getMaxId() + 1];
+        for (int id = 0; id < decoded.length; id++) {
+            decoded[id] = convert(dictionary.decodeToBinary(id));
+        }
+        this.dictionary = decoded;
+    }
+
+    @Override
+    public void addValueFromDictionary(int dictionaryId) {
+        set(dictionary[dictionaryId]);
+    }
+
+    @Override
+    public void addBinary(Binary value) {
+        set(convert(value));
+    }
+}
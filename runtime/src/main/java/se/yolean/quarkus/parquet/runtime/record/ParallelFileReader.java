@@ -0,0 +1,369 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.api.InitContext;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.api.ReadSupport.ReadContext;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.api.RecordMaterializer;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.ParquetExecutors;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+import se.yolean.quarkus.parquet.runtime.codec.ParquetCodecFactory;
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetMetrics;
+
+/**
+ * Reads the rows of a file through a {@link ReadSupport}, decoding several row groups concurrently.
+ * <p>
+ * The footer is read once. Each row group is then read, decompressed and decoded by a task of its own, on
+ * its own stream and codecs, so a single large file keeps every core busy. At most
+ * {@link Builder#withMaxInFlight(int) maxInFlight} row groups are held at a time, counting the one being
+ * consumed; the next is only submitted when the consumer moves past a row group. Rows arrive in file order
+ * unless {@link Builder#ordered(boolean) ordered} is turned off, in which case each row group is delivered
+ * as soon as it is decoded, its rows still in order.
+ */
+public final class ParallelFileReader<T> implements Closeable {
+
+    private final InputFile file;
+    private final ParquetReadOptions options;
+    private final Supplier<CompressionCodecFactory> codecs;
+    private final ReadSupport<T> readSupport;
+    private final FileMetaData metaData;
+    private final ReadContext context;
+    private final List<BlockMetaData> rowGroups;
+    private final long recordCount;
+    private final Executor executor;
+    private final boolean ordered;
+    private final int maxInFlight;
+    private final Deque<CompletableFuture<DecodedRowGroup<T>>> pending = new ArrayDeque<>();
+    private final BlockingQueue<CompletableFuture<DecodedRowGroup<T>>> completed = new LinkedBlockingQueue<>();
+    private int submitted;
+    private DecodedRowGroup<T> current;
+    private int position;
+
+    private ParallelFileReader(Builder<T> builder) throws IOException {
+        this.file = builder.file;
+        this.options = builder.options != null ? builder.options : ParquetDefaults.readOptions().build();
+        this.codecs = builder.codecs;
+        this.readSupport = builder.readSupport;
+        this.executor = builder.executor != null ? builder.executor : ParquetExecutors.defaultExecutor();
+        this.ordered = builder.ordered;
+        this.maxInFlight = builder.maxInFlight;
+        try (ParquetFileReader reader = MetadataCache.shared().open(file, options)) {
+            this.metaData = reader.getFooter().getFileMetaData();
+            this.rowGroups = List.copyOf(reader.getRowGroups());
+            this.recordCount = reader.getRecordCount();
+        }
+        Map<String, Set<String>> keyValueMetaData = metaData.getKeyValueMetaData().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> Set.of(e.getValue())));
+        this.context = readSupport.init(new InitContext(options.getConfiguration(), keyValueMetaData, metaData.getSchema()));
+    }
+
+    public static <T> Builder<T> builder(InputFile file, ReadSupport<T> readSupport) {
+        return new Builder<>(file, readSupport);
+    }
+
+    /**
+     * @return the next row, or null at the end of the file
+     */
+    public T read() throws IOException {
+        while (current == null || position == current.rows.size()) {
+            releaseRowGroup();
+            submit();
+            if (pending.isEmpty()) {
+                return null;
+            }
+            current = await(ordered ? pending.peekFirst() : take());
+            pending.remove(current.future);
+            position = 0;
+        }
+        return current.rows.get(position++);
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getRowGroupCount() {
+        return rowGroups.size();
+    }
+
+    /**
+     * The remaining rows as a sequential stream that closes this reader when closed.
+     */
+    public Stream<T> stream() {
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.NONNULL
+                | (ordered ? Spliterator.ORDERED : 0)) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                T row = readUnchecked();
+                if (row == null) {
+                    return false;
+                }
+                action.accept(row);
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(this::close);
+    }
+
+    /**
+     * Waits for the row groups still being decoded and releases them.
+     */
+    @Override
+    public void close() {
+        releaseRowGroup();
+        for (CompletableFuture<DecodedRowGroup<T>> future : pending) {
+            DecodedRowGroup<T> rowGroup = future.exceptionally(t -> null).join();
+            if (rowGroup != null) {
+                rowGroup.pages.close();
+            }
+        }
+        pending.clear();
+        completed.clear();
+        submitted = rowGroups.size();
+    }
+
+    private void submit() {
+        while (pending.size() < maxInFlight && submitted < rowGroups.size()) {
+            BlockMetaData rowGroup = rowGroups.get(submitted++);
+            CompletableFuture<DecodedRowGroup<T>> future = new CompletableFuture<>();
+            pending.addLast(future);
+            executor.execute(() -> {
+                try {
+                    future.complete(decode(rowGroup, future));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+                if (!ordered) {
+                    completed.add(future);
+                }
+            });
+        }
+    }
+
+    private DecodedRowGroup<T> decode(BlockMetaData rowGroup, CompletableFuture<DecodedRowGroup<T>> future)
+            throws IOException {
+        // codec factories cache (de)compressors that must not be shared between threads
+        ParquetReadOptions taskOptions = ParquetDefaults.readOptions().copy(options).withCodecFactory(codecs.get()).build();
+        ParquetMetadata footer = new ParquetMetadata(metaData, List.of(rowGroup));
+        PageReadStore pages;
+        try (ParquetFileReader reader = new ParquetFileReader(file, footer, taskOptions,
+                ParquetMetrics.shared().meter(file.newStream()))) {
+            reader.setRequestedSchema(context.getRequestedSchema());
+            pages = reader.readNextRowGroup();
+            if (pages == null) {
+                // the row group passed the same filters when the footer was read
+                throw new IOException("Row group at offset " + rowGroup.getStartingPos() + " of " + file + " was filtered out");
+            }
+            try {
+                ParquetConfiguration configuration = options.getConfiguration();
+                RecordMaterializer<T> materializer = readSupport.prepareForRead(configuration,
+                        metaData.getKeyValueMetaData(), metaData.getSchema(), context);
+                RecordReader<T> recordReader = new ColumnIOFactory(metaData.getCreatedBy())
+                        .getColumnIO(context.getRequestedSchema(), metaData.getSchema(), true)
+                        .getRecordReader(pages, materializer);
+                List<T> rows = new ArrayList<>((int) pages.getRowCount());
+                for (long i = 0; i < pages.getRowCount(); i++) {
+                    rows.add(recordReader.read());
+                }
+                // rows such as Groups may reference the page buffers, which are released once the rows are consumed
+                return new DecodedRowGroup<>(rows, pages, future);
+            } catch (RuntimeException | Error e) {
+                pages.close();
+                throw e;
+            }
+        }
+    }
+
+    private CompletableFuture<DecodedRowGroup<T>> take() throws IOException {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a row group of " + file);
+        }
+    }
+
+    private DecodedRowGroup<T> await(CompletableFuture<DecodedRowGroup<T>> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            pending.remove(future);
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private void releaseRowGroup() {
+        if (current != null) {
+            current.pages.close();
+            current = null;
+        }
+    }
+
+    private T readUnchecked() {
+        try {
+            return read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Iterator<T> iterator() {
+        return new Iterator<>() {
+            private T next = readUnchecked();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                T current = next;
+                next = readUnchecked();
+                return current;
+            }
+        };
+    }
+
+    private record DecodedRowGroup<T>(List<T> rows, PageReadStore pages, CompletableFuture<DecodedRowGroup<T>> future) {
+    }
+
+    public static final class Builder<T> {
+
+        private final InputFile file;
+        private final ReadSupport<T> readSupport;
+        private ParquetReadOptions options;
+        private Supplier<CompressionCodecFactory> codecs = ParquetCodecFactory::new;
+        private Executor executor;
+        private boolean ordered = true;
+        private int maxInFlight = Runtime.getRuntime().availableProcessors();
+
+        private Builder(InputFile file, ReadSupport<T> readSupport) {
+            this.file = file;
+            this.readSupport = readSupport;
+        }
+
+        /**
+         * Defaults to {@link ParquetDefaults#readOptions()}. The codec factory of the options is only used
+         * to read the footer; row groups are read with codecs from {@link #withCodecFactory(Supplier)}.
+         */
+        public Builder<T> withOptions(ParquetReadOptions options) {
+            this.options = options;
+            return this;
+        }
+
+        /**
+         * Creates the codecs for each row group. Defaults to {@link ParquetCodecFactory}.
+         */
+        public Builder<T> withCodecFactory(Supplier<CompressionCodecFactory> codecs) {
+            this.codecs = codecs;
+            return this;
+        }
+
+        /**
+         * Runs the row group tasks. Defaults to {@link ParquetExecutors#defaultExecutor()}.
+         */
+        public Builder<T> withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Whether rows arrive in file order, the default, or row group by row group as they are decoded.
+         */
+        public Builder<T> ordered(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        /**
+         * Caps the row groups read, decoded or consumed at a time. Defaults to the number of processors.
+         */
+        public Builder<T> withMaxInFlight(int maxInFlight) {
+            if (maxInFlight < 1) {
+                throw new IllegalArgumentException("Max in-flight row groups must be positive: " + maxInFlight);
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public ParallelFileReader<T> build() throws IOException {
+            return new ParallelFileReader<>(this);
+        }
+
+        /**
+         * Opens the file and streams its rows; close the stream to stop reading.
+         */
+        public Stream<T> stream() throws IOException {
+            return build().stream();
+        }
+
+        /**
+         * Streams the rows as they are requested. The file is opened on subscription, rows are handed out on
+         * the default worker pool and the reader is closed on completion, failure or cancellation.
+         */
+        public Multi<T> multi() {
+            return Multi.createFrom()
+                    .resource(() -> {
+                        try {
+                            return build();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, reader -> Multi.createFrom().iterable(reader::iterator))
+                    .withFinalizer((Consumer<ParallelFileReader<T>>) ParallelFileReader::close)
+                    .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+        }
+    }
+}
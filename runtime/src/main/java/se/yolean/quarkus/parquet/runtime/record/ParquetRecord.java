@@ -0,0 +1,28 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record or class whose Parquet schema and writer are generated at build time.
+ * <p>
+ * Every record component, or every non-static non-transient field of a class, becomes a top-level
+ * column named after it, in declaration order. Primitives are {@code required}, everything else is
+ * {@code optional} and written as null when it is. Supported types are the primitives except
+ * {@code char} and their boxes, {@link String}, {@code byte[]}, enums, {@link java.time.LocalDate}
+ * and {@link java.time.Instant}. Class fields are read directly unless private, in which case a
+ * {@code getX()}/{@code isX()} getter is required.
+ *
+ * @see ParquetRecords
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ParquetRecord {
+
+    /**
+     * The message name of the schema, the simple class name by default.
+     */
+    String name() default "";
+}
@@ -0,0 +1,23 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import java.util.function.Supplier;
+
+import org.apache.parquet.schema.MessageTypeParser;
+
+import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.annotations.Recorder;
+
+@Recorder
+public class ParquetRecordRecorder {
+
+    public <T> void register(Class<T> type, String schema, RuntimeValue<RecordWriter<T>> writer,
+            RuntimeValue<Supplier<RecordConverter<T>>> converters) {
+        ParquetRecords.register(type, MessageTypeParser.parseMessageType(schema), writer.getValue(),
+                converters.getValue(), null);
+    }
+
+    public <T> void registerWriteOnly(Class<T> type, String schema, RuntimeValue<RecordWriter<T>> writer,
+            String unreadable) {
+        ParquetRecords.register(type, MessageTypeParser.parseMessageType(schema), writer.getValue(), null, unreadable);
+    }
+}
@@ -0,0 +1,200 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.schema.MessageType;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetMetrics;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+import se.yolean.quarkus.parquet.runtime.query.QueryReader;
+import se.yolean.quarkus.parquet.runtime.write.AdaptiveEncodingWriter;
+import se.yolean.quarkus.parquet.runtime.write.AsyncParquetWriter;
+import se.yolean.quarkus.parquet.runtime.write.ParquetSink;
+import se.yolean.quarkus.parquet.runtime.write.SortingParquetWriter;
+import se.yolean.quarkus.parquet.runtime.write.WriterMemoryManager;
+
+/**
+ * Access to the schemas, writers and converters generated for {@link ParquetRecord} types.
+ * <pre>
+ * try (ParquetWriter&lt;Measurement&gt; writer = ParquetRecords.writer(Measurement.class, new NioOutputFile(path)).build()) {
+ *     writer.write(new Measurement(...));
+ * }
+ * try (RecordFileReader&lt;Measurement&gt; reader = ParquetRecords.reader(Measurement.class, new NioInputFile(path))) {
+ *     for (Measurement m = reader.read(); m != null; m = reader.read()) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public final class ParquetRecords {
+
+    private static final Map<Class<?>, Registration<?>> REGISTRATIONS = new ConcurrentHashMap<>();
+
+    private ParquetRecords() {
+    }
+
+    public static MessageType schema(Class<?> type) {
+        return registration(type).schema;
+    }
+
+    public static <T> WriteSupport<T> writeSupport(Class<T> type) {
+        return recordWriteSupport(type);
+    }
+
+    /**
+     * A writer builder for {@code type}, configured through {@link ParquetDefaults#configure}. The writers
+     * it builds are managed by {@link WriterMemoryManager#shared()}.
+     */
+    public static <T> Builder<T> writer(Class<T> type, OutputFile file) {
+        return ParquetDefaults.configure(new Builder<>(file, recordWriteSupport(type)));
+    }
+
+    /**
+     * A builder for a writer that encodes and writes records of {@code type} on a background task, with
+     * the writer configured through {@link ParquetDefaults#configure}.
+     */
+    public static <T> AsyncParquetWriter.Builder<T> writeAsync(Class<T> type, OutputFile file) {
+        return AsyncParquetWriter.builder(file, out -> writer(type, out));
+    }
+
+    /**
+     * A builder for a sink that writes records of {@code type} to rolling files below {@code directory},
+     * with each writer configured through {@link ParquetDefaults#configure}.
+     */
+    public static <T> ParquetSink.Builder<T> sink(Class<T> type, Path directory) {
+        return ParquetSink.builder(directory, out -> writer(type, out));
+    }
+
+    /**
+     * A builder for a writer that chooses the encoding of each column from the first records of
+     * {@code type}, with the file written by {@link #writer}.
+     */
+    public static <T> AdaptiveEncodingWriter.Builder<T> writeAdaptive(Class<T> type, OutputFile file) {
+        return AdaptiveEncodingWriter.builder(file, out -> writer(type, out), writeSupport(type));
+    }
+
+    /**
+     * A builder for a writer that sorts records of {@code type} before writing them, spilling sorted runs
+     * to temporary files, with the file and the runs written by {@link #writer}.
+     *
+     * @throws IllegalArgumentException if the type cannot be read back, see {@link #readSupport}
+     */
+    public static <T> SortingParquetWriter.Builder<T> writeSorted(Class<T> type, OutputFile file) {
+        return SortingParquetWriter.builder(file, out -> writer(type, out), writeSupport(type), readSupport(type));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the type cannot be instantiated from its columns, e.g. a class
+     *         without a no-arg constructor
+     */
+    public static <T> ReadSupport<T> readSupport(Class<T> type) {
+        Registration<T> registration = registration(type);
+        if (registration.converters == null) {
+            throw new IllegalArgumentException(type.getName() + " cannot be read: " + registration.unreadable);
+        }
+        return new RecordReadSupport<>(registration.schema, registration.converters);
+    }
+
+    /**
+     * Opens {@code file} with {@link ParquetDefaults#readOptions()}, reading only the columns {@code type}
+     * declares.
+     */
+    public static <T> RecordFileReader<T> reader(Class<T> type, InputFile file) throws IOException {
+        return read(type, file).build();
+    }
+
+    public static <T> RecordFileReader<T> reader(Class<T> type, InputFile file, ParquetReadOptions options)
+            throws IOException {
+        return read(type, file).withOptions(options).build();
+    }
+
+    /**
+     * A reader builder for {@code type}, which can also stream the rows as a {@code Stream} or {@code Multi}.
+     */
+    public static <T> RecordFileReader.Builder<T> read(Class<T> type, InputFile file) {
+        return RecordFileReader.builder(file, readSupport(type));
+    }
+
+    /**
+     * A builder for a reader that decodes several row groups of {@code file} concurrently.
+     */
+    public static <T> ParallelFileReader.Builder<T> readParallel(Class<T> type, InputFile file) {
+        return ParallelFileReader.builder(file, readSupport(type));
+    }
+
+    /**
+     * Opens {@code file} for the rows of {@code type} that match {@code query}.
+     */
+    public static <T> QueryReader<T> query(Class<T> type, InputFile file, ParquetQuery query) throws IOException {
+        return query.open(file, readSupport(type));
+    }
+
+    static <T> void register(Class<T> type, MessageType schema, RecordWriter<T> writer,
+            Supplier<RecordConverter<T>> converters, String unreadable) {
+        REGISTRATIONS.put(type, new Registration<>(schema, writer, converters, unreadable));
+    }
+
+    private static <T> RecordWriteSupport<T> recordWriteSupport(Class<T> type) {
+        Registration<T> registration = registration(type);
+        return new RecordWriteSupport<>(registration.schema, registration.writer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Registration<T> registration(Class<T> type) {
+        Registration<T> registration = (Registration<T>) REGISTRATIONS.get(type);
+        if (registration == null) {
+            throw new IllegalArgumentException(type.getName() + " is not a @" + ParquetRecord.class.getSimpleName()
+                    + " type known to the build; make sure it is annotated and part of the Jandex index");
+        }
+        return registration;
+    }
+
+    private record Registration<T>(MessageType schema, RecordWriter<T> writer, Supplier<RecordConverter<T>> converters,
+            String unreadable) {
+    }
+
+    public static final class Builder<T> extends ParquetWriter.Builder<T, Builder<T>> {
+
+        private final RecordWriteSupport<T> writeSupport;
+
+        private Builder(OutputFile file, RecordWriteSupport<T> writeSupport) {
+            super(file);
+            this.writeSupport = writeSupport;
+        }
+
+        @Override
+        public ParquetWriter<T> build() throws IOException {
+            ParquetWriter<T> writer = super.build();
+            writeSupport.manage(WriterMemoryManager.shared().register(writer), ParquetMetrics.shared().writer(writer));
+            return writer;
+        }
+
+        @Override
+        protected Builder<T> self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<T> getWriteSupport(Configuration conf) {
+            return writeSupport;
+        }
+
+        @Override
+        protected WriteSupport<T> getWriteSupport(ParquetConfiguration conf) {
+            return writeSupport;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Root converter for a {@link ParquetRecord} type. Subclasses are generated at build time: they hold one
+ * field per column, which generated per-column converters assign directly, and {@link #build()} passes
+ * those fields to the constructor or setters of the type.
+ */
+public abstract class RecordConverter<T> extends GroupConverter {
+
+    private Converter[] converters;
+    private T current;
+
+    /**
+     * @param column the index of the column in the schema of the type
+     */
+    protected abstract Converter converter(int column);
+
+    protected abstract void reset();
+
+    protected abstract T build();
+
+    /**
+     * Columns the type does not declare, such as those a query predicate needs, are read and dropped.
+     */
+    void bind(MessageType typeSchema, MessageType requestedSchema) {
+        converters = new Converter[requestedSchema.getFieldCount()];
+        for (int i = 0; i < converters.length; i++) {
+            String name = requestedSchema.getFieldName(i);
+            converters[i] = typeSchema.containsField(name) ? converter(typeSchema.getFieldIndex(name))
+                    : dropping(requestedSchema.getType(i));
+        }
+    }
+
+    private static Converter dropping(Type type) {
+        if (type.isPrimitive()) {
+            return new PrimitiveConverter() {
+                @Override
+                public void addBinary(Binary value) {
+                }
+
+                @Override
+                public void addBoolean(boolean value) {
+                }
+
+                @Override
+                public void addDouble(double value) {
+                }
+
+                @Override
+                public void addFloat(float value) {
+                }
+
+                @Override
+                public void addInt(int value) {
+                }
+
+                @Override
+                public void addLong(long value) {
+                }
+            };
+        }
+        GroupType group = type.asGroupType();
+        Converter[] children = new Converter[group.getFieldCount()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = dropping(group.getType(i));
+        }
+        return new GroupConverter() {
+            @Override
+            public Converter getConverter(int fieldIndex) {
+                return children[fieldIndex];
+            }
+
+            @Override
+            public void start() {
+            }
+
+            @Override
+            public void end() {
+            }
+        };
+    }
+
+    T current() {
+        return current;
+    }
+
+    @Override
+    public Converter getConverter(int fieldIndex) {
+        return converters[fieldIndex];
+    }
+
+    @Override
+    public void start() {
+        reset();
+    }
+
+    @Override
+    public void end() {
+        current = build();
+    }
+}
@@ -0,0 +1,279 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.api.InitContext;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.api.ReadSupport.ReadContext;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.api.RecordMaterializer;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+import se.yolean.quarkus.parquet.runtime.codec.ParquetCodecFactory;
+
+/**
+ * Reads the rows of a file through a {@link ReadSupport}, one row group at a time, without Hadoop.
+ * <p>
+ * Only the row group being consumed is held in memory; its pages are released when the reader moves past
+ * its last row, as rows such as {@code Group}s may still reference them until then. With
+ * {@link Builder#withPrefetch(Executor) prefetch} the next row group is read in the background while the
+ * current one is decoded, so at most two are held.
+ */
+public final class RecordFileReader<T> implements Closeable {
+
+    private final ParquetFileReader reader;
+    private final MessageColumnIO columnIO;
+    private final RecordMaterializer<T> materializer;
+    private final Executor prefetch;
+    private CompletableFuture<PageReadStore> next;
+    private PageReadStore rowGroup;
+    private RecordReader<T> rows;
+    private long remaining;
+
+    RecordFileReader(ParquetFileReader reader, ReadSupport<T> readSupport, Executor prefetch) {
+        this.reader = reader;
+        this.prefetch = prefetch;
+        FileMetaData metaData = reader.getFooter().getFileMetaData();
+        ParquetConfiguration configuration = ParquetDefaults.configuration();
+        Map<String, Set<String>> keyValueMetaData = metaData.getKeyValueMetaData().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> Set.of(e.getValue())));
+        ReadContext context = readSupport.init(new InitContext(configuration, keyValueMetaData, metaData.getSchema()));
+        reader.setRequestedSchema(context.getRequestedSchema());
+        this.columnIO = new ColumnIOFactory(metaData.getCreatedBy())
+                .getColumnIO(context.getRequestedSchema(), metaData.getSchema(), true);
+        this.materializer = readSupport.prepareForRead(configuration, metaData.getKeyValueMetaData(), metaData.getSchema(),
+                context);
+    }
+
+    public static <T> Builder<T> builder(InputFile file, ReadSupport<T> readSupport) {
+        return new Builder<>(file, readSupport);
+    }
+
+    /**
+     * @return the next row, or null at the end of the file
+     */
+    public T read() throws IOException {
+        while (remaining == 0) {
+            releaseRowGroup();
+            rowGroup = nextRowGroup();
+            if (rowGroup == null) {
+                return null;
+            }
+            rows = columnIO.getRecordReader(rowGroup, materializer);
+            remaining = rowGroup.getRowCount();
+        }
+        remaining--;
+        return rows.read();
+    }
+
+    public long getRecordCount() {
+        return reader.getRecordCount();
+    }
+
+    /**
+     * The remaining rows as a sequential stream that closes this reader when closed.
+     */
+    public Stream<T> stream() {
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                T row = readUnchecked();
+                if (row == null) {
+                    return false;
+                }
+                action.accept(row);
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(this::closeUnchecked);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            releaseRowGroup();
+            if (next != null) {
+                PageReadStore prefetched = next.exceptionally(t -> null).join();
+                if (prefetched != null) {
+                    prefetched.close();
+                }
+                next = null;
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private PageReadStore nextRowGroup() throws IOException {
+        if (prefetch == null) {
+            return reader.readNextRowGroup();
+        }
+        PageReadStore pages;
+        try {
+            pages = next == null ? reader.readNextRowGroup() : next.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+        // the reader is only touched by one thread at a time: the consumer decodes pages already in memory
+        next = pages == null ? null : CompletableFuture.supplyAsync(this::readNextRowGroupUnchecked, prefetch);
+        return pages;
+    }
+
+    private PageReadStore readNextRowGroupUnchecked() {
+        try {
+            return reader.readNextRowGroup();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void releaseRowGroup() {
+        if (rowGroup != null) {
+            rowGroup.close();
+            rowGroup = null;
+            rows = null;
+        }
+    }
+
+    private T readUnchecked() {
+        try {
+            return read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeUnchecked() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Iterator<T> iterator() {
+        return new Iterator<>() {
+            private T next = readUnchecked();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                T current = next;
+                next = readUnchecked();
+                return current;
+            }
+        };
+    }
+
+    public static final class Builder<T> {
+
+        private final InputFile file;
+        private final ReadSupport<T> readSupport;
+        private ParquetReadOptions options;
+        private Executor prefetch;
+
+        private Builder(InputFile file, ReadSupport<T> readSupport) {
+            this.file = file;
+            this.readSupport = readSupport;
+        }
+
+        /**
+         * Defaults to {@link ParquetDefaults#readOptions()}.
+         */
+        public Builder<T> withOptions(ParquetReadOptions options) {
+            this.options = options;
+            return this;
+        }
+
+        /**
+         * Reads the next row group on {@code executor} while the current one is consumed.
+         * <p>
+         * The file is then decompressed from two threads at once, which only the extension's
+         * {@link ParquetCodecFactory} allows, and only for the codecs it implements itself. With any other
+         * codec factory in the options, such as Hadoop's {@code CodecFactory}, which shares its
+         * decompressors, or with a column in another codec, the row groups are read in turn instead.
+         */
+        public Builder<T> withPrefetch(Executor executor) {
+            this.prefetch = executor;
+            return this;
+        }
+
+        public RecordFileReader<T> build() throws IOException {
+            ParquetReadOptions options = this.options != null ? this.options : ParquetDefaults.readOptions().build();
+            ParquetFileReader reader = MetadataCache.shared().open(file, options);
+            try {
+                return new RecordFileReader<>(reader, readSupport, decompressesConcurrently(options, reader) ? prefetch : null);
+            } catch (RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+        }
+
+        private static boolean decompressesConcurrently(ParquetReadOptions options, ParquetFileReader reader) {
+            return options.getCodecFactory() instanceof ParquetCodecFactory
+                    && reader.getFooter().getBlocks().stream()
+                            .flatMap(block -> block.getColumns().stream())
+                            .allMatch(column -> ParquetCodecFactory.isThreadSafe(column.getCodec()));
+        }
+
+        /**
+         * Opens the file and streams its rows; close the stream to close the file.
+         */
+        public Stream<T> stream() throws IOException {
+            return build().stream();
+        }
+
+        /**
+         * Streams the rows as they are requested. The file is opened on subscription and read on the
+         * default worker pool, as reads block, and closed on completion, failure or cancellation.
+         */
+        public Multi<T> multi() {
+            return Multi.createFrom()
+                    .resource(() -> {
+                        try {
+                            return build();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, reader -> Multi.createFrom().iterable(reader::iterator))
+                    .withFinalizer((Consumer<RecordFileReader<T>>) RecordFileReader::closeUnchecked)
+                    .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.hadoop.api.InitContext;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Materializes rows straight into a {@link ParquetRecord} type, reading only the columns the type
+ * declares.
+ */
+public final class RecordReadSupport<T> extends ReadSupport<T> {
+
+    private final MessageType schema;
+    private final Supplier<RecordConverter<T>> converters;
+
+    public RecordReadSupport(MessageType schema, Supplier<RecordConverter<T>> converters) {
+        this.schema = schema;
+        this.converters = converters;
+    }
+
+    /**
+     * The columns of {@code fileSchema} that the type declares. Optional columns missing from the file
+     * are left out and read as null.
+     *
+     * @throws IllegalArgumentException if a required column is missing, or a column has another type or
+     *         logical type, is repeated, or may hold nulls the field cannot
+     */
+    public static MessageType projection(MessageType schema, MessageType fileSchema) {
+        List<Type> fields = new ArrayList<>();
+        for (Type field : schema.getFields()) {
+            if (!fileSchema.containsField(field.getName())) {
+                if (field.isRepetition(Type.Repetition.REQUIRED)) {
+                    throw new IllegalArgumentException("Required column " + field.getName() + " of " + schema.getName()
+                            + " is missing from the file");
+                }
+                continue;
+            }
+            Type fileField = fileSchema.getType(field.getName());
+            if (!fileField.isPrimitive()
+                    || fileField.asPrimitiveType().getPrimitiveTypeName() != field.asPrimitiveType().getPrimitiveTypeName()
+                    || !Objects.equals(fileField.getLogicalTypeAnnotation(), field.getLogicalTypeAnnotation())
+                    // a required field would keep the previous row's value where the file has a null, and a
+                    // scalar field the last of a repeated column's values
+                    || field.getRepetition().isMoreRestrictiveThan(fileField.getRepetition())) {
+                throw new IllegalArgumentException("Column " + field.getName() + " is " + fileField + " in the file but "
+                        + field + " in " + schema.getName());
+            }
+            fields.add(fileField);
+        }
+        return new MessageType(fileSchema.getName(), fields);
+    }
+
+    @Override
+    public ReadContext init(InitContext context) {
+        return new ReadContext(projection(schema, context.getFileSchema()));
+    }
+
+    @Override
+    public RecordMaterializer<T> prepareForRead(Configuration configuration, Map<String, String> keyValueMetaData,
+            MessageType fileSchema, ReadContext readContext) {
+        return prepareForRead((ParquetConfiguration) null, keyValueMetaData, fileSchema, readContext);
+    }
+
+    @Override
+    public RecordMaterializer<T> prepareForRead(ParquetConfiguration configuration, Map<String, String> keyValueMetaData,
+            MessageType fileSchema, ReadContext readContext) {
+        RecordConverter<T> root = converters.get();
+        root.bind(schema, readContext.getRequestedSchema());
+        return new RecordMaterializer<>() {
+            @Override
+            public T getCurrentRecord() {
+                return root.current();
+            }
+
+            @Override
+            public GroupConverter getRootConverter() {
+                return root;
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.apache.parquet.io.api.Binary;
+
+/**
+ * Conversions called from generated {@link RecordWriter}s and {@link RecordConverter}s, kept here so the
+ * generated bytecode stays a flat sequence of calls.
+ */
+public final class RecordValues {
+
+    private RecordValues() {
+    }
+
+    public static Binary binary(String value) {
+        return Binary.fromString(value);
+    }
+
+    public static Binary binary(byte[] value) {
+        // the caller may reuse the array, dictionary encoding copies reused binaries it keeps
+        return Binary.fromReusedByteArray(value);
+    }
+
+    public static Binary binary(Enum<?> value) {
+        return Binary.fromString(value.name());
+    }
+
+    public static int days(LocalDate value) {
+        return Math.toIntExact(value.toEpochDay());
+    }
+
+    public static long micros(Instant value) {
+        return Math.addExact(Math.multiplyExact(value.getEpochSecond(), 1_000_000L), value.getNano() / 1_000);
+    }
+
+    public static String string(Binary value) {
+        return value.toStringUsingUTF8();
+    }
+
+    public static byte[] bytes(Binary value) {
+        return value.getBytes();
+    }
+
+    public static LocalDate localDate(int days) {
+        return LocalDate.ofEpochDay(days);
+    }
+
+    public static Instant instant(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000);
+    }
+}
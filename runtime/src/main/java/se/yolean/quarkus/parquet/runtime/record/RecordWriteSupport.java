@@ -0,0 +1,70 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+
+import se.yolean.quarkus.parquet.runtime.metrics.WriterMeter;
+import se.yolean.quarkus.parquet.runtime.write.WriterMemoryManager;
+
+public final class RecordWriteSupport<T> extends WriteSupport<T> {
+
+    private final MessageType schema;
+    private final RecordWriter<T> writer;
+    private RecordConsumer consumer;
+    private WriterMemoryManager.Lease lease;
+    private WriterMeter meter;
+
+    public RecordWriteSupport(MessageType schema, RecordWriter<T> writer) {
+        this.schema = schema;
+        this.writer = writer;
+    }
+
+    @Override
+    public String getName() {
+        return "quarkus-parquet";
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+        return init((ParquetConfiguration) null);
+    }
+
+    @Override
+    public WriteContext init(ParquetConfiguration configuration) {
+        return new WriteContext(schema, Map.of());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+        this.consumer = recordConsumer;
+    }
+
+    @Override
+    public void write(T record) {
+        writer.write(consumer, record);
+        if (lease != null) {
+            lease.afterWrite();
+            meter.afterWrite();
+        }
+    }
+
+    @Override
+    public FinalizedWriteContext finalizeWrite() {
+        if (lease != null) {
+            lease.close();
+            // the last row group is flushed by now
+            meter.close();
+        }
+        return super.finalizeWrite();
+    }
+
+    void manage(WriterMemoryManager.Lease lease, WriterMeter meter) {
+        this.lease = lease;
+        this.meter = meter;
+    }
+}
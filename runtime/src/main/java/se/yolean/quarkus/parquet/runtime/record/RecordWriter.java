@@ -0,0 +1,12 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import org.apache.parquet.io.api.RecordConsumer;
+
+/**
+ * Writes one record to a {@link RecordConsumer}. Implementations are generated at build time for each
+ * {@link ParquetRecord} type and are stateless.
+ */
+public interface RecordWriter<T> {
+
+    void write(RecordConsumer consumer, T record);
+}
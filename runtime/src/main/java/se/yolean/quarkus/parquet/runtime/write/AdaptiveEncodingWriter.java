@@ -0,0 +1,135 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.OutputFile;
+import org.jboss.logging.Logger;
+
+/**
+ * Writes records with the encoding of each column chosen from the first
+ * {@link Builder#withSampleSize(int) sampleSize} records, as an {@link EncodingPlan}.
+ * <p>
+ * The sampled records are held until the plan is made, then written ahead of the rest; they must not be
+ * modified after being written. The plan is logged at debug level and available from {@link #encodings()}.
+ */
+public final class AdaptiveEncodingWriter<T> implements Closeable {
+
+    public static final int DEFAULT_SAMPLE_SIZE = 10_000;
+
+    private static final Logger LOG = Logger.getLogger(AdaptiveEncodingWriter.class);
+
+    private final OutputFile file;
+    private final Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer;
+    private final int sampleSize;
+    private EncodingSampler<T> sampler;
+    private List<T> sample = new ArrayList<>();
+    private EncodingPlan plan;
+    private ParquetWriter<T> delegate;
+    private boolean closed;
+
+    private AdaptiveEncodingWriter(Builder<T> builder) {
+        this.file = builder.file;
+        this.writer = builder.writer;
+        this.sampleSize = builder.sampleSize;
+        this.sampler = new EncodingSampler<>(builder.writeSupport);
+    }
+
+    /**
+     * @param writer builds the writer of the file, before the planned encodings are applied to it
+     * @param writeSupport a write support for the same records, only used to sample their values
+     */
+    public static <T> Builder<T> builder(OutputFile file, Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer,
+            WriteSupport<T> writeSupport) {
+        return new Builder<>(file, writer, writeSupport);
+    }
+
+    public void write(T record) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer for " + file.getPath() + " is closed");
+        }
+        if (delegate != null) {
+            delegate.write(record);
+            return;
+        }
+        sampler.add(record);
+        sample.add(record);
+        if (sample.size() >= sampleSize) {
+            start();
+        }
+    }
+
+    /**
+     * @return the encodings chosen, or null while records are still being sampled
+     */
+    public EncodingPlan encodings() {
+        return plan;
+    }
+
+    /**
+     * The size of the file written so far, see {@link ParquetWriter#getDataSize()}.
+     */
+    public long getDataSize() {
+        return delegate == null ? 0 : delegate.getDataSize();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (delegate == null) {
+            start();
+        }
+        delegate.close();
+    }
+
+    private void start() throws IOException {
+        plan = sampler.plan();
+        sampler = null;
+        LOG.debugf("Encodings of %s: %s", file.getPath(), plan);
+        ParquetWriter.Builder<T, ?> builder = writer.apply(file);
+        plan.apply(builder);
+        delegate = builder.build();
+        for (T record : sample) {
+            delegate.write(record);
+        }
+        sample = null;
+    }
+
+    public static final class Builder<T> {
+
+        private final OutputFile file;
+        private final Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer;
+        private final WriteSupport<T> writeSupport;
+        private int sampleSize = DEFAULT_SAMPLE_SIZE;
+
+        private Builder(OutputFile file, Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer,
+                WriteSupport<T> writeSupport) {
+            this.file = file;
+            this.writer = writer;
+            this.writeSupport = writeSupport;
+        }
+
+        /**
+         * The number of records the encodings are chosen from. 10 000 by default.
+         */
+        public Builder<T> withSampleSize(int sampleSize) {
+            if (sampleSize < 1) {
+                throw new IllegalArgumentException("Sample size must be positive: " + sampleSize);
+            }
+            this.sampleSize = sampleSize;
+            return this;
+        }
+
+        public AdaptiveEncodingWriter<T> build() {
+            return new AdaptiveEncodingWriter<>(this);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+import io.smallrye.mutiny.Uni;
+import se.yolean.quarkus.parquet.runtime.ParquetExecutors;
+import se.yolean.quarkus.parquet.runtime.io.PipelinedOutputFile;
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetMetrics;
+import se.yolean.quarkus.parquet.runtime.metrics.WriterMeter;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+
+/**
+ * Writes records through a {@link ParquetWriter} on a background task, so that callers never encode,
+ * compress or flush a row group themselves.
+ * <p>
+ * Records wait in a queue of {@link Builder#withQueueCapacity(int) queueCapacity} records. When it is full,
+ * {@link #write(Object)} blocks and the {@link Uni} of {@link #writeAll(List)} completes only once the batch
+ * fits. Unless turned off with {@link Builder#withPipelinedIo(boolean)}, the file is written through a
+ * {@link PipelinedOutputFile}, so that one row group is written out while the next is encoded.
+ * <ul>
+ * <li>{@link #flush()} completes once every record accepted before it has been handed to the Parquet writer
+ * and every completed row group has been written to the file. Parquet cannot end a row group early, so the
+ * records of the open row group are only written when it fills up or the writer is closed.</li>
+ * <li>{@link #close()} writes every accepted record, including batches still waiting for room, then the
+ * footer, and waits for the file to be closed.</li>
+ * </ul>
+ * Once writing fails, pending and later writes fail with an {@link IOException} caused by that failure.
+ * The writer is managed by {@link WriterMemoryManager#shared()}.
+ */
+public final class AsyncParquetWriter<T> implements Closeable {
+
+    private static final int DRAIN_LIMIT = 1024;
+
+    private final ParquetWriter<T> writer;
+    private final WriterMemoryManager.Lease lease;
+    private final WriterMeter meter;
+    /**
+     * Whether the write support reports every write to the lease and meter itself, as that of
+     * {@link ParquetRecords} writers does.
+     */
+    private final boolean managed;
+    private final String path;
+    private final CapturingOutputFile file;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    private final ArrayDeque<Batch<T>> waiting = new ArrayDeque<>();
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+    private int queued;
+    private boolean closing;
+    private Throwable failure;
+
+    private AsyncParquetWriter(Builder<T> builder) throws IOException {
+        Executor executor = builder.executor != null ? builder.executor : ParquetExecutors.defaultExecutor();
+        this.path = builder.file.getPath();
+        this.file = new CapturingOutputFile(builder.pipelinedIo ? new PipelinedOutputFile(builder.file, executor) : builder.file);
+        this.capacity = builder.queueCapacity;
+        ParquetWriter.Builder<T, ?> parquet;
+        try {
+            parquet = builder.writer.apply(file);
+            this.writer = parquet.build();
+        } catch (IOException | RuntimeException e) {
+            file.close(e);
+            throw e;
+        }
+        this.managed = parquet instanceof ParquetRecords.Builder;
+        this.lease = WriterMemoryManager.shared().register(writer);
+        this.meter = ParquetMetrics.shared().writer(writer);
+        executor.execute(this::run);
+    }
+
+    public static <T> Builder<T> builder(OutputFile file, Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer) {
+        return new Builder<>(file, writer);
+    }
+
+    /**
+     * Queues {@code record}, waiting while the queue is full.
+     */
+    public void write(T record) throws IOException {
+        lock.lock();
+        try {
+            while (queued >= capacity && failure == null && !closing) {
+                notFull.await();
+            }
+            ensureWritable();
+            queue.add(record);
+            queued++;
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to write " + path);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues {@code records} once there is room for them, or right away when the queue is empty, however
+     * many they are.
+     *
+     * @return a Uni completing when the records are queued, which is the moment to send the next batch
+     */
+    public Uni<Void> writeAll(List<T> records) {
+        return Uni.createFrom().completionStage(() -> offer(List.copyOf(records)));
+    }
+
+    /**
+     * @return a Uni completing when the records queued before it are in the Parquet writer and the
+     *         completed row groups in the file
+     */
+    public Uni<Void> flush() {
+        return Uni.createFrom().completionStage(() -> {
+            CompletableFuture<Void> flushed = new CompletableFuture<>();
+            lock.lock();
+            try {
+                ensureWritable();
+                queue.add(new Flush(flushed));
+                notEmpty.signal();
+            } catch (IOException e) {
+                flushed.completeExceptionally(e);
+            } finally {
+                lock.unlock();
+            }
+            return flushed;
+        });
+    }
+
+    /**
+     * @return the number of records waiting to be written, not counting batches waiting for room
+     */
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closing = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            finished.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to close " + path);
+        } catch (ExecutionException e) {
+            throw failure(e.getCause());
+        }
+    }
+
+    private CompletableFuture<Void> offer(List<T> records) {
+        lock.lock();
+        try {
+            ensureWritable();
+            if (waiting.isEmpty() && fits(records.size())) {
+                admit(records);
+                return CompletableFuture.completedFuture(null);
+            }
+            Batch<T> batch = new Batch<>(records, new CompletableFuture<>());
+            waiting.add(batch);
+            return batch.admitted;
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(int records) {
+        return queued == 0 || queued + records <= capacity;
+    }
+
+    private void admit(List<T> records) {
+        queue.addAll(records);
+        queued += records.size();
+        notEmpty.signal();
+    }
+
+    private void ensureWritable() throws IOException {
+        if (failure != null) {
+            throw failure(failure);
+        }
+        if (closing) {
+            throw new IllegalStateException("Writer for " + path + " is closed");
+        }
+    }
+
+    private IOException failure(Throwable cause) {
+        return new IOException("Failed writing " + path, cause);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void run() {
+        List<Object> drained = new ArrayList<>(DRAIN_LIMIT);
+        List<Batch<T>> admitted = new ArrayList<>();
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    while (queue.isEmpty() && waiting.isEmpty() && !closing) {
+                        notEmpty.await();
+                    }
+                    if (queue.isEmpty() && waiting.isEmpty()) {
+                        break;
+                    }
+                    while (!waiting.isEmpty() && (closing || fits(waiting.peek().records.size()))) {
+                        Batch<T> batch = waiting.poll();
+                        admit(batch.records);
+                        admitted.add(batch);
+                    }
+                    for (int i = 0; i < DRAIN_LIMIT && !queue.isEmpty(); i++) {
+                        Object next = queue.poll();
+                        if (!(next instanceof Flush)) {
+                            queued--;
+                        }
+                        drained.add(next);
+                    }
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                for (Batch<T> batch : admitted) {
+                    batch.admitted.complete(null);
+                }
+                admitted.clear();
+                for (Object next : drained) {
+                    if (next instanceof Flush flush) {
+                        file.flush();
+                        flush.flushed.complete(null);
+                    } else {
+                        writer.write((T) next);
+                        if (!managed) {
+                            lease.afterWrite();
+                            meter.afterWrite();
+                        }
+                    }
+                }
+                drained.clear();
+            }
+            meter.beforeClose();
+            writer.close();
+            meter.close();
+            lease.close();
+            finished.complete(null);
+        } catch (Throwable e) {
+            fail(e, drained);
+        }
+    }
+
+    /**
+     * Fails everything still queued and closes the writer and the file.
+     */
+    private void fail(Throwable e, List<Object> drained) {
+        List<Object> pending = new ArrayList<>(drained);
+        List<Batch<T>> rejected;
+        lock.lock();
+        try {
+            failure = e;
+            pending.addAll(queue);
+            queue.clear();
+            queued = 0;
+            rejected = new ArrayList<>(waiting);
+            waiting.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        IOException cause = failure(e);
+        for (Object next : pending) {
+            if (next instanceof Flush flush) {
+                flush.flushed.completeExceptionally(cause);
+            }
+        }
+        for (Batch<T> batch : rejected) {
+            batch.admitted.completeExceptionally(cause);
+        }
+        try {
+            writer.close();
+        } catch (Throwable suppressed) {
+            e.addSuppressed(suppressed);
+        }
+        meter.close();
+        lease.close();
+        // a writer failing before its footer leaves the file open
+        file.close(e);
+        finished.completeExceptionally(e);
+    }
+
+    private record Batch<T>(List<T> records, CompletableFuture<Void> admitted) {
+    }
+
+    private record Flush(CompletableFuture<Void> flushed) {
+    }
+
+    /**
+     * Keeps the stream Parquet writes to, so that a flush can reach it between two records.
+     */
+    private static final class CapturingOutputFile implements OutputFile {
+
+        private final OutputFile file;
+        private PositionOutputStream stream;
+
+        CapturingOutputFile(OutputFile file) {
+            this.file = file;
+        }
+
+        void flush() throws IOException {
+            if (stream != null) {
+                stream.flush();
+            }
+        }
+
+        void close(Throwable failure) {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) throws IOException {
+            return stream = file.create(blockSizeHint);
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+            return stream = file.createOrOverwrite(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return file.supportsBlockSize();
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return file.defaultBlockSize();
+        }
+
+        @Override
+        public String getPath() {
+            return file.getPath();
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final OutputFile file;
+        private final Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer;
+        private int queueCapacity = 8192;
+        private Executor executor;
+        private boolean pipelinedIo = true;
+
+        private Builder(OutputFile file, Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer) {
+            this.file = file;
+            this.writer = writer;
+        }
+
+        /**
+         * The number of records that may wait to be written, 8192 by default.
+         */
+        public Builder<T> withQueueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * The executor the writer, and with pipelined I/O the file writes, run on. Each holds a thread for
+         * the lifetime of the writer. {@link ParquetExecutors#defaultExecutor()} by default.
+         */
+        public Builder<T> withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Whether the file is written by a task of its own, overlapping with encoding. On by default.
+         */
+        public Builder<T> withPipelinedIo(boolean pipelinedIo) {
+            this.pipelinedIo = pipelinedIo;
+            return this;
+        }
+
+        /**
+         * Creates the file and starts the writer.
+         */
+        public AsyncParquetWriter<T> build() throws IOException {
+            return new AsyncParquetWriter<>(this);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriterAccess;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.jboss.logging.Logger;
+
+/**
+ * The encoding of each column, chosen from a sample of the records to write by estimating the size of the
+ * sampled values in each encoding that suits the column type:
+ * <ul>
+ * <li>{@link Encoding#DICTIONARY} when at most half the values are distinct,</li>
+ * <li>{@link Encoding#DELTA_BINARY_PACKED} for integers whose deltas take fewer bits than the values, such
+ * as timestamps and counters,</li>
+ * <li>{@link Encoding#DELTA_BYTE_ARRAY} for strings sharing prefixes with the string before them, such as
+ * sorted keys and paths,</li>
+ * <li>{@link Encoding#BYTE_STREAM_SPLIT} for floating point values with mostly equal sign and exponent,
+ * which compress better with their bytes split into streams,</li>
+ * <li>{@link Encoding#PLAIN} otherwise.</li>
+ * </ul>
+ * Booleans, INT96 and columns without sampled values keep the encodings Parquet picks.
+ */
+public final class EncodingPlan {
+
+    private static final Logger LOG = Logger.getLogger(EncodingPlan.class);
+
+    public enum Encoding {
+        DICTIONARY,
+        PLAIN,
+        DELTA_BINARY_PACKED,
+        DELTA_BYTE_ARRAY,
+        BYTE_STREAM_SPLIT
+    }
+
+    /**
+     * @param encoding the chosen encoding
+     * @param values the non-null values sampled
+     * @param distinct the distinct values among them
+     * @param ascending the fraction of values not less than the value before
+     * @param plainSize the estimated size of the values encoded plain
+     * @param size the estimated size of the values in the chosen encoding, before compression
+     */
+    public record Choice(Encoding encoding, long values, long distinct, double ascending, long plainSize, long size) {
+    }
+
+    private final Map<String, Choice> columns;
+
+    EncodingPlan(Map<String, Choice> columns) {
+        this.columns = Collections.unmodifiableMap(new LinkedHashMap<>(columns));
+    }
+
+    /**
+     * Plans the encodings of the columns {@code writeSupport} writes {@code records} to.
+     */
+    public static <T> EncodingPlan sample(WriteSupport<T> writeSupport, Iterable<? extends T> records) {
+        EncodingSampler<T> sampler = new EncodingSampler<>(writeSupport);
+        for (T record : records) {
+            sampler.add(record);
+        }
+        return sampler.plan();
+    }
+
+    /**
+     * @return the choice for each planned column, by dotted column path, in schema order
+     */
+    public Map<String, Choice> columns() {
+        return columns;
+    }
+
+    /**
+     * @return the encoding of {@code column}, or null if it is left to Parquet
+     */
+    public Encoding encoding(String column) {
+        Choice choice = columns.get(column);
+        return choice == null ? null : choice.encoding;
+    }
+
+    /**
+     * Has the writers {@code builder} builds use the planned encodings. Only the dictionary choices apply
+     * when the builder cannot be given another {@code ValuesWriterFactory}.
+     */
+    public void apply(ParquetWriter.Builder<?, ?> builder) {
+        Map<String, Encoding> encodings = new LinkedHashMap<>();
+        for (Map.Entry<String, Choice> column : columns.entrySet()) {
+            Encoding encoding = column.getValue().encoding;
+            builder.withDictionaryEncoding(column.getKey(), encoding == Encoding.DICTIONARY);
+            encodings.put(column.getKey(), encoding);
+        }
+        if (ParquetWriterAccess.canSetValuesWriterFactory()) {
+            ParquetWriterAccess.setValuesWriterFactory(builder, new PlannedValuesWriterFactory(encodings));
+        } else {
+            LOG.debugf("Only dictionary encodings can be chosen, the rest are left to Parquet");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder string = new StringBuilder("EncodingPlan[");
+        for (Map.Entry<String, Choice> column : columns.entrySet()) {
+            Choice choice = column.getValue();
+            if (string.length() > 13) {
+                string.append(", ");
+            }
+            string.append(column.getKey()).append('=').append(choice.encoding)
+                    .append(" (").append(choice.distinct).append('/').append(choice.values).append(" distinct, ")
+                    .append(Math.round(choice.ascending * 100)).append("% ascending, ")
+                    .append(choice.size).append('/').append(choice.plainSize).append(" bytes of plain)");
+        }
+        return string.append(']').toString();
+    }
+}
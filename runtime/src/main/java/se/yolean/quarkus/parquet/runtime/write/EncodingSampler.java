@@ -0,0 +1,279 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveComparator;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.write.EncodingPlan.Choice;
+import se.yolean.quarkus.parquet.runtime.write.EncodingPlan.Encoding;
+
+/**
+ * Receives sampled records from their write support and keeps, for each column, what the encoded sizes
+ * are estimated from.
+ */
+final class EncodingSampler<T> extends RecordConsumer {
+
+    // DELTA_BINARY_PACKED packs each block of deltas to the bit width of its largest delta from the smallest
+    private static final int DELTA_BLOCK = 128;
+
+    private final WriteSupport<T> writeSupport;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final Deque<String> path = new ArrayDeque<>();
+
+    EncodingSampler(WriteSupport<T> writeSupport) {
+        this.writeSupport = writeSupport;
+        MessageType schema = writeSupport.init(ParquetDefaults.configuration()).getSchema();
+        for (ColumnDescriptor descriptor : schema.getColumns()) {
+            PrimitiveTypeName type = descriptor.getPrimitiveType().getPrimitiveTypeName();
+            if (type != PrimitiveTypeName.BOOLEAN && type != PrimitiveTypeName.INT96) {
+                columns.put(String.join(".", descriptor.getPath()), new Column(descriptor.getPrimitiveType()));
+            }
+        }
+        writeSupport.prepareForWrite(this);
+    }
+
+    void add(T record) {
+        writeSupport.write(record);
+    }
+
+    EncodingPlan plan() {
+        Map<String, Choice> choices = new LinkedHashMap<>();
+        for (Map.Entry<String, Column> column : columns.entrySet()) {
+            if (column.getValue().values > 0) {
+                choices.put(column.getKey(), column.getValue().choose());
+            }
+        }
+        return new EncodingPlan(choices);
+    }
+
+    private Column column() {
+        return columns.get(String.join(".", path));
+    }
+
+    @Override
+    public void startMessage() {
+        path.clear();
+    }
+
+    @Override
+    public void endMessage() {
+    }
+
+    @Override
+    public void startField(String field, int index) {
+        path.addLast(field);
+    }
+
+    @Override
+    public void endField(String field, int index) {
+        path.removeLast();
+    }
+
+    @Override
+    public void startGroup() {
+    }
+
+    @Override
+    public void endGroup() {
+    }
+
+    @Override
+    public void addInteger(int value) {
+        Column column = column();
+        if (column != null) {
+            column.addInteger(value);
+        }
+    }
+
+    @Override
+    public void addLong(long value) {
+        Column column = column();
+        if (column != null) {
+            column.addInteger(value);
+        }
+    }
+
+    @Override
+    public void addBoolean(boolean value) {
+    }
+
+    @Override
+    public void addBinary(Binary value) {
+        Column column = column();
+        if (column != null) {
+            column.addBinary(value);
+        }
+    }
+
+    @Override
+    public void addFloat(float value) {
+        Column column = column();
+        if (column != null) {
+            column.addFloatingPoint(value, Float.floatToRawIntBits(value) & 0xffffffffL);
+        }
+    }
+
+    @Override
+    public void addDouble(double value) {
+        Column column = column();
+        if (column != null) {
+            column.addFloatingPoint(value, Double.doubleToRawLongBits(value));
+        }
+    }
+
+    private static final class Column {
+
+        private final PrimitiveTypeName type;
+        private final PrimitiveComparator<Object> comparator;
+        private final int width;
+        private final Set<Object> distinct = new HashSet<>();
+        private long values;
+        private long ascending;
+        private long plainSize;
+        private long distinctSize;
+        private Object previous;
+        // DELTA_BINARY_PACKED
+        private long previousInteger;
+        private long minDelta = Long.MAX_VALUE;
+        private long maxDelta = Long.MIN_VALUE;
+        private int blockLength;
+        private long deltaSize;
+        // DELTA_BYTE_ARRAY
+        private long suffixSize;
+        // BYTE_STREAM_SPLIT
+        private long previousBits;
+        private long sameHighByte;
+
+        @SuppressWarnings("unchecked")
+        private Column(PrimitiveType type) {
+            this.type = type.getPrimitiveTypeName();
+            this.comparator = (PrimitiveComparator<Object>) type.comparator();
+            this.width = switch (this.type) {
+                case INT32, FLOAT -> 4;
+                case INT64, DOUBLE -> 8;
+                case FIXED_LEN_BYTE_ARRAY -> type.getTypeLength();
+                default -> 0;
+            };
+        }
+
+        private void addInteger(long value) {
+            Object boxed = type == PrimitiveTypeName.INT32 ? (Object) (int) value : (Object) value;
+            add(boxed, width);
+            if (values > 1) {
+                long delta = value - previousInteger;
+                minDelta = Math.min(minDelta, delta);
+                maxDelta = Math.max(maxDelta, delta);
+                if (++blockLength == DELTA_BLOCK) {
+                    flushDeltas();
+                }
+            }
+            previousInteger = value;
+        }
+
+        private void addBinary(Binary value) {
+            // generated writers pass byte arrays the caller may reuse
+            Binary copy = value.copy();
+            Binary before = (Binary) previous;
+            int length = copy.length();
+            add(copy, type == PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY ? width : 4 + length);
+            suffixSize += length - (before == null ? 0 : commonPrefix(before, copy));
+        }
+
+        private void addFloatingPoint(Object value, long bits) {
+            add(value, width);
+            int shift = width * 8 - 8;
+            if (values > 1 && bits >>> shift == previousBits >>> shift) {
+                sameHighByte++;
+            }
+            previousBits = bits;
+        }
+
+        private void add(Object value, int size) {
+            values++;
+            plainSize += size;
+            if (distinct.add(value)) {
+                distinctSize += size;
+            }
+            if (previous != null && comparator.compare(previous, value) <= 0) {
+                ascending++;
+            }
+            previous = value;
+        }
+
+        private void flushDeltas() {
+            if (blockLength > 0) {
+                // the min delta and the bit widths of the miniblocks head each block
+                int bits = 64 - Long.numberOfLeadingZeros(maxDelta - minDelta);
+                deltaSize += 8 + ((long) DELTA_BLOCK * bits + 7) / 8;
+                blockLength = 0;
+                minDelta = Long.MAX_VALUE;
+                maxDelta = Long.MIN_VALUE;
+            }
+        }
+
+        private Choice choose() {
+            flushDeltas();
+            Encoding encoding = Encoding.PLAIN;
+            long size = plainSize;
+            if (distinct.size() * 2L <= values) {
+                int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(distinct.size() - 1));
+                long dictionarySize = distinctSize + (values * bits + 7) / 8;
+                if (dictionarySize <= size) {
+                    encoding = Encoding.DICTIONARY;
+                    size = dictionarySize;
+                }
+            }
+            switch (type) {
+                case INT32, INT64 -> {
+                    // the first value is stored as is
+                    long estimate = deltaSize + width;
+                    if (estimate < size) {
+                        encoding = Encoding.DELTA_BINARY_PACKED;
+                        size = estimate;
+                    }
+                }
+                case BINARY, FIXED_LEN_BYTE_ARRAY -> {
+                    // the prefix and suffix lengths are delta packed, in about a byte each
+                    long estimate = suffixSize + 2 * values;
+                    if (estimate < size) {
+                        encoding = Encoding.DELTA_BYTE_ARRAY;
+                        size = estimate;
+                    }
+                }
+                case FLOAT, DOUBLE -> {
+                    if (encoding == Encoding.PLAIN && sameHighByte * 2 >= values - 1) {
+                        encoding = Encoding.BYTE_STREAM_SPLIT;
+                    }
+                }
+                default -> {
+                }
+            }
+            return new Choice(encoding, values, distinct.size(), values > 1 ? (double) ascending / (values - 1) : 1, plainSize,
+                    size);
+        }
+
+        private static int commonPrefix(Binary a, Binary b) {
+            byte[] x = a.getBytesUnsafe();
+            byte[] y = b.getBytesUnsafe();
+            int length = Math.min(x.length, y.length);
+            int prefix = 0;
+            while (prefix < length && x[prefix] == y[prefix]) {
+                prefix++;
+            }
+            return prefix;
+        }
+    }
+}
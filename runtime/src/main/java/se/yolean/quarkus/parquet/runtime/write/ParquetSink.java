@@ -0,0 +1,389 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.io.OutputFile;
+
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.metrics.ParquetMetrics;
+import se.yolean.quarkus.parquet.runtime.metrics.WriterMeter;
+import se.yolean.quarkus.parquet.runtime.record.ParquetRecords;
+
+/**
+ * Writes records to a directory of Parquet files, rolling over to a new file by size, row count or age,
+ * and fanning out to Hive-style partition directories such as {@code date=2024-05-01/region=eu}.
+ * <p>
+ * Each file is written under a hidden temporary name next to its final name, and atomically renamed
+ * when it is rolled or the sink is closed, so that readers of the directory only ever see complete files.
+ * At most {@link Builder#withMaxOpenFiles(int) maxOpenFiles} files are open at a time; writing to another
+ * partition first rolls the file written to least recently. The row groups the open files buffer are kept
+ * within the budget of {@link WriterMemoryManager#shared()}. A write that fails discards the file it was
+ * written to. Temporary files left behind by a process that died start with {@value #TEMP_PREFIX} and end
+ * with {@value #TEMP_SUFFIX}.
+ * <p>
+ * A file is only rolled by age when it is written to or when {@link #rollExpired()} runs, which an
+ * application with idle partitions calls periodically.
+ */
+public final class ParquetSink<T> implements Closeable {
+
+    public static final String TEMP_PREFIX = ".";
+    public static final String TEMP_SUFFIX = ".inprogress";
+    public static final String DEFAULT_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+    public static final long DEFAULT_MAX_FILE_SIZE = ParquetWriter.DEFAULT_BLOCK_SIZE;
+    public static final int DEFAULT_MAX_OPEN_FILES = 16;
+
+    private final Path directory;
+    private final Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer;
+    private final List<Partitioning<T>> partitioning;
+    private final long maxFileSize;
+    private final long maxRows;
+    private final long maxFileAge;
+    private final int maxOpenFiles;
+    private final Clock clock;
+    private final Consumer<Path> onCommit;
+    private final WriterMemoryManager memory = WriterMemoryManager.shared();
+    private final String id = UUID.randomUUID().toString();
+    // in access order, so that the first file is the one written to least recently
+    private final LinkedHashMap<String, OpenFile<T>> open = new LinkedHashMap<>(16, 0.75f, true);
+    private long files;
+    private boolean closed;
+
+    private ParquetSink(Builder<T> builder) {
+        this.directory = builder.directory;
+        this.writer = builder.writer;
+        this.partitioning = List.copyOf(builder.partitioning);
+        this.maxFileSize = builder.maxFileSize;
+        this.maxRows = builder.maxRows;
+        this.maxFileAge = builder.maxFileAge == null ? Long.MAX_VALUE : builder.maxFileAge.toMillis();
+        this.maxOpenFiles = builder.maxOpenFiles;
+        this.clock = builder.clock;
+        this.onCommit = builder.onCommit;
+    }
+
+    public static <T> Builder<T> builder(Path directory, Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer) {
+        return new Builder<>(directory, writer);
+    }
+
+    /**
+     * Writes {@code record} to the open file of its partition, opening one if needed, and rolls that file
+     * if it has reached a limit.
+     */
+    public synchronized void write(T record) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Sink for " + directory + " is closed");
+        }
+        String partition = partition(record);
+        OpenFile<T> file = open.get(partition);
+        if (file != null && clock.millis() - file.opened >= maxFileAge) {
+            roll(partition);
+            file = null;
+        }
+        if (file == null) {
+            file = create(partition);
+        }
+        try {
+            file.writer.write(record);
+            if (!file.managed) {
+                file.lease.afterWrite();
+                file.meter.afterWrite();
+            }
+        } catch (IOException | RuntimeException e) {
+            open.remove(partition);
+            discard(file, e);
+            throw e;
+        }
+        file.rows++;
+        if (file.rows >= maxRows || file.writer.getDataSize() >= maxFileSize) {
+            roll(partition);
+        }
+    }
+
+    /**
+     * Rolls every open file that has reached the maximum age.
+     *
+     * @return the number of files rolled
+     */
+    public synchronized int rollExpired() throws IOException {
+        long now = clock.millis();
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, OpenFile<T>> entry : open.entrySet()) {
+            if (now - entry.getValue().opened >= maxFileAge) {
+                expired.add(entry.getKey());
+            }
+        }
+        rollAll(expired);
+        return expired.size();
+    }
+
+    /**
+     * Rolls every open file, e.g. before shipping the directory.
+     */
+    public synchronized void rollAll() throws IOException {
+        rollAll(new ArrayList<>(open.keySet()));
+    }
+
+    /**
+     * @return the number of files currently being written
+     */
+    public synchronized int openFiles() {
+        return open.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        rollAll();
+    }
+
+    private void rollAll(List<String> partitions) throws IOException {
+        IOException failure = null;
+        for (String partition : partitions) {
+            try {
+                roll(partition);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private OpenFile<T> create(String partition) throws IOException {
+        if (open.size() >= maxOpenFiles) {
+            roll(open.keySet().iterator().next());
+        }
+        Path dir = partition.isEmpty() ? directory : directory.resolve(partition);
+        String name = String.format("part-%05d-%s.parquet", files++, id);
+        Path temp = dir.resolve(TEMP_PREFIX + name + TEMP_SUFFIX);
+        ParquetWriter.Builder<T, ?> builder = writer.apply(new NioOutputFile(temp));
+        ParquetWriter<T> parquet = builder.build();
+        OpenFile<T> file = new OpenFile<>(parquet, memory.register(parquet), ParquetMetrics.shared().writer(parquet),
+                builder instanceof ParquetRecords.Builder, temp, dir.resolve(name), clock.millis());
+        open.put(partition, file);
+        return file;
+    }
+
+    /**
+     * Closes the file of {@code partition} and renames it into place.
+     */
+    private void roll(String partition) throws IOException {
+        OpenFile<T> file = open.remove(partition);
+        if (file == null) {
+            return;
+        }
+        try {
+            file.meter.beforeClose();
+            file.writer.close();
+        } catch (IOException | RuntimeException e) {
+            discard(file, e);
+            throw e;
+        } finally {
+            file.meter.close();
+            file.lease.close();
+        }
+        Files.move(file.temp, file.target, StandardCopyOption.ATOMIC_MOVE);
+        if (onCommit != null) {
+            onCommit.accept(file.target);
+        }
+    }
+
+    private static void discard(OpenFile<?> file, Exception failure) {
+        file.meter.close();
+        file.lease.close();
+        try {
+            file.writer.close();
+        } catch (Exception e) {
+            // already failed; the file is deleted either way
+        }
+        try {
+            Files.deleteIfExists(file.temp);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private String partition(T record) {
+        if (partitioning.isEmpty()) {
+            return "";
+        }
+        StringBuilder path = new StringBuilder();
+        for (Partitioning<T> level : partitioning) {
+            if (path.length() > 0) {
+                path.append('/');
+            }
+            escape(level.name, path);
+            path.append('=');
+            Object value = level.key.apply(record);
+            String text = value == null ? "" : value.toString();
+            if (text.isEmpty()) {
+                path.append(DEFAULT_PARTITION);
+            } else {
+                escape(text, path);
+            }
+        }
+        return path.toString();
+    }
+
+    /**
+     * Percent-encodes the characters Hive escapes in partition paths.
+     */
+    private static void escape(String text, StringBuilder path) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x20 || c == 0x7F || "\"#%'*/:=?\\{[]^".indexOf(c) >= 0) {
+                path.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4 & 0xF, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            } else {
+                path.append(c);
+            }
+        }
+    }
+
+    private record Partitioning<T>(String name, Function<? super T, ?> key) {
+    }
+
+    private static final class OpenFile<T> {
+
+        final ParquetWriter<T> writer;
+        final WriterMemoryManager.Lease lease;
+        final WriterMeter meter;
+        /**
+         * Whether the write support reports every write to the lease and meter itself, as that of
+         * {@link ParquetRecords} writers does.
+         */
+        final boolean managed;
+        final Path temp;
+        final Path target;
+        final long opened;
+        long rows;
+
+        OpenFile(ParquetWriter<T> writer, WriterMemoryManager.Lease lease, WriterMeter meter, boolean managed, Path temp,
+                Path target, long opened) {
+            this.writer = writer;
+            this.lease = lease;
+            this.meter = meter;
+            this.managed = managed;
+            this.temp = temp;
+            this.target = target;
+            this.opened = opened;
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final Path directory;
+        private final Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer;
+        private final List<Partitioning<T>> partitioning = new ArrayList<>();
+        private long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+        private long maxRows = Long.MAX_VALUE;
+        private Duration maxFileAge;
+        private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+        private Clock clock = Clock.systemUTC();
+        private Consumer<Path> onCommit;
+
+        private Builder(Path directory, Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer) {
+            this.directory = directory;
+            this.writer = writer;
+        }
+
+        /**
+         * Adds a partition directory level {@code name=value}, below the levels added before. A null or empty
+         * value goes to {@value ParquetSink#DEFAULT_PARTITION}.
+         */
+        public Builder<T> withPartition(String name, Function<? super T, ?> key) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("Partition name must not be empty");
+            }
+            partitioning.add(new Partitioning<>(name, key));
+            return this;
+        }
+
+        /**
+         * The size in bytes at which a file is rolled, as estimated by {@link ParquetWriter#getDataSize()}
+         * before the open row group is compressed. 128 MiB by default. A size below the row group size of
+         * the writer leaves one row group per file.
+         */
+        public Builder<T> withMaxFileSize(long maxFileSize) {
+            if (maxFileSize <= 0) {
+                throw new IllegalArgumentException("Max file size must be positive: " + maxFileSize);
+            }
+            this.maxFileSize = maxFileSize;
+            return this;
+        }
+
+        /**
+         * The number of rows at which a file is rolled, unlimited by default.
+         */
+        public Builder<T> withMaxRows(long maxRows) {
+            if (maxRows <= 0) {
+                throw new IllegalArgumentException("Max rows must be positive: " + maxRows);
+            }
+            this.maxRows = maxRows;
+            return this;
+        }
+
+        /**
+         * The time after opening at which a file is rolled, unlimited by default.
+         */
+        public Builder<T> withMaxFileAge(Duration maxFileAge) {
+            if (maxFileAge.isNegative() || maxFileAge.isZero()) {
+                throw new IllegalArgumentException("Max file age must be positive: " + maxFileAge);
+            }
+            this.maxFileAge = maxFileAge;
+            return this;
+        }
+
+        /**
+         * The number of files, and so of partitions, written to at a time. 16 by default.
+         */
+        public Builder<T> withMaxOpenFiles(int maxOpenFiles) {
+            if (maxOpenFiles < 1) {
+                throw new IllegalArgumentException("Max open files must be positive: " + maxOpenFiles);
+            }
+            this.maxOpenFiles = maxOpenFiles;
+            return this;
+        }
+
+        /**
+         * The clock file ages are measured with.
+         */
+        public Builder<T> withClock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Called with each file once it has been renamed into place, on the thread that rolled it.
+         */
+        public Builder<T> withCommitListener(Consumer<Path> onCommit) {
+            this.onCommit = onCommit;
+            return this;
+        }
+
+        public ParquetSink<T> build() {
+            return new ParquetSink<>(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import java.util.Map;
+
+import org.apache.parquet.bytes.ByteBufferAllocator;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.column.values.bytestreamsplit.ByteStreamSplitValuesWriter;
+import org.apache.parquet.column.values.delta.DeltaBinaryPackingValuesWriterForInteger;
+import org.apache.parquet.column.values.delta.DeltaBinaryPackingValuesWriterForLong;
+import org.apache.parquet.column.values.deltastrings.DeltaByteArrayWriter;
+import org.apache.parquet.column.values.factory.DefaultValuesWriterFactory;
+import org.apache.parquet.column.values.factory.ValuesWriterFactory;
+import org.apache.parquet.column.values.plain.FixedLenByteArrayPlainValuesWriter;
+import org.apache.parquet.column.values.plain.PlainValuesWriter;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+
+import se.yolean.quarkus.parquet.runtime.write.EncodingPlan.Encoding;
+
+/**
+ * Creates the values writers of an {@link EncodingPlan}, leaving dictionary encoded and unplanned columns to
+ * Parquet's defaults for the writer version.
+ */
+final class PlannedValuesWriterFactory implements ValuesWriterFactory {
+
+    private final Map<String, Encoding> encodings;
+    private final ValuesWriterFactory defaults = new DefaultValuesWriterFactory();
+    private ParquetProperties properties;
+
+    PlannedValuesWriterFactory(Map<String, Encoding> encodings) {
+        this.encodings = Map.copyOf(encodings);
+    }
+
+    @Override
+    public void initialize(ParquetProperties properties) {
+        this.properties = properties;
+        defaults.initialize(properties);
+    }
+
+    @Override
+    public ValuesWriter newValuesWriter(ColumnDescriptor descriptor) {
+        Encoding encoding = encodings.get(String.join(".", descriptor.getPath()));
+        if (encoding == null || encoding == Encoding.DICTIONARY) {
+            return defaults.newValuesWriter(descriptor);
+        }
+        int slabSize = properties.getInitialSlabSize();
+        int pageSize = properties.getPageSizeThreshold();
+        ByteBufferAllocator allocator = properties.getAllocator();
+        PrimitiveTypeName type = descriptor.getPrimitiveType().getPrimitiveTypeName();
+        return switch (encoding) {
+            case DELTA_BINARY_PACKED -> type == PrimitiveTypeName.INT32
+                    ? new DeltaBinaryPackingValuesWriterForInteger(slabSize, pageSize, allocator)
+                    : new DeltaBinaryPackingValuesWriterForLong(slabSize, pageSize, allocator);
+            case DELTA_BYTE_ARRAY -> new DeltaByteArrayWriter(slabSize, pageSize, allocator);
+            case BYTE_STREAM_SPLIT -> type == PrimitiveTypeName.FLOAT
+                    ? new ByteStreamSplitValuesWriter.FloatByteStreamSplitValuesWriter(slabSize, pageSize, allocator)
+                    : new ByteStreamSplitValuesWriter.DoubleByteStreamSplitValuesWriter(slabSize, pageSize, allocator);
+            default -> type == PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY
+                    ? new FixedLenByteArrayPlainValuesWriter(descriptor.getPrimitiveType().getTypeLength(), slabSize, pageSize,
+                            allocator)
+                    : new PlainValuesWriter(slabSize, pageSize, allocator);
+        };
+    }
+}
@@ -0,0 +1,490 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveComparator;
+import org.apache.parquet.schema.Type;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.record.RecordFileReader;
+
+/**
+ * Writes records to a file ordered by sort columns, so that the statistics and column indexes of each row
+ * group and page cover narrow ranges that range queries can skip.
+ * <p>
+ * Records are buffered on heap until their estimated size reaches {@link Builder#withMaxBufferSize(long)
+ * maxBufferSize}, then sorted and spilled to a temporary Parquet file, a run, in
+ * {@link Builder#withSpillDirectory(Path) spillDirectory}. {@link #close()} merges the runs and the records
+ * still buffered into the file, in passes of at most {@link Builder#withMaxMergeWidth(int) maxMergeWidth}
+ * runs, and deletes the runs. When nothing was spilled, the buffer is sorted and written directly.
+ * <p>
+ * Sort columns are top-level primitive columns, compared as Parquet orders their statistics, with nulls
+ * first. Records with equal keys keep the order they were written in. The size of a record is estimated
+ * from the values its write support emits, which is also how the keys are extracted.
+ */
+public final class SortingParquetWriter<T> implements Closeable {
+
+    public static final long DEFAULT_MAX_BUFFER_SIZE = 64 * 1024 * 1024;
+    public static final int DEFAULT_MAX_MERGE_WIDTH = 64;
+
+    // rough heap overheads of a buffered record and of each of its values
+    private static final int RECORD_OVERHEAD = 64;
+    private static final int VALUE_OVERHEAD = 16;
+
+    private final OutputFile file;
+    private final Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer;
+    private final ReadSupport<T> readSupport;
+    private final KeyConsumer<T> keys;
+    private final Comparator<Entry<T>> order;
+    private final long maxBufferSize;
+    private final int maxMergeWidth;
+    private final Path spillDirectory;
+    private final List<Path> runs = new ArrayList<>();
+    private List<Entry<T>> buffer = new ArrayList<>();
+    private long buffered;
+    private int spills;
+    private boolean closed;
+
+    private SortingParquetWriter(Builder<T> builder, KeyConsumer<T> keys, Comparator<Entry<T>> order) {
+        this.file = builder.file;
+        this.writer = builder.writer;
+        this.readSupport = builder.readSupport;
+        this.keys = keys;
+        this.order = order;
+        this.maxBufferSize = builder.maxBufferSize;
+        this.maxMergeWidth = builder.maxMergeWidth;
+        this.spillDirectory = builder.spillDirectory;
+    }
+
+    /**
+     * @param writer builds the writers of both the file and the runs
+     * @param writeSupport a write support for the same records, only used to extract keys and sizes
+     * @param readSupport reads the runs back, into records equal to those written
+     */
+    public static <T> Builder<T> builder(OutputFile file, Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer,
+            WriteSupport<T> writeSupport, ReadSupport<T> readSupport) {
+        return new Builder<>(file, writer, writeSupport, readSupport);
+    }
+
+    /**
+     * Buffers {@code record}, spilling the buffer to a run once it is full. If spilling fails, the runs are
+     * deleted and the writer is closed.
+     */
+    public void write(T record) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer for " + file.getPath() + " is closed");
+        }
+        Entry<T> entry = keys.extract(record);
+        buffer.add(entry);
+        buffered += entry.size;
+        if (buffered >= maxBufferSize) {
+            try {
+                spill();
+            } catch (IOException | RuntimeException e) {
+                closed = true;
+                buffer = null;
+                deleteRuns(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return the number of runs spilled so far
+     */
+    public int spills() {
+        return spills;
+    }
+
+    /**
+     * Merges the runs and the buffered records into the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<Entry<T>> remaining = buffer;
+        buffer = null;
+        remaining.sort(order);
+        try {
+            if (runs.isEmpty()) {
+                try (ParquetWriter<T> out = open(file, false)) {
+                    for (Entry<T> entry : remaining) {
+                        out.write(entry.record);
+                    }
+                }
+                return;
+            }
+            while (runs.size() > maxMergeWidth) {
+                // the merged run takes the place of its inputs, so that equal keys keep their order
+                List<Path> first = List.copyOf(runs.subList(0, maxMergeWidth));
+                Path merged = createRun();
+                runs.add(0, merged);
+                merge(cursors(first, List.of()), new NioOutputFile(merged), true);
+                runs.removeAll(first);
+                for (Path run : first) {
+                    Files.deleteIfExists(run);
+                }
+            }
+            merge(cursors(runs, remaining), file, false);
+        } catch (IOException | RuntimeException e) {
+            deleteRuns(e);
+            throw e;
+        }
+        deleteRuns(null);
+    }
+
+    private void spill() throws IOException {
+        buffer.sort(order);
+        Path run = createRun();
+        runs.add(run);
+        try (ParquetWriter<T> out = open(new NioOutputFile(run), true)) {
+            for (Entry<T> entry : buffer) {
+                out.write(entry.record);
+            }
+        }
+        spills++;
+        buffer = new ArrayList<>();
+        buffered = 0;
+    }
+
+    private Path createRun() throws IOException {
+        return Files.createTempFile(spillDirectory, "parquet-sort-", ".parquet");
+    }
+
+    private ParquetWriter<T> open(OutputFile out, boolean run) throws IOException {
+        ParquetWriter.Builder<T, ?> builder = writer.apply(out);
+        if (run) {
+            // runs are read once, so they are written to be cheap to write and read
+            builder.withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                    .withCompressionCodec(CompressionCodecName.SNAPPY)
+                    .withBloomFilterEnabled(false);
+        }
+        return builder.build();
+    }
+
+    private List<Cursor<T>> cursors(List<Path> files, List<Entry<T>> remaining) throws IOException {
+        List<Cursor<T>> cursors = new ArrayList<>();
+        try {
+            for (Path run : files) {
+                cursors.add(new Cursor<>(cursors.size(), keys,
+                        RecordFileReader.builder(new NioInputFile(run), readSupport).build(), null));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Cursor<T> cursor : cursors) {
+                cursor.reader.close();
+            }
+            throw e;
+        }
+        if (!remaining.isEmpty()) {
+            cursors.add(new Cursor<>(cursors.size(), keys, null, remaining.iterator()));
+        }
+        return cursors;
+    }
+
+    private void merge(List<Cursor<T>> cursors, OutputFile out, boolean run) throws IOException {
+        Comparator<Cursor<T>> heads = Comparator.comparing((Cursor<T> cursor) -> cursor.head, order)
+                .thenComparingInt(cursor -> cursor.index);
+        PriorityQueue<Cursor<T>> queue = new PriorityQueue<>(cursors.size(), heads);
+        try {
+            for (Cursor<T> cursor : cursors) {
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            try (ParquetWriter<T> merged = open(out, run)) {
+                while (!queue.isEmpty()) {
+                    Cursor<T> cursor = queue.poll();
+                    merged.write(cursor.head.record);
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                }
+            }
+        } finally {
+            for (Cursor<T> cursor : cursors) {
+                if (cursor.reader != null) {
+                    cursor.reader.close();
+                }
+            }
+        }
+    }
+
+    private void deleteRuns(Throwable failure) throws IOException {
+        IOException deleteFailure = null;
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                if (failure != null) {
+                    failure.addSuppressed(e);
+                } else if (deleteFailure == null) {
+                    deleteFailure = e;
+                }
+            }
+        }
+        runs.clear();
+        if (deleteFailure != null) {
+            throw deleteFailure;
+        }
+    }
+
+    private record Entry<T>(T record, Object[] key, long size) {
+    }
+
+    /**
+     * The next record of a run, or of the records still buffered.
+     */
+    private static final class Cursor<T> {
+
+        private final int index;
+        private final KeyConsumer<T> keys;
+        private final RecordFileReader<T> reader;
+        private final Iterator<Entry<T>> buffered;
+        private Entry<T> head;
+
+        private Cursor(int index, KeyConsumer<T> keys, RecordFileReader<T> reader, Iterator<Entry<T>> buffered) {
+            this.index = index;
+            this.keys = keys;
+            this.reader = reader;
+            this.buffered = buffered;
+        }
+
+        private boolean advance() throws IOException {
+            if (reader != null) {
+                T record = reader.read();
+                head = record == null ? null : keys.extract(record);
+            } else {
+                head = buffered.hasNext() ? buffered.next() : null;
+            }
+            return head != null;
+        }
+    }
+
+    /**
+     * Receives a record from its write support, keeping the values of the sort columns and adding up the
+     * size of all values.
+     */
+    private static final class KeyConsumer<T> extends RecordConsumer {
+
+        private final WriteSupport<T> writeSupport;
+        // the position in the key of each top-level field, or -1
+        private final int[] positions;
+        private final int keyLength;
+        private Object[] key;
+        private long size;
+        private int depth;
+        private int position;
+
+        private KeyConsumer(WriteSupport<T> writeSupport, int[] positions, int keyLength) {
+            this.writeSupport = writeSupport;
+            this.positions = positions;
+            this.keyLength = keyLength;
+            writeSupport.prepareForWrite(this);
+        }
+
+        private Entry<T> extract(T record) {
+            key = new Object[keyLength];
+            size = RECORD_OVERHEAD + 8L * keyLength;
+            writeSupport.write(record);
+            return new Entry<>(record, key, size);
+        }
+
+        private void add(Object value, int bytes) {
+            size += VALUE_OVERHEAD + bytes;
+            if (depth == 0 && position >= 0) {
+                key[position] = value;
+            }
+        }
+
+        @Override
+        public void startMessage() {
+            depth = 0;
+        }
+
+        @Override
+        public void endMessage() {
+        }
+
+        @Override
+        public void startField(String field, int index) {
+            if (depth == 0) {
+                position = positions[index];
+            }
+        }
+
+        @Override
+        public void endField(String field, int index) {
+        }
+
+        @Override
+        public void startGroup() {
+            depth++;
+        }
+
+        @Override
+        public void endGroup() {
+            depth--;
+        }
+
+        @Override
+        public void addInteger(int value) {
+            add(value, 4);
+        }
+
+        @Override
+        public void addLong(long value) {
+            add(value, 8);
+        }
+
+        @Override
+        public void addBoolean(boolean value) {
+            add(value, 1);
+        }
+
+        @Override
+        public void addBinary(Binary value) {
+            // generated writers pass byte arrays the caller may reuse
+            add(depth == 0 && position >= 0 ? value.copy() : value, value.length());
+        }
+
+        @Override
+        public void addFloat(float value) {
+            add(value, 4);
+        }
+
+        @Override
+        public void addDouble(double value) {
+            add(value, 8);
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final OutputFile file;
+        private final Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer;
+        private final WriteSupport<T> writeSupport;
+        private final ReadSupport<T> readSupport;
+        private final List<String> sortColumns = new ArrayList<>();
+        private Comparator<? super T> comparator;
+        private long maxBufferSize = DEFAULT_MAX_BUFFER_SIZE;
+        private int maxMergeWidth = DEFAULT_MAX_MERGE_WIDTH;
+        private Path spillDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+
+        private Builder(OutputFile file, Function<OutputFile, ? extends ParquetWriter.Builder<T, ?>> writer,
+                WriteSupport<T> writeSupport, ReadSupport<T> readSupport) {
+            this.file = file;
+            this.writer = writer;
+            this.writeSupport = writeSupport;
+            this.readSupport = readSupport;
+        }
+
+        /**
+         * Sorts by the top-level primitive columns {@code columns}, in the order given, after those added
+         * before.
+         */
+        public Builder<T> withSortColumns(String... columns) {
+            sortColumns.addAll(Arrays.asList(columns));
+            return this;
+        }
+
+        /**
+         * Orders records with equal sort columns, or all records when there are none.
+         */
+        public Builder<T> withComparator(Comparator<? super T> comparator) {
+            this.comparator = comparator;
+            return this;
+        }
+
+        /**
+         * The estimated heap size of the records buffered before they are spilled to a run. 64 MiB by default.
+         */
+        public Builder<T> withMaxBufferSize(long maxBufferSize) {
+            if (maxBufferSize <= 0) {
+                throw new IllegalArgumentException("Max buffer size must be positive: " + maxBufferSize);
+            }
+            this.maxBufferSize = maxBufferSize;
+            return this;
+        }
+
+        /**
+         * The number of runs read at a time while merging. 64 by default.
+         */
+        public Builder<T> withMaxMergeWidth(int maxMergeWidth) {
+            if (maxMergeWidth < 2) {
+                throw new IllegalArgumentException("Max merge width must be at least 2: " + maxMergeWidth);
+            }
+            this.maxMergeWidth = maxMergeWidth;
+            return this;
+        }
+
+        /**
+         * The directory runs are spilled to, {@code java.io.tmpdir} by default.
+         */
+        public Builder<T> withSpillDirectory(Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if there is nothing to sort by, or a sort column is not a
+         *         top-level primitive column of the schema
+         */
+        @SuppressWarnings("unchecked")
+        public SortingParquetWriter<T> build() {
+            if (sortColumns.isEmpty() && comparator == null) {
+                throw new IllegalArgumentException("Need sort columns or a comparator to sort " + file.getPath());
+            }
+            MessageType schema = writeSupport.init(ParquetDefaults.configuration()).getSchema();
+            int[] positions = new int[schema.getFieldCount()];
+            Arrays.fill(positions, -1);
+            PrimitiveComparator<Object>[] comparators = new PrimitiveComparator[sortColumns.size()];
+            for (int i = 0; i < sortColumns.size(); i++) {
+                String column = sortColumns.get(i);
+                Type type = schema.containsField(column) ? schema.getType(column) : null;
+                if (type == null || !type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+                    throw new IllegalArgumentException(column + " is not a top-level primitive column of " + schema);
+                }
+                positions[schema.getFieldIndex(column)] = i;
+                comparators[i] = (PrimitiveComparator<Object>) type.asPrimitiveType().comparator();
+            }
+            Comparator<Entry<T>> order = (a, b) -> {
+                for (int i = 0; i < comparators.length; i++) {
+                    int result = comparators[i].compare(a.key[i], b.key[i]);
+                    if (result != 0) {
+                        return result;
+                    }
+                }
+                return 0;
+            };
+            if (comparator != null) {
+                Comparator<? super T> records = comparator;
+                order = order.thenComparing((a, b) -> records.compare(a.record, b.record));
+            }
+            return new SortingParquetWriter<>(this, new KeyConsumer<>(writeSupport, positions, comparators.length), order);
+        }
+    }
+}
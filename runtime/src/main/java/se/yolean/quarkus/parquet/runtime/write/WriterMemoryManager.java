@@ -0,0 +1,217 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriterAccess;
+
+/**
+ * Keeps the row groups buffered on heap by all managed writers within one budget.
+ * <p>
+ * Writers created through {@link se.yolean.quarkus.parquet.runtime.record.ParquetRecords}, an
+ * {@link AsyncParquetWriter} or a {@link ParquetSink} are managed by the {@link #shared()} manager. Once
+ * the row group sizes they were built with add up to more than the budget, every writer gets a row group
+ * size scaled down in proportion, but not below the minimum row group size, as Parquet's own
+ * {@code MemoryManager} does for Hadoop output formats. When the buffered row groups still exceed the
+ * budget, the writers with the largest ones flush them early.
+ * <p>
+ * Writers report their buffered size every {@value #CHECK_INTERVAL} records, so the budget may be
+ * exceeded by what that many records of each writer take.
+ */
+public final class WriterMemoryManager {
+
+    public static final long DEFAULT_MIN_ROW_GROUP_SIZE = 1024 * 1024;
+    static final int CHECK_INTERVAL = 100;
+
+    private static volatile WriterMemoryManager shared = new WriterMemoryManager(0);
+
+    private final long maxSize;
+    private final long minRowGroupSize;
+    private final Map<ParquetWriter<?>, Lease> leases = new IdentityHashMap<>();
+    private final AtomicLong buffered = new AtomicLong();
+    private final LongAdder forcedFlushes = new LongAdder();
+    private long requested;
+
+    /**
+     * @param maxSize the budget for buffered row groups, or 0 to leave writers unmanaged
+     */
+    public WriterMemoryManager(long maxSize) {
+        this(maxSize, DEFAULT_MIN_ROW_GROUP_SIZE);
+    }
+
+    public WriterMemoryManager(long maxSize, long minRowGroupSize) {
+        if (maxSize < 0 || minRowGroupSize <= 0) {
+            throw new IllegalArgumentException("Need a non-negative budget and a positive row group size: " + maxSize + ", "
+                    + minRowGroupSize);
+        }
+        this.maxSize = maxSize;
+        this.minRowGroupSize = minRowGroupSize;
+    }
+
+    /**
+     * The manager of the writers created through the extension, installed at startup from
+     * {@code quarkus.parquet.writer-memory.*}. Without Quarkus, writers are unmanaged unless another is
+     * {@link #install installed}.
+     */
+    public static WriterMemoryManager shared() {
+        return shared;
+    }
+
+    public static void install(WriterMemoryManager manager) {
+        shared = manager;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ParquetWriterAccess.isAvailable();
+    }
+
+    /**
+     * Starts managing {@code writer}. Must be called on the thread that builds or writes to it.
+     *
+     * @return the lease to report writes and the end of writing to, the same for a writer already managed
+     */
+    public synchronized Lease register(ParquetWriter<?> writer) {
+        if (!isEnabled()) {
+            return Lease.NONE;
+        }
+        Lease lease = leases.get(writer);
+        if (lease == null) {
+            lease = new Lease(this, writer, ParquetWriterAccess.rowGroupSize(writer));
+            leases.put(writer, lease);
+            requested += lease.requested;
+            rebalance();
+        }
+        return lease;
+    }
+
+    /**
+     * @return the estimated size of the row groups currently buffered by managed writers
+     */
+    public long buffered() {
+        return buffered.get();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(leases.size(), buffered.get(), maxSize, requested, forcedFlushes.sum());
+    }
+
+    private synchronized void release(Lease lease) {
+        if (leases.remove(lease.writer) == lease) {
+            requested -= lease.requested;
+            buffered.addAndGet(-lease.reported);
+            rebalance();
+        }
+    }
+
+    private void rebalance() {
+        double scale = requested <= maxSize ? 1 : (double) maxSize / requested;
+        for (Lease lease : leases.values()) {
+            lease.limit = Math.min(lease.requested, Math.max(minRowGroupSize, (long) (lease.requested * scale)));
+        }
+    }
+
+    /**
+     * Asks the writers with the largest row groups to flush them, until enough is flushed to get within the
+     * budget.
+     */
+    private synchronized void relieve() {
+        long excess = buffered.get() - maxSize;
+        List<Lease> largest = new ArrayList<>();
+        for (Lease lease : leases.values()) {
+            if (lease.flush) {
+                excess -= lease.reported;
+            } else {
+                largest.add(lease);
+            }
+        }
+        largest.sort(Comparator.comparingLong((Lease lease) -> lease.reported).reversed());
+        for (int i = 0; i < largest.size() && excess > 0; i++) {
+            Lease lease = largest.get(i);
+            lease.flush = true;
+            excess -= lease.reported;
+        }
+    }
+
+    /**
+     * @param writers the number of managed writers
+     * @param buffered the estimated size of their buffered row groups
+     * @param maxSize the budget for buffered row groups
+     * @param requested the sum of the row group sizes the writers were built with
+     * @param forcedFlushes the number of row groups flushed early to get within the budget
+     */
+    public record Stats(int writers, long buffered, long maxSize, long requested, long forcedFlushes) {
+    }
+
+    /**
+     * A managed writer. Its methods must be called on the thread writing to the writer.
+     */
+    public static final class Lease implements Closeable {
+
+        static final Lease NONE = new Lease(null, null, 0);
+
+        private final WriterMemoryManager manager;
+        private final ParquetWriter<?> writer;
+        private final long requested;
+        private long applied;
+        private int writes;
+        private volatile long limit;
+        private volatile long reported;
+        private volatile boolean flush;
+
+        private Lease(WriterMemoryManager manager, ParquetWriter<?> writer, long requested) {
+            this.manager = manager;
+            this.writer = writer;
+            this.requested = requested;
+            this.applied = requested;
+            this.limit = requested;
+        }
+
+        /**
+         * Applies the row group size and early flushes the manager asks for, and reports the buffered size
+         * every {@value WriterMemoryManager#CHECK_INTERVAL} records.
+         */
+        public void afterWrite() {
+            if (manager == null || ++writes < CHECK_INTERVAL && limit == applied && !flush) {
+                return;
+            }
+            writes = 0;
+            long target = limit;
+            if (target != applied) {
+                ParquetWriterAccess.setRowGroupSize(writer, target);
+                applied = target;
+            }
+            long size;
+            if (flush) {
+                ParquetWriterAccess.flushRowGroup(writer);
+                manager.forcedFlushes.increment();
+                flush = false;
+                // the row group is flushed with the next check of the writer
+                size = 0;
+            } else {
+                size = ParquetWriterAccess.bufferedSize(writer);
+            }
+            long total = manager.buffered.addAndGet(size - reported);
+            reported = size;
+            if (total > manager.maxSize) {
+                manager.relieve();
+            }
+        }
+
+        /**
+         * Stops managing the writer, once it is closed.
+         */
+        @Override
+        public void close() {
+            if (manager != null) {
+                manager.release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class WriterMemoryProducer {
+
+    @Produces
+    @Singleton
+    WriterMemoryManager writerMemoryManager() {
+        return WriterMemoryManager.shared();
+    }
+}
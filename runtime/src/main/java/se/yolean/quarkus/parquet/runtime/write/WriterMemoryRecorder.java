@@ -0,0 +1,23 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.annotations.Recorder;
+import io.quarkus.runtime.configuration.MemorySize;
+import se.yolean.quarkus.parquet.runtime.ParquetRuntimeConfig;
+
+@Recorder
+public class WriterMemoryRecorder {
+
+    private final RuntimeValue<ParquetRuntimeConfig> config;
+
+    public WriterMemoryRecorder(RuntimeValue<ParquetRuntimeConfig> config) {
+        this.config = config;
+    }
+
+    public void install() {
+        ParquetRuntimeConfig.WriterMemoryConfig memory = config.getValue().writerMemory();
+        long maxSize = memory.maxSize().map(MemorySize::asLongValue).orElse(Runtime.getRuntime().maxMemory() / 2);
+        WriterMemoryManager.install(new WriterMemoryManager(memory.enabled() ? maxSize : 0,
+                memory.minRowGroupSize().asLongValue()));
+    }
+}
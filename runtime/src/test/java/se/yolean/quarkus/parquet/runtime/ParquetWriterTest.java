@@ -4,12 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,11 +20,7 @@ import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.io.ColumnIOFactory;
 import org.apache.parquet.column.page.PageReadStore;
 import org.apache.parquet.hadoop.ParquetFileReader;
-import org.apache.parquet.io.DelegatingSeekableInputStream;
-import org.apache.parquet.io.InputFile;
 import org.apache.parquet.io.OutputFile;
-import org.apache.parquet.io.PositionOutputStream;
-import org.apache.parquet.io.SeekableInputStream;
 import org.apache.parquet.io.RecordReader;
 import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
 import org.apache.parquet.schema.LogicalTypeAnnotation;
@@ -37,6 +29,9 @@ import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 import org.apache.parquet.schema.Types;
 import org.junit.jupiter.api.Test;
 
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
 class ParquetWriterTest {
 
     @Test
@@ -130,135 +125,4 @@ class ParquetWriterTest {
             return new GroupWriteSupport();
         }
     }
-
-    private static final class NioOutputFile implements OutputFile {
-
-        private final Path path;
-
-        private NioOutputFile(Path path) {
-            this.path = path;
-        }
-
-        @Override
-        public PositionOutputStream create(long blockSizeHint) throws IOException {
-            return new NioPositionOutputStream(newByteChannel(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
-        }
-
-        @Override
-        public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
-            return new NioPositionOutputStream(newByteChannel(StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
-        }
-
-        @Override
-        public boolean supportsBlockSize() {
-            return false;
-        }
-
-        @Override
-        public long defaultBlockSize() {
-            return ParquetWriter.DEFAULT_BLOCK_SIZE;
-        }
-
-        private SeekableByteChannel newByteChannel(StandardOpenOption... options) throws IOException {
-            if (path.getParent() != null) {
-                Files.createDirectories(path.getParent());
-            }
-            return Files.newByteChannel(path, options);
-        }
-    }
-
-    private static final class NioPositionOutputStream extends PositionOutputStream {
-
-        private final SeekableByteChannel channel;
-
-        private NioPositionOutputStream(SeekableByteChannel channel) {
-            this.channel = channel;
-        }
-
-        @Override
-        public long getPos() throws IOException {
-            return channel.position();
-        }
-
-        @Override
-        public void write(int b) throws IOException {
-            channel.write(ByteBuffer.wrap(new byte[] { (byte) b }));
-        }
-
-        @Override
-        public void write(byte[] b, int off, int len) throws IOException {
-            if (len > 0) {
-                channel.write(ByteBuffer.wrap(b, off, len));
-            }
-        }
-
-        @Override
-        public void close() throws IOException {
-            channel.close();
-        }
-    }
-
-    private static final class NioInputFile implements InputFile {
-
-        private final Path path;
-
-        private NioInputFile(Path path) {
-            this.path = path;
-        }
-
-        @Override
-        public long getLength() throws IOException {
-            return Files.size(path);
-        }
-
-        @Override
-        public SeekableInputStream newStream() throws IOException {
-            return new NioSeekableInputStream(Files.newByteChannel(path, StandardOpenOption.READ));
-        }
-    }
-
-    private static final class NioSeekableInputStream extends DelegatingSeekableInputStream {
-
-        private final SeekableByteChannel channel;
-
-        private NioSeekableInputStream(SeekableByteChannel channel) {
-            super(Channels.newInputStream(channel));
-            this.channel = channel;
-        }
-
-        @Override
-        public long getPos() throws IOException {
-            return channel.position();
-        }
-
-        @Override
-        public void seek(long newPos) throws IOException {
-            channel.position(newPos);
-        }
-
-        @Override
-        public int read() throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(1);
-            int read = channel.read(buffer);
-            if (read <= 0) {
-                return read;
-            }
-            buffer.flip();
-            return buffer.get() & 0xFF;
-        }
-
-        @Override
-        public int read(byte[] b, int off, int len) throws IOException {
-            if (len == 0) {
-                return 0;
-            }
-            return channel.read(ByteBuffer.wrap(b, off, len));
-        }
-
-        @Override
-        public void close() throws IOException {
-            super.close();
-            channel.close();
-        }
-    }
 }
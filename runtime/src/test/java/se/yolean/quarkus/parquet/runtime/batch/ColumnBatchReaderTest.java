@@ -0,0 +1,196 @@
+package se.yolean.quarkus.parquet.runtime.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.parquet.column.ParquetProperties.WriterVersion;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
+class ColumnBatchReaderTest {
+
+    private static final int ROWS = 20_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Sale {
+              required int64 id;
+              optional double amount;
+              optional binary category (STRING);
+              required int32 quantity;
+              optional boolean returned;
+              optional binary reference (STRING);
+              optional group meta {
+                optional binary source (STRING);
+              }
+            }
+            """);
+
+    static Path file;
+
+    @BeforeAll
+    static void write() throws Exception {
+        file = Files.createTempDirectory("quarkus-parquet-batch").resolve("sales.parquet");
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withRowGroupSize(64 * 1024)
+                .withPageSize(4 * 1024)
+                .withDictionaryPageSize(2 * 1024)
+                .build()) {
+            for (int i = 0; i < ROWS; i++) {
+                Group group = groups.newGroup().append("id", (long) i).append("quantity", i % 7);
+                if (i % 10 != 0) {
+                    group.append("amount", i * 0.25);
+                }
+                if (i % 3 != 0) {
+                    group.append("category", "category-" + (i % 5));
+                }
+                group.append("returned", i % 4 == 0);
+                // unique values overflow the dictionary, so later pages fall back to plain encoding
+                group.append("reference", "reference-" + i);
+                group.addGroup("meta").append("source", i % 2 == 0 ? "web" : "store");
+                writer.write(group);
+            }
+        }
+    }
+
+    @Test
+    void aggregatesOverPrimitiveVectors() throws Exception {
+        long ids = 0;
+        double amounts = 0;
+        long quantities = 0;
+        int nullAmounts = 0;
+        int rows = 0;
+        int batches = 0;
+        try (ColumnBatchReader reader = ColumnBatchReader.open(new NioInputFile(file), List.of("id", "amount", "quantity"), 1000)) {
+            for (ColumnBatch batch = reader.next(); batch != null; batch = reader.next()) {
+                batches++;
+                long[] idValues = batch.longs(0).values();
+                DoubleVector amount = batch.doubles(1);
+                int[] quantityValues = batch.ints(2).values();
+                for (int row = 0; row < batch.size(); row++) {
+                    ids += idValues[row];
+                    amounts += amount.values()[row];
+                    quantities += quantityValues[row];
+                }
+                nullAmounts += amount.nullCount();
+                for (int row = 0; row < batch.size(); row++) {
+                    assertEquals(idValues[row] % 10 == 0, amount.isNull(row));
+                }
+                assertNull(batch.longs(0).validity());
+                rows += batch.size();
+            }
+        }
+
+        long expectedIds = 0;
+        double expectedAmounts = 0;
+        long expectedQuantities = 0;
+        for (int i = 0; i < ROWS; i++) {
+            expectedIds += i;
+            expectedAmounts += i % 10 == 0 ? 0 : i * 0.25;
+            expectedQuantities += i % 7;
+        }
+        assertEquals(ROWS, rows);
+        assertTrue(batches > ROWS / 1000, "batches never span row groups, so there are more than " + ROWS / 1000);
+        assertEquals(expectedIds, ids);
+        assertEquals(expectedAmounts, amounts);
+        assertEquals(expectedQuantities, quantities);
+        assertEquals(ROWS / 10, nullAmounts);
+    }
+
+    @Test
+    void keepsDictionaryIdsForBinaryColumns() throws Exception {
+        int rows = 0;
+        boolean sawPlainPage = false;
+        try (ColumnBatchReader reader = ColumnBatchReader.open(new NioInputFile(file),
+                List.of("id", "category", "reference", "meta.source", "returned"), 512)) {
+            for (ColumnBatch batch = reader.next(); batch != null; batch = reader.next()) {
+                long[] ids = batch.longs(0).values();
+                BinaryVector category = batch.binaries(1);
+                BinaryVector reference = batch.binaries(2);
+                BinaryVector source = (BinaryVector) batch.column("meta.source");
+                assertTrue(category.isDictionaryEncoded());
+                sawPlainPage |= !reference.isDictionaryEncoded();
+                for (int row = 0; row < batch.size(); row++) {
+                    long id = ids[row];
+                    if (id % 3 == 0) {
+                        assertTrue(category.isNull(row));
+                        assertEquals(-1, category.dictionaryId(row));
+                    } else {
+                        assertEquals("category-" + id % 5, category.dictionary().decodeToBinary(category.dictionaryId(row))
+                                .toStringUsingUTF8());
+                        assertEquals("category-" + id % 5, category.get(row).toStringUsingUTF8());
+                    }
+                    assertEquals("reference-" + id, reference.get(row).toStringUsingUTF8());
+                    assertEquals(id % 2 == 0 ? "web" : "store", source.get(row).toStringUsingUTF8());
+                    assertEquals(id % 4 == 0, batch.booleans(4).get(row));
+                }
+                rows += batch.size();
+            }
+        }
+        assertEquals(ROWS, rows);
+        assertTrue(sawPlainPage);
+    }
+
+    @ParameterizedTest
+    @EnumSource(WriterVersion.class)
+    void decodesNullableDictionaryIntColumns(WriterVersion version) throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("message Row { optional int32 code; }");
+        Path codes = Files.createTempDirectory("quarkus-parquet-batch").resolve("codes.parquet");
+        SimpleGroupFactory groups = new SimpleGroupFactory(schema);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(codes)))
+                .withType(schema)
+                .withWriterVersion(version)
+                .withPageSize(4 * 1024)
+                .build()) {
+            for (int i = 0; i < ROWS; i++) {
+                Group group = groups.newGroup();
+                if (i % 11 != 0) {
+                    group.append("code", (i * 7919 % 300) * 13);
+                }
+                writer.write(group);
+            }
+        }
+
+        int rows = 0;
+        try (ColumnBatchReader reader = ColumnBatchReader.open(new NioInputFile(codes), List.of("code"), 700)) {
+            for (ColumnBatch batch = reader.next(); batch != null; batch = reader.next()) {
+                IntVector code = batch.ints(0);
+                for (int row = 0; row < batch.size(); row++, rows++) {
+                    assertEquals(rows % 11 == 0, code.isNull(row), "row " + rows);
+                    assertEquals(rows % 11 == 0 ? 0 : (rows * 7919 % 300) * 13, code.get(row), "row " + rows);
+                }
+            }
+        }
+        assertEquals(ROWS, rows);
+    }
+
+    @Test
+    void rejectsUnknownColumns() throws Exception {
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnBatchReader.open(new NioInputFile(file), List.of("missing"), 10));
+        try (ColumnBatchReader reader = ColumnBatchReader.open(new NioInputFile(file), List.of("meta.source"), 10)) {
+            assertEquals(1, reader.projection().getColumns().size());
+            assertFalse(reader.projection().containsField("id"));
+            assertThrows(IllegalArgumentException.class, () -> reader.next().column("id"));
+        }
+    }
+}
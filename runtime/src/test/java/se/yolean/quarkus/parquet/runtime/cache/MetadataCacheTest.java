@@ -0,0 +1,142 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
+class MetadataCacheTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary text (STRING);
+            }
+            """);
+
+    @Test
+    void reusesFootersAndIndexesUntilTheFileChanges() throws Exception {
+        Path file = write(Files.createTempDirectory("quarkus-parquet-cache").resolve("rows.parquet"), 1_000);
+        MetadataCache cache = new MetadataCache(1024 * 1024);
+
+        ParquetMetadata footer;
+        ColumnIndex index;
+        try (ParquetFileReader reader = cache.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            footer = reader.getFooter();
+            index = reader.readColumnIndex(firstColumn(reader));
+        }
+        assertEquals(new MetadataCache.Stats(0, 2, 0, 2, cache.stats().weight()), cache.stats());
+
+        try (ParquetFileReader reader = cache.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            assertSame(footer, reader.getFooter());
+            assertSame(index, reader.readColumnIndex(firstColumn(reader)));
+            assertEquals(1_000, reader.getRecordCount());
+        }
+        assertEquals(2, cache.stats().hits());
+
+        write(file, 2_000);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+        try (ParquetFileReader reader = cache.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            assertNotSame(footer, reader.getFooter());
+            assertEquals(2_000, reader.getRecordCount());
+        }
+        assertEquals(3, cache.stats().misses());
+    }
+
+    @Test
+    void keepsFootersParsedUnderOtherOptionsApart() throws Exception {
+        Path file = write(Files.createTempDirectory("quarkus-parquet-cache").resolve("rows.parquet"), 10);
+        MetadataCache cache = new MetadataCache(1024 * 1024);
+
+        ParquetMetadata unsigned;
+        try (ParquetFileReader reader = cache.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            unsigned = reader.getFooter();
+        }
+        ParquetMetadata signed;
+        try (ParquetFileReader reader = cache.open(new NioInputFile(file),
+                ParquetDefaults.readOptions().useSignedStringMinMax(true).build())) {
+            signed = reader.getFooter();
+        }
+        // the setting only changes how statistics of older writers are read, so it is a separate entry
+        assertNotSame(unsigned, signed);
+        assertEquals(2, cache.stats().misses());
+        assertEquals(2, cache.stats().entries());
+
+        try (ParquetFileReader reader = cache.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            assertSame(unsigned, reader.getFooter());
+        }
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedBeyondTheMaximum() throws Exception {
+        Path dir = Files.createTempDirectory("quarkus-parquet-cache");
+        Path first = write(dir.resolve("first.parquet"), 10);
+        Path second = write(dir.resolve("second.parquet"), 10);
+        Path third = write(dir.resolve("third.parquet"), 10);
+
+        MetadataCache probe = new MetadataCache(Long.MAX_VALUE);
+        probe.open(new NioInputFile(first), ParquetDefaults.readOptions().build()).close();
+        long footerWeight = probe.stats().weight();
+        assertTrue(footerWeight > 0);
+
+        MetadataCache cache = new MetadataCache(2 * footerWeight);
+        for (Path file : new Path[] { first, second, first, third, first }) {
+            cache.open(new NioInputFile(file), ParquetDefaults.readOptions().build()).close();
+        }
+        MetadataCache.Stats stats = cache.stats();
+        assertEquals(2, stats.entries());
+        assertEquals(1, stats.evictions(), stats.toString());
+        assertEquals(2, stats.hits(), stats.toString());
+        assertTrue(stats.weight() <= 2 * footerWeight);
+    }
+
+    @Test
+    void disabledCacheOpensFilesAsParquetDoes() throws Exception {
+        Path file = write(Files.createTempDirectory("quarkus-parquet-cache").resolve("rows.parquet"), 10);
+        MetadataCache cache = new MetadataCache(0);
+        try (ParquetFileReader reader = cache.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            assertEquals(10, reader.getRecordCount());
+        }
+        assertEquals(new MetadataCache.Stats(0, 0, 0, 0, 0), cache.stats());
+    }
+
+    private static ColumnChunkMetaData firstColumn(ParquetFileReader reader) {
+        return reader.getRowGroups().get(0).getColumns().get(0);
+    }
+
+    private static Path write(Path file, int rows) throws Exception {
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .build()) {
+            for (long i = 0; i < rows; i++) {
+                writer.write(groups.newGroup().append("id", i).append("text", "row " + i));
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,201 @@
+package se.yolean.quarkus.parquet.runtime.cache;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.and;
+import static org.apache.parquet.filter2.predicate.FilterApi.gtEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+
+class PageCacheTest {
+
+    private static final int ROWS = 20_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary city (STRING);
+            }
+            """);
+
+    static Path file;
+
+    /**
+     * Ids are plain encoded, cities dictionary encoded, in several row groups of several pages.
+     */
+    @BeforeAll
+    static void write() throws Exception {
+        file = Files.createTempDirectory("quarkus-parquet-pages").resolve("rows.parquet");
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .withRowGroupSize(64 * 1024)
+                .withPageRowCountLimit(1_000)
+                .withDictionaryEncoding("id", false)
+                .build()) {
+            for (long i = 0; i < ROWS; i++) {
+                writer.write(groups.newGroup().append("id", i).append("city", city(i)));
+            }
+        }
+    }
+
+    static String city(long id) {
+        return "city " + id % 50;
+    }
+
+    @Test
+    void secondReadDecompressesNothing() throws Exception {
+        PageCache pages = new PageCache(64 * 1024 * 1024);
+        MetadataCache cache = new MetadataCache(0, pages);
+
+        assertEquals(LongStream.range(0, ROWS).boxed().collect(Collectors.toList()), readIds(cache));
+        PageCache.Stats first = pages.stats();
+        assertEquals(0, first.hits());
+        assertTrue(first.misses() > 20, "there should be a dictionary and several data pages: " + first);
+        assertEquals(first.misses(), first.entries());
+        assertTrue(first.size() > ROWS * Long.BYTES, first.toString());
+
+        assertEquals(LongStream.range(0, ROWS).boxed().collect(Collectors.toList()), readIds(cache));
+        PageCache.Stats second = pages.stats();
+        assertEquals(first.misses(), second.hits());
+        assertEquals(first.misses(), second.misses());
+    }
+
+    @Test
+    void filteredReadsLookUpTheRemainingPages() throws Exception {
+        PageCache pages = new PageCache(64 * 1024 * 1024);
+        MetadataCache previous = MetadataCache.shared();
+        MetadataCache.install(new MetadataCache(1024 * 1024, pages));
+        try {
+            readIds(MetadataCache.shared());
+            long cached = pages.stats().entries();
+
+            ParquetQuery query = ParquetQuery.select("id", "city")
+                    .where(and(gtEq(longColumn("id"), 12_345L), lt(longColumn("id"), 14_567L)));
+            for (int i = 0; i < 2; i++) {
+                try (Stream<Group> rows = query.open(new NioInputFile(file)).stream()) {
+                    List<Group> matching = rows.collect(Collectors.toList());
+                    assertEquals(14_567 - 12_345, matching.size());
+                    for (Group row : matching) {
+                        assertEquals(city(row.getLong("id", 0)), row.getString("city", 0));
+                    }
+                }
+            }
+            PageCache.Stats stats = pages.stats();
+            assertEquals(cached, stats.entries(), "every page the queries read was cached by the full read: " + stats);
+            assertEquals(cached, stats.misses(), stats.toString());
+            assertTrue(stats.hits() > 0);
+        } finally {
+            MetadataCache.install(previous);
+        }
+    }
+
+    @Test
+    void evictsBeyondTheMaximumSize() throws Exception {
+        PageCache pages = new PageCache(128 * 1024);
+        MetadataCache cache = new MetadataCache(0, pages);
+        assertEquals(ROWS, readIds(cache).size());
+        assertEquals(ROWS, readIds(cache).size());
+        PageCache.Stats stats = pages.stats();
+        assertTrue(stats.evictions() > 0, stats.toString());
+        assertTrue(stats.size() <= 128 * 1024, stats.toString());
+    }
+
+    @Test
+    void leavesPagesLargerThanASegmentUncopied() throws Exception {
+        // 16 segments of 1 KiB each
+        PageCache pages = new PageCache(16 * 1024);
+        PageCache.PageKey key = new PageCache.PageKey(FileIdentity.of(new NioInputFile(file)), ColumnPath.get("id"), 4);
+        ByteBuffer page = ByteBuffer.allocate(2048);
+        assertSame(page, pages.put(key, page));
+        assertNull(pages.get(key));
+
+        ByteBuffer small = ByteBuffer.allocate(512);
+        assertTrue(pages.put(key, small).isDirect());
+        assertEquals(new PageCache.Stats(0, 1, 0, 1, 512), pages.stats());
+    }
+
+    @Test
+    void decompressesEachPageUnderTheKeyItWasReadWith() throws Exception {
+        PageCache pages = new PageCache(64 * 1024);
+        CachingCodecFactory codecs = new CachingCodecFactory(ParquetDefaults.readOptions().build().getCodecFactory(), pages);
+        CompressionCodecFactory.BytesInputDecompressor snappy = codecs.getDecompressor(CompressionCodecName.SNAPPY);
+        BytesInput compressed = codecs.getCompressor(CompressionCodecName.SNAPPY).compress(BytesInput.from(new byte[100]));
+        PageCache.PageKey key = new PageCache.PageKey(FileIdentity.of(new NioInputFile(file)), ColumnPath.get("id"), 4);
+
+        codecs.read(key, () -> decompress(snappy, compressed));
+        decompress(snappy, compressed);
+        assertEquals(1, pages.stats().entries());
+        assertThrows(IllegalStateException.class, () -> codecs.read(key, () -> codecs.read(key, () -> null)));
+    }
+
+    private static BytesInput decompress(CompressionCodecFactory.BytesInputDecompressor decompressor, BytesInput page) {
+        try {
+            return decompressor.decompress(page, 100);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void disabledCacheDecompressesAsParquetDoes() throws Exception {
+        PageCache pages = new PageCache(0);
+        assertEquals(ROWS, readIds(new MetadataCache(0, pages)).size());
+        assertEquals(new PageCache.Stats(0, 0, 0, 0, 0), pages.stats());
+    }
+
+    private static List<Long> readIds(MetadataCache cache) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (ParquetFileReader reader = cache.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(SCHEMA);
+            for (PageReadStore rowGroup = reader.readNextRowGroup(); rowGroup != null; rowGroup = reader.readNextRowGroup()) {
+                RecordReader<Group> rows = columnIO.getRecordReader(rowGroup, new GroupRecordConverter(SCHEMA));
+                for (long i = 0; i < rowGroup.getRowCount(); i++) {
+                    Group row = rows.read();
+                    assertEquals(city(row.getLong("id", 0)), row.getString("city", 0));
+                    ids.add(row.getLong("id", 0));
+                }
+                rowGroup.close();
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,177 @@
+package se.yolean.quarkus.parquet.runtime.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputDecompressor;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
+class ParquetCodecFactoryTest {
+
+    private static final MessageType SCHEMA = Types.buildMessage()
+            .required(PrimitiveTypeName.INT64)
+            .named("id")
+            .required(PrimitiveTypeName.BINARY)
+            .as(LogicalTypeAnnotation.stringType())
+            .named("name")
+            .named("Row");
+
+    @ParameterizedTest
+    @EnumSource(value = CompressionCodecName.class, names = { "UNCOMPRESSED", "SNAPPY", "GZIP", "ZSTD", "LZ4_RAW" })
+    void interoperatesWithHadoopCodecs(CompressionCodecName codec) throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-codec");
+        Path ours = tempDir.resolve("ours.parquet");
+        Path hadoop = tempDir.resolve("hadoop.parquet");
+
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(ours)))
+                .withType(SCHEMA)
+                .withCompressionCodec(codec)
+                .build()) {
+            writeRows(writer);
+        }
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(new NioOutputFile(hadoop))
+                .withType(SCHEMA)
+                .withCompressionCodec(codec)
+                .build()) {
+            writeRows(writer);
+        }
+
+        ParquetReadOptions hadoopFree = ParquetDefaults.readOptions().build();
+        ParquetReadOptions hadoopBased = ParquetReadOptions.builder().build();
+        assertRows(ours, hadoopFree);
+        assertRows(ours, hadoopBased);
+        assertRows(hadoop, hadoopFree);
+
+        Files.deleteIfExists(ours);
+        Files.deleteIfExists(hadoop);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CompressionCodecName.class, names = { "SNAPPY", "GZIP", "ZSTD", "LZ4_RAW" })
+    void reusesPooledCodecsAcrossFiles(CompressionCodecName codec) throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-codec");
+        CodecPool<?> compressors = switch (codec) {
+            case SNAPPY -> ParquetCodecFactory.SNAPPY_COMPRESSORS;
+            case ZSTD -> ParquetCodecFactory.ZSTD_COMPRESSORS;
+            case LZ4_RAW -> ParquetCodecFactory.LZ4_COMPRESSORS;
+            default -> ParquetCodecFactory.DEFLATERS;
+        };
+        CodecPool<?> decompressors = switch (codec) {
+            case SNAPPY -> ParquetCodecFactory.SNAPPY_DECOMPRESSORS;
+            case ZSTD -> ParquetCodecFactory.ZSTD_DECOMPRESSORS;
+            case LZ4_RAW -> ParquetCodecFactory.LZ4_DECOMPRESSORS;
+            default -> ParquetCodecFactory.INFLATERS;
+        };
+        long compressorsBefore = compressors.created();
+        long decompressorsBefore = decompressors.created();
+
+        for (int i = 0; i < 10; i++) {
+            Path file = tempDir.resolve(i + ".parquet");
+            try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                    .withType(SCHEMA)
+                    .withCompressionCodec(codec)
+                    .withPageSize(4 * 1024)
+                    .build()) {
+                writeRows(writer);
+            }
+            assertRows(file, ParquetDefaults.readOptions().build());
+            Files.delete(file);
+        }
+
+        // one thread borrows one instance at a time, for every page of every file
+        assertTrue(compressors.created() - compressorsBefore <= 1, "compressors created: " + compressors.created());
+        assertTrue(decompressors.created() - decompressorsBefore <= 1, "decompressors created: " + decompressors.created());
+        ParquetCodecFactory factory = new ParquetCodecFactory();
+        assertSame(factory.getDecompressor(codec), new ParquetCodecFactory().getDecompressor(codec));
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    void readsGzipMembersWithOptionalHeaderFields() throws Exception {
+        byte[] first = "first member ".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "second member".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream page = new ByteArrayOutputStream();
+        // a member named page.bin, with a header checksum, as gzip(1) writes it
+        ByteArrayOutputStream member = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+            gzip.write(first);
+        }
+        byte[] plain = member.toByteArray();
+        page.write(plain, 0, 3);
+        page.write(8 | 2);
+        page.write(plain, 4, 6);
+        page.write("page.bin\0".getBytes(StandardCharsets.US_ASCII));
+        page.write(new byte[2]);
+        page.write(plain, 10, plain.length - 10);
+        page.write(new ParquetCodecFactory().getCompressor(CompressionCodecName.GZIP)
+                .compress(BytesInput.from(second)).toByteArray());
+
+        byte[] expected = new byte[first.length + second.length];
+        System.arraycopy(first, 0, expected, 0, first.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        BytesInputDecompressor gzip = new ParquetCodecFactory().getDecompressor(CompressionCodecName.GZIP);
+        assertArrayEquals(expected, gzip.decompress(BytesInput.from(page.toByteArray()), expected.length).toByteArray());
+
+        byte[] corrupt = page.toByteArray();
+        corrupt[corrupt.length - 5]++;
+        assertThrows(IOException.class, () -> gzip.decompress(BytesInput.from(corrupt), expected.length));
+        assertThrows(IOException.class, () -> gzip.decompress(BytesInput.from(page.toByteArray()), expected.length - 1));
+    }
+
+    private static void writeRows(ParquetWriter<Group> writer) throws IOException {
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        for (int i = 0; i < 10_000; i++) {
+            writer.write(groups.newGroup().append("id", (long) i).append("name", "name-" + (i % 100)));
+        }
+    }
+
+    private static void assertRows(Path file, ParquetReadOptions options) throws IOException {
+        long rows = 0;
+        try (ParquetFileReader fileReader = ParquetFileReader.open(new NioInputFile(file), options)) {
+            PageReadStore pages;
+            while ((pages = fileReader.readNextRowGroup()) != null) {
+                RecordReader<Group> recordReader = new ColumnIOFactory().getColumnIO(SCHEMA)
+                        .getRecordReader(pages, new GroupRecordConverter(SCHEMA));
+                for (long i = 0; i < pages.getRowCount(); i++, rows++) {
+                    Group group = recordReader.read();
+                    assertEquals(rows, group.getLong("id", 0));
+                    assertEquals("name-" + (rows % 100), group.getString("name", 0));
+                }
+            }
+        }
+        assertEquals(10_000, rows);
+    }
+}
@@ -0,0 +1,195 @@
+package se.yolean.quarkus.parquet.runtime.compact;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+import se.yolean.quarkus.parquet.runtime.query.QueryReader;
+
+class ParquetCompactorTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Event {
+              required int64 id;
+              required binary text (STRING);
+            }
+            """);
+    private static final MessageType OTHER = MessageTypeParser.parseMessageType("""
+            message Event {
+              required int64 id;
+            }
+            """);
+
+    @Test
+    void copiesColumnChunksByteForByte() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-compact");
+        List<InputFile> inputs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            inputs.add(new NioInputFile(write(directory.resolve(i + ".parquet"), SCHEMA, i * 1_000L, 1_000)));
+        }
+        Path merged = directory.resolve("merged.parquet");
+
+        CompactionStats stats = ParquetCompactor.builder().withMinRowGroupSize(0).build()
+                .merge(inputs, new NioOutputFile(merged));
+
+        assertEquals(new CompactionStats(10, 1, 10, 0, 10, Files.size(merged)), stats);
+        assertEquals(LongStream.range(0, 10_000).boxed().collect(Collectors.toList()), ids(merged));
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(merged), ParquetDefaults.readOptions().build());
+                ParquetFileReader first = ParquetFileReader.open(inputs.get(0), ParquetDefaults.readOptions().build())) {
+            ColumnChunkMetaData copied = reader.getRowGroups().get(0).getColumns().get(1);
+            ColumnChunkMetaData original = first.getRowGroups().get(0).getColumns().get(1);
+            assertEquals(original.getTotalSize(), copied.getTotalSize());
+            assertEquals(original.getStatistics(), copied.getStatistics());
+            assertEquals(CompressionCodecName.SNAPPY, copied.getCodec());
+            for (BlockMetaData block : reader.getRowGroups()) {
+                for (ColumnChunkMetaData column : block.getColumns()) {
+                    assertNotNull(reader.readOffsetIndex(column), "offset indexes are moved along");
+                    assertNotNull(reader.readColumnIndex(column), "column indexes are copied");
+                }
+            }
+        }
+    }
+
+    @Test
+    void coalescesSmallRowGroupsAndCopiesLargeOnes() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-compact");
+        List<InputFile> inputs = new ArrayList<>();
+        long id = 0;
+        for (int i = 0; i < 6; i++) {
+            // a large row group between two runs of three small ones
+            int rows = i == 3 ? 50_000 : 200;
+            inputs.add(new NioInputFile(write(directory.resolve(i + ".parquet"), SCHEMA, id, rows)));
+            id += rows;
+        }
+        Path merged = directory.resolve("merged.parquet");
+
+        CompactionStats stats = ParquetCompactor.builder().withMinRowGroupSize(64 * 1024).build()
+                .merge(inputs, new NioOutputFile(merged));
+
+        assertEquals(1, stats.rowGroupsCopied());
+        assertEquals(5, stats.rowGroupsCoalesced());
+        assertEquals(3, stats.rowGroupsWritten());
+        assertEquals(LongStream.range(0, id).boxed().collect(Collectors.toList()), ids(merged));
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(merged), ParquetDefaults.readOptions().build())) {
+            assertEquals(List.of(600L, 50_000L, 400L),
+                    reader.getRowGroups().stream().map(BlockMetaData::getRowCount).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void rejectsDifferentSchemas() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-compact");
+        List<InputFile> inputs = List.of(new NioInputFile(write(directory.resolve("a.parquet"), SCHEMA, 0, 10)),
+                new NioInputFile(write(directory.resolve("b.parquet"), OTHER, 0, 10)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ParquetCompactor.builder().build().merge(inputs, new NioOutputFile(directory.resolve("merged.parquet"))));
+    }
+
+    @Test
+    void compactsEachPartitionAndSchemaOfADirectory() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-compact");
+        for (String partition : List.of("region=eu", "region=us")) {
+            for (int i = 0; i < 5; i++) {
+                write(directory.resolve(partition).resolve("small-" + i + ".parquet"), SCHEMA, i * 100L, 100);
+            }
+        }
+        write(directory.resolve("region=eu/other-0.parquet"), OTHER, 0, 10);
+        write(directory.resolve("region=eu/other-1.parquet"), OTHER, 10, 10);
+        write(directory.resolve("region=us/.part-00000.parquet.inprogress"), SCHEMA, 0, 10);
+        write(directory.resolve("region=us/large.parquet"), SCHEMA, 500, 20_000);
+
+        CompactionStats stats = ParquetCompactor.builder().withTargetFileSize(16 * 1024).build().compact(directory);
+
+        assertEquals(12, stats.filesCompacted());
+        assertEquals(3, stats.filesWritten());
+        List<Path> eu = files(directory.resolve("region=eu"));
+        assertEquals(2, eu.size(), eu.toString());
+        List<Long> ids = new ArrayList<>();
+        for (Path file : eu) {
+            ids.addAll(ids(file));
+        }
+        assertEquals(LongStream.concat(LongStream.range(0, 500), LongStream.range(0, 20)).sorted().boxed()
+                .collect(Collectors.toList()), ids.stream().sorted().collect(Collectors.toList()));
+        List<Path> us = files(directory.resolve("region=us"));
+        assertEquals(2, us.size(), "the large file stays as it is: " + us);
+        assertTrue(us.contains(directory.resolve("region=us/large.parquet")));
+        assertTrue(Files.exists(directory.resolve("region=us/.part-00000.parquet.inprogress")), "hidden files are left alone");
+    }
+
+    @Test
+    void leavesEverythingUnderHiddenDirectoriesAlone() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-compact");
+        for (String staging : List.of("_temporary/0", ".staging/region=eu")) {
+            Files.createDirectories(directory.resolve(staging));
+            for (int i = 0; i < 3; i++) {
+                write(directory.resolve(staging).resolve("small-" + i + ".parquet"), SCHEMA, i * 10L, 10);
+            }
+        }
+
+        CompactionStats stats = ParquetCompactor.builder().withTargetFileSize(16 * 1024).build().compact(directory);
+
+        assertEquals(0, stats.filesCompacted());
+        assertEquals(3, files(directory.resolve("_temporary/0")).size());
+        assertEquals(3, files(directory.resolve(".staging/region=eu")).size());
+    }
+
+    private static Path write(Path file, MessageType schema, long first, int rows) throws IOException {
+        SimpleGroupFactory groups = new SimpleGroupFactory(schema);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(schema)
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .build()) {
+            for (long id = first; id < first + rows; id++) {
+                Group row = groups.newGroup().append("id", id);
+                if (schema.containsField("text")) {
+                    row.append("text", "event number " + id);
+                }
+                writer.write(row);
+            }
+        }
+        return file;
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".parquet")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static List<Long> ids(Path file) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (QueryReader<Group> reader = ParquetQuery.all().open(new NioInputFile(file))) {
+            for (Group row = reader.read(); row != null; row = reader.read()) {
+                ids.add(row.getLong("id", 0));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,137 @@
+package se.yolean.quarkus.parquet.runtime.decode;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.DataPageV1;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.column.values.rle.RunLengthBitPackingHybridEncoder;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.ParquetDecodingException;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
+class HybridDecoderTest {
+
+    @Test
+    void decodesTheDictionaryIdsOfAnIntColumn() throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("message Row { required int32 code; }");
+        Path file = Files.createTempDirectory("quarkus-parquet-decode").resolve("codes.parquet");
+        int rows = 50_000;
+        SimpleGroupFactory groups = new SimpleGroupFactory(schema);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(schema)
+                .withPageSize(16 * 1024)
+                .build()) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(groups.newGroup().append("code", code(i)));
+            }
+        }
+
+        int row = 0;
+        int pages = 0;
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            ColumnDescriptor column = schema.getColumns().get(0);
+            for (PageReadStore rowGroup = reader.readNextRowGroup(); rowGroup != null; rowGroup = reader.readNextRowGroup()) {
+                PageReader pageReader = rowGroup.getPageReader(column);
+                DictionaryPage dictionaryPage = pageReader.readDictionaryPage();
+                Dictionary dictionary = dictionaryPage.getEncoding().initDictionary(column, dictionaryPage);
+                int[] ids = new int[1000];
+                for (DataPage page = pageReader.readPage(); page != null; page = pageReader.readPage(), pages++) {
+                    DataPageV1 v1 = (DataPageV1) page;
+                    assertTrue(v1.getValueEncoding().usesDictionary(), v1.getValueEncoding().toString());
+                    ByteBuffer data = v1.getBytes().toByteBuffer();
+                    HybridDecoder decoder = new HybridDecoder(data.get(), data);
+                    for (int read = 0; read < v1.getValueCount(); read += ids.length) {
+                        int count = Math.min(ids.length, v1.getValueCount() - read);
+                        decoder.read(ids, 0, count);
+                        for (int i = 0; i < count; i++, row++) {
+                            assertEquals(code(row), dictionary.decodeToInt(ids[i]), "row " + row);
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(rows, row);
+        assertTrue(pages > 1, "pages: " + pages);
+    }
+
+    @Test
+    void decodesMixedRunsInAnyBatchSize() throws Exception {
+        Random random = new Random(7);
+        for (int bitWidth : new int[] { 0, 1, 3, 8, 13, 20, 32 }) {
+            int[] values = new int[10_000];
+            for (int i = 0; i < values.length; i++) {
+                int value = bitWidth == 0 ? 0 : random.nextInt() >>> (32 - bitWidth);
+                // long repeats become RLE runs
+                values[i] = i % 1000 < 300 ? values[Math.max(0, i - 1)] : value;
+            }
+            ByteBuffer encoded = encode(bitWidth, values);
+
+            for (int batch : new int[] { 1, 7, 64, 333, values.length }) {
+                HybridDecoder decoder = new HybridDecoder(bitWidth, encoded.duplicate());
+                int[] decoded = new int[values.length];
+                for (int offset = 0; offset < values.length; offset += batch) {
+                    decoder.read(decoded, offset, Math.min(batch, values.length - offset));
+                }
+                assertArrayEquals(values, decoded, "bit width " + bitWidth + ", batch " + batch);
+            }
+        }
+    }
+
+    @Test
+    void failsWhenTheRunsEndEarly() throws Exception {
+        HybridDecoder decoder = new HybridDecoder(5, encode(5, new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 }));
+        assertThrows(ParquetDecodingException.class, () -> decoder.read(new int[20], 0, 20));
+    }
+
+    @Test
+    void fallsBackToScalarPackersWithoutTheVectorApi() {
+        // surefire does not resolve jdk.incubator.vector, nor is parquet-encoding-vector a dependency
+        try {
+            assertFalse(VectorDecoding.install(true));
+            assertFalse(VectorDecoding.isEnabled());
+            assertNotNull(VectorDecoding.unsupportedReason());
+        } finally {
+            VectorDecoding.install(false);
+        }
+    }
+
+    private static int code(int row) {
+        return (row * 7919 % 1500) * 11;
+    }
+
+    private static ByteBuffer encode(int bitWidth, int[] values) throws Exception {
+        try (RunLengthBitPackingHybridEncoder encoder = new RunLengthBitPackingHybridEncoder(bitWidth, 1024, 1024 * 1024,
+                new HeapByteBufferAllocator())) {
+            for (int value : values) {
+                encoder.writeInt(value);
+            }
+            return ByteBuffer.wrap(encoder.toBytes().toByteArray());
+        }
+    }
+}
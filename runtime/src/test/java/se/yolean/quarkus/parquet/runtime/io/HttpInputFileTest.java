@@ -0,0 +1,257 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+
+class HttpInputFileTest {
+
+    private static final int ROWS = 100_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary text (STRING);
+              required double value;
+            }
+            """);
+
+    private static byte[] content;
+
+    private RangeServer server;
+
+    @BeforeAll
+    static void write() throws Exception {
+        Path file = Files.createTempDirectory("quarkus-parquet-http").resolve("rows.parquet");
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withRowGroupSize(512 * 1024)
+                .build()) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(groups.newGroup().append("id", (long) i).append("text", "row " + i).append("value", i / 2.0));
+            }
+        }
+        content = Files.readAllBytes(file);
+        Files.delete(file);
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void opensWithOneRequest() throws Exception {
+        server = new RangeServer(content, true);
+        HttpInputFile file = HttpInputFile.builder(server.uri()).build();
+
+        try (ParquetFileReader reader = ParquetFileReader.open(file, ParquetDefaults.readOptions().build())) {
+            assertEquals(ROWS, reader.getRecordCount());
+            BlockMetaData last = reader.getRowGroups().get(reader.getRowGroups().size() - 1);
+            reader.readColumnIndex(last.getColumns().get(0));
+            reader.readOffsetIndex(last.getColumns().get(0));
+        }
+        assertEquals(List.of("bytes=-" + HttpInputFile.DEFAULT_TAIL_SIZE), server.ranges, "the footer and indexes come with the tail");
+        assertEquals(content.length, file.getLength());
+    }
+
+    @Test
+    void scansWithARequestPerRowGroup() throws Exception {
+        server = new RangeServer(content, true);
+        HttpInputFile file = HttpInputFile.builder(server.uri()).withTailSize(16 * 1024).build();
+
+        int rowGroups;
+        try (ParquetFileReader reader = ParquetFileReader.open(file, ParquetDefaults.readOptions().build())) {
+            rowGroups = reader.getRowGroups().size();
+            assertTrue(rowGroups > 2, "row groups: " + rowGroups);
+            scan(reader);
+        }
+        // a column chunk each would be 3 per row group
+        assertTrue(server.ranges.size() <= 1 + rowGroups, server.ranges.toString());
+    }
+
+    @Test
+    void readsAheadWithoutVectoredReads() throws Exception {
+        server = new RangeServer(content, true);
+        HttpInputFile file = HttpInputFile.builder(server.uri())
+                .withTailSize(16 * 1024)
+                .withReadAheadSize(4 * 1024 * 1024)
+                .build();
+
+        try (ParquetFileReader reader = ParquetFileReader.open(file,
+                ParquetDefaults.readOptions().useVectoredIo(false).build())) {
+            scan(reader);
+        }
+        // page headers and pages are read one by one, but the file fits into the read-ahead
+        assertTrue(server.ranges.size() <= 3, server.ranges.toString());
+    }
+
+    @Test
+    void fetchesAFooterLargerThanTheTail() throws Exception {
+        server = new RangeServer(content, true);
+        HttpInputFile file = HttpInputFile.builder(server.uri()).withTailSize(64).withReadAheadSize(1024).build();
+
+        try (ParquetFileReader reader = ParquetFileReader.open(file, ParquetDefaults.readOptions().build())) {
+            assertEquals(ROWS, reader.getRecordCount());
+        }
+        assertEquals(2, server.ranges.size(), server.ranges.toString());
+    }
+
+    @Test
+    void takesTheWholeFileFromServersIgnoringRanges() throws Exception {
+        server = new RangeServer(content, false);
+        HttpInputFile file = HttpInputFile.builder(server.uri()).build();
+
+        try (ParquetFileReader reader = ParquetFileReader.open(file, ParquetDefaults.readOptions().build())) {
+            scan(reader);
+        }
+        assertEquals(1, server.ranges.size());
+    }
+
+    @Test
+    void failsOnMissingFiles() {
+        server = new RangeServer(content, true);
+        HttpInputFile file = HttpInputFile.builder(server.uri().resolve("/missing.parquet")).build();
+
+        IOException e = assertThrows(IOException.class, file::newStream);
+        assertTrue(e.getMessage().contains("404"), e.getMessage());
+    }
+
+    @Test
+    void readsBytesAcrossBufferAndTail() throws Exception {
+        server = new RangeServer(content, true);
+        HttpInputFile file = HttpInputFile.builder(server.uri()).withTailSize(1000).withReadAheadSize(700).build();
+
+        try (SeekableInputStream in = file.newStream()) {
+            in.seek(content.length - 1500);
+            byte[] bytes = new byte[1500];
+            in.readFully(bytes);
+            for (int i = 0; i < bytes.length; i++) {
+                assertEquals(content[content.length - 1500 + i], bytes[i]);
+            }
+            assertEquals(-1, in.read());
+            in.seek(10);
+            assertEquals(content[10] & 0xFF, in.read());
+            assertEquals(11, in.getPos());
+        }
+    }
+
+    private static void scan(ParquetFileReader reader) throws IOException {
+        long rows = 0;
+        PageReadStore pages;
+        while ((pages = reader.readNextRowGroup()) != null) {
+            RecordReader<Group> records = new ColumnIOFactory().getColumnIO(SCHEMA)
+                    .getRecordReader(pages, new GroupRecordConverter(SCHEMA));
+            for (long i = 0; i < pages.getRowCount(); i++, rows++) {
+                Group group = records.read();
+                assertEquals(rows, group.getLong("id", 0));
+                assertEquals("row " + rows, group.getString("text", 0));
+            }
+        }
+        assertEquals(ROWS, rows);
+    }
+
+    /**
+     * Serves {@code /rows.parquet}, answering range requests unless told to ignore them, and records the
+     * range of every request.
+     */
+    private static final class RangeServer {
+
+        private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+        final List<String> ranges = new CopyOnWriteArrayList<>();
+        private final byte[] content;
+        private final boolean honorsRanges;
+        private final HttpServer server;
+
+        RangeServer(byte[] content, boolean honorsRanges) {
+            this.content = content;
+            this.honorsRanges = honorsRanges;
+            try {
+                server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        URI uri() {
+            return URI.create("http://localhost:" + server.getAddress().getPort() + "/rows.parquet");
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                ranges.add(String.valueOf(range));
+                if (!exchange.getRequestURI().getPath().equals("/rows.parquet")) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                Matcher matcher = range != null ? RANGE.matcher(range) : null;
+                if (!honorsRanges || matcher == null || !matcher.matches()) {
+                    send(exchange, 200, 0, content.length);
+                    return;
+                }
+                int start;
+                int end;
+                if (matcher.group(1).isEmpty()) {
+                    start = Math.max(0, content.length - Integer.parseInt(matcher.group(2)));
+                    end = content.length - 1;
+                } else {
+                    start = Integer.parseInt(matcher.group(1));
+                    end = matcher.group(2).isEmpty() ? content.length - 1
+                            : Math.min(content.length - 1, Integer.parseInt(matcher.group(2)));
+                }
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+                send(exchange, 206, start, end + 1 - start);
+            }
+        }
+
+        private void send(HttpExchange exchange, int status, int offset, int length) throws IOException {
+            exchange.sendResponseHeaders(status, length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content, offset, length);
+            }
+        }
+    }
+}
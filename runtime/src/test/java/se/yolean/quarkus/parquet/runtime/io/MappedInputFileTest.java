@@ -0,0 +1,156 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+
+class MappedInputFileTest {
+
+    private static final MessageType SCHEMA = Types.buildMessage()
+            .required(PrimitiveTypeName.INT64)
+            .named("id")
+            .required(PrimitiveTypeName.BINARY)
+            .as(LogicalTypeAnnotation.stringType())
+            .named("name")
+            .named("Row");
+
+    @Test
+    void readsParquetThroughSingleAndSplitMappings() throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-mapped");
+        Path file = tempDir.resolve("rows.parquet");
+        writeRows(file, 5_000);
+
+        try (MappedInputFile mapped = MappedInputFile.open(file)) {
+            assertEquals(Files.size(file), mapped.getLength());
+            assertRows(mapped, 5_000);
+            assertTrue(mapped.slice(0, 4).isDirect(), "slices within a region share the mapping");
+        }
+        // small regions force reads and slices to cross mapping boundaries
+        try (MappedInputFile mapped = MappedInputFile.open(file, 1000)) {
+            assertRows(mapped, 5_000);
+            ByteBuffer magic = mapped.slice(996, 8);
+            assertEquals(8, magic.remaining());
+        }
+
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    void keepsValuesReadableAfterClose() throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-mapped");
+        Path file = tempDir.resolve("uncompressed.parquet");
+        // plain, uncompressed values are read as slices of the pages
+        writeRows(file, 5_000, CompressionCodecName.UNCOMPRESSED, false);
+
+        List<Group> rows = new ArrayList<>();
+        try (MappedInputFile mapped = MappedInputFile.open(file);
+                ParquetFileReader fileReader = ParquetFileReader.open(mapped, ParquetDefaults.readOptions().build())) {
+            PageReadStore pages;
+            while ((pages = fileReader.readNextRowGroup()) != null) {
+                RecordReader<Group> recordReader = new ColumnIOFactory().getColumnIO(SCHEMA)
+                        .getRecordReader(pages, new GroupRecordConverter(SCHEMA));
+                for (long i = 0; i < pages.getRowCount(); i++) {
+                    rows.add(recordReader.read());
+                }
+            }
+        }
+        System.gc();
+        // the names are slices of the mapping, which the rows keep alive
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals("row-" + i, rows.get(i).getString("name", 0));
+        }
+
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    void closeUnmapsOnceTheLastStreamIsClosed() throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-mapped");
+        Path file = tempDir.resolve("bytes.bin");
+        Files.write(file, new byte[] { 1, 2, 3, 4 });
+
+        MappedInputFile mapped = MappedInputFile.open(file, MappedInputFile.DEFAULT_REGION_SIZE, true);
+        SeekableInputStream stream = mapped.newStream();
+        mapped.close();
+        stream.seek(2);
+        assertEquals(3, stream.read());
+        assertThrows(IOException.class, mapped::newStream);
+        stream.close();
+        assertThrows(IOException.class, stream::read);
+        IOException closed = assertThrows(IOException.class, () -> mapped.slice(0, 2));
+        assertTrue(closed.getMessage().contains("closed"), closed.getMessage());
+        assertThrows(IOException.class, () -> mapped.copy(0, ByteBuffer.allocate(2)));
+        assertThrows(IOException.class, () -> mapped.copy(0, new byte[2], 0, 2));
+
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(tempDir);
+    }
+
+    private static void writeRows(Path file, int count) throws IOException {
+        writeRows(file, count, CompressionCodecName.SNAPPY, true);
+    }
+
+    private static void writeRows(Path file, int count, CompressionCodecName codec, boolean dictionary) throws IOException {
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(new NioOutputFile(file))
+                .withType(SCHEMA)
+                .withCompressionCodec(codec)
+                .withDictionaryEncoding(dictionary)
+                .withPageSize(4 * 1024)
+                .withBloomFilterEnabled(false)
+                .build()) {
+            for (int i = 0; i < count; i++) {
+                writer.write(groups.newGroup().append("id", (long) i).append("name", "row-" + i));
+            }
+        }
+    }
+
+    private static void assertRows(InputFile inputFile, int count) throws IOException {
+        List<Group> rows = new ArrayList<>();
+        try (ParquetFileReader fileReader = ParquetFileReader.open(inputFile)) {
+            ColumnIOFactory columnIOFactory = new ColumnIOFactory();
+            PageReadStore pages;
+            while ((pages = fileReader.readNextRowGroup()) != null) {
+                RecordReader<Group> recordReader = columnIOFactory.getColumnIO(SCHEMA)
+                        .getRecordReader(pages, new GroupRecordConverter(SCHEMA));
+                for (long i = 0; i < pages.getRowCount(); i++) {
+                    rows.add(recordReader.read());
+                }
+            }
+        }
+        assertEquals(count, rows.size());
+        for (int i = 0; i < count; i += 997) {
+            assertEquals(i, rows.get(i).getLong("id", 0));
+            assertEquals("row-" + i, rows.get(i).getString("name", 0));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.SeekableInputStream;
+import org.junit.jupiter.api.Test;
+
+class NioFilesTest {
+
+    @Test
+    void positionedWritesAndBufferedReadsAgree() throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-nio");
+        Path file = tempDir.resolve("bytes.bin");
+        byte[] payload = new byte[100_000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 31);
+        }
+
+        try (PositionOutputStream out = new NioOutputFile(file, 1024).create(0)) {
+            out.write(payload[0]);
+            assertEquals(1, out.getPos());
+            out.write(payload, 1, payload.length - 1);
+            assertEquals(payload.length, out.getPos());
+        }
+        assertEquals(payload.length, Files.size(file));
+
+        NioInputFile inputFile = new NioInputFile(file, 512);
+        assertEquals(payload.length, inputFile.getLength());
+        try (SeekableInputStream in = inputFile.newStream()) {
+            assertEquals(payload[0] & 0xFF, in.read());
+            assertEquals(1, in.getPos());
+
+            byte[] small = new byte[100];
+            in.readFully(small);
+            assertArrayEquals(Arrays.copyOfRange(payload, 1, 101), small);
+
+            in.seek(50_000);
+            ByteBuffer direct = ByteBuffer.allocateDirect(4096);
+            in.readFully(direct);
+            direct.flip();
+            for (int i = 0; i < 4096; i++) {
+                assertEquals(payload[50_000 + i], direct.get(i));
+            }
+
+            in.seek(10);
+            ByteBuffer heap = ByteBuffer.allocate(300);
+            in.readFully(heap);
+            assertArrayEquals(Arrays.copyOfRange(payload, 10, 310), heap.array());
+            assertEquals(310, in.getPos());
+
+            in.seek(payload.length - 1);
+            assertEquals(payload[payload.length - 1] & 0xFF, in.read());
+            assertEquals(-1, in.read());
+            assertThrows(EOFException.class, () -> in.readFully(new byte[1]));
+        }
+
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(tempDir);
+    }
+}
@@ -0,0 +1,168 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+
+class ResponseOutputFileTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary text (STRING);
+            }
+            """);
+    private static final int CHUNK = 1024 * 1024;
+
+    private Vertx vertx;
+    private HttpServer server;
+
+    @BeforeEach
+    void startVertx() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void stopVertx() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void streamsAReadableFile() throws Exception {
+        int port = serve(request -> vertx.executeBlocking(() -> {
+            SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+            try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter
+                    .builder(new ResponseOutputFile(request.response())))
+                    .withType(SCHEMA)
+                    .withRowGroupSize(256 * 1024)
+                    .build()) {
+                for (int i = 0; i < 100_000; i++) {
+                    writer.write(groups.newGroup().append("id", (long) i).append("text", "row " + i));
+                }
+            }
+            return null;
+        }));
+
+        Path file = Files.createTempDirectory("quarkus-parquet-response").resolve("rows.parquet");
+        HttpResponse<Path> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).build(),
+                HttpResponse.BodyHandlers.ofFile(file));
+        assertEquals(200, response.statusCode());
+        assertEquals(ResponseOutputFile.CONTENT_TYPE, response.headers().firstValue("content-type").orElseThrow());
+        assertTrue(response.headers().firstValue("content-length").isEmpty(), "chunked");
+
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file),
+                ParquetDefaults.readOptions().build())) {
+            assertTrue(reader.getRowGroups().size() > 1, "row groups: " + reader.getRowGroups().size());
+            assertEquals(100_000, reader.getRecordCount());
+        }
+    }
+
+    @Test
+    void holdsTheWriterBackUntilTheClientReads() throws Exception {
+        AtomicLong written = new AtomicLong();
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        int port = serve(request -> vertx.executeBlocking(() -> {
+            try (PositionOutputStream out = new ResponseOutputFile(request.response()).create(0)) {
+                byte[] chunk = new byte[CHUNK];
+                for (int i = 0; i < 64; i++) {
+                    out.write(chunk);
+                    written.set(out.getPos());
+                }
+            }
+            return null;
+        }).onComplete(done -> finished.complete(null)));
+
+        try (Socket socket = request(port)) {
+            Thread.sleep(1_000);
+            assertTrue(written.get() < 32L * CHUNK, written.get() + " bytes written without being read");
+
+            long body = 0;
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[64 * 1024];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                body += n;
+            }
+            finished.get(10, TimeUnit.SECONDS);
+            assertTrue(body > 32L * CHUNK, body + " bytes read");
+        }
+        assertEquals(64L * CHUNK, written.get());
+    }
+
+    @Test
+    void failsWritesOnceTheClientIsGone() throws Exception {
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        int port = serve(request -> vertx.executeBlocking(() -> {
+            try (PositionOutputStream out = new ResponseOutputFile(request.response()).create(0)) {
+                byte[] chunk = new byte[CHUNK];
+                while (true) {
+                    out.write(chunk);
+                }
+            }
+        }).onComplete(done -> {
+            if (done.failed()) {
+                finished.completeExceptionally(done.cause());
+            } else {
+                finished.complete(null);
+            }
+        }));
+
+        try (Socket socket = request(port)) {
+            socket.getInputStream().readNBytes(CHUNK);
+        }
+        ExecutionException e = assertThrows(ExecutionException.class, () -> finished.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+    }
+
+    private int serve(Handler<HttpServerRequest> handler) throws Exception {
+        server = vertx.createHttpServer().requestHandler(handler);
+        return server.listen(0).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).actualPort();
+    }
+
+    /**
+     * @return a connection that has sent a request and reads nothing until the test does
+     */
+    private static Socket request(int port) throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setReceiveBufferSize(64 * 1024);
+        OutputStream out = socket.getOutputStream();
+        out.write("GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+}
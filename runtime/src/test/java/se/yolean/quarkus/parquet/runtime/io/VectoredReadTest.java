@@ -0,0 +1,148 @@
+package se.yolean.quarkus.parquet.runtime.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.ParquetFileRange;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.jupiter.api.Test;
+
+class VectoredReadTest {
+
+    @Test
+    void coalescesRangesWithinGapAndSize() {
+        List<ParquetFileRange> ranges = List.of(
+                new ParquetFileRange(1000, 100),
+                new ParquetFileRange(0, 100),
+                new ParquetFileRange(150, 100),
+                new ParquetFileRange(5000, 10),
+                new ParquetFileRange(5010, 10));
+
+        List<CoalescedRange> merged = CoalescedRange.coalesce(ranges, 64, 1024);
+
+        assertEquals(3, merged.size());
+        assertEquals(0, merged.get(0).offset());
+        assertEquals(250, merged.get(0).length());
+        assertEquals(1000, merged.get(1).offset());
+        assertEquals(5000, merged.get(2).offset());
+        assertEquals(20, merged.get(2).length());
+
+        assertEquals(5, CoalescedRange.coalesce(ranges, 64, 15).size());
+        assertThrows(IllegalArgumentException.class, () -> CoalescedRange
+                .coalesce(List.of(new ParquetFileRange(0, 100), new ParquetFileRange(50, 100)), 0, 1024));
+    }
+
+    @Test
+    void completesEveryRangeWithItsBytes() throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-vectored");
+        Path file = tempDir.resolve("bytes.bin");
+        byte[] payload = new byte[64 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i % 251);
+        }
+        Files.write(file, payload);
+
+        List<ParquetFileRange> ranges = new ArrayList<>();
+        for (int offset = 0; offset < payload.length; offset += 4096) {
+            ranges.add(new ParquetFileRange(offset, 1000));
+        }
+        NioInputFile inputFile = new NioInputFile(file, new VectoredReadOptions(1024, 8192, null));
+        try (SeekableInputStream in = inputFile.newStream()) {
+            in.readVectored(ranges, new HeapByteBufferAllocator());
+            for (ParquetFileRange range : ranges) {
+                ByteBuffer data = range.getDataReadFuture().get(10, TimeUnit.SECONDS);
+                assertEquals(range.getLength(), data.remaining());
+                for (int i = 0; i < range.getLength(); i++) {
+                    assertEquals(payload[(int) range.getOffset() + i], data.get(data.position() + i));
+                }
+            }
+        }
+
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    void readsNoRangesOfAnEmptyList() throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-vectored");
+        Path file = tempDir.resolve("bytes.bin");
+        Files.write(file, new byte[16]);
+
+        try (SeekableInputStream in = new NioInputFile(file).newStream()) {
+            in.readVectored(List.of(), new HeapByteBufferAllocator());
+            assertEquals(0, in.getPos());
+        }
+
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    void projectedScanOfWideFile() throws Exception {
+        Path tempDir = Files.createTempDirectory("quarkus-parquet-vectored");
+        Path file = tempDir.resolve("wide.parquet");
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (int c = 0; c < 50; c++) {
+            builder.required(PrimitiveTypeName.INT64).named("c" + c);
+        }
+        MessageType schema = builder.named("Wide");
+        SimpleGroupFactory groups = new SimpleGroupFactory(schema);
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(new NioOutputFile(file))
+                .withType(schema)
+                .withBloomFilterEnabled(false)
+                .build()) {
+            for (long row = 0; row < 2_000; row++) {
+                Group group = groups.newGroup();
+                for (int c = 0; c < 50; c++) {
+                    group.append("c" + c, row * 100 + c);
+                }
+                writer.write(group);
+            }
+        }
+
+        MessageType projection = Types.buildMessage()
+                .required(PrimitiveTypeName.INT64).named("c3")
+                .required(PrimitiveTypeName.INT64).named("c27")
+                .required(PrimitiveTypeName.INT64).named("c49")
+                .named("Wide");
+        long rows = 0;
+        try (ParquetFileReader fileReader = ParquetFileReader.open(new NioInputFile(file))) {
+            fileReader.setRequestedSchema(projection);
+            PageReadStore pages;
+            while ((pages = fileReader.readNextRowGroup()) != null) {
+                RecordReader<Group> recordReader = new ColumnIOFactory().getColumnIO(projection, schema)
+                        .getRecordReader(pages, new GroupRecordConverter(projection));
+                for (long i = 0; i < pages.getRowCount(); i++, rows++) {
+                    Group group = recordReader.read();
+                    assertEquals(rows * 100 + 3, group.getLong("c3", 0));
+                    assertEquals(rows * 100 + 27, group.getLong("c27", 0));
+                    assertEquals(rows * 100 + 49, group.getLong("c49", 0));
+                }
+            }
+        }
+        assertEquals(2_000, rows);
+
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(tempDir);
+    }
+}
@@ -0,0 +1,75 @@
+package se.yolean.quarkus.parquet.runtime.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.write.AsyncParquetWriter;
+
+class MicrometerMetricsTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Reading {
+              required binary sensor (STRING);
+              required double value;
+            }
+            """);
+
+    private final ParquetMetrics shared = ParquetMetrics.shared();
+
+    @AfterEach
+    void restore() {
+        ParquetMetrics.install(shared);
+    }
+
+    @Test
+    void writersAndReadersReportToTheRegistry() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetrics metrics = new MicrometerMetrics();
+        metrics.bindTo(registry);
+        assertSame(metrics, ParquetMetrics.shared());
+
+        Path file = Files.createTempDirectory("quarkus-parquet-metrics").resolve("readings.parquet");
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (AsyncParquetWriter<Group> writer = AsyncParquetWriter.builder(new NioOutputFile(file),
+                output -> ExampleParquetWriter.builder(output).withType(SCHEMA)
+                        .withCompressionCodec(CompressionCodecName.SNAPPY)).build()) {
+            writer.write(groups.newGroup().append("sensor", "a").append("value", 1.5));
+            writer.write(groups.newGroup().append("sensor", "b").append("value", 2.5));
+        }
+        assertEquals(2, registry.counter("parquet.writer.rows").count());
+        assertEquals(1, registry.counter("parquet.writer.row.groups").count());
+        assertEquals(1, registry.timer("parquet.writer.flush").count());
+        assertTrue(registry.find("parquet.writer.column.bytes").tags("column", "sensor", "size", "compressed")
+                .counter().count() > 0);
+
+        try (ParquetFileReader reader = new MetadataCache(1024 * 1024).open(new NioInputFile(file),
+                ParquetDefaults.readOptions().build())) {
+            assertEquals(2, reader.readNextRowGroup().getPageReader(SCHEMA.getColumns().get(0)).readPage()
+                    .getValueCount());
+        }
+        assertTrue(registry.counter("parquet.reader.bytes").count() > 0);
+        assertEquals(1, registry.timer("parquet.reader.page.decompression").count());
+        assertNotNull(registry.find("parquet.cache.size").tag("cache", "metadata").gauge());
+    }
+}
@@ -0,0 +1,211 @@
+package se.yolean.quarkus.parquet.runtime.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.cache.MetadataCache;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.write.AsyncParquetWriter;
+
+class ParquetMetricsTest {
+
+    private static final int ROWS = 40_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary text (STRING);
+            }
+            """);
+
+    private final ParquetMetrics metrics = ParquetMetrics.shared();
+    private final ParquetTracing tracing = ParquetTracing.shared();
+
+    @AfterEach
+    void restore() {
+        ParquetMetrics.install(metrics);
+        ParquetTracing.install(tracing);
+    }
+
+    @Test
+    void reportsEveryRowGroupWritten() throws Exception {
+        RecordingMetrics recording = new RecordingMetrics();
+        ParquetMetrics.install(recording);
+
+        Path file = write(Files.createTempDirectory("quarkus-parquet-metrics").resolve("rows.parquet"));
+
+        List<BlockMetaData> rowGroups;
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file))) {
+            rowGroups = reader.getFooter().getBlocks();
+        }
+        assertTrue(rowGroups.size() > 2, "expected several row groups, got " + rowGroups.size());
+        assertEquals(rowGroups.size(), recording.rowGroups.size());
+        for (int i = 0; i < rowGroups.size(); i++) {
+            assertEquals(rowGroups.get(i).getRowCount(), recording.rowGroups.get(i).getRowCount());
+            assertEquals(rowGroups.get(i).getCompressedSize(), recording.rowGroups.get(i).getCompressedSize());
+        }
+        assertEquals(rowGroups.size(), recording.timedFlushes, "every flush of an async writer is timed");
+    }
+
+    @Test
+    void countsBytesAndSeeksOfReaders() throws Exception {
+        Path file = write(Files.createTempDirectory("quarkus-parquet-metrics").resolve("rows.parquet"));
+        RecordingMetrics recording = new RecordingMetrics();
+        ParquetMetrics.install(recording);
+
+        long chunks;
+        try (ParquetFileReader reader = new MetadataCache(0).open(new NioInputFile(file),
+                ParquetDefaults.readOptions().build())) {
+            while (reader.readNextRowGroup() != null) {
+            }
+            chunks = reader.getRowGroups().stream().mapToLong(BlockMetaData::getCompressedSize).sum();
+        }
+        // the footer besides the chunks, but not the indexes, which no filter asked for
+        assertTrue(recording.bytesRead.get() > chunks, recording.bytesRead + " bytes read");
+        assertTrue(recording.bytesRead.get() < Files.size(file), recording.bytesRead + " bytes read");
+        assertTrue(recording.seeks.get() > 0);
+    }
+
+    @Test
+    void spansOpeningAndEachRowGroup() throws Exception {
+        Path file = write(Files.createTempDirectory("quarkus-parquet-metrics").resolve("rows.parquet"));
+        RecordingTracing recording = new RecordingTracing();
+        ParquetTracing.install(recording);
+
+        int rowGroups = 0;
+        try (ParquetFileReader reader = new MetadataCache(1024 * 1024).open(new NioInputFile(file),
+                ParquetDefaults.readOptions().build())) {
+            while (reader.readNextRowGroup() != null) {
+                rowGroups++;
+            }
+        }
+        assertEquals(1 + rowGroups, recording.spans.size());
+        RecordedSpan open = recording.spans.get(0);
+        assertEquals(ParquetTracing.OPEN, open.name);
+        assertEquals(Map.of(ParquetTracing.ROWS, (long) ROWS), open.attributes);
+        long rows = 0;
+        for (int i = 0; i < rowGroups; i++) {
+            RecordedSpan read = recording.spans.get(1 + i);
+            assertEquals(ParquetTracing.READ_ROW_GROUP, read.name);
+            assertEquals((long) i, read.attributes.get(ParquetTracing.ROW_GROUP));
+            assertTrue(read.closed);
+            rows += read.attributes.get(ParquetTracing.ROWS);
+        }
+        assertEquals(ROWS, rows);
+    }
+
+    @Test
+    void reportsNothingUnlessInstalled() throws Exception {
+        ParquetMetrics disabled = new ParquetMetrics();
+        Path file = Files.createTempDirectory("quarkus-parquet-metrics").resolve("rows.parquet");
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(new NioOutputFile(file)).withType(SCHEMA).build()) {
+            assertSame(WriterMeter.NONE, disabled.writer(writer));
+        }
+    }
+
+    private static Path write(Path file) throws Exception {
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (AsyncParquetWriter<Group> writer = AsyncParquetWriter.builder(new NioOutputFile(file),
+                output -> ExampleParquetWriter.builder(output).withType(SCHEMA).withRowGroupSize(128 * 1024)).build()) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(groups.newGroup().append("id", (long) i).append("text", "row " + i + " of " + ROWS));
+            }
+        }
+        return file;
+    }
+
+    private static final class RecordingMetrics extends ParquetMetrics {
+
+        final List<BlockMetaData> rowGroups = new ArrayList<>();
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong seeks = new AtomicLong();
+        int timedFlushes;
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        protected synchronized void rowGroupWritten(BlockMetaData rowGroup, long flushNanos) {
+            rowGroups.add(rowGroup);
+            if (flushNanos >= 0) {
+                timedFlushes++;
+            }
+        }
+
+        @Override
+        protected void bytesRead(long bytes) {
+            bytesRead.addAndGet(bytes);
+        }
+
+        @Override
+        protected void seeked() {
+            seeks.incrementAndGet();
+        }
+    }
+
+    private static final class RecordingTracing extends ParquetTracing {
+
+        final List<RecordedSpan> spans = new ArrayList<>();
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public Span start(String name, InputFile file) {
+            RecordedSpan span = new RecordedSpan(name);
+            spans.add(span);
+            return span;
+        }
+    }
+
+    private static final class RecordedSpan implements ParquetTracing.Span {
+
+        final String name;
+        final Map<String, Long> attributes = new TreeMap<>();
+        boolean closed;
+
+        RecordedSpan(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void set(String attribute, long value) {
+            attributes.put(attribute, value);
+        }
+
+        @Override
+        public void failed(Throwable e) {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package se.yolean.quarkus.parquet.runtime.query;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.and;
+import static org.apache.parquet.filter2.predicate.FilterApi.binaryColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.eq;
+import static org.apache.parquet.filter2.predicate.FilterApi.gtEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
+class ParquetQueryTest {
+
+    private static final int ROWS = 100_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary key (STRING);
+              required binary text (STRING);
+            }
+            """);
+
+    static Path file;
+
+    /**
+     * Ids are sorted, so statistics and column indexes narrow them down. Keys are scattered over the whole
+     * range in every row group and not dictionary encoded, so only bloom filters can rule them out.
+     */
+    @BeforeAll
+    static void write() throws Exception {
+        file = Files.createTempDirectory("quarkus-parquet-query").resolve("rows.parquet");
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withRowGroupSize(512 * 1024)
+                .withPageRowCountLimit(1_000)
+                .withDictionaryEncoding("key", false)
+                .withBloomFilterEnabled("key", true)
+                .withBloomFilterNDV("key", ROWS)
+                .build()) {
+            for (long i = 0; i < ROWS; i++) {
+                writer.write(groups.newGroup()
+                        .append("id", i)
+                        .append("key", key(i * 7_919 % ROWS))
+                        .append("text", "row number " + i));
+            }
+        }
+    }
+
+    static String key(long n) {
+        return "k" + n;
+    }
+
+    @Test
+    void pointLookupTouchesOnlyMatchingPages() throws Exception {
+        ParquetQuery query = ParquetQuery.select("id", "text").where(eq(longColumn("id"), 54_321L));
+        try (QueryReader<Group> reader = query.open(new NioInputFile(file))) {
+            Group row = reader.read();
+            assertEquals(54_321L, row.getLong("id", 0));
+            assertEquals("row number 54321", row.getString("text", 0));
+            assertNull(reader.read());
+
+            QueryStats stats = reader.stats();
+            assertTrue(stats.rowGroups() > 4, "the file should span several row groups: " + stats);
+            assertEquals(stats.rowGroups() - 1, stats.rowGroupsSkipped(), stats.toString());
+            // one page of each projected column
+            assertEquals(2, stats.pages() - stats.pagesSkipped(), stats.toString());
+            assertTrue(stats.rowsSkipped() >= ROWS - 1_000, stats.toString());
+            assertEquals(1, stats.rowsMatched());
+        }
+    }
+
+    @Test
+    void rangeScanSkipsRowGroupsAndPagesOutsideTheRange() throws Exception {
+        ParquetQuery query = ParquetQuery.select("id")
+                .where(and(gtEq(longColumn("id"), 10_500L), lt(longColumn("id"), 12_500L)));
+        try (Stream<Group> rows = query.open(new NioInputFile(file)).stream()) {
+            List<Long> ids = rows.map(row -> row.getLong("id", 0)).collect(Collectors.toList());
+            assertEquals(2_000, ids.size());
+            assertEquals(10_500L, ids.get(0));
+            assertEquals(12_499L, ids.get(ids.size() - 1));
+        }
+    }
+
+    @Test
+    void bloomFiltersSkipRowGroupsStatisticsCannot() throws Exception {
+        // within the min and max of every row group, but never written
+        ParquetQuery absent = ParquetQuery.select("id").where(eq(binaryColumn("key"), Binary.fromString("k5000000")));
+        try (QueryReader<Group> reader = absent.open(new NioInputFile(file))) {
+            assertNull(reader.read());
+            assertEquals(reader.stats().rowGroups(), reader.stats().rowGroupsSkipped(), reader.stats().toString());
+            assertEquals(ROWS, reader.stats().rowsSkipped());
+        }
+
+        try (QueryReader<Group> reader = absent
+                .withOptions(ParquetDefaults.readOptions().useBloomFilter(false).build())
+                .open(new NioInputFile(file))) {
+            assertNull(reader.read());
+            assertTrue(reader.stats().rowGroupsSkipped() < reader.stats().rowGroups(), reader.stats().toString());
+        }
+
+        long id = 77_777;
+        ParquetQuery present = ParquetQuery.select("id").where(eq(binaryColumn("key"), Binary.fromString(key(id * 7_919 % ROWS))));
+        try (QueryReader<Group> reader = present.open(new NioInputFile(file))) {
+            assertEquals(id, reader.read().getLong("id", 0));
+            assertNull(reader.read());
+            assertEquals(reader.stats().rowGroups() - 1, reader.stats().rowGroupsSkipped(), reader.stats().toString());
+        }
+    }
+
+    @Test
+    void readsEveryRowWithoutPredicate() throws Exception {
+        try (QueryReader<Group> reader = ParquetQuery.select("key").open(new NioInputFile(file))) {
+            long count = 0;
+            for (Group row = reader.read(); row != null; row = reader.read()) {
+                assertEquals(1, row.getType().getFieldCount());
+                count++;
+            }
+            assertEquals(ROWS, count);
+            assertEquals(0, reader.stats().rowGroupsSkipped());
+            assertEquals(0, reader.stats().pages());
+        }
+    }
+
+    @Test
+    void rejectsUnknownColumns() {
+        assertThrows(IllegalArgumentException.class, () -> ParquetQuery.select("missing").open(new NioInputFile(file)));
+    }
+}
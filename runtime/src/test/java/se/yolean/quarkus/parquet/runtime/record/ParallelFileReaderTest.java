@@ -0,0 +1,180 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.ReadSupport.ReadContext;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.record.RecordFileReaderTest.TrackingAllocator;
+
+class ParallelFileReaderTest {
+
+    private static final int ROWS = 50_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary text (STRING);
+            }
+            """);
+
+    static Path file;
+    static List<Long> rowGroupSizes = new ArrayList<>();
+    static long largestRowGroup;
+
+    @BeforeAll
+    static void write() throws Exception {
+        file = Files.createTempDirectory("quarkus-parquet-parallel").resolve("rows.parquet");
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withCompressionCodec(CompressionCodecName.ZSTD)
+                .withRowGroupSize(128 * 1024)
+                .build()) {
+            for (long i = 0; i < ROWS; i++) {
+                writer.write(groups.newGroup().append("id", i).append("text", "row number " + i));
+            }
+        }
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            List<BlockMetaData> rowGroups = reader.getRowGroups();
+            assertTrue(rowGroups.size() > 4, "the file should span several row groups");
+            rowGroups.forEach(rowGroup -> rowGroupSizes.add(rowGroup.getRowCount()));
+            largestRowGroup = rowGroups.stream().mapToLong(BlockMetaData::getCompressedSize).max().orElseThrow();
+        }
+    }
+
+    @Test
+    void deliversRowsInFileOrder() throws Exception {
+        TrackingAllocator allocator = new TrackingAllocator();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ParallelFileReader<Group> reader = ParallelFileReader.builder(new NioInputFile(file), new GroupReadSupport())
+                .withOptions(ParquetDefaults.readOptions().withAllocator(allocator).useVectoredIo(false).build())
+                .withExecutor(executor)
+                .withMaxInFlight(3)
+                .build()) {
+            assertEquals(ROWS, reader.getRecordCount());
+            long count = 0;
+            for (Group row = reader.read(); row != null; row = reader.read()) {
+                assertEquals(count++, row.getLong("id", 0));
+                assertEquals("row number " + (count - 1), row.getString("text", 0));
+            }
+            assertEquals(ROWS, count);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(allocator.peak.get() <= 3 * largestRowGroup, allocator.peak + " > 3 * " + largestRowGroup);
+        assertEquals(0, allocator.outstanding.get());
+    }
+
+    @Test
+    void deliversWholeRowGroupsInCompletionOrder() throws Exception {
+        List<Long> rowGroupStarts = new ArrayList<>();
+        long start = 0;
+        for (long size : rowGroupSizes) {
+            rowGroupStarts.add(start);
+            start += size;
+        }
+        // holds back the first row group so that the others overtake it
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicInteger tasks = new AtomicInteger();
+        Executor executor = task -> pool.execute(tasks.getAndIncrement() > 0 ? task : () -> {
+            LockSupport.parkNanos(Duration.ofMillis(300).toNanos());
+            task.run();
+        });
+
+        BitSet seen = new BitSet(ROWS);
+        List<Long> runStarts = new ArrayList<>();
+        try (Stream<Group> rows = ParallelFileReader.builder(new NioInputFile(file), new GroupReadSupport())
+                .withExecutor(executor)
+                .withMaxInFlight(4)
+                .ordered(false)
+                .stream()) {
+            AtomicLong previous = new AtomicLong(-2);
+            rows.forEach(row -> {
+                long id = row.getLong("id", 0);
+                assertFalse(seen.get((int) id), "row " + id + " was delivered twice");
+                seen.set((int) id);
+                if (id != previous.get() + 1) {
+                    runStarts.add(id);
+                }
+                previous.set(id);
+            });
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(ROWS, seen.cardinality());
+        assertTrue(runStarts.get(0) > 0, "the held back row group should be overtaken");
+        assertTrue(rowGroupStarts.containsAll(runStarts), "row groups should arrive in one piece: " + runStarts);
+    }
+
+    @Test
+    void releasesRowGroupsInFlightOnClose() throws Exception {
+        TrackingAllocator allocator = new TrackingAllocator();
+        try (ParallelFileReader<Group> reader = ParallelFileReader.builder(new NioInputFile(file), new GroupReadSupport())
+                .withOptions(ParquetDefaults.readOptions().withAllocator(allocator).useVectoredIo(false).build())
+                .withMaxInFlight(4)
+                .build()) {
+            assertEquals(0, reader.read().getLong("id", 0));
+        }
+        assertEquals(0, allocator.outstanding.get());
+    }
+
+    @Test
+    void rethrowsDecodingFailures() throws Exception {
+        GroupReadSupport failing = new GroupReadSupport() {
+            @Override
+            public RecordMaterializer<Group> prepareForRead(ParquetConfiguration configuration,
+                    Map<String, String> keyValueMetaData, MessageType fileSchema, ReadContext readContext) {
+                throw new IllegalStateException("cannot decode");
+            }
+        };
+        try (ParallelFileReader<Group> reader = ParallelFileReader.builder(new NioInputFile(file), failing).build()) {
+            assertThrows(IllegalStateException.class, reader::read);
+        }
+    }
+
+    @Test
+    void emitsOnDemand() {
+        AssertSubscriber<Group> subscriber = ParallelFileReader.builder(new NioInputFile(file), new GroupReadSupport())
+                .multi()
+                .subscribe().withSubscriber(AssertSubscriber.create(10));
+        subscriber.awaitItems(10);
+        subscriber.request(Long.MAX_VALUE).awaitCompletion(Duration.ofSeconds(30));
+        assertEquals(ROWS, subscriber.getItems().size());
+        assertEquals(ROWS - 1, subscriber.getItems().get(ROWS - 1).getLong("id", 0));
+    }
+}
@@ -0,0 +1,186 @@
+package se.yolean.quarkus.parquet.runtime.record;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.apache.parquet.bytes.ByteBufferAllocator;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputCompressor;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputDecompressor;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.codec.ParquetCodecFactory;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
+class RecordFileReaderTest {
+
+    private static final int ROWS = 50_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary text (STRING);
+            }
+            """);
+
+    static Path file;
+    static long largestRowGroup;
+
+    @BeforeAll
+    static void write() throws Exception {
+        file = Files.createTempDirectory("quarkus-parquet-stream").resolve("rows.parquet");
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withRowGroupSize(128 * 1024)
+                .build()) {
+            for (long i = 0; i < ROWS; i++) {
+                writer.write(groups.newGroup().append("id", i).append("text", "row number " + i));
+            }
+        }
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            List<BlockMetaData> rowGroups = reader.getRowGroups();
+            assertTrue(rowGroups.size() > 4, "the file should span several row groups");
+            largestRowGroup = rowGroups.stream().mapToLong(BlockMetaData::getCompressedSize).max().orElseThrow();
+        }
+    }
+
+    @Test
+    void streamsRowsHoldingOneRowGroup() throws Exception {
+        TrackingAllocator allocator = new TrackingAllocator();
+        try (Stream<Group> rows = RecordFileReader.builder(new NioInputFile(file), new GroupReadSupport())
+                .withOptions(ParquetDefaults.readOptions().withAllocator(allocator).useVectoredIo(false).build())
+                .stream()) {
+            AtomicLong expected = new AtomicLong();
+            rows.forEach(row -> assertEquals(expected.getAndIncrement(), row.getLong("id", 0)));
+            assertEquals(ROWS, expected.get());
+        }
+        assertTrue(allocator.peak.get() > 0);
+        assertTrue(allocator.peak.get() <= largestRowGroup, allocator.peak + " > " + largestRowGroup);
+        assertEquals(0, allocator.outstanding.get());
+    }
+
+    @Test
+    void prefetchesTheNextRowGroup() throws Exception {
+        TrackingAllocator allocator = new TrackingAllocator();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (RecordFileReader<Group> reader = RecordFileReader.builder(new NioInputFile(file), new GroupReadSupport())
+                .withOptions(ParquetDefaults.readOptions().withAllocator(allocator).useVectoredIo(false).build())
+                .withPrefetch(executor)
+                .build()) {
+            long count = 0;
+            for (Group row = reader.read(); row != null; row = reader.read()) {
+                assertEquals(count++, row.getLong("id", 0));
+            }
+            assertEquals(ROWS, count);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(allocator.peak.get() <= 2 * largestRowGroup, allocator.peak + " > 2 * " + largestRowGroup);
+        assertEquals(0, allocator.outstanding.get());
+    }
+
+    @Test
+    void readsInTurnWithAnotherCodecFactory() throws Exception {
+        CompressionCodecFactory codecs = new ParquetCodecFactory();
+        CompressionCodecFactory foreign = new CompressionCodecFactory() {
+            @Override
+            public BytesInputCompressor getCompressor(CompressionCodecName codecName) {
+                return codecs.getCompressor(codecName);
+            }
+
+            @Override
+            public BytesInputDecompressor getDecompressor(CompressionCodecName codecName) {
+                return codecs.getDecompressor(codecName);
+            }
+
+            @Override
+            public void release() {
+                codecs.release();
+            }
+        };
+        AtomicLong prefetched = new AtomicLong();
+        try (RecordFileReader<Group> reader = RecordFileReader.builder(new NioInputFile(file), new GroupReadSupport())
+                .withOptions(ParquetDefaults.readOptions().withCodecFactory(foreign).build())
+                .withPrefetch(task -> {
+                    prefetched.incrementAndGet();
+                    task.run();
+                })
+                .build()) {
+            long count = 0;
+            while (reader.read() != null) {
+                count++;
+            }
+            assertEquals(ROWS, count);
+        }
+        assertEquals(0, prefetched.get());
+    }
+
+    @Test
+    void emitsOnDemand() {
+        AssertSubscriber<Group> subscriber = RecordFileReader.builder(new NioInputFile(file), new GroupReadSupport())
+                .multi()
+                .subscribe().withSubscriber(AssertSubscriber.create(10));
+        subscriber.awaitItems(10);
+        assertEquals(10, subscriber.getItems().size());
+        subscriber.request(Long.MAX_VALUE).awaitCompletion(Duration.ofSeconds(30));
+        assertEquals(ROWS, subscriber.getItems().size());
+        assertEquals(ROWS - 1, subscriber.getItems().get(ROWS - 1).getLong("id", 0));
+    }
+
+    @Test
+    void failsTheMultiWhenTheFileCannotBeOpened() {
+        AssertSubscriber<Group> subscriber = RecordFileReader
+                .builder(new NioInputFile(file.resolveSibling("missing.parquet")), new GroupReadSupport())
+                .multi()
+                .subscribe().withSubscriber(AssertSubscriber.create(1));
+        subscriber.awaitFailure();
+        assertThrows(AssertionError.class, subscriber::assertCompleted);
+    }
+
+    static final class TrackingAllocator implements ByteBufferAllocator {
+
+        final AtomicLong outstanding = new AtomicLong();
+        final AtomicLong peak = new AtomicLong();
+
+        @Override
+        public ByteBuffer allocate(int size) {
+            peak.accumulateAndGet(outstanding.addAndGet(size), Math::max);
+            return ByteBuffer.allocate(size);
+        }
+
+        @Override
+        public void release(ByteBuffer buffer) {
+            outstanding.addAndGet(-buffer.capacity());
+        }
+
+        @Override
+        public boolean isDirect() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.GroupWriter;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+import se.yolean.quarkus.parquet.runtime.query.QueryReader;
+
+class AdaptiveEncodingWriterTest {
+
+    private static final int ROWS = 100_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Telemetry {
+              required int64 time (TIMESTAMP(MILLIS,true));
+              required binary sensor (STRING);
+              required binary path (STRING);
+              required double reading;
+              required int64 nonce;
+              optional int32 unused;
+            }
+            """);
+
+    private final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+
+    @Test
+    void choosesAnEncodingPerColumn() throws Exception {
+        Path file = Files.createTempDirectory("quarkus-parquet-encoding").resolve("telemetry.parquet");
+        List<Group> rows = telemetry();
+        AdaptiveEncodingWriter<Group> writer = AdaptiveEncodingWriter.builder(new NioOutputFile(file), this::writer, new GroupSupport())
+                .build();
+        try (writer) {
+            for (Group row : rows) {
+                writer.write(row);
+                if (writer.encodings() == null) {
+                    assertEquals(0, writer.getDataSize(), "nothing is written while sampling");
+                }
+            }
+        }
+
+        EncodingPlan plan = writer.encodings();
+        assertEquals(EncodingPlan.Encoding.DELTA_BINARY_PACKED, plan.encoding("time"), plan.toString());
+        assertEquals(EncodingPlan.Encoding.DICTIONARY, plan.encoding("sensor"), plan.toString());
+        assertEquals(EncodingPlan.Encoding.DELTA_BYTE_ARRAY, plan.encoding("path"), plan.toString());
+        assertEquals(EncodingPlan.Encoding.BYTE_STREAM_SPLIT, plan.encoding("reading"), plan.toString());
+        assertEquals(EncodingPlan.Encoding.PLAIN, plan.encoding("nonce"), plan.toString());
+        assertNull(plan.encoding("unused"), "columns without values are left to Parquet");
+        assertEquals(1.0, plan.columns().get("time").ascending());
+        assertEquals(AdaptiveEncodingWriter.DEFAULT_SAMPLE_SIZE, plan.columns().get("sensor").values());
+        assertEquals(8, plan.columns().get("sensor").distinct());
+
+        Map<String, Set<Encoding>> encodings = encodings(file);
+        assertTrue(encodings.get("time").contains(Encoding.DELTA_BINARY_PACKED), encodings.toString());
+        assertTrue(encodings.get("sensor").contains(Encoding.PLAIN_DICTIONARY), encodings.toString());
+        assertTrue(encodings.get("path").contains(Encoding.DELTA_BYTE_ARRAY), encodings.toString());
+        assertTrue(encodings.get("reading").contains(Encoding.BYTE_STREAM_SPLIT), encodings.toString());
+        assertTrue(encodings.get("nonce").contains(Encoding.PLAIN), encodings.toString());
+        assertEquals(rows.stream().map(Group::toString).collect(Collectors.toList()), read(file));
+    }
+
+    @Test
+    void writesSmallerFilesThanTheDefaults() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-encoding");
+        List<Group> rows = telemetry();
+        Path defaults = directory.resolve("defaults.parquet");
+        try (ParquetWriter<Group> writer = writer(new NioOutputFile(defaults)).build()) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+        }
+        Path adaptive = directory.resolve("adaptive.parquet");
+        try (AdaptiveEncodingWriter<Group> writer = AdaptiveEncodingWriter.builder(new NioOutputFile(adaptive), this::writer,
+                new GroupSupport()).build()) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+        }
+
+        assertTrue(Files.size(adaptive) < Files.size(defaults) * 3 / 4, Files.size(adaptive) + " vs " + Files.size(defaults));
+    }
+
+    @Test
+    void plansFromFewerRecordsThanTheSample() throws Exception {
+        Path file = Files.createTempDirectory("quarkus-parquet-encoding").resolve("telemetry.parquet");
+        List<Group> rows = telemetry().subList(0, 10);
+        AdaptiveEncodingWriter<Group> writer = AdaptiveEncodingWriter.builder(new NioOutputFile(file), this::writer, new GroupSupport())
+                .build();
+        try (writer) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+            assertNull(writer.encodings());
+        }
+
+        assertNotNull(writer.encodings().encoding("time"));
+        assertEquals(rows.stream().map(Group::toString).collect(Collectors.toList()), read(file));
+    }
+
+    private ExampleParquetWriter.Builder writer(OutputFile file) {
+        return ParquetDefaults.configure(ExampleParquetWriter.builder(file))
+                .withType(SCHEMA)
+                .withCompressionCodec(CompressionCodecName.UNCOMPRESSED);
+    }
+
+    /**
+     * Readings of a few sensors every few milliseconds, with request paths sharing long prefixes.
+     */
+    private List<Group> telemetry() {
+        Random random = new Random(42);
+        List<Group> rows = new ArrayList<>();
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < ROWS; i++) {
+            time += random.nextInt(5);
+            rows.add(groups.newGroup()
+                    .append("time", time)
+                    .append("sensor", "sensor-" + random.nextInt(8))
+                    .append("path", String.format("/api/v1/devices/%08d/metrics", i))
+                    .append("reading", 20 + random.nextDouble() * 5)
+                    .append("nonce", random.nextLong()));
+        }
+        return rows;
+    }
+
+    private static Map<String, Set<Encoding>> encodings(Path file) throws IOException {
+        Map<String, Set<Encoding>> encodings = new HashMap<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            for (ColumnChunkMetaData column : reader.getRowGroups().get(0).getColumns()) {
+                encodings.put(column.getPath().toDotString(), column.getEncodings());
+            }
+        }
+        return encodings;
+    }
+
+    private static List<String> read(Path file) throws IOException {
+        try (QueryReader<Group> reader = ParquetQuery.all().open(new NioInputFile(file))) {
+            return reader.stream().map(Group::toString).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Writes groups of {@link #SCHEMA}, which {@code GroupWriteSupport} would read from the configuration.
+     */
+    private static final class GroupSupport extends WriteSupport<Group> {
+
+        private GroupWriter writer;
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return init((ParquetConfiguration) null);
+        }
+
+        @Override
+        public WriteContext init(ParquetConfiguration configuration) {
+            return new WriteContext(SCHEMA, Map.of());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            writer = new GroupWriter(recordConsumer, SCHEMA);
+        }
+
+        @Override
+        public void write(Group record) {
+            writer.write(record);
+        }
+    }
+}
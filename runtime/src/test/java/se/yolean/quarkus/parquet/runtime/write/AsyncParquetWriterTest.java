@@ -0,0 +1,214 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.mutiny.Uni;
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+import se.yolean.quarkus.parquet.runtime.query.QueryReader;
+
+class AsyncParquetWriterTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary text (STRING);
+            }
+            """);
+
+    private final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+
+    @Test
+    void writesEveryRecordInOrderAcrossRowGroups() throws Exception {
+        Path file = Files.createTempDirectory("quarkus-parquet-async").resolve("rows.parquet");
+        try (AsyncParquetWriter<Group> writer = builder(new NioOutputFile(file)).withQueueCapacity(100).build()) {
+            for (long i = 0; i < 50_000; i++) {
+                if (i % 1_000 == 0) {
+                    writer.writeAll(LongStream.range(i, i + 500).mapToObj(this::row).collect(Collectors.toList()))
+                            .await().atMost(Duration.ofSeconds(10));
+                    i += 499;
+                } else {
+                    writer.write(row(i));
+                }
+            }
+            writer.flush().await().atMost(Duration.ofSeconds(10));
+        }
+
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file))) {
+            assertTrue(reader.getRowGroups().size() > 2, "the file should span several row groups");
+        }
+        assertEquals(LongStream.range(0, 50_000).boxed().collect(Collectors.toList()), ids(file));
+    }
+
+    @Test
+    void callersWaitWhileTheQueueIsFull() throws Exception {
+        Path file = Files.createTempDirectory("quarkus-parquet-async").resolve("rows.parquet");
+        CountDownLatch started = new CountDownLatch(1);
+        // holds back the writer, so that nothing leaves the queue
+        Executor held = task -> new Thread(() -> {
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            task.run();
+        }).start();
+        AsyncParquetWriter<Group> writer = builder(new NioOutputFile(file)).withQueueCapacity(10).withExecutor(held).build();
+
+        for (long i = 0; i < 10; i++) {
+            writer.write(row(i));
+        }
+        CompletableFuture<Void> batch = writer.writeAll(List.of(row(10), row(11))).subscribeAsCompletionStage();
+        CompletableFuture<Void> single = CompletableFuture.runAsync(() -> {
+            try {
+                writer.write(row(12));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(batch.isDone());
+        assertFalse(single.isDone());
+        assertEquals(10, writer.queued());
+
+        started.countDown();
+        batch.get(10, TimeUnit.SECONDS);
+        single.get(10, TimeUnit.SECONDS);
+        writer.close();
+        List<Long> ids = ids(file);
+        assertEquals(13, ids.size());
+        assertEquals(LongStream.range(0, 10).boxed().collect(Collectors.toList()), ids.subList(0, 10));
+    }
+
+    @Test
+    void failuresReachPendingAndLaterCalls() throws Exception {
+        OutputFile failing = new FailingOutputFile(new NioOutputFile(
+                Files.createTempDirectory("quarkus-parquet-async").resolve("rows.parquet")));
+        AsyncParquetWriter<Group> writer = builder(failing).build();
+        writer.write(row(0));
+        Uni<Void> flushed = writer.flush();
+        IOException flushFailure = assertThrows(IOException.class, () -> {
+            try {
+                flushed.await().atMost(Duration.ofSeconds(10));
+            } catch (RuntimeException e) {
+                throw e.getCause() instanceof IOException io ? io : e;
+            }
+        });
+        assertTrue(flushFailure.getMessage().startsWith("Failed writing"), flushFailure.getMessage());
+        assertThrows(IOException.class, () -> writer.write(row(1)));
+        assertThrows(IOException.class, writer::close);
+    }
+
+    private AsyncParquetWriter.Builder<Group> builder(OutputFile file) {
+        return AsyncParquetWriter.builder(file, out -> ParquetDefaults.configure(ExampleParquetWriter.builder(out))
+                .withType(SCHEMA)
+                .withRowGroupSize(256 * 1024));
+    }
+
+    private Group row(long id) {
+        return groups.newGroup().append("id", id).append("text", "row number " + id);
+    }
+
+    private static List<Long> ids(Path file) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (QueryReader<Group> reader = ParquetQuery.all().open(new NioInputFile(file))) {
+            for (Group row = reader.read(); row != null; row = reader.read()) {
+                ids.add(row.getLong("id", 0));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Fails every write past the file header, and every flush.
+     */
+    private static final class FailingOutputFile implements OutputFile {
+
+        private final OutputFile file;
+
+        FailingOutputFile(OutputFile file) {
+            this.file = file;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) throws IOException {
+            return failing(file.create(blockSizeHint));
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+            return failing(file.createOrOverwrite(blockSizeHint));
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return file.defaultBlockSize();
+        }
+
+        private static PositionOutputStream failing(PositionOutputStream out) {
+            return new PositionOutputStream() {
+                @Override
+                public long getPos() throws IOException {
+                    return out.getPos();
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] { (byte) b }, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    if (out.getPos() > 4) {
+                        throw new IOException("disk full");
+                    }
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    throw new IOException("disk full");
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.close();
+                }
+            };
+        }
+    }
+}
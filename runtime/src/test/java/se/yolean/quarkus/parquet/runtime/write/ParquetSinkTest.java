@@ -0,0 +1,224 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+import se.yolean.quarkus.parquet.runtime.query.QueryReader;
+
+class ParquetSinkTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Event {
+              required int64 id;
+              optional binary region (STRING);
+              required binary text (STRING);
+            }
+            """);
+
+    private final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+
+    @Test
+    void rollsByRowCountAndRenamesOnClose() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sink");
+        List<Path> committed = new ArrayList<>();
+        try (ParquetSink<Group> sink = builder(directory).withMaxRows(1_000).withCommitListener(committed::add).build()) {
+            for (long i = 0; i < 2_500; i++) {
+                sink.write(event(i, "eu"));
+            }
+            assertEquals(2, committed.size());
+            assertEquals(1, temporaryFiles(directory).size(), "the third file is still being written");
+        }
+        assertEquals(3, committed.size());
+        assertEquals(committed.stream().sorted().collect(Collectors.toList()), files(directory));
+        assertEquals(List.of(), temporaryFiles(directory));
+        List<Long> ids = new ArrayList<>();
+        for (Path file : committed) {
+            ids.addAll(ids(file));
+        }
+        assertEquals(LongStream.range(0, 2_500).boxed().collect(Collectors.toList()), ids);
+        assertEquals(1_000, ids(committed.get(0)).size());
+    }
+
+    @Test
+    void rollsBySize() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sink");
+        try (ParquetSink<Group> sink = builder(directory).withMaxFileSize(64 * 1024).build()) {
+            for (long i = 0; i < 20_000; i++) {
+                sink.write(event(i, "eu"));
+            }
+        }
+        List<Path> files = files(directory);
+        assertTrue(files.size() > 3, files.toString());
+        long rows = 0;
+        for (Path file : files.subList(0, files.size() - 1)) {
+            long size = Files.size(file);
+            assertTrue(size > 16 * 1024 && size < 96 * 1024, file + ": " + size);
+            rows += ids(file).size();
+        }
+        rows += ids(files.get(files.size() - 1)).size();
+        assertEquals(20_000, rows);
+    }
+
+    @Test
+    void writesHivePartitions() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sink");
+        try (ParquetSink<Group> sink = builder(directory)
+                .withPartition("region", row -> row.getFieldRepetitionCount("region") == 0 ? null : row.getString("region", 0))
+                .withPartition("bucket", row -> row.getLong("id", 0) % 2)
+                .build()) {
+            for (long i = 0; i < 100; i++) {
+                sink.write(event(i, i % 5 == 0 ? null : i % 5 == 1 ? "a/b=c" : "eu"));
+            }
+        }
+        List<String> partitions = files(directory).stream()
+                .map(file -> directory.relativize(file.getParent()).toString())
+                .collect(Collectors.toList());
+        assertEquals(List.of(
+                "region=__HIVE_DEFAULT_PARTITION__/bucket=0",
+                "region=__HIVE_DEFAULT_PARTITION__/bucket=1",
+                "region=a%2Fb%3Dc/bucket=0",
+                "region=a%2Fb%3Dc/bucket=1",
+                "region=eu/bucket=0",
+                "region=eu/bucket=1"), partitions);
+        for (Path file : files(directory)) {
+            assertEquals(List.of(), ids(file).stream()
+                    .filter(id -> !file.getParent().endsWith("bucket=" + id % 2))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void keepsAtMostMaxOpenFiles() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sink");
+        List<Path> committed = new ArrayList<>();
+        try (ParquetSink<Group> sink = builder(directory)
+                .withPartition("region", row -> row.getString("region", 0))
+                .withMaxOpenFiles(2)
+                .withCommitListener(committed::add)
+                .build()) {
+            for (long i = 0; i < 30; i++) {
+                sink.write(event(i, "r" + i % 3));
+                assertTrue(sink.openFiles() <= 2);
+                assertTrue(temporaryFiles(directory).size() <= 2);
+            }
+        }
+        assertEquals(30, committed.size(), "each write goes to the partition closed least recently");
+        long rows = 0;
+        for (Path file : committed) {
+            rows += ids(file).size();
+        }
+        assertEquals(30, rows);
+    }
+
+    @Test
+    void rollsByAge() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sink");
+        AtomicLong now = new AtomicLong();
+        Clock clock = new Clock() {
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+        };
+        try (ParquetSink<Group> sink = builder(directory)
+                .withPartition("region", row -> row.getString("region", 0))
+                .withMaxFileAge(Duration.ofMinutes(1))
+                .withClock(clock)
+                .build()) {
+            sink.write(event(0, "eu"));
+            now.addAndGet(30_000);
+            sink.write(event(1, "us"));
+            assertEquals(0, sink.rollExpired());
+            now.addAndGet(30_000);
+            assertEquals(1, sink.rollExpired());
+            assertEquals(1, files(directory).size());
+
+            sink.write(event(2, "us"));
+            now.addAndGet(30_000);
+            sink.write(event(3, "us"));
+            assertEquals(2, files(directory).size(), "the write rolled the expired file first");
+            assertEquals(1, sink.openFiles());
+        }
+        assertEquals(3, files(directory).size());
+    }
+
+    @Test
+    void rejectsWritesAfterClose() throws Exception {
+        ParquetSink<Group> sink = builder(Files.createTempDirectory("quarkus-parquet-sink")).build();
+        sink.close();
+        assertThrows(IllegalStateException.class, () -> sink.write(event(0, "eu")));
+    }
+
+    private ParquetSink.Builder<Group> builder(Path directory) {
+        return ParquetSink.builder(directory, out -> ParquetDefaults.configure(ExampleParquetWriter.builder(out))
+                .withType(SCHEMA)
+                .withRowGroupSize(32 * 1024)
+                .withDictionaryEncoding(false));
+    }
+
+    private Group event(long id, String region) {
+        Group event = groups.newGroup().append("id", id);
+        if (region != null) {
+            event.append("region", region);
+        }
+        return event.append("text", "event number " + id);
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".parquet")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static List<Path> temporaryFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(ParquetSink.TEMP_SUFFIX)).collect(Collectors.toList());
+        }
+    }
+
+    private static List<Long> ids(Path file) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (QueryReader<Group> reader = ParquetQuery.all().open(new NioInputFile(file))) {
+            for (Group row = reader.read(); row != null; row = reader.read()) {
+                ids.add(row.getLong("id", 0));
+            }
+        }
+        return ids;
+    }
+}
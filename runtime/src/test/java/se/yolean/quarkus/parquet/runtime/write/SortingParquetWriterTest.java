@@ -0,0 +1,228 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.and;
+import static org.apache.parquet.filter2.predicate.FilterApi.gtEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.GroupWriter;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+import se.yolean.quarkus.parquet.runtime.query.ParquetQuery;
+import se.yolean.quarkus.parquet.runtime.query.QueryReader;
+import se.yolean.quarkus.parquet.runtime.query.QueryStats;
+
+class SortingParquetWriterTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required int64 sequence;
+              optional binary region (STRING);
+            }
+            """);
+
+    private final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+
+    @Test
+    void sortsInMemoryWithoutSpilling() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sort");
+        Path file = directory.resolve("rows.parquet");
+        List<Group> rows = rows(10_000, 1_000_000);
+        SortingParquetWriter<Group> writer = builder(file, directory).withSortColumns("id").build();
+        try (writer) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+        }
+
+        assertEquals(0, writer.spills());
+        assertEquals(sorted(rows, Comparator.comparingLong(row -> row.getLong("id", 0))), read(file));
+    }
+
+    @Test
+    void spillsRunsAndMergesThemInPasses() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sort");
+        Path file = directory.resolve("rows.parquet");
+        // few distinct ids, so that equal keys span runs
+        List<Group> rows = rows(50_000, 1_000);
+        SortingParquetWriter<Group> writer = builder(file, directory).withSortColumns("id")
+                .withMaxBufferSize(256 * 1024)
+                .withMaxMergeWidth(3)
+                .build();
+        try (writer) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+        }
+
+        assertTrue(writer.spills() > 3, "should spill more runs than are merged at a time: " + writer.spills());
+        assertEquals(sorted(rows, Comparator.comparingLong(row -> row.getLong("id", 0))), read(file),
+                "rows with equal ids keep the order they were written in");
+        assertEquals(List.of(file), list(directory), "runs are deleted");
+    }
+
+    @Test
+    void sortsNullsFirstThenByTheComparator() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sort");
+        Path file = directory.resolve("rows.parquet");
+        List<Group> rows = new ArrayList<>();
+        Random random = new Random(7);
+        for (long sequence = 0; sequence < 5_000; sequence++) {
+            Group row = groups.newGroup().append("id", (long) random.nextInt(100)).append("sequence", sequence);
+            int region = random.nextInt(4);
+            if (region > 0) {
+                row.append("region", "region-" + region);
+            }
+            rows.add(row);
+        }
+        try (SortingParquetWriter<Group> writer = builder(file, directory).withSortColumns("region")
+                .withComparator(Comparator.comparingLong(row -> -row.getLong("id", 0)))
+                .withMaxBufferSize(64 * 1024)
+                .build()) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+        }
+
+        Comparator<Group> regions = Comparator.comparing(row -> row.getFieldRepetitionCount("region") == 0 ? "" : row.getString("region", 0));
+        assertEquals(sorted(rows, regions.thenComparingLong(row -> -row.getLong("id", 0))), read(file));
+    }
+
+    @Test
+    void rejectsColumnsItCannotSortBy() {
+        Path file = Path.of("rows.parquet");
+        assertThrows(IllegalArgumentException.class, () -> builder(file, file).build());
+        assertThrows(IllegalArgumentException.class, () -> builder(file, file).withSortColumns("missing").build());
+    }
+
+    @Test
+    void sortingLetsRangeQueriesSkipPages() throws Exception {
+        Path directory = Files.createTempDirectory("quarkus-parquet-sort");
+        List<Group> rows = rows(200_000, 1_000_000_000);
+        Path unsorted = directory.resolve("unsorted.parquet");
+        try (ParquetWriter<Group> writer = writer(new NioOutputFile(unsorted)).build()) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+        }
+        Path sorted = directory.resolve("sorted.parquet");
+        try (SortingParquetWriter<Group> writer = builder(sorted, directory).withSortColumns("id")
+                .withMaxBufferSize(4 * 1024 * 1024)
+                .build()) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+        }
+
+        // about a thousandth of the rows
+        ParquetQuery query = ParquetQuery.select("id").where(and(gtEq(longColumn("id"), 400_000_000L), lt(longColumn("id"), 401_000_000L)));
+        QueryStats withoutSorting = query(query, unsorted);
+        QueryStats withSorting = query(query, sorted);
+        assertEquals(withoutSorting.rowsMatched(), withSorting.rowsMatched());
+        assertTrue(withoutSorting.pagesSkipped() < withoutSorting.pages() / 10, withoutSorting.toString());
+        assertTrue(withSorting.pagesSkipped() > withSorting.pages() * 9 / 10, withSorting.toString());
+    }
+
+    private SortingParquetWriter.Builder<Group> builder(Path file, Path spillDirectory) {
+        return SortingParquetWriter.builder(new NioOutputFile(file), this::writer, new GroupSupport(), new GroupReadSupport())
+                .withSpillDirectory(spillDirectory);
+    }
+
+    private ExampleParquetWriter.Builder writer(OutputFile file) {
+        return ParquetDefaults.configure(ExampleParquetWriter.builder(file))
+                .withType(SCHEMA)
+                .withPageRowCountLimit(1_000);
+    }
+
+    private List<Group> rows(int count, int ids) {
+        Random random = new Random(42);
+        List<Group> rows = new ArrayList<>();
+        for (long sequence = 0; sequence < count; sequence++) {
+            rows.add(groups.newGroup().append("id", (long) random.nextInt(ids)).append("sequence", sequence)
+                    .append("region", "region-" + sequence % 3));
+        }
+        return rows;
+    }
+
+    private static List<String> sorted(List<Group> rows, Comparator<Group> order) {
+        return rows.stream().sorted(order).map(Group::toString).collect(Collectors.toList());
+    }
+
+    private static List<String> read(Path file) throws IOException {
+        try (QueryReader<Group> reader = ParquetQuery.all().open(new NioInputFile(file))) {
+            return reader.stream().map(Group::toString).collect(Collectors.toList());
+        }
+    }
+
+    private static QueryStats query(ParquetQuery query, Path file) throws IOException {
+        try (QueryReader<Group> reader = query.open(new NioInputFile(file))) {
+            reader.stream().forEach(row -> {
+            });
+            return reader.stats();
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Writes groups of {@link #SCHEMA}, which {@code GroupWriteSupport} would read from the configuration.
+     */
+    private static final class GroupSupport extends WriteSupport<Group> {
+
+        private GroupWriter writer;
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return init((ParquetConfiguration) null);
+        }
+
+        @Override
+        public WriteContext init(ParquetConfiguration configuration) {
+            return new WriteContext(SCHEMA, Map.of());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            writer = new GroupWriter(recordConsumer, SCHEMA);
+        }
+
+        @Override
+        public void write(Group record) {
+            writer.write(record);
+        }
+    }
+}
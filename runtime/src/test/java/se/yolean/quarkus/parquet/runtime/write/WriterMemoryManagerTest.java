@@ -0,0 +1,123 @@
+package se.yolean.quarkus.parquet.runtime.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import se.yolean.quarkus.parquet.runtime.ParquetDefaults;
+import se.yolean.quarkus.parquet.runtime.io.NioInputFile;
+import se.yolean.quarkus.parquet.runtime.io.NioOutputFile;
+
+class WriterMemoryManagerTest {
+
+    private static final int ROWS = 40_000;
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message Row {
+              required int64 id;
+              required binary text (STRING);
+            }
+            """);
+
+    private final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+
+    @Test
+    void scalesRowGroupSizesBeyondTheBudget() throws Exception {
+        WriterMemoryManager manager = new WriterMemoryManager(2 * 1024 * 1024, 256 * 1024);
+        List<Path> files = write(manager, 8, 2 * 1024 * 1024);
+
+        WriterMemoryManager.Stats stats = manager.stats();
+        assertEquals(0, stats.writers());
+        assertEquals(0, stats.buffered());
+        for (Path file : files) {
+            List<BlockMetaData> rowGroups = rowGroups(file);
+            assertTrue(rowGroups.size() > 2, file + " should have row groups of a quarter of the requested size");
+            for (BlockMetaData rowGroup : rowGroups) {
+                assertTrue(rowGroup.getTotalByteSize() < 320 * 1024, "row group of " + rowGroup.getTotalByteSize());
+            }
+            assertEquals(ROWS, rowGroups.stream().mapToLong(BlockMetaData::getRowCount).sum());
+        }
+    }
+
+    @Test
+    void flushesTheLargestRowGroupsUnderPressure() throws Exception {
+        // row groups cannot be scaled below the budget, so only early flushes keep within it
+        WriterMemoryManager manager = new WriterMemoryManager(1024 * 1024, 1024 * 1024);
+        List<Path> files = write(manager, 4, 8 * 1024 * 1024);
+
+        assertTrue(manager.stats().forcedFlushes() > 0, manager.stats().toString());
+        for (Path file : files) {
+            assertEquals(ROWS, rowGroups(file).stream().mapToLong(BlockMetaData::getRowCount).sum());
+        }
+    }
+
+    @Test
+    void leavesWritersAloneWhenDisabled() throws Exception {
+        WriterMemoryManager manager = new WriterMemoryManager(0);
+        Path file = Files.createTempDirectory("quarkus-parquet-memory").resolve("rows.parquet");
+        try (ParquetWriter<Group> writer = writer(file, 8 * 1024 * 1024)) {
+            assertSame(WriterMemoryManager.Lease.NONE, manager.register(writer));
+        }
+        assertEquals(new WriterMemoryManager.Stats(0, 0, 0, 0, 0), manager.stats());
+    }
+
+    /**
+     * Writes {@link #ROWS} rows to each of {@code count} writers in turn, checking the buffered size stays
+     * within the budget and what the writers write between two checks.
+     */
+    private List<Path> write(WriterMemoryManager manager, int count, long rowGroupSize) throws IOException {
+        Path directory = Files.createTempDirectory("quarkus-parquet-memory");
+        List<Path> files = new ArrayList<>();
+        List<ParquetWriter<Group>> writers = new ArrayList<>();
+        List<WriterMemoryManager.Lease> leases = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(directory.resolve(i + ".parquet"));
+            writers.add(writer(files.get(i), rowGroupSize));
+            leases.add(manager.register(writers.get(i)));
+        }
+        assertEquals(count, manager.stats().writers());
+        assertEquals(count * rowGroupSize, manager.stats().requested());
+        long slack = count * 2L * WriterMemoryManager.CHECK_INTERVAL * 64;
+        for (long id = 0; id < ROWS; id++) {
+            for (int i = 0; i < count; i++) {
+                writers.get(i).write(groups.newGroup().append("id", id).append("text", "row number " + id));
+                leases.get(i).afterWrite();
+            }
+            assertTrue(manager.buffered() <= manager.stats().maxSize() + slack, manager.stats().toString());
+        }
+        for (int i = 0; i < count; i++) {
+            writers.get(i).close();
+            leases.get(i).close();
+        }
+        return files;
+    }
+
+    private static ParquetWriter<Group> writer(Path file, long rowGroupSize) throws IOException {
+        return ParquetDefaults.configure(ExampleParquetWriter.builder(new NioOutputFile(file)))
+                .withType(SCHEMA)
+                .withRowGroupSize(rowGroupSize)
+                .withDictionaryEncoding(false)
+                .build();
+    }
+
+    private static List<BlockMetaData> rowGroups(Path file) throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(new NioInputFile(file), ParquetDefaults.readOptions().build())) {
+            return reader.getRowGroups();
+        }
+    }
+}